@@ -0,0 +1,60 @@
+/*
+ * JMH benchmarks for the lib project.
+ *
+ * Run all of them with ./gradlew :benchmarks:jmh
+ * or a subset with ./gradlew :benchmarks:jmh -Pjmh.includes=StageBenchmark
+ * on more threads with ./gradlew :benchmarks:jmh -Pjmh.includes=ScalingBenchmark -Pjmh.threads=8
+ *
+ * Sweep thread counts, including virtual threads on Java 21 or later, with ./gradlew :benchmarks:scaling -Pscaling.java=21
+ * Measure cold starts in fresh JVMs with ./gradlew :benchmarks:coldStart --args="20 5 ISO -Xshare:auto"
+ */
+
+plugins {
+    java
+    // Use this plugin to run JMH benchmarks : https://github.com/melix/jmh-gradle-plugin
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    // Use Maven Central for resolving dependencies.
+    mavenCentral()
+}
+
+dependencies {
+    // The benchmarks live in the lib package so they can reach the package-private parsing stages.
+    implementation(project(":lib"))
+    implementation(testFixtures(project(":lib")))
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+    (project.findProperty("jmh.threads") as String?)?.let { threads.set(it.toInt()) }
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
+
+tasks.register<JavaExec>("scaling") {
+    group = "benchmark"
+    description = "Measures parser throughput and tail latency from one thread to many virtual threads."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.lemmingapex.rosemary.ScalingHarness")
+    (project.findProperty("scaling.java") as String?)?.let { version ->
+        javaLauncher.set(javaToolchains.launcherFor { languageVersion.set(JavaLanguageVersion.of(version)) })
+    }
+}
+
+tasks.register<JavaExec>("coldStart") {
+    group = "benchmark"
+    description = "Measures startup, first parse and warm-up costs in fresh JVMs."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("com.lemmingapex.rosemary.ColdStartHarness")
+}
@@ -0,0 +1,78 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to tokenize and parse long, pathological inputs, such as thousands of dashes, slashes or parentheses.  The time per character should be about the same at every length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdversarialBenchmark {
+
+	/**
+	 * Shapes of input, each a unit repeated to the length.
+	 */
+	public enum Shape {
+		DASHES("-"),
+		SLASHES("0/"),
+		PARENTHESES("("),
+		SPACES(" "),
+		LETTER_DASHES("a-"),
+		DIGIT_DASHES("0-"),
+		COLONS("0:"),
+		DIGITS("1"),
+		LETTERS("a");
+
+		final String unit;
+
+		Shape(String unit) {
+			this.unit = unit;
+		}
+	}
+
+	@Param
+	Shape shape;
+
+	@Param({ "64", "1024", "16384", "262144" })
+	int length;
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private RosemaryDateTimeParser defaultParser;
+	private String input;
+
+	@Setup
+	public void setUp() {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, null, Integer.MAX_VALUE);
+		defaultParser = new RosemaryDateTimeParser();
+		input = "1" + shape.unit.repeat(Math.max(1, (length - 2) / shape.unit.length())) + "1";
+	}
+
+	@Benchmark
+	public RosemaryTokenizer tokenize() {
+		return RosemaryTokenizer.tokenize(input);
+	}
+
+	@Benchmark
+	public Object parse() {
+		return ScalingBenchmark.parse(rosemaryDateTimeParser, input);
+	}
+
+	/**
+	 * Refused by the default maximum input length before any work is done, except at the shortest length.
+	 */
+	@Benchmark
+	public Object parseWithDefaultMaximum() {
+		return ScalingBenchmark.parse(defaultParser, input);
+	}
+}
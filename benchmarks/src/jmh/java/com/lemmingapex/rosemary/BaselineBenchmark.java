@@ -0,0 +1,81 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The built-in pattern based parsers on the same strings as Rosemary, as a yardstick for what a parser that is told the format costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BaselineBenchmark {
+
+	private static final String ISO = "2008-03-05T07:02:10.123-05:00";
+	private static final String SPACED = "2008-03-05 07:02:10.123";
+	private static final String US = "3/5/2008 7:02 PM";
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private DateTimeFormatter spacedFormatter;
+	private DateTimeFormatter usFormatter;
+	private SimpleDateFormat spacedFormat;
+
+	@Setup
+	public void setUp() {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		spacedFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(TimeZone.getTimeZone("UTC").toZoneId());
+		usFormatter = DateTimeFormatter.ofPattern("M/d/yyyy h:mm a").withZone(TimeZone.getTimeZone("UTC").toZoneId());
+		// SimpleDateFormat isn't thread-safe, so every benchmark thread has its own
+		spacedFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		spacedFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	@Benchmark
+	public OffsetDateTime dateTimeFormatterIso() {
+		return OffsetDateTime.parse(ISO, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+	}
+
+	@Benchmark
+	public OffsetDateTime rosemaryIso() throws RosemaryDateTimeException {
+		return rosemaryDateTimeParser.parse(ISO);
+	}
+
+	@Benchmark
+	public OffsetDateTime dateTimeFormatterSpaced() {
+		return ZonedDateTime.parse(SPACED, spacedFormatter).toOffsetDateTime();
+	}
+
+	@Benchmark
+	public Date simpleDateFormatSpaced() throws ParseException {
+		return spacedFormat.parse(SPACED);
+	}
+
+	@Benchmark
+	public OffsetDateTime rosemarySpaced() throws RosemaryDateTimeException {
+		return rosemaryDateTimeParser.parse(SPACED);
+	}
+
+	@Benchmark
+	public OffsetDateTime dateTimeFormatterUs() {
+		return ZonedDateTime.parse(US, usFormatter).toOffsetDateTime();
+	}
+
+	@Benchmark
+	public OffsetDateTime rosemaryUs() throws RosemaryDateTimeException {
+		return rosemaryDateTimeParser.parse(US);
+	}
+}
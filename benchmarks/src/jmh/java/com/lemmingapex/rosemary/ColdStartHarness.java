@@ -0,0 +1,181 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the first parses cost in a fresh JVM, as a serverless function or command line tool pays them.  Each fork runs {@link Probe} once, and the results are summarized across forks.
+ * <p>
+ * A fork times, in order: getting the {@link TimeZoneUtils} map, constructing the parser, the first call down each path through the parser, the first 1,000 parses, and how long it takes the time per parse to settle.  Costs shared between paths, like loading the parser's classes, land on the first path, so the first path can be chosen.
+ * <p>
+ * Usage: <code>ColdStartHarness [forks] [steadyStateSeconds] [firstPath] [jvmOption...]</code>
+ */
+public class ColdStartHarness {
+
+	/**
+	 * One input for each path through the parser.  These are literals, rather than generated, so nothing is loaded or compiled before they are parsed.
+	 */
+	static final Map<String, String> FIRST_CALLS = new LinkedHashMap<>();
+	static {
+		FIRST_CALLS.put("ISO", "2008-03-05 07:02:10");
+		FIRST_CALLS.put("ISO_T", "2008-03-05T07:02:10Z");
+		FIRST_CALLS.put("US_SLASHES", "3/5/2008 7:02 PM");
+		FIRST_CALLS.put("MONTH_NAMES", "Wednesday, March 05 2008");
+		FIRST_CALLS.put("ORDINALS", "March Fifth 2008");
+		FIRST_CALLS.put("NAMED_ZONES", "2019-03-05 07:02:30 America/Denver");
+		FIRST_CALLS.put("OFFSETS", "03-05 2008 7:02:10 -05:00");
+		FIRST_CALLS.put("EPOCH", "1204675245123");
+		FIRST_CALLS.put("FAILURES", "N/A");
+	}
+
+	private static final int FIRST_PARSES = 1000;
+	private static final int BATCH = 1000;
+	private static final double SETTLED = 1.1;
+
+	/**
+	 * Runs in the forked JVM and prints one <code>name=nanoseconds</code> line per measurement.
+	 */
+	public static final class Probe {
+
+		public static void main(String[] args) {
+			final long mainEntered = System.nanoTime();
+			final long mainEnteredMillis = System.currentTimeMillis();
+			final long steadyStateNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(args[0]));
+			final String firstPath = args[1];
+			final StringBuilder out = new StringBuilder();
+
+			long start = System.nanoTime();
+			TimeZoneUtils.getTimezoneNameToTimezoneMap();
+			long end = System.nanoTime();
+			out.append("timeZoneUtils=").append(end - start).append('\n');
+
+			start = end;
+			final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+			end = System.nanoTime();
+			out.append("construction=").append(end - start).append('\n');
+
+			final List<String> paths = new ArrayList<>(FIRST_CALLS.keySet());
+			paths.remove(firstPath);
+			paths.add(0, firstPath);
+			final String[] inputs = new String[paths.size()];
+			for (int i = 0; i < inputs.length; i++) {
+				inputs[i] = FIRST_CALLS.get(paths.get(i));
+			}
+
+			// the first parse is also the first of the first 1,000
+			final long firstParsesStart = System.nanoTime();
+			for (int i = 0; i < inputs.length; i++) {
+				start = System.nanoTime();
+				ScalingBenchmark.parse(rosemaryDateTimeParser, inputs[i]);
+				end = System.nanoTime();
+				out.append("firstCall.").append(paths.get(i)).append('=').append(end - start).append('\n');
+				if (i == 0) {
+					out.append("mainToFirstParse=").append(end - mainEntered).append('\n');
+				}
+			}
+			for (int i = inputs.length; i < FIRST_PARSES; i++) {
+				ScalingBenchmark.parse(rosemaryDateTimeParser, inputs[i % inputs.length]);
+			}
+			end = System.nanoTime();
+			out.append("firstParses=").append(end - firstParsesStart).append('\n');
+
+			// time batches of parses until the time runs out, then find when the time per parse settled
+			final List<long[]> batches = new ArrayList<>();
+			final long steadyStateStart = end;
+			int next = 0;
+			while (end - steadyStateStart < steadyStateNanos) {
+				start = end;
+				for (int i = 0; i < BATCH; i++) {
+					ScalingBenchmark.parse(rosemaryDateTimeParser, inputs[next++ % inputs.length]);
+				}
+				end = System.nanoTime();
+				batches.add(new long[] { end - start, end - firstParsesStart });
+			}
+			final long[] lastBatches = batches.subList(batches.size() - Math.max(1, batches.size() / 5), batches.size()).stream().mapToLong(batch -> batch[0]).sorted().toArray();
+			final long steadyBatch = lastBatches[lastBatches.length / 2];
+			int settled = 0;
+			while (settled < batches.size() - 1 && batches.get(settled)[0] > steadyBatch * SETTLED) {
+				settled++;
+			}
+			out.append("steadyStateParse=").append(steadyBatch / BATCH).append('\n');
+			out.append("timeToSteadyState=").append(batches.get(settled)[1]).append('\n');
+			out.append("parsesToSteadyState=").append(FIRST_PARSES + (long) (settled + 1) * BATCH).append('\n');
+
+			// read last, loading the management classes is not free
+			out.append("jvmStartToMain=").append(TimeUnit.MILLISECONDS.toNanos(mainEnteredMillis - ManagementFactory.getRuntimeMXBean().getStartTime())).append('\n');
+			System.out.print(out);
+		}
+	}
+
+	static Map<String, Long> fork(List<String> jvmOptions, long steadyStateSeconds, String firstPath) throws IOException, InterruptedException {
+		final List<String> command = new ArrayList<>();
+		command.add(ProcessHandle.current().info().command().orElse("java"));
+		command.addAll(jvmOptions);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(Probe.class.getName());
+		command.add(Long.toString(steadyStateSeconds));
+		command.add(firstPath);
+
+		final long start = System.nanoTime();
+		final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+		final Map<String, Long> measurements = new LinkedHashMap<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				final int equals = line.indexOf('=');
+				if (equals > 0) {
+					measurements.put(line.substring(0, equals), Long.parseLong(line.substring(equals + 1)));
+				}
+			}
+		}
+		if (process.waitFor() != 0) {
+			throw new IllegalStateException("Fork exited with " + process.exitValue());
+		}
+		measurements.put("processWallTime", System.nanoTime() - start);
+		return measurements;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		final int forks = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		final long steadyStateSeconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+		final String firstPath = args.length > 2 ? args[2] : "ISO";
+		if (!FIRST_CALLS.containsKey(firstPath)) {
+			throw new IllegalArgumentException("Unknown path " + firstPath + ", expected one of " + FIRST_CALLS.keySet());
+		}
+		final List<String> jvmOptions = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : List.of();
+
+		final Map<String, List<Long>> results = new LinkedHashMap<>();
+		for (int i = 0; i < forks; i++) {
+			for (final Map.Entry<String, Long> measurement : fork(jvmOptions, steadyStateSeconds, firstPath).entrySet()) {
+				results.computeIfAbsent(measurement.getKey(), key -> new ArrayList<>()).add(measurement.getValue());
+			}
+		}
+
+		System.out.println(forks + " forks, " + firstPath + " first" + (jvmOptions.isEmpty() ? "" : ", " + String.join(" ", jvmOptions)) + ", times in milliseconds except counts");
+		System.out.println(String.format(Locale.ROOT, "%-24s %12s %12s %12s", "measurement", "min", "median", "max"));
+		for (final Map.Entry<String, List<Long>> result : results.entrySet()) {
+			final List<Long> values = result.getValue();
+			Collections.sort(values);
+			final boolean count = result.getKey().startsWith("parses");
+			System.out.println(String.format(Locale.ROOT, "%-24s %12s %12s %12s", result.getKey(), format(values.get(0), count), format(values.get(values.size() / 2), count), format(values.get(values.size() - 1), count)));
+		}
+	}
+
+	private static String format(long value, boolean count) {
+		return count ? Long.toString(value) : String.format(Locale.ROOT, "%.3f", value / 1e6);
+	}
+}
@@ -0,0 +1,86 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a {@link RosemaryCompiledParser} compiled from the first input of a family, against {@link RosemaryDateTimeParser#parse(String)} on the same inputs.  Inputs that don't have the layout of the first, like the <code>UTC</code> and <code>GMT</code> among the named zones, are given to the engine, as a caller would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompiledParserBenchmark {
+
+	static final int INPUTS = 1024;
+
+	@Param({"ISO", "US_SLASHES", "MONTH_NAMES", "NAMED_ZONES"})
+	InputFamily family;
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private RosemaryCompiledParser compiledParser;
+	private String[] inputs;
+
+	@Setup
+	public void setUp() throws RosemaryDateTimeException {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		inputs = family.inputs(INPUTS);
+		compiledParser = rosemaryDateTimeParser.compileFromExample(inputs[0], RosemaryDateOrder.MM_DD_YY);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parse(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(rosemaryDateTimeParser.parse(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseCompiled(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(compiledParser.parse(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(parseWithEngine(input, e));
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseCompiledEpochMillis(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(compiledParser.parseEpochMillis(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(parseWithEngine(input, e));
+			}
+		}
+	}
+
+	private Object parseWithEngine(String input, RosemaryDateTimeException e) {
+		if (e.getReason() != RosemaryFailureReason.LAYOUT_MISMATCH) {
+			return e;
+		}
+		try {
+			return rosemaryDateTimeParser.parse(input);
+		} catch (RosemaryDateTimeException engineException) {
+			return engineException;
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RosemaryDateTimeParser} over a corpus with a realistic mix of forms, rather than one {@link InputFamily} at a time.
+ * <p>
+ * The corpus is read from <code>corpusFile</code> when it is set, so runs can be compared on exactly the same inputs; otherwise it is generated from the seed and mix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CorpusBenchmark {
+
+	static final int INPUTS = 16384;
+
+	@Param("")
+	String corpusFile;
+
+	@Param("42")
+	long seed;
+
+	@Param({ "", "ISO_8601=6,EPOCH_MILLIS=2,NUMERIC_DATE_TIME=1,INVALID=1" })
+	String mix;
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private String[] inputs;
+	private RosemaryDateOrder[] orders;
+
+	@Setup
+	public void setUp() throws IOException {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<RosemaryCorpusEntry> entries;
+		if (corpusFile.isEmpty()) {
+			entries = new RosemaryCorpusGenerator(seed, mix.isEmpty() ? RosemaryCorpusGenerator.evenMix() : RosemaryCorpusGenerator.parseMix(mix)).next(INPUTS);
+		} else {
+			entries = RosemaryCorpusFile.read(Path.of(corpusFile));
+		}
+		inputs = new String[INPUTS];
+		orders = new RosemaryDateOrder[INPUTS];
+		for (int i = 0; i < INPUTS; i++) {
+			final RosemaryCorpusEntry entry = entries.get(i % entries.size());
+			inputs[i] = entry.getInput();
+			orders[i] = entry.getOrder();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parse(Blackhole blackhole) {
+		for (int i = 0; i < INPUTS; i++) {
+			try {
+				blackhole.consume(rosemaryDateTimeParser.parse(inputs[i], orders[i]));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RosemaryDateExtractor} over documents of prose with datetimes mixed in, up to several megabytes, and over documents of nothing but datetimes.  Divide the document size by the time per operation for bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExtractorBenchmark {
+
+	private static final String[] WORDS = { "the", "meeting", "was", "moved", "to", "and", "then", "again", "because", "of", "traffic", "on", "Main", "Street", "we", "will", "call", "you", "1400", "units", "shipped" };
+
+	/**
+	 * approximate size of the document in characters.
+	 */
+	@Param({ "1000", "100000", "4000000" })
+	int documentSize;
+
+	/**
+	 * how many words of prose there are for each datetime, 0 for a document dense with datetimes.
+	 */
+	@Param({ "0", "10", "100" })
+	int wordsPerDateTime;
+
+	private RosemaryDateExtractor rosemaryDateExtractor;
+	private String document;
+
+	@Setup
+	public void setUp() {
+		rosemaryDateExtractor = new RosemaryDateExtractor();
+		final Random random = new Random(42);
+		final String[] dateTimes = InputFamily.MONTH_NAMES.inputs(64);
+		final String[] isoDateTimes = InputFamily.ISO.inputs(64);
+		final StringBuilder text = new StringBuilder(documentSize + 64);
+		while (text.length() < documentSize) {
+			for (int i = 0; i < wordsPerDateTime; i++) {
+				text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+			}
+			text.append(random.nextBoolean() ? dateTimes[random.nextInt(dateTimes.length)] : isoDateTimes[random.nextInt(isoDateTimes.length)]).append(". ");
+		}
+		document = text.toString();
+	}
+
+	@Benchmark
+	public List<RosemaryDateTimeMatch> extract() {
+		return rosemaryDateExtractor.extract(document);
+	}
+}
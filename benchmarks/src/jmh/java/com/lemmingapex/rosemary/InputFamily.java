@@ -0,0 +1,163 @@
+package com.lemmingapex.rosemary;
+
+import java.util.Random;
+
+/**
+ * Families of inputs that exercise different paths through the parser.  Inputs are generated from a fixed seed so every run measures the same strings.
+ */
+enum InputFamily {
+	/**
+	 * <code>2008-03-05 07:02:10.123</code>
+	 */
+	ISO {
+		@Override
+		String generate(Random random) {
+			return String.format("%04d-%02d-%02d %02d:%02d:%02d.%03d", year(random), month(random), day(random), random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000));
+		}
+	},
+	/**
+	 * <code>2008-03-05T07:02:10Z</code>, read before the tokens are
+	 */
+	ISO_T {
+		@Override
+		String generate(Random random) {
+			return String.format("%04d-%02d-%02dT%02d:%02d:%02dZ", year(random), month(random), day(random), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+		}
+	},
+	/**
+	 * <code>3/5/2008 7:02 PM</code>
+	 */
+	US_SLASHES {
+		@Override
+		String generate(Random random) {
+			return String.format("%d/%d/%d %d:%02d %s", month(random), day(random), year(random), random.nextInt(12) + 1, random.nextInt(60), random.nextBoolean() ? "AM" : "PM");
+		}
+	},
+	/**
+	 * <code>Wednesday, March 05 2008</code>
+	 */
+	MONTH_NAMES {
+		@Override
+		String generate(Random random) {
+			return String.format("%s, %s %02d %d", pick(random, WEEKDAYS), pick(random, MONTHS), day(random), year(random));
+		}
+	},
+	/**
+	 * <code>22nd of June 2028 at 8am</code> and <code>March Fifth 2008</code>
+	 */
+	ORDINALS {
+		@Override
+		String generate(Random random) {
+			if (random.nextBoolean()) {
+				final int day = day(random);
+				return String.format("%d%s of %s %d at %dam", day, suffix(day), pick(random, MONTHS), year(random), random.nextInt(12) + 1);
+			}
+			return String.format("%s %s %d", pick(random, MONTHS), pick(random, ORDINAL_WORDS), year(random));
+		}
+	},
+	/**
+	 * <code>2019-03-05 07:02:30 America/Denver</code>
+	 */
+	NAMED_ZONES {
+		@Override
+		String generate(Random random) {
+			return String.format("%04d-%02d-%02d %02d:%02d:%02d %s", year(random), month(random), day(random), random.nextInt(24), random.nextInt(60), random.nextInt(60), pick(random, ZONES));
+		}
+	},
+	/**
+	 * <code>03-05 2008 7:02:10 -05:00</code> and <code>6/30/2016 10:02:27.654 AM(UTC-4)</code>
+	 */
+	OFFSETS {
+		@Override
+		String generate(Random random) {
+			if (random.nextBoolean()) {
+				return String.format("%02d-%02d %d %d:%02d:%02d %s%02d:%02d", month(random), day(random), year(random), random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextBoolean() ? "+" : "-", random.nextInt(13), random.nextInt(4) * 15);
+			}
+			return String.format("%d/%d/%d %d:%02d:%02d.%03d AM(UTC%s%d)", month(random), day(random), year(random), random.nextInt(12) + 1, random.nextInt(60), random.nextInt(60), random.nextInt(1000), random.nextBoolean() ? "+" : "-", random.nextInt(12));
+		}
+	},
+	/**
+	 * <code>1204675245123</code>
+	 */
+	EPOCH {
+		@Override
+		String generate(Random random) {
+			return Long.toString(1_000_000_000_000L + (long) (random.nextDouble() * 1_000_000_000_000L));
+		}
+	},
+	/**
+	 * values that don't parse, like <code>N/A</code> and <code>2008-13-45</code>
+	 */
+	FAILURES {
+		@Override
+		String generate(Random random) {
+			switch (random.nextInt(4)) {
+				case 0:
+					return "N/A";
+				case 1:
+					return String.format("%04d-%02d-%02d", year(random), 13 + random.nextInt(80), 32 + random.nextInt(60));
+				case 2:
+					return "unknown";
+				default:
+					return String.format("%d:%d:%d:%d", random.nextInt(99), random.nextInt(99), random.nextInt(99), random.nextInt(99));
+			}
+		}
+	};
+
+	private static final String[] WEEKDAYS = { "Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday" };
+	private static final String[] MONTHS = { "January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December", "Jan", "Feb", "Mar", "Apr", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+	private static final String[] ORDINAL_WORDS = { "First", "Fifth", "Twelfth", "Twenty-First", "Thirtieth" };
+	private static final String[] ZONES = { "America/Denver", "Europe/London", "Asia/Tokyo", "EST", "CST", "PDT", "AKDT", "UTC", "GMT" };
+
+	/**
+	 * Generate one input of this family.
+	 */
+	abstract String generate(Random random);
+
+	/**
+	 * Generate a fixed set of inputs of this family.
+	 *
+	 * @param count number of inputs
+	 * @return the same inputs for the same count, every time
+	 */
+	String[] inputs(int count) {
+		final Random random = new Random(ordinal() * 31L + 17L);
+		final String[] inputs = new String[count];
+		for (int i = 0; i < count; i++) {
+			inputs[i] = generate(random);
+		}
+		return inputs;
+	}
+
+	private static int year(Random random) {
+		return 1970 + random.nextInt(60);
+	}
+
+	private static int month(Random random) {
+		return random.nextInt(12) + 1;
+	}
+
+	private static int day(Random random) {
+		return random.nextInt(28) + 1;
+	}
+
+	private static String pick(Random random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private static String suffix(int day) {
+		if (day >= 11 && day <= 13) {
+			return "th";
+		}
+		switch (day % 10) {
+			case 1:
+				return "st";
+			case 2:
+				return "nd";
+			case 3:
+				return "rd";
+			default:
+				return "th";
+		}
+	}
+}
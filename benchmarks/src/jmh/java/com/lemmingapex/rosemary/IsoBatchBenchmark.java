@@ -0,0 +1,113 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scanning a column of fixed-width ISO-8601 rows a row at a time with {@link RosemaryIsoScanner}, as <code>parseColumn</code> did, against a block at a time with each {@link RosemaryIsoBatch} kernel.  The Vector API kernel only loads in a JVM started with <code>--add-modules jdk.incubator.vector</code>, so <code>scanBlocksVector</code> and <code>parseColumn</code> fork one; without it they measure the SWAR kernel too.  Divide the row width by the time per row for bytes per nanosecond, i.e. GB/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IsoBatchBenchmark {
+
+	static final int INPUTS = 4096;
+
+	@Param({"ISO", "ISO_T"})
+	InputFamily family;
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private ByteBuffer columnData;
+	private int width;
+	private int[] columnOffsets;
+	private long[] epochMillis;
+	private int[] offsetSeconds;
+	private byte[] validity;
+
+	private RosemaryIsoScanner isoScanner;
+	private RosemaryIsoBatch swarBatch;
+	private RosemaryIsoBatch vectorBatch;
+
+	@Setup
+	public void setUp() {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final String[] inputs = family.inputs(INPUTS);
+		width = inputs[0].length();
+		columnOffsets = new int[INPUTS + 1];
+		final StringBuilder column = new StringBuilder();
+		for (int i = 0; i < INPUTS; i++) {
+			if (inputs[i].length() != width) {
+				throw new IllegalStateException(family + " isn't fixed-width");
+			}
+			column.append(inputs[i]);
+			columnOffsets[i + 1] = column.length();
+		}
+		columnData = ByteBuffer.wrap(column.toString().getBytes(StandardCharsets.US_ASCII));
+		epochMillis = new long[INPUTS];
+		offsetSeconds = new int[INPUTS];
+		validity = new byte[(INPUTS + 7) / 8];
+
+		isoScanner = new RosemaryIsoScanner(RosemaryDateOrder.MM_DD_YY);
+		swarBatch = new RosemaryIsoSwarBatch();
+		swarBatch.layout(columnData, 0, width);
+		vectorBatch = RosemaryIsoBatch.create();
+		vectorBatch.layout(columnData, 0, width);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public long scanRows() {
+		long sum = 0L;
+		for (int row = 0; row < INPUTS; row++) {
+			if (isoScanner.scan(columnData, columnOffsets[row], columnOffsets[row + 1])) {
+				sum += isoScanner.epochMillis();
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public long scanBlocksSwar() {
+		return scanBlocks(swarBatch);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	@Fork(jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+	public long scanBlocksVector() {
+		return scanBlocks(vectorBatch);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	@Fork(jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+	public int parseColumn() {
+		return rosemaryDateTimeParser.parseColumn(columnData.array(), columnOffsets, INPUTS, RosemaryDateOrder.MM_DD_YY, epochMillis, offsetSeconds, validity);
+	}
+
+	private long scanBlocks(RosemaryIsoBatch isoBatch) {
+		long sum = 0L;
+		for (int row = 0; row < INPUTS; row += RosemaryIsoBatch.BLOCK_ROWS) {
+			final int rows = Math.min(RosemaryIsoBatch.BLOCK_ROWS, INPUTS - row);
+			columnData.get(row * width, isoBatch.block, 0, rows * width);
+			final int accepted = isoBatch.scan(rows);
+			for (int i = 0; i < accepted; i++) {
+				sum += isoBatch.epochMillis[i];
+			}
+		}
+		return sum;
+	}
+}
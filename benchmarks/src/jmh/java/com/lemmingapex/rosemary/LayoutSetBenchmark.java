@@ -0,0 +1,105 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.ParsingUtilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RosemaryLayoutSet} against trying each pattern in turn with {@link ParsingUtilities#javaTimeParse(String, String, Locale)}, as {@link RosemaryDateTimeParser#parse(String, List)} does, over up to 40 layouts with inputs spread evenly across them.  <code>compileLayoutSet</code> and <code>compileFormatters</code> compare what each costs up front; the sequential approach creates its formatters again on every attempt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LayoutSetBenchmark {
+
+	static final int INPUTS = 1024;
+
+	private static final String[] DATES = { "yyyy-MM-dd", "MM/dd/yyyy", "dd.MM.yyyy", "yyyy/MM/dd", "dd-MMM-yyyy", "MMMM d, yyyy", "EEE MMM dd yyyy", "yyyyMMdd" };
+	// longer first, since SimpleDateFormat reads a datetime with a layout that is only its beginning
+	private static final String[] TIMES = { " HH:mm:ss.SSS", " HH:mm:ss", " hh:mm a", " HH:mm", "" };
+
+	@Param({"10", "40"})
+	int layouts;
+
+	private List<String> patterns;
+	private RosemaryLayoutSet layoutSet;
+	private String[] inputs;
+
+	@Setup
+	public void setUp() {
+		patterns = new ArrayList<>();
+		for (final String time : TIMES) {
+			for (final String date : DATES) {
+				patterns.add(date + time);
+			}
+		}
+		patterns = patterns.subList(0, layouts);
+		layoutSet = RosemaryLayoutSet.ofPatterns(patterns);
+
+		final Random random = new Random(42L);
+		inputs = new String[INPUTS];
+		for (int i = 0; i < INPUTS; i++) {
+			final LocalDateTime localDateTime = LocalDateTime.of(1970 + random.nextInt(60), 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000) * 1_000_000);
+			inputs[i] = DateTimeFormatter.ofPattern(patterns.get(i % layouts), Locale.US).format(localDateTime);
+		}
+	}
+
+	@Benchmark
+	public RosemaryLayoutSet compileLayoutSet() {
+		return RosemaryLayoutSet.ofPatterns(patterns);
+	}
+
+	@Benchmark
+	public List<DateTimeFormatter> compileFormatters() {
+		final List<DateTimeFormatter> formatters = new ArrayList<>(patterns.size());
+		for (final String pattern : patterns) {
+			formatters.add(DateTimeFormatter.ofPattern(pattern, Locale.US));
+		}
+		return formatters;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseLayoutSet(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(layoutSet.parse(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseSequential(Blackhole blackhole) {
+		for (final String input : inputs) {
+			OffsetDateTime offsetDateTime = null;
+			for (final String pattern : patterns) {
+				offsetDateTime = ParsingUtilities.javaTimeParse(input, pattern, Locale.US);
+				if (offsetDateTime != null) {
+					break;
+				}
+			}
+			blackhole.consume(offsetDateTime == null ? OffsetDateTime.of(LocalDateTime.MIN, ZoneOffset.UTC) : offsetDateTime);
+		}
+	}
+}
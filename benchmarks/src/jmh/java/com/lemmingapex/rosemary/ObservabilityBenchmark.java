@@ -0,0 +1,127 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import jdk.jfr.Recording;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of observing parses.  With <code>metrics=NONE</code> and <code>flightRecorder=NONE</code> this is the plain parser, so the other settings show what recording costs on a cache hit, which is the cheapest parse and the one the cost shows most on.  <code>flightRecorder=DISABLED</code> against <code>NONE</code> is the cost of the Flight Recorder events while a recording runs without them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObservabilityBenchmark {
+
+	public enum Metrics {
+		/**
+		 * no metrics.
+		 */
+		NONE,
+		/**
+		 * counted, with one parse in {@link RosemaryInMemoryMetrics#DEFAULT_LATENCY_SAMPLE_INTERVAL} timed.
+		 */
+		SAMPLED,
+		/**
+		 * counted, with every parse timed.
+		 */
+		EVERY
+	}
+
+	public enum FlightRecorder {
+		/**
+		 * no recording.
+		 */
+		NONE,
+		/**
+		 * a recording with the default settings, that leaves the Rosemary events disabled.
+		 */
+		DISABLED,
+		/**
+		 * a recording with {@link RosemaryParseEvent} at its default threshold, so parses are timed but none are slow enough to commit, and {@link RosemaryFallbackEvent} disabled.
+		 */
+		THRESHOLD,
+		/**
+		 * a recording that commits every {@link RosemaryParseEvent} and {@link RosemaryFallbackEvent}.  Not run by default, it measures the events rather than their overhead.
+		 */
+		EVERY
+	}
+
+	@Param
+	public Metrics metrics;
+
+	@Param({"NONE", "DISABLED", "THRESHOLD"})
+	public FlightRecorder flightRecorder;
+
+	private Recording recording;
+
+	private RosemaryDateTimeParser cachedParser;
+	private RosemaryDateTimeParser uncachedParser;
+
+	private final String dateTimeString = "March 5th, 2008 7:02:10 EST";
+	private final List<String> isoBatch = List.of("2008-03-05T07:02:10Z", "2008-03-05T07:02:10.488-05:00", "2008-03-05");
+
+	@Setup
+	public void setUp() throws RosemaryDateTimeException {
+		cachedParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(1024));
+		uncachedParser = new RosemaryDateTimeParser();
+		final RosemaryMetrics rosemaryMetrics = switch (metrics) {
+			case NONE -> null;
+			case SAMPLED -> new RosemaryInMemoryMetrics();
+			case EVERY -> new RosemaryInMemoryMetrics(1);
+		};
+		cachedParser.setMetrics(rosemaryMetrics);
+		uncachedParser.setMetrics(rosemaryMetrics);
+		cachedParser.parse(dateTimeString);
+
+		if (flightRecorder != FlightRecorder.NONE) {
+			recording = new Recording();
+			recording.setToDisk(false);
+			recording.setMaxSize(16 * 1024 * 1024);
+			recording.disable(RosemaryParseEvent.class);
+			recording.disable(RosemaryFallbackEvent.class);
+			if (flightRecorder == FlightRecorder.THRESHOLD) {
+				recording.enable(RosemaryParseEvent.class);
+			} else if (flightRecorder == FlightRecorder.EVERY) {
+				recording.enable(RosemaryParseEvent.class).withThreshold(Duration.ZERO);
+				recording.enable(RosemaryFallbackEvent.class);
+			}
+			recording.start();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (recording != null) {
+			recording.close();
+		}
+	}
+
+	@Benchmark
+	public OffsetDateTime cacheHit() throws RosemaryDateTimeException {
+		return cachedParser.parse(dateTimeString);
+	}
+
+	@Benchmark
+	public OffsetDateTime engine() throws RosemaryDateTimeException {
+		return uncachedParser.parse(dateTimeString);
+	}
+
+	@Benchmark
+	public List<RosemaryParseResult> isoScanner() {
+		return uncachedParser.parseAll(isoBatch, RosemaryDateOrder.MM_DD_YY);
+	}
+}
@@ -0,0 +1,151 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end throughput of {@link RosemaryDateTimeParser} for each {@link InputFamily}, one string at a time and in batches.  <code>parseIsoOnly</code> parses with a parser built with only {@link RosemaryParseStage#ISO_SCANNER}, so against <code>parse</code> it shows what the other stages cost on the families it still reads.  <code>parseFieldSink</code> hands the fields to a sink rather than returning a datetime, and <code>normalizeUtc</code> writes them as RFC 3339 text in UTC.  <code>parseLocalDate</code> and <code>parseInstant</code> resolve only what their results hold.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseBenchmark {
+
+	static final int INPUTS = 1024;
+
+	@Param
+	InputFamily family;
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private RosemaryDateTimeParser isoOnlyParser;
+	private String[] inputs;
+	private List<String> inputList;
+
+	private byte[] columnData;
+	private int[] columnOffsets;
+	private long[] epochMillis;
+	private int[] offsetSeconds;
+	private byte[] validity;
+
+	@Setup
+	public void setUp() {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		isoOnlyParser = RosemaryDateTimeParser.builder().stages(EnumSet.of(RosemaryParseStage.ISO_SCANNER)).build();
+		inputs = family.inputs(INPUTS);
+		inputList = Arrays.asList(inputs);
+
+		// the same inputs as an Arrow-style string column
+		columnOffsets = new int[INPUTS + 1];
+		final StringBuilder column = new StringBuilder();
+		for (int i = 0; i < INPUTS; i++) {
+			column.append(inputs[i]);
+			columnOffsets[i + 1] = column.length();
+		}
+		columnData = column.toString().getBytes(StandardCharsets.US_ASCII);
+		epochMillis = new long[INPUTS];
+		offsetSeconds = new int[INPUTS];
+		validity = new byte[(INPUTS + 7) / 8];
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parse(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(rosemaryDateTimeParser.parse(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseIsoOnly(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(isoOnlyParser.parse(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseFieldSink(Blackhole blackhole) {
+		final RosemaryFieldSink sink = (year, month, day, hour, minute, second, nanosecond, offsetSeconds) -> blackhole.consume(year + month + day + hour + minute + second + nanosecond + offsetSeconds);
+		for (final String input : inputs) {
+			try {
+				rosemaryDateTimeParser.parse(input, sink);
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseLocalDate(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(rosemaryDateTimeParser.parseLocalDate(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void parseInstant(Blackhole blackhole) {
+		for (final String input : inputs) {
+			try {
+				blackhole.consume(rosemaryDateTimeParser.parseInstant(input));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public void normalizeUtc(Blackhole blackhole) {
+		final StringBuilder out = new StringBuilder();
+		for (final String input : inputs) {
+			out.setLength(0);
+			try {
+				blackhole.consume(rosemaryDateTimeParser.normalize(input, RosemaryDateOrder.MM_DD_YY, out, ZoneOffset.UTC));
+			} catch (RosemaryDateTimeException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public List<RosemaryParseResult> parseAll() {
+		return rosemaryDateTimeParser.parseAll(inputList, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(INPUTS)
+	public int parseColumn() {
+		return rosemaryDateTimeParser.parseColumn(columnData, columnOffsets, INPUTS, RosemaryDateOrder.MM_DD_YY, epochMillis, offsetSeconds, validity);
+	}
+}
@@ -0,0 +1,79 @@
+package com.lemmingapex.rosemary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles of {@link RosemaryDateTimeParser} under contention, with one parser shared by all threads, one parser per thread, and a new parser for every parse.
+ * <p>
+ * The number of threads comes from <code>-Pjmh.threads</code>.  {@link ScalingHarness} sweeps thread counts, including virtual threads, in a single run.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScalingBenchmark {
+
+	static final int INPUTS = 1024;
+
+	@State(Scope.Benchmark)
+	public static class Shared {
+
+		@Param({ "ISO", "US_SLASHES", "NAMED_ZONES" })
+		InputFamily family;
+
+		RosemaryDateTimeParser rosemaryDateTimeParser;
+		String[] inputs;
+
+		@Setup
+		public void setUp() {
+			rosemaryDateTimeParser = new RosemaryDateTimeParser();
+			inputs = family.inputs(INPUTS);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class PerThread {
+
+		RosemaryDateTimeParser rosemaryDateTimeParser;
+		int next;
+
+		@Setup
+		public void setUp() {
+			rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		}
+
+		String nextInput(Shared shared) {
+			return shared.inputs[next++ & (INPUTS - 1)];
+		}
+	}
+
+	@Benchmark
+	public Object sharedInstance(Shared shared, PerThread thread) {
+		return parse(shared.rosemaryDateTimeParser, thread.nextInput(shared));
+	}
+
+	@Benchmark
+	public Object perThreadInstance(Shared shared, PerThread thread) {
+		return parse(thread.rosemaryDateTimeParser, thread.nextInput(shared));
+	}
+
+	@Benchmark
+	public Object perRequestInstance(Shared shared, PerThread thread) {
+		return parse(new RosemaryDateTimeParser(), thread.nextInput(shared));
+	}
+
+	static Object parse(RosemaryDateTimeParser rosemaryDateTimeParser, String input) {
+		try {
+			return rosemaryDateTimeParser.parse(input);
+		} catch (RosemaryDateTimeException e) {
+			return e;
+		}
+	}
+}
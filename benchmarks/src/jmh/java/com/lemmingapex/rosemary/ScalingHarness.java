@@ -0,0 +1,170 @@
+package com.lemmingapex.rosemary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sweeps the number of threads sharing the parser, from one platform thread to twice the number of cores, then many virtual threads, and prints throughput and tail latency for each parser setup.
+ * <p>
+ * JMH can't run thousands of virtual threads, so this harness times each parse itself.  Virtual threads are created reflectively, so the benchmarks still build for Java 17; they are skipped when the runtime doesn't have them.
+ * <p>
+ * Usage: <code>ScalingHarness [seconds] [family] [virtualThreads]</code>
+ */
+public class ScalingHarness {
+
+	/**
+	 * How each request gets a parser.
+	 */
+	enum Setup {
+		SHARED_INSTANCE,
+		PER_THREAD_INSTANCE,
+		PER_REQUEST_INSTANCE
+	}
+
+	private static final int INPUTS = 1024;
+	private static final int HISTOGRAM_STRIPES = 64;
+
+	private final String[] inputs;
+	private final long nanosPerRun;
+
+	ScalingHarness(InputFamily family, long nanosPerRun) {
+		this.inputs = family.inputs(INPUTS);
+		this.nanosPerRun = nanosPerRun;
+	}
+
+	/**
+	 * The results of one run.
+	 */
+	static final class Run {
+		final String threads;
+		final Setup setup;
+		final long operations;
+		final long nanos;
+		final RosemaryLatencyHistogram latencies;
+
+		Run(String threads, Setup setup, long operations, long nanos, RosemaryLatencyHistogram latencies) {
+			this.threads = threads;
+			this.setup = setup;
+			this.operations = operations;
+			this.nanos = nanos;
+			this.latencies = latencies;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%-16s %-22s %14.0f %10.2f %10.2f %10.2f %10.2f", threads, setup, operations * 1e9 / nanos, latencies.percentile(50) / 1e3, latencies.percentile(99) / 1e3, latencies.percentile(99.9) / 1e3, latencies.max() / 1e3);
+		}
+	}
+
+	Run run(ExecutorService executor, String threads, int workers, Setup setup) throws Exception {
+		final RosemaryDateTimeParser shared = new RosemaryDateTimeParser();
+		final RosemaryLatencyHistogram[] stripes = new RosemaryLatencyHistogram[HISTOGRAM_STRIPES];
+		for (int i = 0; i < HISTOGRAM_STRIPES; i++) {
+			stripes[i] = new RosemaryLatencyHistogram();
+		}
+		final LongAdder operations = new LongAdder();
+
+		final long start = System.nanoTime();
+		final long deadline = start + nanosPerRun;
+		final List<Future<?>> futures = new ArrayList<>(workers);
+		for (int w = 0; w < workers; w++) {
+			final int worker = w;
+			futures.add(executor.submit(() -> {
+				final RosemaryLatencyHistogram latencies = stripes[worker % HISTOGRAM_STRIPES];
+				final RosemaryDateTimeParser own = setup == Setup.PER_THREAD_INSTANCE ? new RosemaryDateTimeParser() : shared;
+				int next = worker * 31;
+				long count = 0;
+				long now = System.nanoTime();
+				while (now < deadline) {
+					final String input = inputs[next++ & (INPUTS - 1)];
+					final RosemaryDateTimeParser rosemaryDateTimeParser = setup == Setup.PER_REQUEST_INSTANCE ? new RosemaryDateTimeParser() : own;
+					ScalingBenchmark.parse(rosemaryDateTimeParser, input);
+					final long end = System.nanoTime();
+					latencies.record(end - now);
+					now = end;
+					count++;
+				}
+				operations.add(count);
+			}));
+		}
+		for (final Future<?> future : futures) {
+			future.get();
+		}
+		final long nanos = System.nanoTime() - start;
+
+		final RosemaryLatencyHistogram latencies = new RosemaryLatencyHistogram();
+		for (final RosemaryLatencyHistogram stripe : stripes) {
+			latencies.add(stripe);
+		}
+		return new Run(threads, setup, operations.sum(), nanos, latencies);
+	}
+
+	/**
+	 * Create an executor that starts a virtual thread per task, if the runtime has them.
+	 *
+	 * @return the executor, or <code>null</code> if virtual threads aren't available
+	 */
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException e) {
+			// older runtimes don't have the method, and preview runtimes throw unless --enable-preview is set
+			return null;
+		}
+	}
+
+	static List<Integer> platformThreadCounts(int cores) {
+		final List<Integer> counts = new ArrayList<>();
+		for (int threads = 1; threads < 2 * cores; threads *= 2) {
+			counts.add(threads);
+		}
+		counts.add(2 * cores);
+		return counts;
+	}
+
+	public static void main(String[] args) throws Exception {
+		final long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+		final InputFamily family = args.length > 1 ? InputFamily.valueOf(args[1]) : InputFamily.ISO;
+		final int virtualThreads = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+		final int cores = Runtime.getRuntime().availableProcessors();
+		final ScalingHarness harness = new ScalingHarness(family, TimeUnit.SECONDS.toNanos(seconds));
+
+		System.out.println(family + " inputs, " + cores + " cores, " + seconds + "s per run, latencies in microseconds");
+		System.out.println(String.format(Locale.ROOT, "%-16s %-22s %14s %10s %10s %10s %10s", "threads", "setup", "ops/s", "p50", "p99", "p99.9", "max"));
+
+		// warm up the JIT before anything is recorded
+		final ExecutorService warmup = Executors.newFixedThreadPool(cores);
+		harness.run(warmup, "warmup", cores, Setup.SHARED_INSTANCE);
+		warmup.shutdown();
+
+		for (final int threads : platformThreadCounts(cores)) {
+			final ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				for (final Setup setup : Setup.values()) {
+					System.out.println(harness.run(executor, threads + " platform", threads, setup));
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+
+		for (final Setup setup : Setup.values()) {
+			final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+			if (executor == null) {
+				System.out.println("virtual threads aren't available on Java " + Runtime.version().feature() + ", run on Java 21 or later to include them");
+				break;
+			}
+			try {
+				System.out.println(harness.run(executor, virtualThreads + " virtual", virtualThreads, setup));
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.ParsingUtilities;
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.OffsetDateTime;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of each stage of {@link RosemaryDateTimeParser}, on a representative token.  Stages that fill in a {@link RosemaryDateTimeState} include the cost of creating a fresh state, which {@link #newState()} measures on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StageBenchmark {
+
+	private RosemaryDateTimeParser rosemaryDateTimeParser;
+	private Map<String, TimeZone> timeZoneNameToTimeZone;
+	private RosemaryDateTimeState completeState;
+
+	private final String dateTimeString = "Wednesday, March 5th 2008 7:02:13.488 PM America/Denver";
+	private final String[] tokens = { "2008", "03", "05" };
+	private final String[] monthTokens = { "MARCH", "5TH", "2008" };
+
+	@Setup
+	public void setUp() throws RosemaryDateTimeException {
+		rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		timeZoneNameToTimeZone = TimeZoneUtils.getTimezoneNameToTimezoneMap();
+
+		completeState = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		completeState.setYear(2008);
+		completeState.setMonth(3);
+		completeState.setDay(5);
+		completeState.setHour(19);
+		completeState.setMinute(2);
+		completeState.setSecond(13);
+		completeState.setMillisecond(488);
+		completeState.setTimeZone(timeZoneNameToTimeZone.get("AMERICA/DENVER"));
+	}
+
+	@Benchmark
+	public RosemaryDateTimeState newState() {
+		return new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+	}
+
+	@Benchmark
+	public String[] tokenize() {
+		return RosemaryTokenizer.tokenize(dateTimeString.toUpperCase()).tokens();
+	}
+
+	@Benchmark
+	public RosemaryDateTimeState parseNumericToken() throws RosemaryDateTimeException {
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		for (final String token : tokens) {
+			rosemaryDateTimeParser.parseNumericToken(Long.parseLong(token), tokens, state);
+		}
+		return state;
+	}
+
+	@Benchmark
+	public RosemaryDateTimeState parseNonNumericToken() throws RosemaryDateTimeException {
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		rosemaryDateTimeParser.parseNonNumericToken("MARCH", monthTokens, state);
+		rosemaryDateTimeParser.parseNonNumericToken("5TH", monthTokens, state);
+		return state;
+	}
+
+	@Benchmark
+	public RosemaryDateTimeState parseNonNumericTokenZoneName() throws RosemaryDateTimeException {
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		rosemaryDateTimeParser.parseNonNumericToken("AMERICA/DENVER", monthTokens, state);
+		return state;
+	}
+
+	@Benchmark
+	public RosemaryDateTimeState parseTime() throws RosemaryDateTimeException {
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		rosemaryDateTimeParser.parseTime("7:02:13.488PM", state);
+		return state;
+	}
+
+	@Benchmark
+	public RosemaryDateTimeState parseTimeZoneOffset() throws RosemaryDateTimeException {
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		rosemaryDateTimeParser.parseTimeZoneOffset("-05:00", state);
+		return state;
+	}
+
+	@Benchmark
+	public TimeZone timeZoneLookup() {
+		return timeZoneNameToTimeZone.get("America/Denver");
+	}
+
+	@Benchmark
+	public GregorianCalendar asCalendar() {
+		return completeState.asCalendar();
+	}
+
+	@Benchmark
+	public OffsetDateTime calendarToOffsetDateTime() {
+		return ParsingUtilities.calendarToOffsetDateTime(completeState.asCalendar());
+	}
+
+	@Benchmark
+	public OffsetDateTime javaTimeParseFallback() {
+		return ParsingUtilities.javaTimeParse("2008-03-05T19:02:13.488-07:00");
+	}
+
+	@Benchmark
+	public OffsetDateTime javaTimeParseFallbackMiss() {
+		// every java.time attempt fails, which is what a failing input paid after the heuristic engine, and still does with the java.time fallback on
+		return ParsingUtilities.javaTimeParse("N/A");
+	}
+
+	@Benchmark
+	public OffsetDateTime isoDateTime() {
+		// what the engine does in place of javaTimeParseFallback
+		return RosemaryIsoDateTime.parseIso("2008-03-05T19:02:13.488-07:00");
+	}
+
+	@Benchmark
+	public OffsetDateTime isoDateTimeMiss() {
+		// what a failing input pays in place of javaTimeParseFallbackMiss
+		return RosemaryIsoDateTime.parseDateTimeFormat("N/A");
+	}
+}
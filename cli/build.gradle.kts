@@ -0,0 +1,48 @@
+/*
+ * rosemary-cli, a command line tool that normalizes the datetime columns of CSV, TSV and NDJSON files with the lib project.
+ *
+ * Run it with ./gradlew :cli:run --args="--columns created_at,updated_at --zone UTC in.csv out.csv"
+ * or build a runnable distribution in build/install/rosemary-cli with ./gradlew :cli:installDist
+ */
+
+plugins {
+    application
+}
+
+repositories {
+    // Use Maven Central for resolving dependencies.
+    mavenCentral()
+}
+
+dependencies {
+    implementation(project(":lib"))
+
+    // Use JUnit test framework.
+    testImplementation(libs.junit)
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(17))
+    }
+}
+
+base {
+    archivesName.set("rosemary-cli")
+}
+
+application {
+    applicationName = "rosemary-cli"
+    mainClass.set("com.lemmingapex.rosemary.cli.RosemaryCli")
+}
+
+tasks.named<JavaExec>("run") {
+    // Resolve relative paths against the directory gradle was started from, not the project directory.
+    workingDir = gradle.startParameter.currentDir
+}
+
+tasks.test {
+    testLogging {
+        events("PASSED", "SKIPPED", "FAILED")
+    }
+}
@@ -0,0 +1,461 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryDateOrder;
+import com.lemmingapex.rosemary.RosemaryDateTimeException;
+import com.lemmingapex.rosemary.RosemaryDateTimeParser;
+import com.lemmingapex.rosemary.RosemaryFailureReason;
+import com.lemmingapex.rosemary.RosemaryFieldSink;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.chrono.IsoChronology;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Normalizes the datetimes in a chunk of whole records.  The bytes between the datetimes are copied as they are, and a datetime that doesn't parse is copied as it is too.
+ * <p>
+ * A normalizer keeps buffers between chunks, so each thread needs its own.
+ */
+final class RosemaryChunkNormalizer implements RosemaryFieldSink {
+
+	/**
+	 * room for the longest replacement: RFC 3339 text in quotes, or a negative number of milliseconds.
+	 */
+	private static final int MAXIMUM_REPLACEMENT_LENGTH = 48;
+
+	private final RosemaryDateTimeParser rosemaryDateTimeParser;
+	private final RosemaryFileFormat format;
+	private final RosemaryDateOrder order;
+	private final ZoneId zone;
+	private final RosemaryCliOptions.Output outputForm;
+	private final boolean[] selectedColumns;
+	private final byte[][] selectedKeys;
+
+	private final Value value = new Value();
+	private byte[] out = new byte[0];
+	private ByteBuffer outBuffer = ByteBuffer.wrap(out);
+	private int outLength;
+	private RosemaryNormalizeStats stats;
+	private long epochSecond;
+	private int nanosecond;
+
+	/**
+	 * Create a normalizer.
+	 *
+	 * @param rosemaryDateTimeParser the parser, which may be shared with other threads
+	 * @param options the options of the run
+	 * @param selectedColumns for CSV and TSV, <code>true</code> at the index of each column to normalize, counted from 0
+	 * @param selectedKeys for NDJSON, the keys to normalize
+	 */
+	RosemaryChunkNormalizer(RosemaryDateTimeParser rosemaryDateTimeParser, RosemaryCliOptions options, boolean[] selectedColumns, List<String> selectedKeys) {
+		this.rosemaryDateTimeParser = rosemaryDateTimeParser;
+		this.format = options.getFormat();
+		this.order = options.getOrder();
+		this.zone = options.getZone();
+		this.outputForm = options.getOutputForm();
+		this.selectedColumns = selectedColumns;
+		this.selectedKeys = new byte[selectedKeys.size()][];
+		for (int i = 0; i < this.selectedKeys.length; i++) {
+			this.selectedKeys[i] = selectedKeys.get(i).getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Normalize the records in part of a buffer.
+	 *
+	 * @param data holds the records, read at absolute indices
+	 * @param from the index of the first record
+	 * @param to the index after the last record
+	 * @param stats counts the records and values
+	 * @return the normalized records, from position 0 to the limit of the buffer
+	 */
+	ByteBuffer normalize(ByteBuffer data, int from, int to, RosemaryNormalizeStats stats) {
+		this.stats = stats;
+		out = new byte[(to - from) + (to - from) / 4 + MAXIMUM_REPLACEMENT_LENGTH];
+		outBuffer = ByteBuffer.wrap(out);
+		outLength = 0;
+		final int copied = format == RosemaryFileFormat.NDJSON ? normalizeJson(data, from, to) : normalizeDelimited(data, from, to);
+		copy(data, copied, to);
+		stats.addBytes(to - from, outLength);
+		return ByteBuffer.wrap(out, 0, outLength);
+	}
+
+	/**
+	 * Normalize CSV or TSV records.
+	 *
+	 * @return the index of the first byte not yet copied
+	 */
+	private int normalizeDelimited(ByteBuffer data, int from, int to) {
+		final byte delimiter = format.getDelimiter();
+		final boolean quoted = format.isQuoted();
+		int copied = from;
+		int p = from;
+		while (p < to) {
+			stats.addRecord();
+			for (int column = 0; ; column++) {
+				final int fieldStart = p;
+				final int valueEnd;
+				if (quoted && data.get(p) == '"') {
+					p++;
+					while (p < to && (data.get(p) != '"' || (p + 1 < to && data.get(p + 1) == '"'))) {
+						p += data.get(p) == '"' ? 2 : 1;
+					}
+					p = Math.min(p + 1, to);
+					valueEnd = p;
+					// keep anything after the closing quote with the field
+					while (p < to && data.get(p) != delimiter && data.get(p) != '\n') {
+						p++;
+					}
+				} else {
+					while (p < to && data.get(p) != delimiter && data.get(p) != '\n') {
+						p++;
+					}
+					valueEnd = p > fieldStart && data.get(p - 1) == '\r' ? p - 1 : p;
+				}
+
+				if (column < selectedColumns.length && selectedColumns[column]) {
+					copy(data, copied, fieldStart);
+					copied = fieldStart;
+					if (quoted && valueEnd > fieldStart && data.get(fieldStart) == '"') {
+						value.setCsv(data, fieldStart + 1, valueEnd - 1);
+					} else {
+						value.set(data, fieldStart, valueEnd);
+					}
+					if (replace(false)) {
+						copied = valueEnd;
+					}
+				}
+
+				if (p < to && data.get(p) == delimiter) {
+					p++;
+				} else {
+					// the end of the record
+					p = Math.min(p + 1, to);
+					break;
+				}
+			}
+		}
+		return copied;
+	}
+
+	/**
+	 * Normalize NDJSON records.  The string values of the selected keys of each top-level object are normalized, and everything else, including nested objects, is copied.
+	 *
+	 * @return the index of the first byte not yet copied
+	 */
+	private int normalizeJson(ByteBuffer data, int from, int to) {
+		int copied = from;
+		int p = from;
+		while (p < to) {
+			stats.addRecord();
+			int depth = 0;
+			boolean key = false;
+			while (p < to) {
+				final byte b = data.get(p);
+				if (b == '\n') {
+					p++;
+					break;
+				} else if (b == '"') {
+					final int stringEnd = endOfString(data, p, to);
+					if (key) {
+						key = false;
+						int q = skipWhitespace(data, stringEnd, to);
+						if (q < to && data.get(q) == ':') {
+							q = skipWhitespace(data, q + 1, to);
+							if (q < to && data.get(q) == '"' && isSelectedKey(data, p + 1, stringEnd - 1)) {
+								final int valueEnd = endOfString(data, q, to);
+								copy(data, copied, q);
+								copied = q;
+								if (!value.setJson(data, q + 1, valueEnd - 1)) {
+									// a string with a malformed escape is kept as it is, and counted as a value that didn't parse
+									stats.addValue();
+									stats.addFailure(RosemaryFailureReason.UNKNOWN, value);
+								} else if (replace(true)) {
+									copied = valueEnd;
+								}
+								p = valueEnd;
+								continue;
+							}
+						}
+					}
+					p = stringEnd;
+					continue;
+				} else if (b == '{' || b == '[') {
+					depth++;
+					key = b == '{' && depth == 1;
+				} else if (b == '}' || b == ']') {
+					depth--;
+				} else if (b == ',' && depth == 1) {
+					key = true;
+				}
+				p++;
+			}
+		}
+		return copied;
+	}
+
+	/**
+	 * Write the normalized value in place of the original.
+	 *
+	 * @param json <code>true</code> to write ISO-8601 text as a JSON string
+	 * @return <code>true</code> if the value was a datetime and was written, or <code>false</code> if the original should be kept
+	 */
+	private boolean replace(boolean json) {
+		stats.addValue();
+		if (value.isBlank()) {
+			stats.addEmpty();
+			return false;
+		}
+		ensure(MAXIMUM_REPLACEMENT_LENGTH);
+		final int mark = outLength;
+		try {
+			if (outputForm == RosemaryCliOptions.Output.ISO) {
+				if (json) {
+					out[outLength++] = '"';
+				}
+				outBuffer.position(outLength);
+				outLength += rosemaryDateTimeParser.normalize(value, order, outBuffer, zone);
+				if (json) {
+					out[outLength++] = '"';
+				}
+			} else {
+				rosemaryDateTimeParser.parse(value, order, this);
+				writeNumber(outputForm == RosemaryCliOptions.Output.EPOCH_SECONDS ? epochSecond : epochSecond * 1000L + nanosecond / 1_000_000);
+			}
+			return true;
+		} catch (RosemaryDateTimeException e) {
+			outLength = mark;
+			stats.addFailure(e.getReason(), value);
+			return false;
+		}
+	}
+
+	@Override
+	public void accept(int year, int month, int day, int hour, int minute, int second, int nanosecond, int offsetSeconds) {
+		this.epochSecond = IsoChronology.INSTANCE.epochSecond(year, month, day, hour, minute, second, ZoneOffset.ofTotalSeconds(offsetSeconds));
+		this.nanosecond = nanosecond;
+	}
+
+	private boolean isSelectedKey(ByteBuffer data, int from, int to) {
+		for (final byte[] selectedKey : selectedKeys) {
+			if (selectedKey.length == to - from && matches(data, from, selectedKey)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean matches(ByteBuffer data, int from, byte[] bytes) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (data.get(from + i) != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param p the index of the opening quote of a JSON string
+	 * @return the index after its closing quote, or of the line feed or end that cuts it short
+	 */
+	private static int endOfString(ByteBuffer data, int p, int to) {
+		p++;
+		while (p < to) {
+			final byte b = data.get(p);
+			if (b == '"') {
+				return p + 1;
+			} else if (b == '\\') {
+				p += 2;
+			} else if (b == '\n') {
+				return p;
+			} else {
+				p++;
+			}
+		}
+		return to;
+	}
+
+	private static int skipWhitespace(ByteBuffer data, int p, int to) {
+		while (p < to && (data.get(p) == ' ' || data.get(p) == '\t' || data.get(p) == '\r')) {
+			p++;
+		}
+		return p;
+	}
+
+	private void copy(ByteBuffer data, int from, int to) {
+		final int length = to - from;
+		if (length > 0) {
+			ensure(length);
+			data.get(from, out, outLength, length);
+			outLength += length;
+		}
+	}
+
+	private void writeNumber(long number) {
+		if (number < 0) {
+			out[outLength++] = '-';
+		}
+		int digits = 1;
+		for (long rest = number / 10; rest != 0; rest /= 10) {
+			digits++;
+		}
+		long rest = number;
+		for (int i = outLength + digits - 1; i >= outLength; i--) {
+			out[i] = (byte) ('0' + Math.abs(rest % 10));
+			rest /= 10;
+		}
+		outLength += digits;
+	}
+
+	private void ensure(int length) {
+		if (outLength + length > out.length) {
+			out = Arrays.copyOf(out, Math.max(outLength + length, out.length + (out.length >> 1)));
+			outBuffer = ByteBuffer.wrap(out);
+		}
+	}
+
+	/**
+	 * The text of a value, decoded from UTF-8 and unquoted, reused for each value.
+	 */
+	private static final class Value implements CharSequence {
+		private char[] chars = new char[64];
+		private int length;
+
+		/**
+		 * Set the value to bytes as they are.
+		 */
+		void set(ByteBuffer data, int from, int to) {
+			clear(to - from);
+			for (int p = from; p < to; p++) {
+				final byte b = data.get(p);
+				if (b < 0) {
+					decode(data, from, to);
+					return;
+				}
+				chars[length++] = (char) b;
+			}
+		}
+
+		/**
+		 * Set the value to the inside of a quoted CSV field, with each <code>""</code> read as a quote.
+		 */
+		void setCsv(ByteBuffer data, int from, int to) {
+			set(data, from, to);
+			int j = 0;
+			for (int i = 0; i < length; i++, j++) {
+				chars[j] = chars[i];
+				if (chars[i] == '"' && i + 1 < length && chars[i + 1] == '"') {
+					i++;
+				}
+			}
+			length = j;
+		}
+
+		/**
+		 * Set the value to the inside of a JSON string, with its escapes read.
+		 *
+		 * @return <code>false</code> if a <code>&#92;u</code> escape isn't followed by four hex digits, and the value is left as the string was written
+		 */
+		boolean setJson(ByteBuffer data, int from, int to) {
+			set(data, from, to);
+			int j = 0;
+			for (int i = 0; i < length; i++, j++) {
+				char c = chars[i];
+				if (c == '\\' && i + 1 < length) {
+					c = chars[++i];
+					switch (c) {
+						case 'b':
+							c = '\b';
+							break;
+						case 'f':
+							c = '\f';
+							break;
+						case 'n':
+							c = '\n';
+							break;
+						case 'r':
+							c = '\r';
+							break;
+						case 't':
+							c = '\t';
+							break;
+						case 'u':
+							if (i + 4 >= length) {
+								set(data, from, to);
+								return false;
+							}
+							int code = 0;
+							for (int k = i + 1; k <= i + 4; k++) {
+								final int digit = Character.digit(chars[k], 16);
+								if (digit < 0) {
+									set(data, from, to);
+									return false;
+								}
+								code = code * 16 + digit;
+							}
+							c = (char) code;
+							i += 4;
+							break;
+						default:
+							// \" \\ and \/ are the character itself
+							break;
+					}
+				}
+				chars[j] = c;
+			}
+			length = j;
+			return true;
+		}
+
+		boolean isBlank() {
+			for (int i = 0; i < length; i++) {
+				if (!Character.isWhitespace(chars[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void clear(int capacity) {
+			if (capacity > chars.length) {
+				chars = new char[Math.max(capacity, chars.length * 2)];
+			}
+			length = 0;
+		}
+
+		private void decode(ByteBuffer data, int from, int to) {
+			final byte[] bytes = new byte[to - from];
+			data.get(from, bytes);
+			final String decoded = new String(bytes, StandardCharsets.UTF_8);
+			clear(decoded.length());
+			decoded.getChars(0, decoded.length(), chars, 0);
+			length = decoded.length();
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= length) {
+				throw new IndexOutOfBoundsException(index);
+			}
+			return chars[index];
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return toString().substring(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return new String(chars, 0, length);
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryFailureReason;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The command line of rosemary-cli.  Normalizes the datetime columns of a file, then prints what it read, wrote and failed to parse to standard error.  See {@link RosemaryCliOptions#USAGE}.
+ */
+public final class RosemaryCli {
+
+	/**
+	 * the exit status when the file couldn't be read or written.
+	 */
+	static final int EXIT_IO_ERROR = 1;
+
+	/**
+	 * the exit status when the command line is bad.
+	 */
+	static final int EXIT_USAGE = 2;
+
+	private RosemaryCli() {
+	}
+
+	/**
+	 * Run rosemary-cli, and exit with its status.
+	 *
+	 * @param args the command line
+	 */
+	public static void main(String[] args) {
+		System.exit(run(args, System.err));
+	}
+
+	/**
+	 * Run rosemary-cli.
+	 *
+	 * @param args the command line
+	 * @param err receives the statistics and any errors
+	 * @return the exit status: 0, {@link #EXIT_IO_ERROR} or {@link #EXIT_USAGE}
+	 */
+	static int run(String[] args, PrintStream err) {
+		if (args.length == 0 || Arrays.asList(args).contains("--help")) {
+			err.println(RosemaryCliOptions.USAGE);
+			return args.length == 0 ? EXIT_USAGE : 0;
+		}
+		final RosemaryCliOptions options;
+		try {
+			options = RosemaryCliOptions.parse(args);
+		} catch (IllegalArgumentException e) {
+			err.println("rosemary-cli: " + e.getMessage());
+			err.println("Try rosemary-cli --help");
+			return EXIT_USAGE;
+		}
+		try {
+			final long start = System.nanoTime();
+			final RosemaryNormalizeStats stats = new RosemaryFileNormalizer(options).normalize();
+			err.print(summary(stats, System.nanoTime() - start));
+			return 0;
+		} catch (IOException e) {
+			err.println("rosemary-cli: " + e);
+			return EXIT_IO_ERROR;
+		}
+	}
+
+	/**
+	 * Describe a run.
+	 *
+	 * @param stats the counts of the run
+	 * @param elapsedNanos how long the run took
+	 * @return lines of text, like <code>Normalized 998 of 1,000 values in 1,000 records</code>
+	 */
+	static String summary(RosemaryNormalizeStats stats, long elapsedNanos) {
+		final StringBuilder summary = new StringBuilder();
+		final double seconds = Math.max(elapsedNanos, 1) / 1e9;
+		final String lineSeparator = System.lineSeparator();
+		summary.append(String.format(Locale.ROOT, "Normalized %,d of %,d values in %,d records", stats.getNormalized(), stats.getValues(), stats.getRecords())).append(lineSeparator);
+		summary.append(String.format(Locale.ROOT, "Read %,.1f MB and wrote %,.1f MB in %,.2f s: %,.0f records/s, %,.1f MB/s", stats.getInputBytes() / 1e6, stats.getOutputBytes() / 1e6, seconds, stats.getRecords() / seconds, stats.getInputBytes() / 1e6 / seconds)).append(lineSeparator);
+		if (stats.getEmpty() > 0) {
+			summary.append(String.format(Locale.ROOT, "Empty: %,d", stats.getEmpty())).append(lineSeparator);
+		}
+		if (stats.getFailed() > 0) {
+			summary.append(String.format(Locale.ROOT, "Failed: %,d", stats.getFailed())).append(lineSeparator);
+			for (final Map.Entry<RosemaryFailureReason, Long> failure : stats.getFailures().entrySet()) {
+				summary.append(String.format(Locale.ROOT, "  %s: %,d", failure.getKey(), failure.getValue())).append(lineSeparator);
+			}
+			summary.append("First failures:").append(lineSeparator);
+			for (final String example : stats.getExamples()) {
+				summary.append("  ").append(example).append(lineSeparator);
+			}
+		}
+		return summary.toString();
+	}
+}
@@ -0,0 +1,278 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryDateOrder;
+
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The options of a run of rosemary-cli, read from its command line.  See {@link #USAGE}.
+ */
+public final class RosemaryCliOptions {
+
+	/**
+	 * How to use rosemary-cli.
+	 */
+	public static final String USAGE = String.join(System.lineSeparator(),
+		"Usage: rosemary-cli [options] --columns <columns> <input> <output>",
+		"Normalizes the datetime columns of a CSV, TSV or NDJSON file.  The input is read in parallel, and the output has the same records in the same order.",
+		"Datetimes that don't parse are left as they are and counted.  Use - as the output to write to standard output.",
+		"",
+		"  --columns <columns>   comma separated names of the columns to normalize: header names, NDJSON keys, or numbers from 1 with --no-header",
+		"  --format <format>     csv, tsv or ndjson; by default told from the input's extension",
+		"  --no-header           the first record of a CSV or TSV file is data, not a header",
+		"  --order <order>       how to read ambiguous dates like 03/04/05: " + String.join(", ", names(RosemaryDateOrder.values())) + "; default mm-dd-yy",
+		"  --zone <zone>         write datetimes in this zone or offset, like UTC, +05:30 or America/Denver; by default each keeps its own offset",
+		"  --output <output>     iso for RFC 3339 text, epoch-millis or epoch-seconds; default iso",
+		"  --threads <threads>   the number of threads to parse with; default the number of processors",
+		"  --cache <size>        the number of distinct datetimes to remember the parse of, or 0 for none; default 4096",
+		"  --help                print this help");
+
+	/**
+	 * What to write in place of a datetime.
+	 */
+	public enum Output {
+		/**
+		 * RFC 3339 text, like <code>2008-03-05T07:02:10.488-05:00</code>.
+		 */
+		ISO,
+		/**
+		 * Milliseconds since 1970-01-01T00:00Z.
+		 */
+		EPOCH_MILLIS,
+		/**
+		 * Seconds since 1970-01-01T00:00Z, rounded down.
+		 */
+		EPOCH_SECONDS
+	}
+
+	private Path input;
+	private Path output;
+	private RosemaryFileFormat format;
+	private List<String> columns = List.of();
+	private boolean header = true;
+	private RosemaryDateOrder order = RosemaryDateOrder.MM_DD_YY;
+	private ZoneId zone;
+	private Output outputForm = Output.ISO;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private int cacheSize = 4096;
+
+	private RosemaryCliOptions() {
+	}
+
+	/**
+	 * Read the options from a command line.
+	 *
+	 * @param args the arguments, like <code>--columns created_at --zone UTC in.csv out.csv</code>
+	 * @return the options
+	 * @throws IllegalArgumentException if an argument is unknown, missing or bad, with a message saying which
+	 */
+	public static RosemaryCliOptions parse(String... args) {
+		final RosemaryCliOptions options = new RosemaryCliOptions();
+		final List<String> paths = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			String name = args[i];
+			String value = null;
+			if (!name.startsWith("--")) {
+				paths.add(name);
+				continue;
+			}
+			final int equals = name.indexOf('=');
+			if (equals >= 0) {
+				value = name.substring(equals + 1);
+				name = name.substring(0, equals);
+			}
+			if (name.equals("--no-header")) {
+				options.header = false;
+				continue;
+			}
+			if (value == null) {
+				if (i + 1 >= args.length) {
+					throw new IllegalArgumentException("Missing the value of " + name);
+				}
+				value = args[++i];
+			}
+			switch (name) {
+				case "--columns":
+					options.columns = columns(value);
+					break;
+				case "--format":
+					options.format = valueOf(RosemaryFileFormat.class, name, value);
+					break;
+				case "--order":
+					options.order = valueOf(RosemaryDateOrder.class, name, value);
+					break;
+				case "--zone":
+					try {
+						options.zone = ZoneId.of(value);
+					} catch (DateTimeException e) {
+						throw new IllegalArgumentException("Unknown zone " + value);
+					}
+					break;
+				case "--output":
+					options.outputForm = valueOf(Output.class, name, value);
+					break;
+				case "--threads":
+					options.threads = positiveInteger(name, value, 1);
+					break;
+				case "--cache":
+					options.cacheSize = positiveInteger(name, value, 0);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + name);
+			}
+		}
+
+		if (paths.size() != 2) {
+			throw new IllegalArgumentException("Expected an input and an output, but got " + paths.size() + " paths");
+		}
+		options.input = Path.of(paths.get(0));
+		options.output = paths.get(1).equals("-") ? null : Path.of(paths.get(1));
+		if (options.format == null) {
+			options.format = RosemaryFileFormat.ofFileName(options.input.getFileName().toString());
+			if (options.format == null) {
+				throw new IllegalArgumentException("Can't tell the format of " + options.input + ", use --format");
+			}
+		}
+		if (options.columns.isEmpty()) {
+			throw new IllegalArgumentException("No columns to normalize, use --columns");
+		}
+		options.header = options.header && options.format.hasColumns();
+		if (!options.header && options.format.hasColumns()) {
+			for (final String column : options.columns) {
+				positiveInteger("--columns", column, 1);
+			}
+		}
+		return options;
+	}
+
+	/**
+	 * Get the file to read.
+	 *
+	 * @return the input file
+	 */
+	public Path getInput() {
+		return input;
+	}
+
+	/**
+	 * Get the file to write.
+	 *
+	 * @return the output file, or <code>null</code> for standard output
+	 */
+	public Path getOutput() {
+		return output;
+	}
+
+	/**
+	 * Get the layout of the input, which is also the layout of the output.
+	 *
+	 * @return the format
+	 */
+	public RosemaryFileFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Get the columns to normalize.
+	 *
+	 * @return header names or NDJSON keys, or numbers from 1 without a header
+	 */
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Whether the first record of a CSV or TSV file is a header.
+	 *
+	 * @return <code>true</code> if the columns are named by a header; always <code>false</code> for {@link RosemaryFileFormat#NDJSON}
+	 */
+	public boolean hasHeader() {
+		return header;
+	}
+
+	/**
+	 * Get the order in which to expect and resolve ambiguous date formats.
+	 *
+	 * @return the order
+	 */
+	public RosemaryDateOrder getOrder() {
+		return order;
+	}
+
+	/**
+	 * Get the zone to write ISO-8601 datetimes in.
+	 *
+	 * @return the zone, or <code>null</code> to keep each datetime's offset
+	 */
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	/**
+	 * Get what to write in place of a datetime.
+	 *
+	 * @return the output form
+	 */
+	public Output getOutputForm() {
+		return outputForm;
+	}
+
+	/**
+	 * Get the number of threads to parse with.
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Get the size of the parse cache.
+	 *
+	 * @return the number of datetimes to cache, or 0 not to cache
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	private static List<String> columns(String value) {
+		final List<String> columns = new ArrayList<>();
+		for (final String column : value.split(",")) {
+			if (!column.isEmpty()) {
+				columns.add(column);
+			}
+		}
+		return Collections.unmodifiableList(columns);
+	}
+
+	private static <E extends Enum<E>> E valueOf(Class<E> type, String name, String value) {
+		try {
+			return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace('-', '_'));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown " + name.substring(2) + " " + value + ", expected one of " + names(type.getEnumConstants()));
+		}
+	}
+
+	private static int positiveInteger(String name, String value, int minimum) {
+		try {
+			final int integer = Integer.parseInt(value);
+			if (integer >= minimum) {
+				return integer;
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("Bad " + name.substring(2) + " " + value + ", expected a number from " + minimum);
+	}
+
+	private static List<String> names(Enum<?>[] values) {
+		return Arrays.stream(values).map(value -> value.name().toLowerCase(Locale.ROOT).replace('_', '-')).toList();
+	}
+}
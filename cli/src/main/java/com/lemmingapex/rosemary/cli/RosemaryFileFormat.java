@@ -0,0 +1,75 @@
+package com.lemmingapex.rosemary.cli;
+
+import java.util.Locale;
+
+/**
+ * The layouts of the files rosemary-cli reads.  Every record ends with a line feed, optionally after a carriage return, or at the end of the file.
+ */
+public enum RosemaryFileFormat {
+	/**
+	 * Comma separated values, as in RFC 4180: a field may be quoted with <code>"</code>, and a quoted field may hold commas, line breaks and <code>""</code> for a quote.
+	 */
+	CSV((byte) ','),
+	/**
+	 * Tab separated values, as registered with IANA: fields never hold tabs or line breaks, and aren't quoted.
+	 */
+	TSV((byte) '\t'),
+	/**
+	 * Newline delimited JSON: one JSON object per line.  Line breaks in strings are always escaped, so a line is always a record.
+	 */
+	NDJSON((byte) 0);
+
+	private final byte delimiter;
+
+	RosemaryFileFormat(byte delimiter) {
+		this.delimiter = delimiter;
+	}
+
+	/**
+	 * Get the byte between the fields of a record.
+	 *
+	 * @return the delimiter, or 0 for {@link #NDJSON}, whose records are JSON objects
+	 */
+	public byte getDelimiter() {
+		return delimiter;
+	}
+
+	/**
+	 * Whether a line feed can be inside a field, so finding where a record ends needs to know whether it is inside quotes.
+	 *
+	 * @return <code>true</code> if fields can be quoted
+	 */
+	public boolean isQuoted() {
+		return this == CSV;
+	}
+
+	/**
+	 * Whether the first record is usually a header that names the columns.
+	 *
+	 * @return <code>true</code> if the records are delimited fields
+	 */
+	public boolean hasColumns() {
+		return this != NDJSON;
+	}
+
+	/**
+	 * Tell the format of a file from the extension of its name, ignoring a trailing <code>.txt</code> like <code>orders.tsv.txt</code>.
+	 *
+	 * @param fileName the name of the file
+	 * @return the format, or <code>null</code> if the extension isn't known
+	 */
+	public static RosemaryFileFormat ofFileName(String fileName) {
+		String name = fileName.toLowerCase(Locale.ROOT);
+		if (name.endsWith(".txt")) {
+			name = name.substring(0, name.length() - 4);
+		}
+		if (name.endsWith(".csv")) {
+			return CSV;
+		} else if (name.endsWith(".tsv") || name.endsWith(".tab")) {
+			return TSV;
+		} else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+			return NDJSON;
+		}
+		return null;
+	}
+}
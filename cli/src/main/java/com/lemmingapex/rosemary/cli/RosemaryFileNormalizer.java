@@ -0,0 +1,342 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryDateTimeParser;
+import com.lemmingapex.rosemary.RosemaryParseCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Normalizes the datetime columns of a file in parallel.
+ * <p>
+ * The input is memory-mapped and split into chunks of whole records.  A CSV file may have line feeds in quoted fields, so before splitting it the quotes of each chunk are counted in parallel, which tells whether each split point is inside quotes.  The chunks are normalized by a pool of threads that share one parser, and written in order as they finish.
+ */
+public final class RosemaryFileNormalizer {
+
+	/**
+	 * the smallest chunk, below which splitting costs more than it saves.
+	 */
+	static final long MINIMUM_CHUNK_BYTES = 1L << 20;
+
+	/**
+	 * the largest chunk, which bounds the memory each thread holds.
+	 */
+	static final long MAXIMUM_CHUNK_BYTES = 64L << 20;
+
+	/**
+	 * the number of chunks for each thread, so threads that finish early have more to take.
+	 */
+	private static final int CHUNKS_PER_THREAD = 8;
+
+	/**
+	 * the bytes read at once while looking for the end of a record.
+	 */
+	private static final int SCAN_BYTES = 64 << 10;
+
+	private final RosemaryCliOptions options;
+	private final RosemaryDateTimeParser rosemaryDateTimeParser;
+	private final long minimumChunkBytes;
+
+	/**
+	 * Create a normalizer.
+	 *
+	 * @param options the options of the run
+	 */
+	public RosemaryFileNormalizer(RosemaryCliOptions options) {
+		this(options, MINIMUM_CHUNK_BYTES);
+	}
+
+	/**
+	 * Create a normalizer that splits files into smaller chunks, to test splitting without big files.
+	 *
+	 * @param options the options of the run
+	 * @param minimumChunkBytes the smallest chunk
+	 */
+	RosemaryFileNormalizer(RosemaryCliOptions options, long minimumChunkBytes) {
+		this.options = options;
+		final RosemaryDateTimeParser.Builder builder = RosemaryDateTimeParser.builder();
+		if (options.getCacheSize() > 0) {
+			builder.parseCache(new RosemaryParseCache(options.getCacheSize()));
+		}
+		this.rosemaryDateTimeParser = builder.build();
+		this.minimumChunkBytes = minimumChunkBytes;
+	}
+
+	/**
+	 * Normalize the input file into the output file, or standard output.
+	 *
+	 * @return the counts of what was read and written
+	 * @throws IOException if the input can't be read or the output can't be written
+	 * @throws IllegalArgumentException if a column isn't in the header
+	 */
+	public RosemaryNormalizeStats normalize() throws IOException {
+		try (FileChannel in = FileChannel.open(options.getInput(), StandardOpenOption.READ)) {
+			if (options.getOutput() == null) {
+				final RosemaryNormalizeStats stats = normalize(in, Channels.newChannel(System.out));
+				System.out.flush();
+				return stats;
+			}
+			try (FileChannel out = FileChannel.open(options.getOutput(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				return normalize(in, out);
+			}
+		}
+	}
+
+	private RosemaryNormalizeStats normalize(FileChannel in, WritableByteChannel out) throws IOException {
+		final long size = in.size();
+		final RosemaryNormalizeStats stats = new RosemaryNormalizeStats();
+		long start = 0;
+		boolean[] selectedColumns = new boolean[0];
+		List<String> selectedKeys = List.of();
+		if (!options.getFormat().hasColumns()) {
+			selectedKeys = options.getColumns();
+		} else if (options.hasHeader()) {
+			start = recordEnd(in, 0, false, size);
+			final ByteBuffer header = read(in, 0, start);
+			final List<String> names = headerNames(header.duplicate());
+			final List<Integer> columns = new ArrayList<>();
+			for (final String column : options.getColumns()) {
+				if (!names.contains(column)) {
+					throw new IllegalArgumentException("No column " + column + " in the header of " + options.getInput() + ": " + String.join(", ", names));
+				}
+				columns.add(names.indexOf(column));
+			}
+			selectedColumns = selectedColumns(columns);
+			write(out, header);
+			stats.addBytes(start, start);
+		} else {
+			final List<Integer> columns = new ArrayList<>();
+			for (final String column : options.getColumns()) {
+				columns.add(Integer.parseInt(column) - 1);
+			}
+			selectedColumns = selectedColumns(columns);
+		}
+
+		final ExecutorService executorService = Executors.newFixedThreadPool(options.getThreads(), runnable -> {
+			final Thread thread = new Thread(runnable, "rosemary-cli");
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			final long[] boundaries = split(in, start, size, executorService);
+			final boolean[] columns = selectedColumns;
+			final List<String> keys = selectedKeys;
+			final ThreadLocal<RosemaryChunkNormalizer> chunkNormalizers = ThreadLocal.withInitial(() -> new RosemaryChunkNormalizer(rosemaryDateTimeParser, options, columns, keys));
+			// bound the chunks held in memory, while keeping every thread busy
+			final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+			for (int i = 0; i + 1 < boundaries.length; i++) {
+				final long from = boundaries[i];
+				final long to = boundaries[i + 1];
+				if (from == to) {
+					continue;
+				}
+				if (pending.size() >= 2 * options.getThreads()) {
+					write(out, pending.removeFirst(), stats);
+				}
+				pending.addLast(executorService.submit(() -> {
+					final RosemaryNormalizeStats chunkStats = new RosemaryNormalizeStats();
+					final MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+					return new Chunk(chunkNormalizers.get().normalize(data, 0, data.limit(), chunkStats), chunkStats);
+				}));
+			}
+			while (!pending.isEmpty()) {
+				write(out, pending.removeFirst(), stats);
+			}
+		} finally {
+			executorService.shutdownNow();
+		}
+		return stats;
+	}
+
+	/**
+	 * Split part of a file into chunks of whole records.
+	 *
+	 * @return the index of the start of each chunk, then the end of the last one; a chunk may be empty when a record is longer than a chunk
+	 */
+	private long[] split(FileChannel in, long from, long size, ExecutorService executorService) throws IOException {
+		final long chunkBytes = Math.max(minimumChunkBytes, Math.min(MAXIMUM_CHUNK_BYTES, (size - from) / ((long) options.getThreads() * CHUNKS_PER_THREAD)));
+		final int chunks = (int) Math.max(1, (size - from + chunkBytes - 1) / chunkBytes);
+		final long[] boundaries = new long[chunks + 1];
+		for (int i = 0; i < chunks; i++) {
+			boundaries[i] = from + i * chunkBytes;
+		}
+		boundaries[chunks] = size;
+
+		// whether each nominal boundary is inside quotes, from the parity of the quotes before it
+		final boolean[] inQuotes = new boolean[chunks];
+		if (options.getFormat().isQuoted()) {
+			final List<Future<Boolean>> oddQuotes = new ArrayList<>();
+			for (int i = 0; i + 1 < chunks; i++) {
+				final long chunkFrom = boundaries[i];
+				final long chunkTo = boundaries[i + 1];
+				oddQuotes.add(executorService.submit(() -> hasOddQuotes(in, chunkFrom, chunkTo)));
+			}
+			for (int i = 1; i < chunks; i++) {
+				inQuotes[i] = inQuotes[i - 1] ^ get(oddQuotes.get(i - 1));
+			}
+		}
+
+		for (int i = 1; i < chunks; i++) {
+			boundaries[i] = Math.max(boundaries[i - 1], recordEnd(in, boundaries[i], inQuotes[i], size));
+		}
+		return boundaries;
+	}
+
+	private static boolean hasOddQuotes(FileChannel in, long from, long to) throws IOException {
+		final MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+		int quotes = 0;
+		for (int p = 0, limit = data.limit(); p < limit; p++) {
+			if (data.get(p) == '"') {
+				quotes++;
+			}
+		}
+		return (quotes & 1) != 0;
+	}
+
+	/**
+	 * Find the end of the record at a position.
+	 *
+	 * @param in the file
+	 * @param position where to start looking
+	 * @param inQuotes <code>true</code> if the position is inside a quoted field
+	 * @param size the size of the file
+	 * @return the index after the first line feed that isn't in quotes, or the size of the file if there is none
+	 */
+	private long recordEnd(FileChannel in, long position, boolean inQuotes, long size) throws IOException {
+		final boolean quoted = options.getFormat().isQuoted();
+		final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+		while (position < size) {
+			buffer.clear();
+			final int read = in.read(buffer, position);
+			if (read <= 0) {
+				break;
+			}
+			for (int p = 0; p < read; p++) {
+				final byte b = buffer.get(p);
+				if (b == '\n' && !inQuotes) {
+					return position + p + 1;
+				} else if (b == '"' && quoted) {
+					inQuotes = !inQuotes;
+				}
+			}
+			position += read;
+		}
+		return size;
+	}
+
+	private static ByteBuffer read(FileChannel in, long from, long to) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(to - from));
+		while (buffer.hasRemaining() && in.read(buffer, from + buffer.position()) > 0) {
+			// read until the buffer is full
+		}
+		return buffer.flip();
+	}
+
+	/**
+	 * @return the names of the columns in a header, unquoted and without a byte order mark
+	 */
+	private List<String> headerNames(ByteBuffer header) {
+		String text = StandardCharsets.UTF_8.decode(header).toString();
+		if (text.startsWith("\uFEFF")) {
+			text = text.substring(1);
+		}
+		if (text.endsWith("\n")) {
+			text = text.substring(0, text.length() - (text.endsWith("\r\n") ? 2 : 1));
+		}
+		final char delimiter = (char) options.getFormat().getDelimiter();
+		final List<String> names = new ArrayList<>();
+		final StringBuilder name = new StringBuilder();
+		boolean inQuotes = false;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '"' && options.getFormat().isQuoted()) {
+				if (inQuotes && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+					name.append(c);
+					i++;
+				} else {
+					inQuotes = !inQuotes;
+				}
+			} else if (c == delimiter && !inQuotes) {
+				names.add(name.toString());
+				name.setLength(0);
+			} else {
+				name.append(c);
+			}
+		}
+		names.add(name.toString());
+		return names;
+	}
+
+	/**
+	 * @param columns the indices of the columns to normalize, counted from 0
+	 * @return <code>true</code> at each of the indices
+	 */
+	private static boolean[] selectedColumns(List<Integer> columns) {
+		final boolean[] selectedColumns = new boolean[columns.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1];
+		for (final int column : columns) {
+			selectedColumns[column] = true;
+		}
+		return selectedColumns;
+	}
+
+	private static void write(WritableByteChannel out, Future<Chunk> future, RosemaryNormalizeStats stats) throws IOException {
+		final Chunk chunk = get(future);
+		write(out, chunk.data);
+		stats.merge(chunk.stats);
+	}
+
+	private static void write(WritableByteChannel out, ByteBuffer data) throws IOException {
+		while (data.hasRemaining()) {
+			out.write(data);
+		}
+	}
+
+	private static <T> T get(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted", e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof UncheckedIOException) {
+				throw ((UncheckedIOException) cause).getCause();
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * A normalized chunk, waiting to be written.
+	 */
+	private static final class Chunk {
+		private final ByteBuffer data;
+		private final RosemaryNormalizeStats stats;
+
+		private Chunk(ByteBuffer data, RosemaryNormalizeStats stats) {
+			this.data = data;
+			this.stats = stats;
+		}
+	}
+}
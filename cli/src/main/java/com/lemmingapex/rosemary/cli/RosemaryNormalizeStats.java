@@ -0,0 +1,164 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryFailureReason;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts of what a run of rosemary-cli read and wrote.  Each chunk of a file is counted on its own, and the counts are merged in the order of the chunks, so the examples of failures are the first ones in the file.
+ */
+public final class RosemaryNormalizeStats {
+
+	/**
+	 * the most examples of failed datetimes kept.
+	 */
+	static final int MAXIMUM_EXAMPLES = 10;
+
+	private long records;
+	private long values;
+	private long empty;
+	private final long[] failures = new long[RosemaryFailureReason.values().length];
+	private long inputBytes;
+	private long outputBytes;
+	private final List<String> examples = new ArrayList<>();
+
+	void addRecord() {
+		records++;
+	}
+
+	void addValue() {
+		values++;
+	}
+
+	void addEmpty() {
+		empty++;
+	}
+
+	void addFailure(RosemaryFailureReason reason, CharSequence value) {
+		failures[reason.ordinal()]++;
+		if (examples.size() < MAXIMUM_EXAMPLES) {
+			examples.add(value + " (" + reason + ")");
+		}
+	}
+
+	void addBytes(long inputBytes, long outputBytes) {
+		this.inputBytes += inputBytes;
+		this.outputBytes += outputBytes;
+	}
+
+	/**
+	 * Add the counts of a later chunk.
+	 *
+	 * @param stats the counts of the chunk
+	 */
+	void merge(RosemaryNormalizeStats stats) {
+		records += stats.records;
+		values += stats.values;
+		empty += stats.empty;
+		for (int i = 0; i < failures.length; i++) {
+			failures[i] += stats.failures[i];
+		}
+		inputBytes += stats.inputBytes;
+		outputBytes += stats.outputBytes;
+		for (final String example : stats.examples) {
+			if (examples.size() < MAXIMUM_EXAMPLES) {
+				examples.add(example);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of records read, not counting a header.
+	 *
+	 * @return the number of records
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * Get the number of values found in the columns to normalize, including empty ones.
+	 *
+	 * @return the number of values
+	 */
+	public long getValues() {
+		return values;
+	}
+
+	/**
+	 * Get the number of values that were empty, and left as they were.
+	 *
+	 * @return the number of empty values
+	 */
+	public long getEmpty() {
+		return empty;
+	}
+
+	/**
+	 * Get the number of values that were normalized.
+	 *
+	 * @return the number of values normalized
+	 */
+	public long getNormalized() {
+		return values - empty - getFailed();
+	}
+
+	/**
+	 * Get the number of values that weren't datetimes, and were left as they were.
+	 *
+	 * @return the number of failures
+	 */
+	public long getFailed() {
+		long failed = 0;
+		for (final long count : failures) {
+			failed += count;
+		}
+		return failed;
+	}
+
+	/**
+	 * Get the number of failures for each reason there were any for.
+	 *
+	 * @return the number of failures by reason
+	 */
+	public Map<RosemaryFailureReason, Long> getFailures() {
+		final Map<RosemaryFailureReason, Long> failuresByReason = new EnumMap<>(RosemaryFailureReason.class);
+		for (final RosemaryFailureReason reason : RosemaryFailureReason.values()) {
+			if (failures[reason.ordinal()] > 0) {
+				failuresByReason.put(reason, failures[reason.ordinal()]);
+			}
+		}
+		return failuresByReason;
+	}
+
+	/**
+	 * Get the first values that failed, with why.
+	 *
+	 * @return up to {@value #MAXIMUM_EXAMPLES} examples, like <code>2008-03-05 7:xx (BAD_TIME)</code>
+	 */
+	public List<String> getExamples() {
+		return Collections.unmodifiableList(examples);
+	}
+
+	/**
+	 * Get the number of bytes read, including a header.
+	 *
+	 * @return the number of bytes read
+	 */
+	public long getInputBytes() {
+		return inputBytes;
+	}
+
+	/**
+	 * Get the number of bytes written.
+	 *
+	 * @return the number of bytes written
+	 */
+	public long getOutputBytes() {
+		return outputBytes;
+	}
+}
@@ -0,0 +1,81 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryDateOrder;
+
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryCliOptions}.
+ */
+public class RosemaryCliOptionsTest {
+
+	@Test
+	public void testDefaults() {
+		final RosemaryCliOptions options = RosemaryCliOptions.parse("--columns", "created_at", "in.csv", "out.csv");
+		assertEquals(Path.of("in.csv"), options.getInput());
+		assertEquals(Path.of("out.csv"), options.getOutput());
+		assertEquals(RosemaryFileFormat.CSV, options.getFormat());
+		assertEquals(List.of("created_at"), options.getColumns());
+		assertTrue(options.hasHeader());
+		assertEquals(RosemaryDateOrder.MM_DD_YY, options.getOrder());
+		assertNull(options.getZone());
+		assertEquals(RosemaryCliOptions.Output.ISO, options.getOutputForm());
+		assertEquals(Runtime.getRuntime().availableProcessors(), options.getThreads());
+		assertEquals(4096, options.getCacheSize());
+	}
+
+	@Test
+	public void testOptions() {
+		final RosemaryCliOptions options = RosemaryCliOptions.parse("--columns=2,,3", "--no-header", "--format", "tsv", "--order=YY_MM_DD", "--zone", "America/Denver", "--output", "epoch-seconds", "--threads=3", "--cache", "0", "in.txt", "-");
+		assertNull(options.getOutput());
+		assertEquals(RosemaryFileFormat.TSV, options.getFormat());
+		assertEquals(List.of("2", "3"), options.getColumns());
+		assertFalse(options.hasHeader());
+		assertEquals(RosemaryDateOrder.YY_MM_DD, options.getOrder());
+		assertEquals(ZoneId.of("America/Denver"), options.getZone());
+		assertEquals(RosemaryCliOptions.Output.EPOCH_SECONDS, options.getOutputForm());
+		assertEquals(3, options.getThreads());
+		assertEquals(0, options.getCacheSize());
+
+		assertEquals(RosemaryFileFormat.NDJSON, RosemaryCliOptions.parse("--columns", "at", "events.jsonl", "-").getFormat());
+		assertFalse(RosemaryCliOptions.parse("--columns", "at", "events.ndjson", "-").hasHeader());
+		assertEquals(RosemaryFileFormat.TSV, RosemaryCliOptions.parse("--columns", "at", "ORDERS.TSV.txt", "-").getFormat());
+	}
+
+	@Test
+	public void testErrors() {
+		final String[][] commandLines = {
+			{"--columns", "at", "in.csv"},
+			{"--columns", "at", "in.csv", "out.csv", "extra.csv"},
+			{"in.csv", "out.csv"},
+			{"--columns", "at", "in.dat", "out.dat"},
+			{"--columns", "at", "--format", "xml", "in.csv", "out.csv"},
+			{"--columns", "at", "--order", "dd-mm-yyyy", "in.csv", "out.csv"},
+			{"--columns", "at", "--zone", "Mars/Olympus_Mons", "in.csv", "out.csv"},
+			{"--columns", "at", "--output", "rfc-822", "in.csv", "out.csv"},
+			{"--columns", "at", "--threads", "0", "in.csv", "out.csv"},
+			{"--columns", "at", "--cache", "-1", "in.csv", "out.csv"},
+			{"--columns", "at", "--no-header", "in.csv", "out.csv"},
+			{"--columns", "0", "--no-header", "in.csv", "out.csv"},
+			{"--columns", "at", "--verbose", "in.csv", "out.csv"},
+			{"in.csv", "out.csv", "--columns"}};
+		for (final String[] commandLine : commandLines) {
+			try {
+				RosemaryCliOptions.parse(commandLine);
+				fail("Expected an IllegalArgumentException for " + String.join(" ", commandLine));
+			} catch (IllegalArgumentException e) {
+				assertTrue(String.join(" ", commandLine), e.getMessage() != null);
+			}
+		}
+	}
+}
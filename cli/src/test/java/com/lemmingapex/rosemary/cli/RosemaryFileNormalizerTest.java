@@ -0,0 +1,231 @@
+package com.lemmingapex.rosemary.cli;
+
+import com.lemmingapex.rosemary.RosemaryDateOrder;
+import com.lemmingapex.rosemary.RosemaryDateTimeException;
+import com.lemmingapex.rosemary.RosemaryDateTimeParser;
+import com.lemmingapex.rosemary.RosemaryFailureReason;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryFileNormalizer}.
+ */
+public class RosemaryFileNormalizerTest {
+
+	private final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+	private final List<Path> files = new ArrayList<>();
+
+	@After
+	public void tearDown() throws IOException {
+		for (final Path file : files) {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void testCsv() throws IOException {
+		final Path in = file(".csv", String.join("\r\n",
+			"id,\"created at\",note,updated",
+			"1,2008-03-05 07:02:10 -05:00,\"hello, \"\"world\"\"",
+			"on two lines\",03/05/2008",
+			"2,\"2008-03-05T07:02:10Z\",plain,",
+			"3,not a date,x,\"3/5/2008 7:02 PM\"",
+			""));
+		final Path out = file(".csv", "");
+		final RosemaryNormalizeStats stats = normalize("--columns", "created at,updated", "--zone", "UTC", in.toString(), out.toString());
+
+		assertEquals(String.join("\r\n",
+			"id,\"created at\",note,updated",
+			"1," + iso("2008-03-05 07:02:10 -05:00", ZoneOffset.UTC) + ",\"hello, \"\"world\"\"",
+			"on two lines\"," + iso("03/05/2008", ZoneOffset.UTC),
+			"2," + iso("2008-03-05T07:02:10Z", ZoneOffset.UTC) + ",plain,",
+			"3,not a date,x," + iso("3/5/2008 7:02 PM", ZoneOffset.UTC),
+			""), Files.readString(out));
+		assertEquals("2008-03-05T12:02:10Z", iso("2008-03-05 07:02:10 -05:00", ZoneOffset.UTC));
+		assertEquals(3, stats.getRecords());
+		assertEquals(6, stats.getValues());
+		assertEquals(4, stats.getNormalized());
+		assertEquals(1, stats.getEmpty());
+		assertEquals(1, stats.getFailed());
+		assertEquals(List.of("not a date (" + stats.getFailures().keySet().iterator().next() + ")"), stats.getExamples());
+		assertEquals(Files.size(in), stats.getInputBytes());
+		assertEquals(Files.size(out), stats.getOutputBytes());
+	}
+
+	@Test
+	public void testTsvEpoch() throws IOException {
+		final Path in = file(".tsv", "a\t2008-03-05T07:02:10.488-05:00\tb\nc\t1969-12-31T23:59:59.5Z\nd\t\t\ne\tnope");
+		final Path millis = file(".tsv", "");
+		normalize("--no-header", "--columns", "2", "--output", "epoch-millis", in.toString(), millis.toString());
+		assertEquals("a\t1204718530488\tb\nc\t-500\nd\t\t\ne\tnope", Files.readString(millis));
+
+		final Path seconds = file(".tsv", "");
+		final RosemaryNormalizeStats stats = normalize("--no-header", "--columns", "2", "--output=epoch-seconds", in.toString(), seconds.toString());
+		assertEquals("a\t1204718530\tb\nc\t-1\nd\t\t\ne\tnope", Files.readString(seconds));
+		assertEquals(4, stats.getRecords());
+		assertEquals(2, stats.getNormalized());
+		assertEquals(1, stats.getEmpty());
+		assertEquals(1, stats.getFailed());
+	}
+
+	@Test
+	public void testNdjson() throws IOException {
+		final Path in = file(".ndjson", String.join("\n",
+			"{\"id\":1, \"at\" : \"03\\/05\\/2008 7:02 PM\", \"nested\":{\"at\":\"2008-03-05\"}, \"note\":\"\\\"at\\\":\\\"2008-03-05\\\"\"}",
+			"{\"id\":2,\"at\":null,\"list\":[{\"at\":\"2008-03-05\"}]}",
+			"{\"at\":\"bad\",\"when\":\"2008-03-05T07:02:10+05:30\"}",
+			"[\"at\",\"2008-03-05\"]",
+			""));
+		final Path out = file(".jsonl", "");
+		final RosemaryNormalizeStats stats = normalize("--columns", "at,when", "--zone", "+01:00", in.toString(), out.toString());
+		final ZoneId zone = ZoneOffset.ofHours(1);
+		assertEquals(String.join("\n",
+			"{\"id\":1, \"at\" : \"" + iso("03/05/2008 7:02 PM", zone) + "\", \"nested\":{\"at\":\"2008-03-05\"}, \"note\":\"\\\"at\\\":\\\"2008-03-05\\\"\"}",
+			"{\"id\":2,\"at\":null,\"list\":[{\"at\":\"2008-03-05\"}]}",
+			"{\"at\":\"bad\",\"when\":\"" + iso("2008-03-05T07:02:10+05:30", zone) + "\"}",
+			"[\"at\",\"2008-03-05\"]",
+			""), Files.readString(out));
+		assertEquals(4, stats.getRecords());
+		assertEquals(3, stats.getValues());
+		assertEquals(2, stats.getNormalized());
+		assertEquals(1, stats.getFailed());
+	}
+
+	@Test
+	public void testNdjsonEpoch() throws IOException {
+		final Path in = file(".ndjson", "{\"at\":\"2008-03-05T07:02:10.488-05:00\"}\n{\"at\":\"bad\"}\n");
+		final Path out = file(".ndjson", "");
+		normalize("--columns", "at", "--output", "epoch-millis", in.toString(), out.toString());
+		assertEquals("{\"at\":1204718530488}\n{\"at\":\"bad\"}\n", Files.readString(out));
+	}
+
+	@Test
+	public void testNdjsonMalformedEscape() throws IOException {
+		final String bad = "{\"at\":\"2008-03-05 \\uZZZZ07:02\"}";
+		final String truncated = "{\"at\":\"2008-03-05\\u00\"}";
+		final Path in = file(".ndjson", bad + "\n" + truncated + "\n{\"at\":\"2008\\u002d03-05\"}\n");
+		final Path out = file(".ndjson", "");
+		final RosemaryNormalizeStats stats = normalize("--columns", "at", in.toString(), out.toString());
+		assertEquals(bad + "\n" + truncated + "\n{\"at\":\"" + iso("2008-03-05", null) + "\"}\n", Files.readString(out));
+		assertEquals(3, stats.getValues());
+		assertEquals(1, stats.getNormalized());
+		assertEquals(2, stats.getFailed());
+		assertEquals(Long.valueOf(2), stats.getFailures().get(RosemaryFailureReason.UNKNOWN));
+	}
+
+	@Test
+	public void testOrder() throws IOException {
+		final Path in = file(".csv", "d\n03/04/05\n");
+		final Path out = file(".csv", "");
+		normalize("--columns", "d", "--order", "dd-mm-yy", in.toString(), out.toString());
+		assertEquals("d\n" + normalized("03/04/05", RosemaryDateOrder.DD_MM_YY, null) + "\n", Files.readString(out));
+		assertNotEquals(normalized("03/04/05", RosemaryDateOrder.DD_MM_YY, null), iso("03/04/05", null));
+	}
+
+	@Test
+	public void testParallelSameAsSequential() throws IOException {
+		final Random random = new Random(1);
+		final String[] values = {"2008-03-05 07:02:10", "3/5/2008 7:02 PM", "2019-03-05 07:02:30 America/Denver", "not \"a\" date", "", "1204675245123", "2008-03-05T07:02:10.123456789+05:30"};
+		final StringBuilder csv = new StringBuilder("id,at,note\n");
+		final StringBuilder expected = new StringBuilder(csv);
+		for (int i = 0; i < 5000; i++) {
+			final String value = values[random.nextInt(values.length)];
+			final String field = value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+			final String note;
+			switch (random.nextInt(4)) {
+				case 0:
+					note = "\"a\nquoted \"\"note\"\",\n\"";
+					break;
+				case 1:
+					note = "\"\"";
+					break;
+				default:
+					note = "note " + i;
+					break;
+			}
+			final String end = random.nextBoolean() ? "\r\n" : "\n";
+			csv.append(i).append(',').append(field).append(',').append(note).append(end);
+			final String iso = value.isEmpty() || value.contains("\"") ? field : iso(value, null);
+			expected.append(i).append(',').append(iso).append(',').append(note).append(end);
+		}
+		final Path in = file(".csv", csv.toString());
+		final Path sequential = file(".csv", "");
+		final Path parallel = file(".csv", "");
+		final RosemaryNormalizeStats sequentialStats = new RosemaryFileNormalizer(RosemaryCliOptions.parse("--columns", "at", "--threads", "1", in.toString(), sequential.toString())).normalize();
+		final RosemaryNormalizeStats parallelStats = new RosemaryFileNormalizer(RosemaryCliOptions.parse("--columns", "at", "--threads", "4", "--cache", "0", in.toString(), parallel.toString()), 1000).normalize();
+
+		assertEquals(expected.toString(), Files.readString(sequential));
+		assertEquals(Files.readString(sequential), Files.readString(parallel));
+		assertEquals(5000, sequentialStats.getRecords());
+		assertEquals(sequentialStats.getRecords(), parallelStats.getRecords());
+		assertEquals(sequentialStats.getNormalized(), parallelStats.getNormalized());
+		assertEquals(sequentialStats.getFailures(), parallelStats.getFailures());
+		assertEquals(sequentialStats.getExamples(), parallelStats.getExamples());
+		assertEquals(sequentialStats.getOutputBytes(), parallelStats.getOutputBytes());
+		assertTrue(sequentialStats.getFailed() > 0);
+	}
+
+	@Test
+	public void testMissingColumn() throws IOException {
+		final Path in = file(".csv", "a,b\n1,2\n");
+		final Path out = file(".csv", "");
+		try {
+			normalize("--columns", "c", in.toString(), out.toString());
+			fail("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("No column c"));
+		}
+	}
+
+	@Test
+	public void testEmptyFile() throws IOException {
+		final Path in = file(".tsv", "");
+		final Path out = file(".tsv", "x");
+		final RosemaryNormalizeStats stats = normalize("--no-header", "--columns", "1", in.toString(), out.toString());
+		assertEquals("", Files.readString(out));
+		assertEquals(0, stats.getRecords());
+		assertEquals(Map.of(), stats.getFailures());
+	}
+
+	private RosemaryNormalizeStats normalize(String... args) throws IOException {
+		return new RosemaryFileNormalizer(RosemaryCliOptions.parse(args)).normalize();
+	}
+
+	private String iso(String datetime, ZoneId zone) {
+		return normalized(datetime, RosemaryDateOrder.MM_DD_YY, zone);
+	}
+
+	private String normalized(String datetime, RosemaryDateOrder order, ZoneId zone) {
+		final StringBuilder out = new StringBuilder();
+		try {
+			rosemaryDateTimeParser.normalize(datetime, order, out, zone);
+		} catch (RosemaryDateTimeException e) {
+			throw new AssertionError(datetime, e);
+		}
+		return out.toString();
+	}
+
+	private Path file(String suffix, String content) throws IOException {
+		final Path file = Files.createTempFile("rosemary-cli", suffix);
+		files.add(file);
+		Files.writeString(file, content, StandardCharsets.UTF_8);
+		return file;
+	}
+}
@@ -11,6 +11,8 @@ version = "1.0.0"
 plugins {
     // Apply the java-library plugin for API and implementation separation.
     `java-library`
+    // Share the corpus generator with the tests and benchmarks.
+    `java-test-fixtures`
     // Use this plugin to publish the library to maven : https://oss.sonatype.org/
     `maven-publish`
     `signing`
@@ -35,12 +37,81 @@ java {
     withSourcesJar()
 }
 
-tasks.test {
+// The Vector API kernel of the ISO-8601 batch scanner is compiled against the incubator module and shipped in the same jar.
+// It is only loaded when the JVM is started with --add-modules jdk.incubator.vector; otherwise the SWAR kernel is used.
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+}
+
+tasks.named<JavaCompile>(vector.compileJavaTaskName) {
+    options.compilerArgs.addAll(listOf("--add-modules", "jdk.incubator.vector"))
+}
+
+tasks.jar {
+    from(vector.output)
+}
+
+tasks.named<Jar>("sourcesJar") {
+    from(vector.allSource)
+}
+
+sourceSets.test {
+    runtimeClasspath += vector.output
+}
+
+tasks.withType<Test>().configureEach {
     testLogging {
         events("PASSED", "SKIPPED", "FAILED")
     }
+    // Test the Vector API kernel; the SWAR kernel is tested directly.
+    jvmArgs("--add-modules", "jdk.incubator.vector")
+    // Pass -Drosemary.* options, like rosemary.corpus.file or rosemary.allocation.report, through to the tests.
+    System.getProperties().stringPropertyNames().filter { it.startsWith("rosemary.") }.forEach {
+        systemProperty(it, System.getProperty(it))
+    }
 }
 
+// Measure allocation in a JVM of its own; what the JIT makes of a call depends on what else ran earlier in the JVM.
+val allocationTest by tasks.registering(Test::class) {
+    group = "verification"
+    description = "Checks the bytes allocated per call against allocation-budget.properties."
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath
+    filter {
+        includeTestsMatching("com.lemmingapex.rosemary.RosemaryAllocationTest")
+    }
+}
+
+tasks.test {
+    filter {
+        excludeTestsMatching("com.lemmingapex.rosemary.RosemaryAllocationTest")
+    }
+    dependsOn(allocationTest)
+}
+
+// Write a ground-truth corpus, e.g. ./gradlew :lib:generateCorpus --args="build/corpus/rosemary-corpus.tsv.gz 1000000 42"
+tasks.register<JavaExec>("generateCorpus") {
+    group = "verification"
+    description = "Generates a datetime corpus with the expected parse of each entry."
+    classpath = sourceSets["testFixtures"].runtimeClasspath
+    mainClass.set("com.lemmingapex.rosemary.RosemaryCorpusGenerator")
+    workingDir = projectDir
+    args("build/corpus/rosemary-corpus.tsv.gz")
+}
+
+// Compare the fast paths with the reference engine, e.g. ./gradlew :lib:differential --args="10000000 42"
+tasks.register<JavaExec>("differential") {
+    group = "verification"
+    description = "Compares every fast path with the reference engine on generated and fuzzed datetimes."
+    classpath = sourceSets["testFixtures"].runtimeClasspath
+    mainClass.set("com.lemmingapex.rosemary.RosemaryDifferentialHarness")
+}
+
+// The test fixtures are not part of the published library.
+val javaComponent = components["java"] as AdhocComponentWithVariants
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesApiElements"]) { skip() }
+javaComponent.withVariantsFromConfiguration(configurations["testFixturesRuntimeElements"]) { skip() }
+
 publishing {
     publications {
         create<MavenPublication>("mavenJava") {
@@ -0,0 +1,15 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * How a full {@link RosemaryParseCache} makes room for a new entry.
+ */
+public enum RosemaryCacheEviction {
+	/**
+	 * Always admit the new entry and evict the least recently used one.
+	 */
+	LEAST_RECENTLY_USED,
+	/**
+	 * Only admit the new entry if it has been looked up more often, recently, than the least recently used entry it would evict.  This keeps one-off values from pushing out the values that repeat.
+	 */
+	FREQUENCY_ADMISSION;
+}
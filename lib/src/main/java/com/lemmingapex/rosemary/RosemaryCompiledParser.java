@@ -0,0 +1,908 @@
+package com.lemmingapex.rosemary;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Parses datetimes with the layout of one example, like <code>March 5th 2008 7:02 pm EST</code>, made with {@link RosemaryDateTimeParser#compileFromExample(String, RosemaryDateOrder)}.
+ * <p>
+ * Compiling reads the example with the engine once and keeps what each of its tokens was: a number and whether it became the year, month or day, a time, a month name, an ordinal, an offset, a time zone name, or a word that was skipped.  Parsing is then a single pass over the characters that checks each token is of the same kind and reads its value straight into place, without the engine's strings and state.  The engine places a number by whether it could be a month, a day or only a year, so compiling also works out which of those each number can be while every number keeps its place.  A datetime whose numbers the engine would place differently, like <code>13/5/2008</code> for the example <code>3/5/2008</code>, doesn't have the layout.
+ * <p>
+ * A datetime that doesn't have the layout fails with {@link RosemaryFailureReason#LAYOUT_MISMATCH}.  One that does is read exactly as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} reads it, and fails where that fails.  {@link #parseEpochMillis(CharSequence)} creates no objects, except to look up a time zone name other than the example's, and for the rare datetimes the engine reads instead: years before 1583, when calendars were Julian, years before 1900 in a named time zone, and times within hours of a change to a named time zone's offset.
+ * <p>
+ * A compiled parser is immutable and can be shared between threads.
+ */
+public final class RosemaryCompiledParser {
+
+	/**
+	 * What a token is, tried in the order the engine tries them.
+	 */
+	private enum Kind {
+		NUMBER, WEEKDAY, UNIVERSAL_TIME, OFFSET, TIME, BAD_TIME, MONTH_NAME, ORDINAL, MERIDIAN,
+		/**
+		 * a time zone name, or a word the engine skips.  Told apart by looking the name up.
+		 */
+		OTHER,
+		/**
+		 * a time zone name.
+		 */
+		ZONE,
+		/**
+		 * a word the engine skips.
+		 */
+		SKIPPED,
+		/**
+		 * something that can't be told without the engine, like a number too long for a <code>long</code>.
+		 */
+		UNSURE
+	}
+
+	private static final int YEAR = 0;
+	private static final int MONTH = 1;
+	private static final int DAY = 2;
+	private static final int NUMERIC_OFFSET = 3;
+
+	/**
+	 * The engine places a number by which of these it is in: 0, 1-12, 13-31 or 32-9999.
+	 */
+	private static final int VALUE_CLASSES = 4;
+
+	/**
+	 * The most numbers and ordinals that go to the date, so there are at most 4^6 ways to place them to work out.
+	 */
+	private static final int MAXIMUM_DATE_TOKENS = 6;
+
+	private static final int NOT_ORDINAL = Integer.MIN_VALUE;
+	private static final int UNSURE_ORDINAL = Integer.MAX_VALUE;
+
+	/**
+	 * Returned in place of milliseconds for a datetime the engine reads instead.
+	 */
+	private static final long ENGINE = Long.MIN_VALUE;
+
+	/**
+	 * A time zone's offset must be the same this long either side of a time, for the time to be read without the engine.
+	 */
+	static final long TRANSITION_MARGIN_MILLIS = 12 * 3_600_000L;
+
+	/**
+	 * Before this year a time zone's offset can be its local mean time, which {@link TimeZone} doesn't have but the engine's {@link java.time.ZonedDateTime} does.
+	 */
+	static final int NAMED_ZONE_MINIMUM_YEAR = 1900;
+
+	private static final int MAXIMUM_OFFSET_SECONDS = 18 * 3600;
+
+	private final RosemaryDateTimeParser rosemaryDateTimeParser;
+	private final RosemaryDateOrder rosemaryParserDateOrder;
+	private final String example;
+	private final boolean iso;
+	private final boolean wordsEnabled;
+	private final boolean numericOffsetsEnabled;
+	private final Kind[] kinds;
+	private final int[] roles;
+	private final String[] words;
+	private final TimeZone[] timeZones;
+	private final RosemaryFailureReason[] placementFailures;
+
+	private RosemaryCompiledParser(RosemaryDateTimeParser rosemaryDateTimeParser, RosemaryDateOrder rosemaryParserDateOrder, String example, boolean iso, Kind[] kinds, int[] roles, String[] words, TimeZone[] timeZones, RosemaryFailureReason[] placementFailures) {
+		this.rosemaryDateTimeParser = rosemaryDateTimeParser;
+		this.rosemaryParserDateOrder = rosemaryParserDateOrder;
+		this.example = example;
+		this.iso = iso;
+		this.wordsEnabled = rosemaryDateTimeParser.getStages().contains(RosemaryParseStage.WORDS);
+		this.numericOffsetsEnabled = rosemaryDateTimeParser.getStages().contains(RosemaryParseStage.NUMERIC_OFFSETS);
+		this.kinds = kinds;
+		this.roles = roles;
+		this.words = words;
+		this.timeZones = timeZones;
+		this.placementFailures = placementFailures;
+	}
+
+	/**
+	 * Compile a parser for the layout of an example.  See {@link RosemaryDateTimeParser#compileFromExample(String, RosemaryDateOrder)}.
+	 */
+	static RosemaryCompiledParser compile(RosemaryDateTimeParser rosemaryDateTimeParser, String example, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		rosemaryDateTimeParser.parse(example, rosemaryParserDateOrder);
+		if (RosemaryIsoDateTime.parseIso(example) != null) {
+			return new RosemaryCompiledParser(rosemaryDateTimeParser, rosemaryParserDateOrder, example, true, new Kind[0], new int[0], new String[0], new TimeZone[0], new RosemaryFailureReason[1]);
+		}
+
+		// find the tokens the way the engine does
+		final List<int[]> bounds = new ArrayList<>();
+		final int length = example.length();
+		int start = 0;
+		while (true) {
+			int end = start;
+			while (end < length && !RosemaryTokenizer.isSeparator(example, 0, length, end)) {
+				end++;
+			}
+			if (!isBoring(example, start, end)) {
+				bounds.add(new int[] {start, end});
+			}
+			if (end >= length) {
+				break;
+			}
+			start = end + 1;
+			while (start < length && RosemaryTokenizer.isSeparator(example, 0, length, start)) {
+				start++;
+			}
+		}
+		final String[] tokens = RosemaryTokenizer.tokenize(example.toUpperCase()).tokens();
+		if (tokens.length != bounds.size() || tokens.length < 2) {
+			throw new IllegalArgumentException("Can't compile " + example + ", it must be ASCII and have more than one token");
+		}
+
+		final RosemaryCompiledParser unplaced = new RosemaryCompiledParser(rosemaryDateTimeParser, rosemaryParserDateOrder, example, false, null, null, null, null, null);
+		final Kind[] kinds = new Kind[tokens.length];
+		final String[] words = new String[tokens.length];
+		final TimeZone[] timeZones = new TimeZone[tokens.length];
+		int monthNameNumber = 0;
+		for (int i = 0; i < tokens.length; i++) {
+			final int tokenStart = bounds.get(i)[0];
+			final int tokenEnd = bounds.get(i)[1];
+			Kind kind = unplaced.kindOf(example, tokenStart, tokenEnd);
+			if (kind == Kind.OTHER) {
+				timeZones[i] = rosemaryDateTimeParser.getTimeZone(tokens[i]);
+				kind = timeZones[i] != null ? Kind.ZONE : Kind.SKIPPED;
+			}
+			if (kind == Kind.UNSURE || kind == Kind.BAD_TIME || !tokens[i].contentEquals(example.substring(tokenStart, tokenEnd).toUpperCase())) {
+				throw new IllegalArgumentException("Can't compile " + example + ", its token " + tokens[i] + " isn't supported");
+			}
+			if (kind == Kind.MONTH_NAME) {
+				if (monthNameNumber != 0) {
+					throw new IllegalArgumentException("Can't compile " + example + ", it has more than one month name");
+				}
+				monthNameNumber = monthNumber(example, tokenStart, tokenEnd);
+			}
+			kinds[i] = kind;
+			words[i] = tokens[i];
+		}
+
+		// the numbers that come once the date is complete are offsets, the others and the ordinals go to the date
+		final int[] roles = new int[tokens.length];
+		Arrays.fill(roles, -1);
+		final List<Integer> dateTokens = new ArrayList<>();
+		int exampleClasses = 0;
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(rosemaryParserDateOrder);
+		for (int i = 0; i < tokens.length; i++) {
+			if (kinds[i] == Kind.NUMBER && state.isYearSet() && state.isMonthSet() && state.isDaySet()) {
+				roles[i] = NUMERIC_OFFSET;
+			} else if (kinds[i] == Kind.NUMBER || kinds[i] == Kind.ORDINAL) {
+				final long value = kinds[i] == Kind.NUMBER ? Long.parseLong(tokens[i]) : ordinalNumber(tokens[i], 0, tokens[i].length());
+				if ((kinds[i] == Kind.NUMBER && !isDigit(tokens[i].charAt(0))) || value > 9999) {
+					throw new IllegalArgumentException("Can't compile " + example + ", its number " + tokens[i] + " isn't a year, month or day on its own");
+				}
+				dateTokens.add(i);
+				exampleClasses = exampleClasses * VALUE_CLASSES + valueClass(value);
+			}
+			parseToken(rosemaryDateTimeParser, tokens, i, state);
+		}
+		if (dateTokens.size() > MAXIMUM_DATE_TOKENS) {
+			throw new IllegalArgumentException("Can't compile " + example + ", it has more than " + MAXIMUM_DATE_TOKENS + " numbers");
+		}
+		if (placements(rosemaryDateTimeParser, rosemaryParserDateOrder, tokens, dateTokens, kinds, exampleClasses, monthNameNumber) == null) {
+			throw new IllegalArgumentException("Can't compile " + example + ", it needs a year, month and day");
+		}
+
+		// work out where the engine places the numbers for each of the classes they could be in
+		final int[] exampleRoles = placements(rosemaryDateTimeParser, rosemaryParserDateOrder, tokens, dateTokens, kinds, exampleClasses, monthNameNumber);
+		final RosemaryFailureReason[] placementFailures = new RosemaryFailureReason[(int) Math.pow(VALUE_CLASSES, dateTokens.size())];
+		for (int classes = 0; classes < placementFailures.length; classes++) {
+			try {
+				final int[] placedRoles = placements(rosemaryDateTimeParser, rosemaryParserDateOrder, tokens, dateTokens, kinds, classes, monthNameNumber);
+				placementFailures[classes] = Arrays.equals(exampleRoles, placedRoles) ? null : RosemaryFailureReason.LAYOUT_MISMATCH;
+			} catch (RosemaryDateTimeException e) {
+				placementFailures[classes] = e.getReason();
+			}
+		}
+		for (int j = 0; j < dateTokens.size(); j++) {
+			roles[dateTokens.get(j)] = exampleRoles[j];
+		}
+
+		return new RosemaryCompiledParser(rosemaryDateTimeParser, rosemaryParserDateOrder, example, false, kinds, roles, words, timeZones, placementFailures);
+	}
+
+	/**
+	 * Read the tokens with the engine, with the numbers and ordinals that go to the date replaced by stand-ins from some classes.
+	 *
+	 * @return where each of the numbers and ordinals that go to the date ended up, or <code>null</code> if the engine places them where they can't be told apart or leaves part of the date to the current date
+	 * @throws RosemaryDateTimeException if the engine fails on the stand-ins
+	 */
+	private static int[] placements(RosemaryDateTimeParser rosemaryDateTimeParser, RosemaryDateOrder rosemaryParserDateOrder, String[] tokens, List<Integer> dateTokens, Kind[] kinds, int classes, int monthNameNumber) throws RosemaryDateTimeException {
+		// stand-ins are different from each other, the month name's number and the day and month the engine defaults to
+		final int[] standIns = new int[dateTokens.size()];
+		final int[] used = new int[VALUE_CLASSES];
+		int remaining = classes;
+		for (int j = dateTokens.size() - 1; j >= 0; j--) {
+			final int valueClass = remaining % VALUE_CLASSES;
+			remaining /= VALUE_CLASSES;
+			int standIn;
+			switch (valueClass) {
+				case 0:
+					if (used[0] > 0) {
+						return null;
+					}
+					standIn = 0;
+					break;
+				case 1:
+					standIn = 2 + used[1];
+					if (standIn >= monthNameNumber && monthNameNumber > 1) {
+						standIn++;
+					}
+					break;
+				case 2:
+					standIn = 13 + used[2];
+					break;
+				default:
+					standIn = 40 + used[3];
+					break;
+			}
+			used[valueClass]++;
+			standIns[j] = standIn;
+		}
+
+		final String[] standInTokens = tokens.clone();
+		for (int j = 0; j < dateTokens.size(); j++) {
+			final int i = dateTokens.get(j);
+			standInTokens[i] = kinds[i] == Kind.ORDINAL ? standIns[j] + "TH" : Integer.toString(standIns[j]);
+		}
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(rosemaryParserDateOrder);
+		for (int i = 0; i < standInTokens.length; i++) {
+			parseToken(rosemaryDateTimeParser, standInTokens, i, state);
+		}
+		if (state.isMonthSet() && !state.isDaySet()) {
+			state.setDay(1);
+		}
+		if (state.isYearSet() && !state.isMonthSet() && !state.isDaySet()) {
+			state.setMonth(1);
+			state.setDay(1);
+		}
+		if (!state.isYearSet() || !state.isMonthSet() || !state.isDaySet() || (monthNameNumber > 0 && state.getMonth() != monthNameNumber)) {
+			return null;
+		}
+
+		final int[] placedRoles = new int[dateTokens.size()];
+		for (int j = 0; j < dateTokens.size(); j++) {
+			if (state.getYear() == standIns[j]) {
+				placedRoles[j] = YEAR;
+			} else if (state.getMonth() == standIns[j]) {
+				placedRoles[j] = MONTH;
+			} else if (state.getDay() == standIns[j]) {
+				placedRoles[j] = DAY;
+			} else {
+				return null;
+			}
+		}
+		return placedRoles;
+	}
+
+	private static void parseToken(RosemaryDateTimeParser rosemaryDateTimeParser, String[] tokens, int i, RosemaryDateTimeState state) throws RosemaryDateTimeException {
+		try {
+			rosemaryDateTimeParser.parseNumericToken(Long.parseLong(tokens[i]), tokens, state);
+		} catch (NumberFormatException e) {
+			rosemaryDateTimeParser.parseNonNumericToken(tokens[i], tokens, state);
+		}
+	}
+
+	/**
+	 * Get the example this parser was compiled from.
+	 *
+	 * @return the example
+	 */
+	public String getExample() {
+		return this.example;
+	}
+
+	/**
+	 * Get the order ambiguous dates are resolved in, the one the example was compiled with.
+	 *
+	 * @return the date order
+	 */
+	public RosemaryDateOrder getDateOrder() {
+		return this.rosemaryParserDateOrder;
+	}
+
+	/**
+	 * Parses a datetime with the layout of the example.
+	 *
+	 * @param text the datetime to parse
+	 * @return the datetime, as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} would parse it
+	 * @throws RosemaryDateTimeException with {@link RosemaryFailureReason#LAYOUT_MISMATCH} if the text doesn't have the layout of the example, or another reason if it does but isn't a valid datetime
+	 */
+	public OffsetDateTime parse(CharSequence text) throws RosemaryDateTimeException {
+		if (iso) {
+			return parseIso(text);
+		}
+		final int[] offsetSeconds = new int[1];
+		final long epochMillis = read(text, offsetSeconds);
+		if (epochMillis == ENGINE) {
+			return rosemaryDateTimeParser.parse(text.toString(), rosemaryParserDateOrder);
+		}
+		return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.ofTotalSeconds(offsetSeconds[0]));
+	}
+
+	/**
+	 * Parses a datetime with the layout of the example to milliseconds since the epoch, without creating any objects.
+	 *
+	 * @param text the datetime to parse
+	 * @return milliseconds since the epoch
+	 * @throws RosemaryDateTimeException with {@link RosemaryFailureReason#LAYOUT_MISMATCH} if the text doesn't have the layout of the example, or another reason if it does but isn't a valid datetime
+	 */
+	public long parseEpochMillis(CharSequence text) throws RosemaryDateTimeException {
+		if (iso) {
+			return parseIso(text).toInstant().toEpochMilli();
+		}
+		final long epochMillis = read(text, null);
+		if (epochMillis == ENGINE) {
+			return rosemaryDateTimeParser.parse(text.toString(), rosemaryParserDateOrder).toInstant().toEpochMilli();
+		}
+		return epochMillis;
+	}
+
+	/**
+	 * Does a datetime have the layout of the example?  A datetime with the layout can still fail to parse, like <code>3/5/2008 7:99</code>.
+	 *
+	 * @param text the datetime
+	 * @return <code>true</code> if the text has the layout
+	 */
+	public boolean matches(CharSequence text) {
+		try {
+			parseEpochMillis(text);
+			return true;
+		} catch (RosemaryDateTimeException e) {
+			return e.getReason() != RosemaryFailureReason.LAYOUT_MISMATCH;
+		}
+	}
+
+	private OffsetDateTime parseIso(CharSequence text) throws RosemaryDateTimeException {
+		checkLength(text);
+		final OffsetDateTime offsetDateTime = RosemaryIsoDateTime.parseIso(text);
+		if (offsetDateTime == null) {
+			throw mismatch(text, 0, text.length());
+		}
+		return offsetDateTime;
+	}
+
+	private void checkLength(CharSequence text) throws RosemaryDateTimeException {
+		final int maximumInputLength = rosemaryDateTimeParser.getMaximumInputLength();
+		if (text.length() > maximumInputLength) {
+			throw new RosemaryDateTimeException("Input too long: " + text.length() + " characters, the maximum is " + maximumInputLength, RosemaryFailureReason.TOO_LONG);
+		}
+	}
+
+	/**
+	 * Read a datetime in one pass, mirroring what the engine does with each token.
+	 *
+	 * @param offsetSecondsOut where to put the offset of the datetime, or <code>null</code>
+	 * @return milliseconds since the epoch, or {@link #ENGINE} if the engine must read it
+	 */
+	private long read(CharSequence text, int[] offsetSecondsOut) throws RosemaryDateTimeException {
+		checkLength(text);
+		final int length = text.length();
+
+		int year = -1;
+		int month = -1;
+		int day = -1;
+		int hour = -1;
+		int minute = -1;
+		int second = -1;
+		int millisecond = -1;
+		boolean postMeridian = false;
+		boolean timeZoneSet = false;
+		int zoneOffsetSeconds = 0;
+		TimeZone timeZone = null;
+		int classes = 0;
+
+		int index = 0;
+		int start = 0;
+		while (true) {
+			int end = start;
+			while (end < length && !RosemaryTokenizer.isSeparator(text, 0, length, end)) {
+				end++;
+			}
+			if (!isBoring(text, start, end)) {
+				if (index == kinds.length) {
+					throw mismatch(text, start, end);
+				}
+				final Kind kind = kindOf(text, start, end);
+				final Kind expected = kinds[index];
+				if (kind != expected && !(kind == Kind.OTHER && (expected == Kind.ZONE || expected == Kind.SKIPPED))) {
+					throw mismatch(text, start, end);
+				}
+				switch (expected) {
+					case NUMBER: {
+						final boolean signed = !isDigit(text.charAt(start));
+						if (roles[index] == NUMERIC_OFFSET) {
+							// like the engine, a number after a complete date is an offset
+							final long value = digits(text, signed ? start + 1 : start, end);
+							if (value < 0) {
+								throw mismatch(text, start, end);
+							}
+							final long hoursAndMinutes;
+							if (value < 24) {
+								hoursAndMinutes = value * 100;
+							} else if (value >= 100 && value < 2400 && value % 100 < 60 && value % 100 % 15 == 0) {
+								hoursAndMinutes = value;
+							} else {
+								return failed(text, offsetSecondsOut, RosemaryFailureReason.UNASSIGNABLE_VALUE, start, end);
+							}
+							zoneOffsetSeconds = (text.charAt(start) == '-' ? -1 : 1) * (int) (hoursAndMinutes / 100 * 3600 + hoursAndMinutes % 100 * 60);
+							timeZone = null;
+							timeZoneSet = true;
+							break;
+						}
+						final long value = signed ? -1 : digits(text, start, end);
+						if (value < 0 || value > 9999) {
+							throw mismatch(text, start, end);
+						}
+						classes = classes * VALUE_CLASSES + valueClass(value);
+						switch (roles[index]) {
+							case YEAR:
+								year = (int) value;
+								break;
+							case MONTH:
+								month = (int) value;
+								break;
+							default:
+								day = (int) value;
+								break;
+						}
+						break;
+					}
+					case ORDINAL: {
+						final int value = ordinalNumber(text, start, end);
+						classes = classes * VALUE_CLASSES + valueClass(value);
+						switch (roles[index]) {
+							case YEAR:
+								year = value;
+								break;
+							case MONTH:
+								month = value;
+								break;
+							default:
+								day = value;
+								break;
+						}
+						break;
+					}
+					case MONTH_NAME:
+						month = monthNumber(text, start, end);
+						break;
+					case TIME: {
+						int bodyEnd = end;
+						if (upper(text.charAt(end - 1)) == 'M') {
+							final char meridian = upper(text.charAt(end - 2));
+							if (meridian == 'A') {
+								postMeridian = false;
+							} else if (meridian == 'P') {
+								postMeridian = true;
+							} else {
+								return failed(text, offsetSecondsOut, RosemaryFailureReason.BAD_TIME, start, end);
+							}
+							bodyEnd = end - 2;
+						}
+						int place = 0;
+						int partStart = start;
+						while (true) {
+							int partEnd = partStart;
+							while (partEnd < bodyEnd && text.charAt(partEnd) != ':' && text.charAt(partEnd) != '.') {
+								partEnd++;
+							}
+							final long value = digits(text, partStart, partEnd);
+							if (value < 0 || place > 3) {
+								throw mismatch(text, start, end);
+							}
+							if (place == 0) {
+								final long tmpHour = postMeridian ? value + 12 : value;
+								postMeridian = false;
+								if (tmpHour > 23) {
+									return failed(text, offsetSecondsOut, RosemaryFailureReason.OUT_OF_RANGE, start, end);
+								}
+								hour = (int) tmpHour;
+							} else if (place == 1 || place == 2) {
+								if (value > 59) {
+									return failed(text, offsetSecondsOut, RosemaryFailureReason.OUT_OF_RANGE, start, end);
+								}
+								if (place == 1) {
+									minute = (int) value;
+								} else {
+									second = (int) value;
+								}
+							} else {
+								// the first three digits of the fraction
+								final int fractionDigits = partEnd - partStart;
+								millisecond = (int) (fractionDigits >= 3 ? digits(text, partStart, partStart + 3) : value * (fractionDigits == 1 ? 100 : 10));
+							}
+							place++;
+							if (partEnd >= bodyEnd) {
+								break;
+							}
+							partStart = partEnd + 1;
+						}
+						break;
+					}
+					case MERIDIAN: {
+						final boolean pm = upper(text.charAt(start)) == 'P';
+						if (hour < 0) {
+							postMeridian = pm;
+						} else {
+							final int tmpHour = (pm ? hour % 12 + 12 : hour % 12) + (postMeridian ? 12 : 0);
+							postMeridian = false;
+							if (tmpHour > 23) {
+								return failed(text, offsetSecondsOut, RosemaryFailureReason.OUT_OF_RANGE, start, end);
+							}
+							hour = tmpHour;
+						}
+						break;
+					}
+					case OFFSET: {
+						int p = start;
+						if (startsWithIgnoreCase(text, start, end, "GMT") || startsWithIgnoreCase(text, start, end, "UTC")) {
+							p += 3;
+						}
+						if (p >= end || (text.charAt(p) != '+' && text.charAt(p) != '-')) {
+							return failed(text, offsetSecondsOut, RosemaryFailureReason.BAD_ZONE_OFFSET, start, end);
+						}
+						final boolean negative = text.charAt(p) == '-';
+						p++;
+						int colon = p;
+						while (colon < end && text.charAt(colon) != ':') {
+							colon++;
+						}
+						final long offsetHours = digits(text, p, colon);
+						final long offsetMinutes = colon == end ? 0 : digits(text, colon + 1, end);
+						if (offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0) {
+							throw mismatch(text, start, end);
+						}
+						if (offsetMinutes > 59) {
+							return failed(text, offsetSecondsOut, RosemaryFailureReason.BAD_ZONE_OFFSET, start, end);
+						}
+						zoneOffsetSeconds = (negative ? -1 : 1) * (int) (offsetHours * 3600 + offsetMinutes * 60);
+						timeZone = null;
+						timeZoneSet = true;
+						break;
+					}
+					case ZONE:
+						if (equalsIgnoreCase(text, start, end, words[index])) {
+							timeZone = timeZones[index];
+						} else {
+							timeZone = rosemaryDateTimeParser.getTimeZone(text.subSequence(start, end).toString().toUpperCase());
+							if (timeZone == null) {
+								throw mismatch(text, start, end);
+							}
+						}
+						timeZoneSet = true;
+						break;
+					case SKIPPED:
+						if (!equalsIgnoreCase(text, start, end, words[index])) {
+							throw mismatch(text, start, end);
+						}
+						break;
+					default:
+						// weekday names, GMT and UTC are skipped
+						break;
+				}
+				index++;
+			}
+			if (end >= length) {
+				break;
+			}
+			start = end + 1;
+			while (start < length && RosemaryTokenizer.isSeparator(text, 0, length, start)) {
+				start++;
+			}
+		}
+		if (index != kinds.length) {
+			throw mismatch(text, length, length);
+		}
+
+		final RosemaryFailureReason placementFailure = placementFailures[classes];
+		if (placementFailure == RosemaryFailureReason.LAYOUT_MISMATCH) {
+			throw mismatch(text, 0, length);
+		} else if (placementFailure != null) {
+			return failed(text, offsetSecondsOut, placementFailure, 0, length);
+		}
+
+		// fill in the date like the engine
+		if (month >= 0 && day < 0) {
+			day = 1;
+		}
+		if (year >= 0 && month < 0 && day < 0) {
+			month = 1;
+			day = 1;
+		}
+		if (year < 70) {
+			year += 2000;
+		} else if (year < 100) {
+			year += 1900;
+		}
+		if (year < 1583) {
+			return ENGINE;
+		}
+
+		long localMillis = RosemaryEpochMath.epochDay(year, month, day) * RosemaryEpochMath.MILLIS_PER_DAY;
+		int offsetSeconds = 0;
+		if (hour >= 0) {
+			localMillis += hour * 3_600_000L;
+			if (minute >= 0) {
+				localMillis += minute * 60_000L;
+				if (second >= 0) {
+					localMillis += second * 1000L;
+					if (millisecond >= 0) {
+						localMillis += millisecond;
+					}
+				}
+			}
+
+			// the engine only uses the time zone with a time
+			if (timeZoneSet && timeZone == null) {
+				if (Math.abs(zoneOffsetSeconds) > MAXIMUM_OFFSET_SECONDS) {
+					return failed(text, offsetSecondsOut, RosemaryFailureReason.OUT_OF_RANGE, 0, length);
+				}
+				offsetSeconds = zoneOffsetSeconds;
+			} else if (timeZoneSet) {
+				if (year < NAMED_ZONE_MINIMUM_YEAR) {
+					return ENGINE;
+				}
+				final int offsetMillis = timeZone.getOffset(localMillis - timeZone.getRawOffset());
+				final long epochMillis = localMillis - offsetMillis;
+				if (offsetMillis % 1000 != 0 || timeZone.getOffset(epochMillis) != offsetMillis || timeZone.getOffset(epochMillis - TRANSITION_MARGIN_MILLIS) != offsetMillis || timeZone.getOffset(epochMillis + TRANSITION_MARGIN_MILLIS) != offsetMillis) {
+					return ENGINE;
+				}
+				offsetSeconds = offsetMillis / 1000;
+			}
+		}
+		if (offsetSecondsOut != null) {
+			offsetSecondsOut[0] = offsetSeconds;
+		}
+		return localMillis - offsetSeconds * 1000L;
+	}
+
+	/**
+	 * Fail like the engine, which tries {@link com.lemmingapex.rosemary.utils.ParsingUtilities#DATETIME_FORMAT} before giving up.
+	 */
+	private static long failed(CharSequence text, int[] offsetSecondsOut, RosemaryFailureReason reason, int start, int end) throws RosemaryDateTimeException {
+		final OffsetDateTime dateTimeFormatDateTime = RosemaryIsoDateTime.parseDateTimeFormat(text);
+		if (dateTimeFormatDateTime != null) {
+			if (offsetSecondsOut != null) {
+				offsetSecondsOut[0] = 0;
+			}
+			return dateTimeFormatDateTime.toInstant().toEpochMilli();
+		}
+		throw new RosemaryDateTimeException("Unable to parse: " + text, reason, text.subSequence(start, end).toString().toUpperCase(), null);
+	}
+
+	private RosemaryDateTimeException mismatch(CharSequence text, int start, int end) {
+		return new RosemaryDateTimeException("Not in the layout of " + example + ": " + text, RosemaryFailureReason.LAYOUT_MISMATCH, text.subSequence(start, end).toString().toUpperCase(), null);
+	}
+
+	/**
+	 * Tell what a token is, the way the engine's readers would, without creating any objects.
+	 */
+	private Kind kindOf(CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			if (c <= ' ' || c > '~') {
+				return Kind.UNSURE;
+			}
+		}
+
+		// numbers, as Long.parseLong reads them
+		final char first = text.charAt(start);
+		final int digitsStart = first == '+' || first == '-' ? start + 1 : start;
+		if (digitsStart < end && digits(text, digitsStart, end, 18) >= 0) {
+			return Kind.NUMBER;
+		} else if (digitsStart < end && isDigits(text, digitsStart, end)) {
+			return Kind.UNSURE;
+		}
+
+		final int length = end - start;
+		if (wordsEnabled && isWeekdayName(text, start, end)) {
+			return Kind.WEEKDAY;
+		}
+		if (equalsIgnoreCase(text, start, end, "GMT") || equalsIgnoreCase(text, start, end, "UTC")) {
+			return Kind.UNIVERSAL_TIME;
+		}
+		if (numericOffsetsEnabled && (first == '+' || first == '-' || ((startsWithIgnoreCase(text, start, end, "GMT") || startsWithIgnoreCase(text, start, end, "UTC")) && (indexOf(text, start, end, '+') >= 0 || indexOf(text, start, end, '-') >= 0)))) {
+			return Kind.OFFSET;
+		}
+		if (indexOf(text, start, end, ':') > start || (length > 2 && upper(text.charAt(end - 1)) == 'M' && (upper(text.charAt(end - 2)) == 'A' || upper(text.charAt(end - 2)) == 'P'))) {
+			return isDigit(first) ? Kind.TIME : Kind.BAD_TIME;
+		}
+		if (monthNumber(text, start, end) > 0) {
+			return Kind.MONTH_NAME;
+		}
+		if (wordsEnabled) {
+			final int ordinal = ordinalNumber(text, start, end);
+			if (ordinal == UNSURE_ORDINAL) {
+				return Kind.UNSURE;
+			} else if (ordinal != NOT_ORDINAL) {
+				return Kind.ORDINAL;
+			}
+		}
+		if (equalsIgnoreCase(text, start, end, "AM") || equalsIgnoreCase(text, start, end, "PM")) {
+			return Kind.MERIDIAN;
+		}
+		return Kind.OTHER;
+	}
+
+	private static int valueClass(long value) {
+		if (value <= 0) {
+			return 0;
+		} else if (value <= 12) {
+			return 1;
+		} else if (value <= 31) {
+			return 2;
+		}
+		return 3;
+	}
+
+	/**
+	 * Like {@link RosemaryDateTimeParser#monthNameToNumber(String)}.
+	 *
+	 * @return the month of a month name, or 0 if the token isn't one
+	 */
+	private static int monthNumber(CharSequence text, int start, int end) {
+		if (end - start >= 3) {
+			for (int i = 0; i < RosemaryDateTimeParser.MONTH_NAMES.size(); i++) {
+				final String monthName = RosemaryDateTimeParser.MONTH_NAMES.get(i);
+				if (upper(text.charAt(start)) == monthName.charAt(0) && upper(text.charAt(start + 1)) == monthName.charAt(1) && upper(text.charAt(start + 2)) == monthName.charAt(2)) {
+					return i + 1;
+				}
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Like {@link RosemaryDateTimeParser#isWeekdayName(String)}.
+	 */
+	private static boolean isWeekdayName(CharSequence text, int start, int end) {
+		if (end - start >= 3) {
+			for (final String weekdayName : RosemaryDateTimeParser.WEEKDAY_NAMES) {
+				final int compared = Math.min(end - start, weekdayName.length());
+				if (regionMatches(text, start, weekdayName, compared)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Like {@link RosemaryDateTimeParser#getOrdinalNumber(String)}.
+	 *
+	 * @return the value of an ordinal, {@link #NOT_ORDINAL} if the token isn't one, or {@link #UNSURE_ORDINAL} if its number might be too large for an <code>int</code>
+	 */
+	private static int ordinalNumber(CharSequence text, int start, int end) {
+		if (end - start <= 2) {
+			return NOT_ORDINAL;
+		}
+		for (int i = 0; i < RosemaryDateTimeParser.ORDINAL_NUMBERS.size(); i++) {
+			if (equalsIgnoringDashes(text, start, end, RosemaryDateTimeParser.ORDINAL_NUMBERS.get(i))) {
+				return i + 1;
+			}
+		}
+		final char s = upper(text.charAt(end - 2));
+		final char t = upper(text.charAt(end - 1));
+		if ((s == 'S' && t == 'T') || (s == 'N' && t == 'D') || (s == 'R' && t == 'D') || (s == 'T' && t == 'H')) {
+			final char first = text.charAt(start);
+			final int digitsStart = first == '+' || first == '-' ? start + 1 : start;
+			if (digitsStart < end - 2 && isDigits(text, digitsStart, end - 2)) {
+				final long value = digits(text, digitsStart, end - 2);
+				if (value < 0) {
+					return UNSURE_ORDINAL;
+				}
+				return (int) (first == '-' ? -value : value);
+			}
+		}
+		return NOT_ORDINAL;
+	}
+
+	/**
+	 * Like the tokenizer, dashes and whitespace on their own are not tokens.
+	 */
+	private static boolean isBoring(CharSequence text, int start, int end) {
+		boolean allDashes = true;
+		boolean allBlank = true;
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			allDashes &= c == '-';
+			allBlank &= Character.isWhitespace(c);
+		}
+		return allDashes || allBlank;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isDigits(CharSequence text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (!isDigit(text.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the value of one to nine ASCII digits, or -1 if there are none, too many, or anything else
+	 */
+	private static long digits(CharSequence text, int start, int end) {
+		return digits(text, start, end, 9);
+	}
+
+	private static long digits(CharSequence text, int start, int end, int maximumDigits) {
+		if (start >= end || end - start > maximumDigits) {
+			return -1;
+		}
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			if (!isDigit(c)) {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private static char upper(char c) {
+		return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+	}
+
+	private static int indexOf(CharSequence text, int start, int end, char c) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return <code>true</code> if the first characters of the text, upper cased, are those of the upper case string
+	 */
+	private static boolean regionMatches(CharSequence text, int start, String upperCase, int length) {
+		for (int i = 0; i < length; i++) {
+			if (upper(text.charAt(start + i)) != upperCase.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean startsWithIgnoreCase(CharSequence text, int start, int end, String upperCase) {
+		return end - start >= upperCase.length() && regionMatches(text, start, upperCase, upperCase.length());
+	}
+
+	private static boolean equalsIgnoreCase(CharSequence text, int start, int end, String upperCase) {
+		return end - start == upperCase.length() && regionMatches(text, start, upperCase, upperCase.length());
+	}
+
+	private static boolean equalsIgnoringDashes(CharSequence text, int start, int end, String upperCase) {
+		int j = 0;
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			if (c == '-') {
+				continue;
+			}
+			if (j == upperCase.length() || upper(c) != upperCase.charAt(j)) {
+				return false;
+			}
+			j++;
+		}
+		return j == upperCase.length();
+	}
+
+	@Override
+	public String toString() {
+		return "RosemaryCompiledParser{example=" + example + ", dateOrder=" + rosemaryParserDateOrder + "}";
+	}
+}
@@ -0,0 +1,182 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds datetimes embedded in free text, like log messages or tickets.  The text is tokenized once with the same tokenizer as {@link RosemaryDateTimeParser}, and runs of tokens that look like parts of a datetime are handed to the parser's rules.
+ * <p>
+ * Free text is full of words that the parser would happily ignore, so the extractor is stricter about what it will consider: month and weekday names must be whole names or abbreviations, and a candidate must contain a time, a month name with a number, or numbers joined by date separators that have a year, like <code>3/5/08</code> or <code>2008-03</code>.  Ranges and fractions like <code>3-5</code> or <code>10/12</code> aren't dates on their own, and bare numbers, including epoch values, are never extracted.  As with {@link RosemaryDateTimeParser#parsePrefix(CharSequence, java.text.ParsePosition)}, a datetime with a date and a time ends before a bare number or word that follows it.
+ */
+public class RosemaryDateExtractor {
+
+	/**
+	 * the most tokens a single datetime can span, which keeps the work per token bounded.
+	 */
+	static final int MAXIMUM_TOKENS = 12;
+
+	private final RosemaryDateTimeParser rosemaryDateTimeParser;
+
+	public RosemaryDateExtractor(RosemaryDateTimeParser rosemaryDateTimeParser) {
+		this.rosemaryDateTimeParser = rosemaryDateTimeParser;
+	}
+
+	public RosemaryDateExtractor() {
+		this(new RosemaryDateTimeParser());
+	}
+
+	/**
+	 * Find the datetimes in some text.  Equivalent to {@link RosemaryDateExtractor#extract(CharSequence, RosemaryDateOrder)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param text the text to search
+	 * @return the datetimes found, in the order they appear in the text
+	 */
+	public List<RosemaryDateTimeMatch> extract(CharSequence text) {
+		return extract(text, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	/**
+	 * Find the datetimes in some text.  Missing parts of a datetime default to the current year, month and day, as with {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)}.
+	 *
+	 * @param text the text to search
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return the datetimes found, in the order they appear in the text
+	 */
+	public List<RosemaryDateTimeMatch> extract(CharSequence text, RosemaryDateOrder rosemaryParserDateOrder) {
+		final RosemaryDateTimeState defaultDateTimeState = RosemaryDateTimeParser.currentDateState(rosemaryParserDateOrder);
+		return extract(text, rosemaryParserDateOrder, defaultDateTimeState);
+	}
+
+	/**
+	 * Find the datetimes in some text.
+	 *
+	 * @param text the text to search
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided by a datetime in the text
+	 * @return the datetimes found, in the order they appear in the text
+	 */
+	public List<RosemaryDateTimeMatch> extract(CharSequence text, RosemaryDateOrder rosemaryParserDateOrder, RosemaryDateTimeState defaultDateTimeState) {
+		final List<RosemaryDateTimeMatch> matches = new ArrayList<>();
+		if (text == null) {
+			return matches;
+		}
+
+		final RosemaryTokenizer tokenizer = RosemaryTokenizer.tokenize(text).splitIsoDesignators().trimPunctuation();
+		final int size = tokenizer.size();
+		final RosemaryTokenKind[] kinds = new RosemaryTokenKind[size];
+		for (int i = 0; i < size; i++) {
+			kinds[i] = RosemaryTokenKind.of(tokenizer.token(i), rosemaryDateTimeParser);
+			// long numbers are ids and epoch values far more often than dates
+			if (kinds[i] == RosemaryTokenKind.NUMBER && tokenizer.token(i).length() > 4) {
+				kinds[i] = RosemaryTokenKind.NONE;
+			}
+		}
+
+		final RosemaryTokenRun run = new RosemaryTokenRun(tokenizer);
+		int runStart = 0;
+		while (runStart < size) {
+			if (kinds[runStart] == RosemaryTokenKind.NONE) {
+				runStart++;
+				continue;
+			}
+
+			// a run is a stretch of datetime-looking tokens on one line
+			run.clear();
+			run.add(runStart, kinds[runStart]);
+			int runEnd = runStart + 1;
+			while (runEnd < size && !isLineBreakBetween(text, tokenizer.end(runEnd - 1), tokenizer.start(runEnd)) && run.add(runEnd, kinds[runEnd])) {
+				runEnd++;
+			}
+
+			// greedily take the longest candidate that parses, then carry on after it
+			int candidateStart = runStart;
+			while (candidateStart < runEnd) {
+				if (kinds[candidateStart] == RosemaryTokenKind.CONNECTOR) {
+					candidateStart++;
+					continue;
+				}
+
+				boolean found = false;
+				for (int candidateEnd = Math.min(runEnd, candidateStart + MAXIMUM_TOKENS); candidateEnd > candidateStart; candidateEnd--) {
+					if (kinds[candidateEnd - 1] == RosemaryTokenKind.CONNECTOR || !isCandidate(tokenizer, kinds, candidateStart, candidateEnd)) {
+						continue;
+					}
+
+					final int start = tokenizer.start(candidateStart);
+					final int end = tokenizer.end(candidateEnd - 1);
+					try {
+						final OffsetDateTime dateTime = rosemaryDateTimeParser.parseTokens(tokenizer.tokens(candidateStart, candidateEnd), text.subSequence(start, end).toString(), rosemaryParserDateOrder, defaultDateTimeState);
+						matches.add(new RosemaryDateTimeMatch(start, end, dateTime));
+						candidateStart = candidateEnd;
+						found = true;
+						break;
+					} catch (RosemaryDateTimeException e) {
+						// try a shorter candidate
+					}
+				}
+
+				if (!found) {
+					candidateStart++;
+				}
+			}
+
+			runStart = runEnd;
+		}
+
+		return matches;
+	}
+
+	/**
+	 * Does a range of tokens carry enough information to be worth parsing?
+	 */
+	private static boolean isCandidate(RosemaryTokenizer tokenizer, RosemaryTokenKind[] kinds, int from, int to) {
+		boolean hasMonth = false;
+		int numbers = 0;
+		int joined = 0;
+		boolean joinedYear = false;
+		for (int i = from; i < to; i++) {
+			switch (kinds[i]) {
+				case TIME:
+					return true;
+				case MONTH:
+					hasMonth = true;
+					break;
+				case NUMBER:
+					// numbers joined by single date separators, like 3/5/08 or 2008-03, but not a range or fraction like 3-5 or 10/12
+					if (i > from && kinds[i - 1] == RosemaryTokenKind.NUMBER && tokenizer.start(i) - tokenizer.end(i - 1) == 1 && isDateSeparator(tokenizer.text().charAt(tokenizer.end(i - 1)))) {
+						joined++;
+					} else {
+						joined = 1;
+						joinedYear = false;
+					}
+					joinedYear |= tokenizer.token(i).length() == 4;
+					if (joined == 3 || (joined == 2 && joinedYear)) {
+						return true;
+					}
+					numbers++;
+					break;
+				case ORDINAL:
+					numbers++;
+					break;
+				default:
+					break;
+			}
+		}
+		return hasMonth && numbers > 0;
+	}
+
+	private static boolean isDateSeparator(char c) {
+		return c == '/' || c == '-';
+	}
+
+	private static boolean isLineBreakBetween(CharSequence text, int from, int to) {
+		for (int i = from; i < to; i++) {
+			final char c = text.charAt(i);
+			if (c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+}
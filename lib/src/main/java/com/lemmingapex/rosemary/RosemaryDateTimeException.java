@@ -10,15 +10,70 @@ public class RosemaryDateTimeException extends Exception {
 	@Serial
 	private static final long serialVersionUID = 7195725880623801298L;
 
+	private final RosemaryFailureReason reason;
+	private final String token;
+
 	public RosemaryDateTimeException(String message) {
-		super(message);
+		this(message, RosemaryFailureReason.UNKNOWN);
 	}
 
 	public RosemaryDateTimeException(String message, Throwable cause) {
-		super(message, cause);
+		this(message, reasonOf(cause), tokenOf(cause), cause);
 	}
 
 	public RosemaryDateTimeException(Throwable cause) {
 		super(cause);
+		this.reason = reasonOf(cause);
+		this.token = tokenOf(cause);
+	}
+
+	/**
+	 * Create an exception with the reason the datetime didn't parse.
+	 *
+	 * @param message the detail message
+	 * @param reason why the datetime didn't parse
+	 */
+	public RosemaryDateTimeException(String message, RosemaryFailureReason reason) {
+		this(message, reason, null, null);
+	}
+
+	/**
+	 * Create an exception with the reason the datetime didn't parse and the token that it failed on.
+	 *
+	 * @param message the detail message
+	 * @param reason why the datetime didn't parse
+	 * @param token the token that the datetime failed on, or <code>null</code> if it didn't fail on a particular token
+	 * @param cause the cause, or <code>null</code>
+	 */
+	public RosemaryDateTimeException(String message, RosemaryFailureReason reason, String token, Throwable cause) {
+		super(message, cause);
+		this.reason = reason == null ? RosemaryFailureReason.UNKNOWN : reason;
+		this.token = token;
+	}
+
+	private static RosemaryFailureReason reasonOf(Throwable cause) {
+		return cause instanceof RosemaryDateTimeException ? ((RosemaryDateTimeException) cause).reason : RosemaryFailureReason.UNKNOWN;
+	}
+
+	private static String tokenOf(Throwable cause) {
+		return cause instanceof RosemaryDateTimeException ? ((RosemaryDateTimeException) cause).token : null;
+	}
+
+	/**
+	 * Get why the datetime didn't parse.
+	 *
+	 * @return the reason, {@link RosemaryFailureReason#UNKNOWN} if it isn't known
+	 */
+	public RosemaryFailureReason getReason() {
+		return this.reason;
+	}
+
+	/**
+	 * Get the token that the datetime failed on.
+	 *
+	 * @return the token, or <code>null</code> if the datetime didn't fail on a particular token
+	 */
+	public String getToken() {
+		return this.token;
 	}
 }
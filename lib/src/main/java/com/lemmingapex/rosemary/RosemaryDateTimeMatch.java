@@ -0,0 +1,73 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * A datetime found by {@link RosemaryDateExtractor}, along with where it was found.
+ */
+public final class RosemaryDateTimeMatch {
+	/**
+	 * index of the first character of the datetime.
+	 */
+	private final int start;
+	/**
+	 * index after the last character of the datetime.
+	 */
+	private final int end;
+	/**
+	 * the parsed datetime.
+	 */
+	private final OffsetDateTime dateTime;
+
+	RosemaryDateTimeMatch(int start, int end, OffsetDateTime dateTime) {
+		this.start = start;
+		this.end = end;
+		this.dateTime = dateTime;
+	}
+
+	/**
+	 * Get the start offset.
+	 *
+	 * @return index in the text of the first character of the datetime
+	 */
+	public int getStart() {
+		return this.start;
+	}
+
+	/**
+	 * Get the end offset.
+	 *
+	 * @return index in the text after the last character of the datetime
+	 */
+	public int getEnd() {
+		return this.end;
+	}
+
+	/**
+	 * Get the parsed datetime.
+	 *
+	 * @return the datetime
+	 */
+	public OffsetDateTime getDateTime() {
+		return this.dateTime;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		RosemaryDateTimeMatch that = (RosemaryDateTimeMatch) o;
+		return start == that.start && end == that.end && Objects.equals(dateTime, that.dateTime);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(start, end, dateTime);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + start + ", " + end + ") " + dateTime;
+	}
+}
@@ -3,16 +3,35 @@ package com.lemmingapex.rosemary;
 import com.lemmingapex.rosemary.utils.ParsingUtilities;
 import com.lemmingapex.rosemary.utils.TimeZoneUtils;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TimeZone;
-import java.util.regex.Pattern;
 import java.util.stream.IntStream;
 
 /**
@@ -24,20 +43,107 @@ public class RosemaryDateTimeParser {
 		HOUR, MINUTE, SECOND, MILLISECOND, UNKNOWN;
 	}
 
-	private static final List<String> WEEKDAY_NAMES = List.of("SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY");
-	private static final List<String> MONTH_NAMES = List.of("JANUARY", "FEBRUARY", "MARCH", "APRIL", "MAY", "JUNE", "JULY", "AUGUST", "SEPTEMBER", "OCTOBER", "NOVEMBER", "DECEMBER");
-	private static final List<String> ORDINAL_NUMBERS = List.of("FIRST", "SECOND", "THIRD", "FOURTH", "FIFTH", "SIXTH", "SEVENTH", "EIGHTH", "NINTH", "TENTH", "ELEVENTH", "TWELFTH", "THIRTEENTH", "FOURTEENTH", "FIFTEENTH", "SIXTEENTH", "SEVENTEENTH", "EIGHTEENTH", "NINETEENTH", "TWENTIETH", "TWENTYFIRST", "TWENTYSECOND", "TWENTYTHIRD", "TWENTYFOURTH", "TWENTYFIFTH", "TWENTYSIXTH", "TWENTYSEVENTH", "TWENTYEIGHTH", "TWENTYNINTH", "THIRTIETH", "THIRTYFIRST");
+	static final List<String> WEEKDAY_NAMES = List.of("SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY");
+	static final List<String> MONTH_NAMES = List.of("JANUARY", "FEBRUARY", "MARCH", "APRIL", "MAY", "JUNE", "JULY", "AUGUST", "SEPTEMBER", "OCTOBER", "NOVEMBER", "DECEMBER");
+	static final List<String> ORDINAL_NUMBERS = List.of("FIRST", "SECOND", "THIRD", "FOURTH", "FIFTH", "SIXTH", "SEVENTH", "EIGHTH", "NINTH", "TENTH", "ELEVENTH", "TWELFTH", "THIRTEENTH", "FOURTEENTH", "FIFTEENTH", "SIXTEENTH", "SEVENTEENTH", "EIGHTEENTH", "NINETEENTH", "TWENTIETH", "TWENTYFIRST", "TWENTYSECOND", "TWENTYTHIRD", "TWENTYFOURTH", "TWENTYFIFTH", "TWENTYSIXTH", "TWENTYSEVENTH", "TWENTYEIGHTH", "TWENTYNINTH", "THIRTIETH", "THIRTYFIRST");
+
+	/**
+	 * The longest datetime string parsed by default.  Real datetimes are far shorter, so anything longer is refused before any work is done on it.
+	 */
+	public static final int DEFAULT_MAXIMUM_INPUT_LENGTH = 1024;
+
+	/**
+	 * The stages of a parser made with a constructor, which can't leave any out.
+	 */
+	private static final Set<RosemaryParseStage> ENGINE_STAGES = Collections.unmodifiableSet(EnumSet.of(RosemaryParseStage.EPOCH_MILLIS, RosemaryParseStage.WORDS, RosemaryParseStage.NAMED_ZONES, RosemaryParseStage.NUMERIC_OFFSETS));
 
 	private final Map<String, TimeZone> timeZoneNameToTimeZone;
+	private final RosemaryParseCache parseCache;
+	private final int maximumInputLength;
+	private final long timeZoneLoadNanos;
+	private final Set<RosemaryParseStage> engineStages;
+	private final boolean epochMillisEnabled;
+	private final boolean numericOffsetsEnabled;
+	private final RosemaryTokenReader[] tokenReaders;
+	private volatile RosemaryMetrics metrics;
+	private volatile RosemaryFailureSampler failureSampler;
+	private volatile boolean cacheEnabled = true;
+	private volatile boolean isoScannerEnabled = true;
+	private volatile boolean javaTimeFallbackEnabled;
+
+	/**
+	 * Create a parser that caches its results and refuses datetime strings over a maximum length.  Parsing takes time linear in the length of the string, so the maximum bounds the time spent on any one string, such as untrusted input.
+	 *
+	 * @param timeZoneProvider provides the time zone names to recognize
+	 * @param parseCache the cache to use, or <code>null</code> to not cache
+	 * @param maximumInputLength the longest datetime string to parse
+	 */
+	public RosemaryDateTimeParser(RosemaryTimeZoneProvider timeZoneProvider, RosemaryParseCache parseCache, int maximumInputLength) {
+		this(timeZoneProvider, parseCache, maximumInputLength, ENGINE_STAGES, false);
+	}
+
+	private RosemaryDateTimeParser(RosemaryTimeZoneProvider timeZoneProvider, RosemaryParseCache parseCache, int maximumInputLength, Set<RosemaryParseStage> stages, boolean built) {
+		if (maximumInputLength < 1) {
+			throw new IllegalArgumentException("Bad maximum input length " + maximumInputLength);
+		}
+		final long timeZoneLoadStart = System.nanoTime();
+		this.timeZoneNameToTimeZone = stages.contains(RosemaryParseStage.NAMED_ZONES) ? timeZoneProvider.timezoneNameToTimezone() : Map.of();
+		this.timeZoneLoadNanos = System.nanoTime() - timeZoneLoadStart;
+		this.parseCache = parseCache;
+		this.maximumInputLength = maximumInputLength;
+		final EnumSet<RosemaryParseStage> engineStages = EnumSet.noneOf(RosemaryParseStage.class);
+		for (final RosemaryParseStage stage : stages) {
+			if (ENGINE_STAGES.contains(stage)) {
+				engineStages.add(stage);
+			}
+		}
+		this.engineStages = Collections.unmodifiableSet(engineStages);
+		this.epochMillisEnabled = stages.contains(RosemaryParseStage.EPOCH_MILLIS);
+		this.numericOffsetsEnabled = stages.contains(RosemaryParseStage.NUMERIC_OFFSETS);
+		this.tokenReaders = tokenReaders(stages);
+		this.isoScannerEnabled = !built || stages.contains(RosemaryParseStage.ISO_SCANNER);
+		this.cacheEnabled = !built || stages.contains(RosemaryParseStage.CACHE);
+		this.javaTimeFallbackEnabled = built && stages.contains(RosemaryParseStage.JAVA_TIME_FALLBACK);
+	}
+
+	/**
+	 * Create a parser that caches its results.
+	 *
+	 * @param timeZoneProvider provides the time zone names to recognize
+	 * @param parseCache the cache to use, or <code>null</code> to not cache
+	 */
+	public RosemaryDateTimeParser(RosemaryTimeZoneProvider timeZoneProvider, RosemaryParseCache parseCache) {
+		this(timeZoneProvider, parseCache, DEFAULT_MAXIMUM_INPUT_LENGTH);
+	}
 
 	public RosemaryDateTimeParser(RosemaryTimeZoneProvider timeZoneProvider) {
-		this.timeZoneNameToTimeZone = timeZoneProvider.timezoneNameToTimezone();
+		this(timeZoneProvider, null);
 	}
 
 	public RosemaryDateTimeParser() {
 		this(TimeZoneUtils::getTimezoneNameToTimezoneMap);
 	}
 
+	/**
+	 * Is the supplied upper case string a time zone name known to this parser?
+	 *
+	 * @param str upper case time zone name
+	 * @return <code>true</code> if the supplied string names a time zone
+	 */
+	boolean isTimeZoneName(String str) {
+		return timeZoneNameToTimeZone.containsKey(str);
+	}
+
+	/**
+	 * Get the time zone of a name known to this parser.
+	 *
+	 * @param str upper case time zone name
+	 * @return the time zone, or <code>null</code> if the name isn't known
+	 */
+	TimeZone getTimeZone(String str) {
+		return timeZoneNameToTimeZone.get(str);
+	}
+
 	/**
 	 * Translate a string representation of an ordinal number to the appropriate numeric value.<br>
 	 * For example, <code>"1st"</code> would return <code>1</code>, <code>"23rd"</code> would return <code>23</code>,
@@ -46,7 +152,7 @@ public class RosemaryDateTimeParser {
 	 * @param str ordinal string
 	 * @return the numeric value of the ordinal number, or null if the supplied string is not a valid ordinal number.
 	 */
-	private static Integer getOrdinalNumber(String str) {
+	static Integer getOrdinalNumber(String str) {
 		final int len = (str == null ? 0 : str.length());
 		if (len > 2) {
 			final String normalizedString = str.trim().replace("-", "").toUpperCase();
@@ -118,7 +224,7 @@ public class RosemaryDateTimeParser {
 	 * @param timeStr string containing colon-separated time
 	 * @throws RosemaryDateTimeException if there is a problem with the time
 	 */
-	private void parseTime(String timeStr, RosemaryDateTimeState state) throws RosemaryDateTimeException {
+	void parseTime(String timeStr, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		TimePlace place = TimePlace.HOUR;
 
 		String tmpTime;
@@ -133,7 +239,7 @@ public class RosemaryDateTimeParser {
 			} else if (preLast == 'p' || preLast == 'P') {
 				state.setTimePostMeridian(true);
 			} else {
-				throw new RosemaryDateTimeException("Bad time: " + timeStr);
+				throw new RosemaryDateTimeException("Bad time: " + timeStr, RosemaryFailureReason.BAD_TIME);
 			}
 
 			tmpTime = timeStr.substring(0, timeStr.length() - 2);
@@ -144,12 +250,13 @@ public class RosemaryDateTimeParser {
 			final int val;
 			try {
 				if (place.equals(TimePlace.MILLISECOND)) {
-					val = Integer.parseInt((token + "00").substring(0, 3));
+					// an empty fraction, like in 07:02:10..5, is as bad as any other
+					val = Integer.parseInt(token.isEmpty() ? token : (token + "00").substring(0, 3));
 				} else {
 					val = Integer.parseInt(token);
 				}
 			} catch (NumberFormatException nfe) {
-				throw new RosemaryDateTimeException("Bad " + place.name() + " value: " + token);
+				throw new RosemaryDateTimeException("Bad " + place.name() + " value: " + token, RosemaryFailureReason.BAD_TIME);
 			}
 
 			switch (place) {
@@ -170,7 +277,7 @@ public class RosemaryDateTimeParser {
 					place = TimePlace.UNKNOWN;
 					break;
 				default:
-					throw new RosemaryDateTimeException("Unexpected place value: " + place.name());
+					throw new RosemaryDateTimeException("Unexpected place value: " + place.name(), RosemaryFailureReason.UNKNOWN);
 			}
 		}
 	}
@@ -182,7 +289,7 @@ public class RosemaryDateTimeParser {
 	 * @param state parser state
 	 * @throws RosemaryDateTimeException if there is a problem with the time
 	 */
-	private void parseTimeZoneOffset(String zoneStr, RosemaryDateTimeState state) throws RosemaryDateTimeException {
+	void parseTimeZoneOffset(String zoneStr, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		TimePlace place = TimePlace.HOUR;
 
 		String normalizedZoneStr = zoneStr.trim();
@@ -192,7 +299,7 @@ public class RosemaryDateTimeParser {
 
 		final boolean isNegative = normalizedZoneStr.startsWith("-");
 		if (!isNegative && !normalizedZoneStr.startsWith("+")) {
-			throw new RosemaryDateTimeException("Bad time zone offset: " + zoneStr);
+			throw new RosemaryDateTimeException("Bad time zone offset: " + zoneStr, RosemaryFailureReason.BAD_ZONE_OFFSET);
 		}
 
 		int hour = 0;
@@ -204,7 +311,7 @@ public class RosemaryDateTimeParser {
 			try {
 				val = Integer.parseInt(token);
 			} catch (NumberFormatException nfe) {
-				throw new RosemaryDateTimeException("Bad time zone " + place.name() + " offset: " + token);
+				throw new RosemaryDateTimeException("Bad time zone " + place.name() + " offset: " + token, RosemaryFailureReason.BAD_ZONE_OFFSET);
 			}
 
 			switch (place) {
@@ -215,12 +322,12 @@ public class RosemaryDateTimeParser {
 				case MINUTE:
 					minute = val;
 					if (minute > 59) {
-						throw new RosemaryDateTimeException("Bad time zone " + place.name() + " offset: " + token);
+						throw new RosemaryDateTimeException("Bad time zone " + place.name() + " offset: " + token, RosemaryFailureReason.BAD_ZONE_OFFSET);
 					}
 					place = TimePlace.UNKNOWN;
 					break;
 				default:
-					throw new RosemaryDateTimeException("Unexpected place value " + place);
+					throw new RosemaryDateTimeException("Unexpected place value " + place, RosemaryFailureReason.UNKNOWN);
 			}
 		}
 
@@ -230,108 +337,130 @@ public class RosemaryDateTimeParser {
 	}
 
 	/**
-	 * Parse a non-numeric token from the datetime string.
+	 * Parse a non-numeric token from the datetime string.  The token is given to the readers of the parser's stages in turn, and ignored if none of them reads it.
 	 *
 	 * @param token to parse
 	 * @param tokens all the tokens
 	 * @param state parser state
 	 * @throws RosemaryDateTimeException if there was a problem parsing the token
 	 */
-	private void parseNonNumericToken(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
-		// if it's a weekday name, ignore it
-		if (RosemaryDateTimeParser.isWeekdayName(token)) {
-			return;
+	void parseNonNumericToken(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
+		for (final RosemaryTokenReader tokenReader : tokenReaders) {
+			if (tokenReader.read(token, tokens, state)) {
+				return;
+			}
 		}
+	}
 
-		// we already assume dates are GMT or UTC, ignore it
-		if (token.equalsIgnoreCase("GMT") || token.equalsIgnoreCase("UTC")) {
-			return;
+	/**
+	 * Chain the readers of non-numeric tokens for some stages, in the order they are tried.
+	 *
+	 * @param stages the stages of the parser
+	 * @return the readers
+	 */
+	private RosemaryTokenReader[] tokenReaders(Set<RosemaryParseStage> stages) {
+		final List<RosemaryTokenReader> tokenReaders = new ArrayList<>();
+		if (stages.contains(RosemaryParseStage.WORDS)) {
+			tokenReaders.add(RosemaryDateTimeParser::readWeekdayName);
+		}
+		tokenReaders.add(RosemaryDateTimeParser::readUniversalTime);
+		if (stages.contains(RosemaryParseStage.NUMERIC_OFFSETS)) {
+			tokenReaders.add(this::readTimeZoneOffset);
+		}
+		tokenReaders.add(this::readTime);
+		tokenReaders.add(RosemaryDateTimeParser::readMonthName);
+		if (stages.contains(RosemaryParseStage.WORDS)) {
+			tokenReaders.add(RosemaryDateTimeParser::readOrdinal);
+		}
+		tokenReaders.add(RosemaryDateTimeParser::readMeridian);
+		if (stages.contains(RosemaryParseStage.NAMED_ZONES)) {
+			tokenReaders.add(this::readTimeZoneName);
 		}
+		return tokenReaders.toArray(new RosemaryTokenReader[0]);
+	}
+
+	private static boolean readWeekdayName(String token, String[] tokens, RosemaryDateTimeState state) {
+		// if it's a weekday name, ignore it
+		return RosemaryDateTimeParser.isWeekdayName(token);
+	}
 
+	private static boolean readUniversalTime(String token, String[] tokens, RosemaryDateTimeState state) {
+		// we already assume dates are GMT or UTC, ignore it
+		return token.equalsIgnoreCase("GMT") || token.equalsIgnoreCase("UTC");
+	}
+
+	private boolean readTimeZoneOffset(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		// does the token look like a timezone offset?
 		if ((token.startsWith("+") || token.startsWith("-")) || ((token.startsWith("GMT") || token.startsWith("UTC")) && (token.contains("+") || token.contains("-")))) {
 			parseTimeZoneOffset(token, state);
-			return;
+			return true;
 		}
+		return false;
+	}
 
+	private boolean readTime(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		// does the token look like a time?
 		if (token.indexOf(':') > 0 || (token.length() > 2 && (token.endsWith("AM") || token.endsWith("PM")))) {
 			if (Character.isDigit(token.charAt(0))) {
 				parseTime(token, state);
-				return;
+				return true;
 			} else {
-				throw new RosemaryDateTimeException("Unrecognized time: " + token);
+				throw new RosemaryDateTimeException("Unrecognized time: " + token, RosemaryFailureReason.BAD_TIME);
 			}
 		}
+		return false;
+	}
 
+	private static boolean readMonthName(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		// try to parse month name
 		Integer tmpMon = RosemaryDateTimeParser.monthNameToNumber(token);
 
 		// if token isn't a month name
-		if (tmpMon != null) {
-			// if month number is not set, set it and move on
-			if (!state.isMonthSet()) {
-				state.setMonth(tmpMon);
-				return;
-			}
-
-			// try to move the current month value to the year or day
-			if (!state.isYearSet()) {
-				if (state.isDaySet() || state.isYearBeforeDay()) {
-					state.setYear(state.getMonth());
-					state.setMonth(tmpMon);
-				} else {
-					state.setDay(state.getMonth());
-					state.setMonth(tmpMon);
-				}
+		if (tmpMon == null) {
+			return false;
+		}
 
-				return;
-			}
+		// if month number is not set, set it and move on
+		if (!state.isMonthSet()) {
+			state.setMonth(tmpMon);
+			return true;
+		}
 
-			// year was already set, so try to move month value to day
-			if (!state.isDaySet()) {
+		// try to move the current month value to the year or day
+		if (!state.isYearSet()) {
+			if (state.isDaySet() || state.isYearBeforeDay()) {
+				state.setYear(state.getMonth());
+				state.setMonth(tmpMon);
+			} else {
 				state.setDay(state.getMonth());
 				state.setMonth(tmpMon);
-				return;
 			}
 
-			// can't move month value to year or day...
-			throw new RosemaryDateTimeException("Too many values");
+			return true;
+		}
+
+		// year was already set, so try to move month value to day
+		if (!state.isDaySet()) {
+			state.setDay(state.getMonth());
+			state.setMonth(tmpMon);
+			return true;
 		}
 
+		// can't move month value to year or day...
+		throw new RosemaryDateTimeException("Too many values", RosemaryFailureReason.UNASSIGNABLE_VALUE);
+	}
+
+	private static boolean readOrdinal(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		// maybe it's an ordinal number list "1st", "Fifth", "23rd", etc.
 		Integer val = RosemaryDateTimeParser.getOrdinalNumber(token);
 		if (val == null) {
-			final String upperCaseToken = token.toUpperCase();
-
-			if (upperCaseToken.equals("AM")) {
-				if (!state.isHourSet()) {
-					state.setTimePostMeridian(false);
-				} else {
-					state.setHour(state.getHour() % 12);
-				}
-				return;
-			} else if (upperCaseToken.equals("PM")) {
-				if (!state.isHourSet()) {
-					state.setTimePostMeridian(true);
-				} else {
-					state.setHour((state.getHour() % 12) + 12);
-				}
-				return;
-			} else {
-				TimeZone tz = timeZoneNameToTimeZone.get(upperCaseToken);
-				if (tz != null) {
-					state.setTimeZone(tz);
-					return;
-				}
-			}
-			return;
+			return false;
 		}
 
 		// if no day yet, we're done
 		if (!state.isDaySet()) {
 			state.setDay(val);
-			return;
+			return true;
 		}
 
 		// if either year or month is not set...
@@ -342,7 +471,7 @@ public class RosemaryDateTimeParser {
 				if (!state.isYearSet()) {
 					state.setYear(state.getDay());
 					state.setDay(val);
-					return;
+					return true;
 				}
 
 				// year was already set, maybe we can move it to month
@@ -350,7 +479,7 @@ public class RosemaryDateTimeParser {
 					state.setMonth(state.getYear());
 					state.setYear(state.getDay());
 					state.setDay(val);
-					return;
+					return true;
 				}
 
 				// try to shift day value to either year or month
@@ -358,22 +487,51 @@ public class RosemaryDateTimeParser {
 				if (!state.isMonthSet() && !state.isYearBeforeMonth()) {
 					state.setMonth(state.getDay());
 					state.setDay(val);
-					return;
+					return true;
 				}
 
 				state.setYear(state.getDay());
 				state.setDay(val);
-				return;
+				return true;
 
 				// year was set, so we know month is not set
 			} else {
 				state.setMonth(state.getDay());
 				state.setDay(val);
-				return;
+				return true;
+			}
+		}
+
+		throw new RosemaryDateTimeException("Cannot assign ordinal", RosemaryFailureReason.UNASSIGNABLE_VALUE);
+	}
+
+	private static boolean readMeridian(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
+		final String upperCaseToken = token.toUpperCase();
+		if (upperCaseToken.equals("AM")) {
+			if (!state.isHourSet()) {
+				state.setTimePostMeridian(false);
+			} else {
+				state.setHour(state.getHour() % 12);
+			}
+			return true;
+		} else if (upperCaseToken.equals("PM")) {
+			if (!state.isHourSet()) {
+				state.setTimePostMeridian(true);
+			} else {
+				state.setHour((state.getHour() % 12) + 12);
 			}
+			return true;
 		}
+		return false;
+	}
 
-		throw new RosemaryDateTimeException("Cannot assign ordinal");
+	private boolean readTimeZoneName(String token, String[] tokens, RosemaryDateTimeState state) {
+		TimeZone tz = timeZoneNameToTimeZone.get(token.toUpperCase());
+		if (tz != null) {
+			state.setTimeZone(tz);
+			return true;
+		}
+		return false;
 	}
 
 	/**
@@ -385,7 +543,7 @@ public class RosemaryDateTimeParser {
 	 */
 	private void parseNumericBlob(int val, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		if (state.isYearSet() || state.isMonthSet() || state.isDaySet()) {
-			throw new RosemaryDateTimeException("Unknown value: " + val);
+			throw new RosemaryDateTimeException("Unknown value: " + val, RosemaryFailureReason.UNASSIGNABLE_VALUE);
 		}
 
 		int tmpVal = val;
@@ -452,10 +610,10 @@ public class RosemaryDateTimeParser {
 	 * @param state parser state
 	 * @throws RosemaryDateTimeException if there was a problem parsing the token
 	 */
-	private void parseNumericToken(long numericToken, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
+	void parseNumericToken(long numericToken, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException {
 		// if we've already found 3 values
 		if (state.isYearSet() && state.isMonthSet() && state.isDaySet() && state.isTimeZoneSet()) {
-			throw new RosemaryDateTimeException("Extra value: " + numericToken);
+			throw new RosemaryDateTimeException("Extra value: " + numericToken, RosemaryFailureReason.UNASSIGNABLE_VALUE);
 		}
 
 		// maybe a timezone offset
@@ -463,7 +621,7 @@ public class RosemaryDateTimeParser {
 			int timeZoneHour = 0;
 			int timeZoneMinute = 0;
 			long absNumericToken = Math.abs(numericToken);
-			if ((absNumericToken < 24) || (absNumericToken >= 100 && absNumericToken < 2400 && ((absNumericToken%100) < 60) && ((absNumericToken%100)%15 == 0))) {
+			if (numericOffsetsEnabled && ((absNumericToken < 24) || (absNumericToken >= 100 && absNumericToken < 2400 && ((absNumericToken%100) < 60) && ((absNumericToken%100)%15 == 0)))) {
 				boolean isNegative = numericToken < 0;
 				if (absNumericToken < 24) {
 					timeZoneHour = (int)absNumericToken;
@@ -475,32 +633,38 @@ public class RosemaryDateTimeParser {
 				state.setTimeZone(TimeZone.getTimeZone(customID));
 				return;
 			}
-			throw new RosemaryDateTimeException("Found unknown number");
+			throw new RosemaryDateTimeException("Found unknown number", RosemaryFailureReason.UNASSIGNABLE_VALUE);
 		}
 
 		// negative numbers
 		if (numericToken < 0) {
-			throw new RosemaryDateTimeException("Found negative number");
+			throw new RosemaryDateTimeException("Found negative number", RosemaryFailureReason.UNASSIGNABLE_VALUE);
 		}
 
 		// parse as milliseconds after epoch, if val doesn't match a YYYYDDMM like format
 		if (tokens.length == 1 && (numericToken > 99993112L || numericToken < 1970L)) {
 			if (state.isYearSet() || state.isMonthSet() || state.isDaySet()) {
-				throw new RosemaryDateTimeException("Unknown value: " + numericToken);
-			}
-			Calendar tempCalendar = new GregorianCalendar(TimeZone.getTimeZone("Z"));
-			tempCalendar.clear();
-			tempCalendar.setTimeInMillis(numericToken);
-
-			state.setYear(tempCalendar.get(Calendar.YEAR));
-			state.setMonth(tempCalendar.get(Calendar.MONTH) + 1);
-			state.setDay(tempCalendar.get(Calendar.DATE));
-			state.setHour(tempCalendar.get(Calendar.HOUR_OF_DAY));
-			state.setMinute(tempCalendar.get(Calendar.MINUTE));
-			state.setSecond(tempCalendar.get(Calendar.SECOND));
-			state.setMillisecond(tempCalendar.get(Calendar.MILLISECOND));
-			state.setTimeZone(tempCalendar.getTimeZone());
-			return;
+				throw new RosemaryDateTimeException("Unknown value: " + numericToken, RosemaryFailureReason.UNASSIGNABLE_VALUE);
+			}
+			if (epochMillisEnabled) {
+				Calendar tempCalendar = new GregorianCalendar(TimeZone.getTimeZone("Z"));
+				tempCalendar.clear();
+				tempCalendar.setTimeInMillis(numericToken);
+
+				state.setYear(tempCalendar.get(Calendar.YEAR));
+				state.setMonth(tempCalendar.get(Calendar.MONTH) + 1);
+				state.setDay(tempCalendar.get(Calendar.DATE));
+				state.setHour(tempCalendar.get(Calendar.HOUR_OF_DAY));
+				state.setMinute(tempCalendar.get(Calendar.MINUTE));
+				state.setSecond(tempCalendar.get(Calendar.SECOND));
+				state.setMillisecond(tempCalendar.get(Calendar.MILLISECOND));
+				state.setTimeZone(tempCalendar.getTimeZone());
+				return;
+			}
+			// without epoch detection, too large to be a date
+			if (numericToken > 99993112L) {
+				throw new RosemaryDateTimeException("Unknown value: " + numericToken, RosemaryFailureReason.UNASSIGNABLE_VALUE);
+			}
 		}
 
 		int intNumericToken = (int)numericToken;
@@ -521,7 +685,7 @@ public class RosemaryDateTimeParser {
 
 			// puke if the year value can't possibly be a day or month
 			if (state.getYear() > 31) {
-				throw new RosemaryDateTimeException("Bad year");
+				throw new RosemaryDateTimeException("Bad year", RosemaryFailureReason.UNASSIGNABLE_VALUE);
 			}
 
 			// if the year value can't be a month...
@@ -543,7 +707,7 @@ public class RosemaryDateTimeParser {
 					state.setYear(intNumericToken);
 					return;
 				}
-				throw new RosemaryDateTimeException("Invalid value: " + intNumericToken);
+				throw new RosemaryDateTimeException("Invalid value: " + intNumericToken, RosemaryFailureReason.UNASSIGNABLE_VALUE);
 			}
 
 			// else year <= 12
@@ -595,7 +759,7 @@ public class RosemaryDateTimeParser {
 
 			// NOTE: both year and day are set
 
-			throw new RosemaryDateTimeException("Invalid value: " + intNumericToken);
+			throw new RosemaryDateTimeException("Invalid value: " + intNumericToken, RosemaryFailureReason.UNASSIGNABLE_VALUE);
 		}
 
 		// NOTE: ambiguous value
@@ -652,31 +816,66 @@ public class RosemaryDateTimeParser {
 	}
 
 	/**
-	 * The main entry point into the real parsing of a datetime.  This method is responsible for tokenizing the datetime string and parsing each token.
+	 * The main entry point into the real parsing of a datetime.  This method is responsible for tokenizing the datetime string and parsing each token.  The ISO-8601 layouts that {@link java.time} reads are read here too, so one pass decides the result.
 	 *
 	 * @param dateTimeString the datetime to parse
 	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
 	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the dateTimeString.  e.g. parse(String March 5th) doesn't specify a year, and the current year is used by default.  Use this to alter the default year, month, timezone, etc.
+	 * @param resolution what to resolve the datetime into
 	 * @return parsed dateTimeString
 	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
 	 */
-	private OffsetDateTime parseInternal(final String dateTimeString, final RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+	private <T> T parseInternal(final String dateTimeString, final RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState, final RosemaryTemporalResolution<T> resolution) throws RosemaryDateTimeException {
 		if (dateTimeString == null) {
 			return null;
 		}
 
-		final String upperDateTimeString = dateTimeString.toUpperCase();
-		final RosemaryDateTimeState dateTimeState = new RosemaryDateTimeState(rosemaryParserDateOrder);
+		// the tokens never read a T between the date and time, so these are decided without tokenizing
+		final OffsetDateTime isoDateTime = RosemaryIsoDateTime.parseIso(dateTimeString);
+		if (isoDateTime != null) {
+			return resolution.of(isoDateTime);
+		}
+
+		final String[] tokens = RosemaryTokenizer.tokenize(dateTimeString.toUpperCase()).tokens();
+		try {
+			return parseTokens(tokens, dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, resolution);
+		} catch (RosemaryDateTimeException e) {
+			// the tokens read this layout in most date orders, but not all
+			final OffsetDateTime dateTimeFormatDateTime = RosemaryIsoDateTime.parseDateTimeFormat(dateTimeString);
+			if (dateTimeFormatDateTime != null) {
+				return resolution.of(dateTimeFormatDateTime);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Parse the tokens of a datetime.  The tokens must be upper case, as produced by {@link RosemaryTokenizer}.
+	 *
+	 * @param tokens the tokens of the datetime
+	 * @param dateTimeString the datetime the tokens came from, used in error messages
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the tokens
+	 * @return parsed tokens
+	 * @throws RosemaryDateTimeException if the tokens are not a valid datetime
+	 */
+	OffsetDateTime parseTokens(final String[] tokens, final String dateTimeString, final RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		return parseTokens(tokens, dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, RosemaryTemporalResolution.OFFSET_DATE_TIME);
+	}
 
-		// split on dash, unless it is prefixed by whitespace or the text.  if the text is prefixed, then it is likely GMT or UTC and there is a timezone offset nearby
-		// split on forward slash, unless it is prefixed and suffixed by A-Z characters, which means it is likely a timezone string like: America/Detroit
-		// split on whitespace, comma, parentheses, single quote, double quote.
-		final Pattern tokenPattern = Pattern.compile("((?<!([\\s\\h])|[A-Za-z()])-|((?<=[^A-Za-z])/(?=[^A-za-z]))|[\\s\\h,)('\"])+");
-		String[] tokens = tokenPattern.split(upperDateTimeString);
-		// remove boring tokens that might exist based on the regex
-		tokens = Arrays.stream(tokens).filter(token -> {
-			return !(token.matches("-+") || token.isBlank());
-		}).toArray(String[]::new);
+	/**
+	 * Parse the tokens of a datetime into a kind of result.  Only the fields the result holds are filled in from the defaults and checked: a date doesn't take the default time or time zone, and a time doesn't take the default date, or 1970-01-01 without one.
+	 *
+	 * @param tokens the tokens of the datetime
+	 * @param dateTimeString the datetime the tokens came from, used in error messages
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the tokens
+	 * @param resolution what to resolve the datetime into
+	 * @return parsed tokens
+	 * @throws RosemaryDateTimeException if the tokens are not a valid datetime
+	 */
+	private <T> T parseTokens(final String[] tokens, final String dateTimeString, final RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState, final RosemaryTemporalResolution<T> resolution) throws RosemaryDateTimeException {
+		final RosemaryDateTimeState dateTimeState = new RosemaryDateTimeState(rosemaryParserDateOrder);
 		for (String token : tokens) {
 			try {
 				// try to decipher next token as a number
@@ -687,99 +886,110 @@ public class RosemaryDateTimeParser {
 					parseNonNumericToken(token, tokens, dateTimeState);
 				}
 			} catch (RosemaryDateTimeException e) {
-				throw new RosemaryDateTimeException("Unable to parse: " + dateTimeString, e);
+				throw new RosemaryDateTimeException("Unable to parse: " + dateTimeString, e.getReason(), token, e);
 			}
 		}
 
 		if (!dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet() && !dateTimeState.isHourSet() && !dateTimeState.isMinuteSet() && !dateTimeState.isSecondSet() && !dateTimeState.isMillisecondSet()) {
-			throw new RosemaryDateTimeException("Unable to parse: " + dateTimeString);
+			throw new RosemaryDateTimeException("Unable to parse: " + dateTimeString, RosemaryFailureReason.NO_DATETIME);
 		}
 
-		// if the month is set, but not the day use the first of the month
-		if (dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
-			dateTimeState.setDay(1);
-		}
+		if (resolution.date) {
+			// if the month is set, but not the day use the first of the month
+			if (dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
+				dateTimeState.setDay(1);
+			}
 
-		// if year is set, but not the month and day use the first day on the first month
-		if (dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
-			dateTimeState.setMonth(1);
-			dateTimeState.setDay(1);
-		}
+			// if year is set, but not the month and day use the first day on the first month
+			if (dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
+				dateTimeState.setMonth(1);
+				dateTimeState.setDay(1);
+			}
 
-		// use default state
-		if (!dateTimeState.isYearSet() && defaultDateTimeState.isYearSet()) {
-			dateTimeState.setYear(defaultDateTimeState.getYear());
-		}
+			// use default state
+			if (!dateTimeState.isYearSet() && defaultDateTimeState.isYearSet()) {
+				dateTimeState.setYear(defaultDateTimeState.getYear());
+			}
 
-		if (!dateTimeState.isMonthSet() && defaultDateTimeState.isMonthSet()) {
-			dateTimeState.setMonth(defaultDateTimeState.getMonth());
-		}
+			if (!dateTimeState.isMonthSet() && defaultDateTimeState.isMonthSet()) {
+				dateTimeState.setMonth(defaultDateTimeState.getMonth());
+			}
 
-		if (!dateTimeState.isDaySet() && defaultDateTimeState.isDaySet()) {
-			dateTimeState.setDay(defaultDateTimeState.getDay());
+			if (!dateTimeState.isDaySet() && defaultDateTimeState.isDaySet()) {
+				dateTimeState.setDay(defaultDateTimeState.getDay());
+			}
 		}
 
-		if (!dateTimeState.isHourSet() && defaultDateTimeState.isHourSet()) {
-			dateTimeState.setHour(defaultDateTimeState.getHour());
-		}
+		if (resolution.time) {
+			if (!dateTimeState.isHourSet() && defaultDateTimeState.isHourSet()) {
+				dateTimeState.setHour(defaultDateTimeState.getHour());
+			}
 
-		if (!dateTimeState.isMinuteSet() && defaultDateTimeState.isMinuteSet()) {
-			dateTimeState.setMinute(defaultDateTimeState.getMinute());
-		}
+			if (!dateTimeState.isMinuteSet() && defaultDateTimeState.isMinuteSet()) {
+				dateTimeState.setMinute(defaultDateTimeState.getMinute());
+			}
 
-		if (!dateTimeState.isSecondSet() && defaultDateTimeState.isSecondSet()) {
-			dateTimeState.setSecond(defaultDateTimeState.getSecond());
-		}
+			if (!dateTimeState.isSecondSet() && defaultDateTimeState.isSecondSet()) {
+				dateTimeState.setSecond(defaultDateTimeState.getSecond());
+			}
 
-		if (!dateTimeState.isMillisecondSet() && defaultDateTimeState.isMillisecondSet()) {
-			dateTimeState.setMillisecond(defaultDateTimeState.getMillisecond());
-		}
+			if (!dateTimeState.isMillisecondSet() && defaultDateTimeState.isMillisecondSet()) {
+				dateTimeState.setMillisecond(defaultDateTimeState.getMillisecond());
+			}
 
-		if (!dateTimeState.isTimeZoneSet() && defaultDateTimeState.isTimeZoneSet()) {
-			dateTimeState.setTimeZone(defaultDateTimeState.getTimeZone());
+			if (!dateTimeState.isTimeZoneSet() && defaultDateTimeState.isTimeZoneSet()) {
+				dateTimeState.setTimeZone(defaultDateTimeState.getTimeZone());
+			}
 		}
 
-		// if the month is set, but not the day use the first of the month
-		if (dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
-			dateTimeState.setDay(1);
-		}
+		if (resolution.date) {
+			// if the month is set, but not the day use the first of the month
+			if (dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
+				dateTimeState.setDay(1);
+			}
 
-		// if year is set, but not the month and day use the first day on the first month
-		if (dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
-			dateTimeState.setMonth(1);
-			dateTimeState.setDay(1);
-		}
+			// if year is set, but not the month and day use the first day on the first month
+			if (dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet()) {
+				dateTimeState.setMonth(1);
+				dateTimeState.setDay(1);
+			}
 
-		// if day, month and year are missing, but hour, minute, second or millisecond is set, then assume 1970-01-01
-		if (!dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet() && (dateTimeState.isHourSet() || dateTimeState.isMinuteSet() || dateTimeState.isSecondSet() || dateTimeState.isMillisecondSet())) {
-			dateTimeState.setYear(1970);
-			dateTimeState.setMonth(1);
-			dateTimeState.setDay(1);
-		}
+			// if day, month and year are missing, but hour, minute, second or millisecond is set, then assume 1970-01-01, unless only the date is wanted
+			if (resolution.time && !dateTimeState.isYearSet() && !dateTimeState.isMonthSet() && !dateTimeState.isDaySet() && (dateTimeState.isHourSet() || dateTimeState.isMinuteSet() || dateTimeState.isSecondSet() || dateTimeState.isMillisecondSet())) {
+				dateTimeState.setYear(1970);
+				dateTimeState.setMonth(1);
+				dateTimeState.setDay(1);
+			}
 
-		if (dateTimeState.isYearSet()) {
-			// if year is one or two digits, split it around the millennium
-			final Integer tmpYear = dateTimeState.getYear();
-			if (tmpYear < 70) {
-				dateTimeState.setYear(tmpYear + 2000); // 2000 to 2069
-			} else if (tmpYear < 100) {
-				dateTimeState.setYear(tmpYear + 1900); // 1970 to 1999
+			if (dateTimeState.isYearSet()) {
+				// if year is one or two digits, split it around the millennium
+				final Integer tmpYear = dateTimeState.getYear();
+				if (tmpYear < 70) {
+					dateTimeState.setYear(tmpYear + 2000); // 2000 to 2069
+				} else if (tmpYear < 100) {
+					dateTimeState.setYear(tmpYear + 1900); // 1970 to 1999
+				}
 			}
-		}
 
-		// throw exception if day, month or year is missing
-		final List<Boolean> dayMonthYearMissing = List.of(!dateTimeState.isDaySet(), !dateTimeState.isMonthSet(), !dateTimeState.isYearSet());
+			// throw exception if day, month or year is missing
+			final List<Boolean> dayMonthYearMissing = List.of(!dateTimeState.isDaySet(), !dateTimeState.isMonthSet(), !dateTimeState.isYearSet());
 
-		if (dayMonthYearMissing.contains(Boolean.TRUE)) {
-			final List<String> dayMonthYear = List.of("day", "month", "year");
-			final String missingText = String.join(", ", IntStream.range(0, dayMonthYearMissing.size())
-				.filter(i -> dayMonthYearMissing.get(i).equals(Boolean.TRUE))
-				.mapToObj(dayMonthYear::get)
-				.toList());
-			throw new RosemaryDateTimeException("Missing " + missingText + " in: " + dateTimeString);
+			if (dayMonthYearMissing.contains(Boolean.TRUE)) {
+				final List<String> dayMonthYear = List.of("day", "month", "year");
+				final String missingText = String.join(", ", IntStream.range(0, dayMonthYearMissing.size())
+					.filter(i -> dayMonthYearMissing.get(i).equals(Boolean.TRUE))
+					.mapToObj(dayMonthYear::get)
+					.toList());
+				throw new RosemaryDateTimeException("Missing " + missingText + " in: " + dateTimeString, RosemaryFailureReason.MISSING_FIELD);
+			}
 		}
 
-		return ParsingUtilities.calendarToOffsetDateTime(dateTimeState.asCalendar());
+		try {
+			return resolution.of(dateTimeState);
+		} catch (DateTimeException e) {
+			// java.time can't hold every offset a calendar can, like +23:00
+			throw new RosemaryDateTimeException("Unable to parse: " + dateTimeString, RosemaryFailureReason.OUT_OF_RANGE, null, e);
+		}
 	}
 
 	/**
@@ -805,7 +1015,7 @@ public class RosemaryDateTimeParser {
 		if (offsetDateTime != null) {
 			return offsetDateTime;
 		} else {
-			throw new RosemaryDateTimeException("Unable to parse " + dateTimeString);
+			throw new RosemaryDateTimeException("Unable to parse " + dateTimeString, RosemaryFailureReason.NO_MATCHING_FORMAT);
 		}
 	}
 
@@ -832,6 +1042,91 @@ public class RosemaryDateTimeParser {
 		return parseInternal(dateTimeString, formats, locale);
 	}
 
+	/**
+	 * A {@link RosemaryDateTimeState} of current year, month and day obtained from the {@link Calendar#getInstance()}
+	 *
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats
+	 * @return the default state
+	 */
+	static RosemaryDateTimeState currentDateState(RosemaryDateOrder rosemaryParserDateOrder) {
+		final RosemaryDateTimeState defaultDateTimeState = new RosemaryDateTimeState(rosemaryParserDateOrder);
+		final Calendar defaultCalendar = Calendar.getInstance();
+		try {
+			defaultDateTimeState.setYear(defaultCalendar.get(Calendar.YEAR));
+			defaultDateTimeState.setMonth(defaultCalendar.get(Calendar.MONTH) + 1);
+			defaultDateTimeState.setDay(defaultCalendar.get(Calendar.DATE));
+		} catch (RosemaryDateTimeException e) {
+			// the calendar always has a valid year, month and day
+			throw new IllegalStateException(e);
+		}
+		return defaultDateTimeState;
+	}
+
+	/**
+	 * Parses the datetime at the start of some text, like the timestamp at the start of a log line, and ignores whatever follows it.  The longest run of tokens, starting at the index of the {@link ParsePosition}, that forms a valid datetime is used.  Once it has a date and a time, the run ends before a bare number or word: a time zone name after them is only used in brackets, like <code>[America/Denver]</code>, so <code>2024-01-15 10:23:45 3 workers started</code> isn't read with an offset of three hours.
+	 * <p>
+	 * On success the index of the {@link ParsePosition} is moved after the last character used and the datetime is returned.  On failure the index is left alone, the error index is set and <code>null</code> is returned.
+	 *
+	 * @param text the text to parse
+	 * @param parsePosition where to start parsing, updated with where parsing ended
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the text.
+	 * @return parsed datetime, or <code>null</code> if there is no datetime at the parse position
+	 */
+	public OffsetDateTime parsePrefix(CharSequence text, ParsePosition parsePosition, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) {
+		final int index = parsePosition.getIndex();
+		if (text != null && index >= 0 && index < text.length()) {
+			final RosemaryTokenizer tokenizer = RosemaryTokenizer.tokenize(text, index, text.length(), RosemaryDateExtractor.MAXIMUM_TOKENS).splitIsoDesignators().trimPunctuation();
+
+			// only tokens that look like parts of a datetime can be consumed, and after a date and a time only a zone or offset that can't be the text that follows
+			final RosemaryTokenRun run = new RosemaryTokenRun(tokenizer);
+			int end = 0;
+			while (end < tokenizer.size() && run.add(end, RosemaryTokenKind.of(tokenizer.token(end), this))) {
+				end++;
+			}
+
+			for (; end > 0; end--) {
+				if (RosemaryTokenKind.of(tokenizer.token(end - 1), this) == RosemaryTokenKind.CONNECTOR) {
+					continue;
+				}
+				try {
+					final int endIndex = tokenizer.end(end - 1);
+					final OffsetDateTime offsetDateTime = parseTokens(tokenizer.tokens(0, end), text.subSequence(index, endIndex).toString(), rosemaryParserDateOrder, defaultDateTimeState);
+					parsePosition.setIndex(endIndex);
+					return offsetDateTime;
+				} catch (RosemaryDateTimeException e) {
+					// try a shorter prefix
+				}
+			}
+		}
+
+		parsePosition.setErrorIndex(index);
+		return null;
+	}
+
+	/**
+	 * Parses the datetime at the start of some text.  Equivalent to {@link RosemaryDateTimeParser#parsePrefix(CharSequence, ParsePosition, RosemaryDateOrder, RosemaryDateTimeState)} with a {@link RosemaryDateTimeState} of current year, month and day obtained from the {@link Calendar#getInstance()}
+	 *
+	 * @param text the text to parse
+	 * @param parsePosition where to start parsing, updated with where parsing ended
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return parsed datetime, or <code>null</code> if there is no datetime at the parse position
+	 */
+	public OffsetDateTime parsePrefix(CharSequence text, ParsePosition parsePosition, RosemaryDateOrder rosemaryParserDateOrder) {
+		return parsePrefix(text, parsePosition, rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder));
+	}
+
+	/**
+	 * Parses the datetime at the start of some text.  Equivalent to {@link RosemaryDateTimeParser#parsePrefix(CharSequence, ParsePosition, RosemaryDateOrder)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param text the text to parse
+	 * @param parsePosition where to start parsing, updated with where parsing ended
+	 * @return parsed datetime, or <code>null</code> if there is no datetime at the parse position
+	 */
+	public OffsetDateTime parsePrefix(CharSequence text, ParsePosition parsePosition) {
+		return parsePrefix(text, parsePosition, RosemaryDateOrder.MM_DD_YY);
+	}
+
 	/**
 	 * Parses a datetime using the given format as defined by {@link java.time.format.DateTimeFormatter}.
 	 *
@@ -841,7 +1136,20 @@ public class RosemaryDateTimeParser {
 	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
 	 */
 	public OffsetDateTime parse(String dateTimeString, List<String> formats) throws RosemaryDateTimeException {
-		return parseInternal(dateTimeString, formats);
+		final Measurement measurement = Measurement.start(metrics, failureSampler, dateTimeString);
+		try {
+			checkLength(dateTimeString);
+			final OffsetDateTime offsetDateTime = parseInternal(dateTimeString, formats);
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.PATTERN, null);
+			}
+			return offsetDateTime;
+		} catch (RosemaryDateTimeException e) {
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.PATTERN, e);
+			}
+			throw e;
+		}
 	}
 
 	/**
@@ -866,43 +1174,920 @@ public class RosemaryDateTimeParser {
 	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
 	 */
 	public OffsetDateTime parse(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, false);
+	}
+
+	/**
+	 * Parses a datetime, through the cache if there is one.
+	 *
+	 * @param currentDateDefault <code>true</code> if the default state holds the current date, so cached results expire with the day
+	 */
+	OffsetDateTime parse(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState, boolean currentDateDefault) throws RosemaryDateTimeException {
+		final Measurement measurement = Measurement.start(metrics, failureSampler, dateTimeString);
+		try {
+			checkLength(dateTimeString);
+		} catch (RosemaryDateTimeException e) {
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.ENGINE, e);
+			}
+			throw e;
+		}
+		final RosemaryParseCache parseCache = cacheEnabled ? this.parseCache : null;
+		if (parseCache == null || dateTimeString == null) {
+			return parseUncached(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, RosemaryTemporalResolution.OFFSET_DATE_TIME, measurement);
+		}
+		try {
+			final OffsetDateTime offsetDateTime = parseCache.get(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, currentDateDefault, () -> parseUncached(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, RosemaryTemporalResolution.OFFSET_DATE_TIME, measurement));
+			// only recorded if the loader wasn't called
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.CACHE, null);
+			}
+			return offsetDateTime;
+		} catch (RosemaryDateTimeException e) {
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.CACHE, e);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Refuse a datetime string that is longer than the maximum, before it is hashed, tokenized or handed to {@link java.time}.
+	 */
+	private void checkLength(String dateTimeString) throws RosemaryDateTimeException {
+		if (dateTimeString != null && dateTimeString.length() > maximumInputLength) {
+			throw new RosemaryDateTimeException("Input too long: " + dateTimeString.length() + " characters, the maximum is " + maximumInputLength, RosemaryFailureReason.TOO_LONG);
+		}
+	}
+
+	/**
+	 * Get the longest datetime string this parser will parse.
+	 *
+	 * @return the maximum input length
+	 */
+	public int getMaximumInputLength() {
+		return this.maximumInputLength;
+	}
+
+	/**
+	 * Parses a datetime with the engine, falling back on the java parsers if that is turned on.
+	 *
+	 * @param resolution what to resolve the datetime into
+	 * @param measurement records the path taken, or <code>null</code> if parses aren't recorded
+	 */
+	private <T> T parseUncached(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState, RosemaryTemporalResolution<T> resolution, Measurement measurement) throws RosemaryDateTimeException {
 		try {
-			return parseInternal(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState);
+			final T result = parseInternal(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, resolution);
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.ENGINE, null);
+			}
+			return result;
 		} catch (RosemaryDateTimeException e1) {
+			if (!javaTimeFallbackEnabled) {
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.ENGINE, e1);
+				}
+				throw e1;
+			}
+			final RosemaryFallbackEvent fallbackEvent = new RosemaryFallbackEvent();
+			fallbackEvent.begin();
 			try {
-				return parse(dateTimeString, List.of()); // try java parsers without formats
+				final OffsetDateTime offsetDateTime = parseInternal(dateTimeString, List.of()); // try java parsers without formats
+				fallbackEvent.finish(true, e1, dateTimeString);
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.FALLBACK, null);
+				}
+				return resolution.of(offsetDateTime);
 			} catch (RosemaryDateTimeException e2) {
+				fallbackEvent.finish(false, e1, dateTimeString);
 				// throw the original error
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.FALLBACK, e1);
+				}
 				throw e1;
 			}
 		}
 	}
 
 	/**
-	 * Parses a datetime.  The datetime can be in any format.  Rosemary will try to determine the correct structure of the datetime.  Equivalent to {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)} with a {@link RosemaryDateTimeState} of current year, month and day obtained from the {@link Calendar#getInstance()}
+	 * Set the metrics to record every parse with.  Can be changed while other threads are parsing.
 	 *
-	 * @param dateTimeString the datetime to parse
-	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
-	 * @return parsed dateTimeString
-	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 * @param metrics the metrics, or <code>null</code> to stop recording
 	 */
-	public OffsetDateTime parse(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
-		final RosemaryDateTimeState defaultDateTimeState = new RosemaryDateTimeState(rosemaryParserDateOrder);
-		final Calendar defaultCalendar = Calendar.getInstance();
-		defaultDateTimeState.setYear(defaultCalendar.get(Calendar.YEAR));
-		defaultDateTimeState.setMonth(defaultCalendar.get(Calendar.MONTH) + 1);
-		defaultDateTimeState.setDay(defaultCalendar.get(Calendar.DATE));
-		return parse(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState);
+	public void setMetrics(RosemaryMetrics metrics) {
+		this.metrics = metrics;
 	}
 
 	/**
-	 * Parses a datetime.  The datetime can be in any format.  Rosemary will try to determine the correct structure of the datetime.  Equivalent to {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder MM_DD_YY)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 * Get the metrics every parse is recorded with.
 	 *
-	 * @param dateTimeString the datetime to parse
-	 * @return parsed dateTimeString
-	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 * @return the metrics, or <code>null</code> if parses aren't recorded
 	 */
-	public OffsetDateTime parse(String dateTimeString) throws RosemaryDateTimeException {
-		return parse(dateTimeString, RosemaryDateOrder.MM_DD_YY);
+	public RosemaryMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Turn a fast path on or off, while other threads are parsing.  Fast paths only make parsing quicker, so turning one off changes how long parses take, not what they return.  Only {@link RosemaryParsePath#ISO_SCANNER} and {@link RosemaryParsePath#CACHE} are fast paths; turning off the cache leaves its entries in place for when it is turned back on.
+	 *
+	 * @param path the fast path
+	 * @param enabled <code>true</code> to use the fast path
+	 */
+	public void setFastPathEnabled(RosemaryParsePath path, boolean enabled) {
+		switch (path) {
+			case ISO_SCANNER:
+				this.isoScannerEnabled = enabled;
+				break;
+			case CACHE:
+				this.cacheEnabled = enabled;
+				break;
+			default:
+				throw new IllegalArgumentException("Not a fast path: " + path);
+		}
+	}
+
+	/**
+	 * Is a fast path on?  The cache is only used if it is on and the parser has one.
+	 *
+	 * @param path the fast path
+	 * @return <code>true</code> if the fast path is used
+	 */
+	public boolean isFastPathEnabled(RosemaryParsePath path) {
+		switch (path) {
+			case ISO_SCANNER:
+				return this.isoScannerEnabled;
+			case CACHE:
+				return this.cacheEnabled;
+			default:
+				throw new IllegalArgumentException("Not a fast path: " + path);
+		}
+	}
+
+	/**
+	 * Turn the java.time fallback on or off, while other threads are parsing.  With it on, a datetime the engine fails on is handed to {@link java.time} without a pattern, as earlier versions always did.  The engine reads every layout that does parse, so the fallback only costs time; it is off by default and kept for compatibility.
+	 *
+	 * @param enabled <code>true</code> to fall back on {@link java.time}
+	 */
+	public void setJavaTimeFallbackEnabled(boolean enabled) {
+		this.javaTimeFallbackEnabled = enabled;
+	}
+
+	/**
+	 * Is a datetime the engine fails on handed to {@link java.time}?
+	 *
+	 * @return <code>true</code> if the java.time fallback is on
+	 */
+	public boolean isJavaTimeFallbackEnabled() {
+		return this.javaTimeFallbackEnabled;
+	}
+
+	/**
+	 * Get the stages this parser runs.  A parser made with a constructor runs every stage but the java.time fallback, and the cache if it has one, and a parser made with a {@link Builder} runs the stages chosen for it.  Either way, the cache, the ISO-8601 scanner and the java.time fallback are then turned off or on with {@link #setFastPathEnabled(RosemaryParsePath, boolean)} and {@link #setJavaTimeFallbackEnabled(boolean)}.
+	 *
+	 * @return the stages
+	 */
+	public Set<RosemaryParseStage> getStages() {
+		final EnumSet<RosemaryParseStage> stages = EnumSet.noneOf(RosemaryParseStage.class);
+		stages.addAll(engineStages);
+		if (isoScannerEnabled) {
+			stages.add(RosemaryParseStage.ISO_SCANNER);
+		}
+		if (javaTimeFallbackEnabled) {
+			stages.add(RosemaryParseStage.JAVA_TIME_FALLBACK);
+		}
+		if (cacheEnabled && parseCache != null) {
+			stages.add(RosemaryParseStage.CACHE);
+		}
+		return Collections.unmodifiableSet(stages);
+	}
+
+	/**
+	 * Start building a parser with chosen stages.
+	 *
+	 * @return a builder with every stage but the java.time fallback and the cache
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builds a parser that runs only the stages chosen for it:
+	 * <pre>
+	 * RosemaryDateTimeParser minimal = RosemaryDateTimeParser.builder().stages(EnumSet.of(RosemaryParseStage.ISO_SCANNER)).build();
+	 * </pre>
+	 * Stages only add to what is read: the ISO-8601 layouts, numbers, times and month names are read by every parser, so <code>minimal</code> still reads <code>March 5 2008 7:02 PM</code>, but not weekday names, ordinals, zone names, separate offsets or epoch milliseconds.  Every parse method runs the same stages, and the ISO-8601 scanner accepts only what the chosen stages read.
+	 * <p>
+	 * The stages that decide what is read are fixed when the parser is built.  A stage that is left out is left out of the parser altogether, rather than checked and skipped for every token, so a parser with fewer stages is quicker on the datetimes it still reads.  The cache, the ISO-8601 scanner and the java.time fallback only change how a datetime is parsed, so like the cache size, metrics and failure sampling, they can still be switched on the built parser.
+	 */
+	public static final class Builder {
+
+		private final EnumSet<RosemaryParseStage> stages = EnumSet.of(RosemaryParseStage.ISO_SCANNER, RosemaryParseStage.EPOCH_MILLIS, RosemaryParseStage.WORDS, RosemaryParseStage.NAMED_ZONES, RosemaryParseStage.NUMERIC_OFFSETS);
+		private RosemaryTimeZoneProvider timeZoneProvider = TimeZoneUtils::getTimezoneNameToTimezoneMap;
+		private RosemaryParseCache parseCache;
+		private int maximumInputLength = DEFAULT_MAXIMUM_INPUT_LENGTH;
+
+		private Builder() {
+		}
+
+		/**
+		 * Run some stages as well.
+		 *
+		 * @param stages the stages to run
+		 * @return this builder
+		 */
+		public Builder enable(RosemaryParseStage... stages) {
+			this.stages.addAll(Arrays.asList(stages));
+			return this;
+		}
+
+		/**
+		 * Leave some stages out.
+		 *
+		 * @param stages the stages to leave out
+		 * @return this builder
+		 */
+		public Builder disable(RosemaryParseStage... stages) {
+			this.stages.removeAll(Arrays.asList(stages));
+			return this;
+		}
+
+		/**
+		 * Run exactly these stages.
+		 *
+		 * @param stages the stages to run, all others are left out
+		 * @return this builder
+		 */
+		public Builder stages(Collection<RosemaryParseStage> stages) {
+			this.stages.clear();
+			this.stages.addAll(stages);
+			return this;
+		}
+
+		/**
+		 * Set where the time zone names of {@link RosemaryParseStage#NAMED_ZONES} come from.
+		 *
+		 * @param timeZoneProvider provides the time zone names to recognize
+		 * @return this builder
+		 */
+		public Builder timeZoneProvider(RosemaryTimeZoneProvider timeZoneProvider) {
+			this.timeZoneProvider = Objects.requireNonNull(timeZoneProvider);
+			return this;
+		}
+
+		/**
+		 * Set the cache, and run {@link RosemaryParseStage#CACHE}.
+		 *
+		 * @param parseCache the cache to use, or <code>null</code> to not cache
+		 * @return this builder
+		 */
+		public Builder parseCache(RosemaryParseCache parseCache) {
+			this.parseCache = parseCache;
+			if (parseCache == null) {
+				this.stages.remove(RosemaryParseStage.CACHE);
+			} else {
+				this.stages.add(RosemaryParseStage.CACHE);
+			}
+			return this;
+		}
+
+		/**
+		 * Set the longest datetime string to parse.
+		 *
+		 * @param maximumInputLength the maximum input length
+		 * @return this builder
+		 */
+		public Builder maximumInputLength(int maximumInputLength) {
+			this.maximumInputLength = maximumInputLength;
+			return this;
+		}
+
+		/**
+		 * Build the parser.  The builder can be changed and used again afterwards, without changing the parsers built with it.
+		 *
+		 * @return a parser with the chosen stages
+		 * @throws IllegalArgumentException if the maximum input length is less than 1
+		 * @throws IllegalStateException if {@link RosemaryParseStage#CACHE} is chosen without a cache
+		 */
+		public RosemaryDateTimeParser build() {
+			if (stages.contains(RosemaryParseStage.CACHE) && parseCache == null) {
+				throw new IllegalStateException("No cache for the cache stage");
+			}
+			return new RosemaryDateTimeParser(timeZoneProvider, stages.contains(RosemaryParseStage.CACHE) ? parseCache : null, maximumInputLength, EnumSet.copyOf(stages), true);
+		}
+	}
+
+	/**
+	 * Get the cache.
+	 *
+	 * @return the cache, or <code>null</code> if the parser doesn't cache
+	 */
+	public RosemaryParseCache getParseCache() {
+		return this.parseCache;
+	}
+
+	/**
+	 * Get the number of time zone names recognized.
+	 */
+	int getTimeZoneCount() {
+		return timeZoneNameToTimeZone.size();
+	}
+
+	/**
+	 * Get how long the time zone provider took to give this parser its time zone names.  Providers like {@link TimeZoneUtils#getTimezoneNameToTimezoneMap()} build them once, so only the first parser pays.
+	 */
+	long getTimeZoneLoadNanos() {
+		return this.timeZoneLoadNanos;
+	}
+
+	/**
+	 * Set the sampler to keep examples of failed parses with.  Can be changed while other threads are parsing.
+	 *
+	 * @param failureSampler the sampler, or <code>null</code> to stop sampling
+	 */
+	public void setFailureSampler(RosemaryFailureSampler failureSampler) {
+		this.failureSampler = failureSampler;
+	}
+
+	/**
+	 * Get the sampler failed parses are kept with.
+	 *
+	 * @return the sampler, or <code>null</code> if failed parses aren't sampled
+	 */
+	public RosemaryFailureSampler getFailureSampler() {
+		return this.failureSampler;
+	}
+
+	/**
+	 * Parses a datetime.  The datetime can be in any format.  Rosemary will try to determine the correct structure of the datetime.  Equivalent to {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)} with a {@link RosemaryDateTimeState} of current year, month and day obtained from the {@link Calendar#getInstance()}
+	 * <p>
+	 * Datetimes in the common ISO-8601 layouts are read by the ISO-8601 scanner, if it is on, before the cache or the current date is looked at.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return parsed dateTimeString
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public OffsetDateTime parse(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		if (isoScannerEnabled && dateTimeString != null && dateTimeString.length() <= maximumInputLength) {
+			final RosemaryIsoScanner isoScanner = RosemaryIsoScanner.ofThread(rosemaryParserDateOrder, numericOffsetsEnabled);
+			if (isoScanner.scan(dateTimeString, 0, dateTimeString.length())) {
+				final Measurement measurement = Measurement.start(metrics, failureSampler, dateTimeString);
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.ISO_SCANNER, null);
+				}
+				return RosemaryTemporalResolution.OFFSET_DATE_TIME.of(isoScanner);
+			}
+		}
+		return parse(dateTimeString, rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), true);
+	}
+
+	/**
+	 * Parses a column of datetimes stored Arrow-style, as one buffer of UTF-8 bytes and an offsets buffer, into primitive columns.  Row <code>i</code> is the bytes from <code>offsets[i]</code> up to <code>offsets[i + 1]</code>.  No objects are created for rows in the common ISO-8601 layouts; any other row is decoded and parsed with {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)}.  Runs of rows in the same fixed-width ISO-8601 layout, like a column written by one system, are checked and converted a block of rows at a time: on the Vector API when the JVM is started with <code>--add-modules jdk.incubator.vector</code>, and with SWAR arithmetic otherwise.  Rows are read a row at a time while metrics, a failure sampler or the parse event are on, so each is still recorded.
+	 * <p>
+	 * For each row the milliseconds since the epoch and the offset from UTC in seconds are written at the row's index, and the row's bit in the validity bitmap (least significant bit first, as in Arrow) is set if the row parsed and cleared if it didn't.  Rows that didn't parse have zeros written.  All buffers are read and written at absolute indices, so they may be direct and their positions are left alone.
+	 *
+	 * @param data the bytes of every row
+	 * @param offsets <code>rowCount + 1</code> offsets into the data
+	 * @param rowCount the number of rows
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param epochMillis receives milliseconds since the epoch of each row
+	 * @param offsetSeconds receives the offset from UTC of each row in seconds
+	 * @param validity receives a bit for each row, set if the row parsed
+	 * @return the number of rows that parsed
+	 */
+	public int parseColumn(ByteBuffer data, IntBuffer offsets, int rowCount, RosemaryDateOrder rosemaryParserDateOrder, LongBuffer epochMillis, IntBuffer offsetSeconds, ByteBuffer validity) {
+		final RosemaryIsoScanner isoScanner = new RosemaryIsoScanner(rosemaryParserDateOrder, numericOffsetsEnabled);
+		final RosemaryDateTimeState defaultDateTimeState = currentDateState(rosemaryParserDateOrder);
+		final boolean isoScannerEnabled = this.isoScannerEnabled;
+		// rows are only scanned in blocks when nothing needs to hear about each of them
+		final boolean blocksEnabled = isoScannerEnabled && metrics == null && failureSampler == null && !RosemaryParseEvent.enabled();
+		RosemaryIsoBatch isoBatch = null;
+		byte[] rowBytes = new byte[64];
+		int valid = 0;
+		for (int row = 0; row < rowCount; row++) {
+			final int from = offsets.get(row);
+			final int to = offsets.get(row + 1);
+			boolean parsed = false;
+			final Measurement measurement = Measurement.start(metrics, failureSampler, null, to - from);
+			final boolean scanned = isoScannerEnabled && to - from <= maximumInputLength && isoScanner.scan(data, from, to);
+			if (scanned) {
+				epochMillis.put(row, isoScanner.epochMillis());
+				offsetSeconds.put(row, isoScanner.offsetSeconds);
+				parsed = true;
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.ISO_SCANNER, null);
+				}
+			} else {
+				if (to - from > rowBytes.length) {
+					rowBytes = new byte[Math.max(to - from, rowBytes.length * 2)];
+				}
+				data.get(from, rowBytes, 0, to - from);
+				try {
+					final OffsetDateTime offsetDateTime = parse(new String(rowBytes, 0, to - from, StandardCharsets.UTF_8), rosemaryParserDateOrder, defaultDateTimeState, true);
+					epochMillis.put(row, offsetDateTime.toInstant().toEpochMilli());
+					offsetSeconds.put(row, offsetDateTime.getOffset().getTotalSeconds());
+					parsed = true;
+				} catch (RosemaryDateTimeException e) {
+					epochMillis.put(row, 0L);
+					offsetSeconds.put(row, 0);
+				}
+			}
+			setValidity(validity, row, parsed);
+			if (parsed) {
+				valid++;
+			}
+
+			// the rows after one the scanner accepted are likely in the same layout
+			if (blocksEnabled && scanned && row + 1 < rowCount && offsets.get(row + 2) - offsets.get(row + 1) == to - from) {
+				if (isoBatch == null) {
+					isoBatch = RosemaryIsoBatch.create();
+				}
+				if (isoBatch.layout(data, from, to)) {
+					final int next = scanBlocks(isoBatch, data, offsets, row + 1, rowCount, epochMillis, offsetSeconds, validity);
+					valid += next - (row + 1);
+					row = next - 1;
+				}
+			}
+		}
+		return valid;
+	}
+
+	/**
+	 * Scan rows in the layout of a batch, a block at a time, up to the first that isn't accepted.  Rows of the same width are packed one after another, so a block is one copy out of the data.
+	 *
+	 * @return the index of the first row that wasn't accepted, or <code>rowCount</code>
+	 */
+	private static int scanBlocks(RosemaryIsoBatch isoBatch, ByteBuffer data, IntBuffer offsets, int row, int rowCount, LongBuffer epochMillis, IntBuffer offsetSeconds, ByteBuffer validity) {
+		final int width = isoBatch.width;
+		while (row < rowCount) {
+			final int blockFrom = offsets.get(row);
+			int rows = 0;
+			while (rows < RosemaryIsoBatch.BLOCK_ROWS && row + rows < rowCount && offsets.get(row + rows + 1) - blockFrom == (rows + 1) * width) {
+				rows++;
+			}
+			if (rows == 0) {
+				break;
+			}
+			data.get(blockFrom, isoBatch.block, 0, rows * width);
+			final int accepted = isoBatch.scan(rows);
+			for (int i = 0; i < accepted; i++) {
+				epochMillis.put(row + i, isoBatch.epochMillis[i]);
+				offsetSeconds.put(row + i, isoBatch.offsetSeconds[i]);
+				setValidity(validity, row + i, true);
+			}
+			row += accepted;
+			if (accepted < rows) {
+				break;
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Set or clear the bit of a row in an Arrow validity bitmap, least significant bit first.
+	 */
+	private static void setValidity(ByteBuffer validity, int row, boolean valid) {
+		final int validityByte = validity.get(row >>> 3);
+		final int validityBit = 1 << (row & 7);
+		validity.put(row >>> 3, (byte) (valid ? validityByte | validityBit : validityByte & ~validityBit));
+	}
+
+	/**
+	 * Parses a column of datetimes stored Arrow-style into primitive arrays.  Equivalent to {@link RosemaryDateTimeParser#parseColumn(ByteBuffer, IntBuffer, int, RosemaryDateOrder, LongBuffer, IntBuffer, ByteBuffer)} on the wrapped arrays.
+	 *
+	 * @param data the bytes of every row
+	 * @param offsets <code>rowCount + 1</code> offsets into the data
+	 * @param rowCount the number of rows
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param epochMillis receives milliseconds since the epoch of each row
+	 * @param offsetSeconds receives the offset from UTC of each row in seconds
+	 * @param validity receives a bit for each row, set if the row parsed
+	 * @return the number of rows that parsed
+	 */
+	public int parseColumn(byte[] data, int[] offsets, int rowCount, RosemaryDateOrder rosemaryParserDateOrder, long[] epochMillis, int[] offsetSeconds, byte[] validity) {
+		return parseColumn(ByteBuffer.wrap(data), IntBuffer.wrap(offsets), rowCount, rosemaryParserDateOrder, LongBuffer.wrap(epochMillis), IntBuffer.wrap(offsetSeconds), ByteBuffer.wrap(validity));
+	}
+
+	/**
+	 * Parses a batch of datetimes.  Each input is parsed as if by {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)}, but the current date is looked up once for the whole batch and inputs in the common ISO-8601 layouts skip the heuristic engine.  An input that doesn't parse doesn't stop the batch, its result holds the failure instead.
+	 *
+	 * @param inputs the datetimes to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return a result for each input, in the order of the inputs
+	 */
+	public List<RosemaryParseResult> parseAll(List<? extends CharSequence> inputs, RosemaryDateOrder rosemaryParserDateOrder) {
+		final RosemaryIsoScanner isoScanner = new RosemaryIsoScanner(rosemaryParserDateOrder, numericOffsetsEnabled);
+		final RosemaryDateTimeState defaultDateTimeState = currentDateState(rosemaryParserDateOrder);
+		final List<RosemaryParseResult> results = new ArrayList<>(inputs.size());
+		final boolean isoScannerEnabled = this.isoScannerEnabled;
+		for (final CharSequence input : inputs) {
+			final Measurement measurement = Measurement.start(metrics, failureSampler, input);
+			if (isoScannerEnabled && input != null && input.length() <= maximumInputLength && isoScanner.scan(input, 0, input.length())) {
+				results.add(new RosemaryParseResult(input, OffsetDateTime.of(isoScanner.year, isoScanner.month, isoScanner.day, isoScanner.hour, isoScanner.minute, isoScanner.second, isoScanner.nanosecond, ZoneOffset.ofTotalSeconds(isoScanner.offsetSeconds)), null));
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.ISO_SCANNER, null);
+				}
+				continue;
+			}
+			try {
+				results.add(new RosemaryParseResult(input, parse(input == null ? null : input.toString(), rosemaryParserDateOrder, defaultDateTimeState, true), null));
+			} catch (RosemaryDateTimeException e) {
+				results.add(new RosemaryParseResult(input, null, e));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Parses a datetime into a sink of primitive fields, rather than an {@link OffsetDateTime}.  The fields are those of the datetime {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} would return.  No objects are created for datetimes in the common ISO-8601 layouts, like <code>2008-03-05 07:02:10</code> and <code>2008-03-05T07:02:10.123-05:00</code>; other datetimes are parsed by the heuristic engine, as they would be by {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)}, and its fields are handed to the sink without creating an {@link OffsetDateTime}, unless the parser has a cache.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param sink receives the fields of the datetime, once, if it parses
+	 * @throws RosemaryDateTimeException if the dateTimeString is <code>null</code> or invalid
+	 */
+	public void parse(CharSequence dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, RosemaryFieldSink sink) throws RosemaryDateTimeException {
+		if (dateTimeString == null) {
+			throw new RosemaryDateTimeException("Unable to parse: null", RosemaryFailureReason.NO_DATETIME);
+		}
+		final int length = dateTimeString.length();
+		if (isoScannerEnabled && length <= maximumInputLength) {
+			final RosemaryIsoScanner isoScanner = RosemaryIsoScanner.ofThread(rosemaryParserDateOrder, numericOffsetsEnabled);
+			if (isoScanner.scan(dateTimeString, 0, length)) {
+				final Measurement measurement = Measurement.start(metrics, failureSampler, dateTimeString);
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.ISO_SCANNER, null);
+				}
+				sink.accept(isoScanner.year, isoScanner.month, isoScanner.day, isoScanner.hour, isoScanner.minute, isoScanner.second, isoScanner.nanosecond, isoScanner.offsetSeconds);
+				return;
+			}
+		}
+		if (cacheEnabled && parseCache != null) {
+			// a cached datetime has already been made, so its fields are read from it
+			final OffsetDateTime offsetDateTime = parse(dateTimeString.toString(), rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), true);
+			RosemaryTemporalResolution.fields(sink).of(offsetDateTime);
+			return;
+		}
+		// the scanner has already been tried, so the engine resolves the fields straight into the sink
+		parse(dateTimeString.toString(), rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), false, RosemaryTemporalResolution.fields(sink));
+	}
+
+	/**
+	 * Parses a datetime into a sink of primitive fields.  Equivalent to {@link RosemaryDateTimeParser#parse(CharSequence, RosemaryDateOrder, RosemaryFieldSink)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param sink receives the fields of the datetime, once, if it parses
+	 * @throws RosemaryDateTimeException if the dateTimeString is <code>null</code> or invalid
+	 */
+	public void parse(CharSequence dateTimeString, RosemaryFieldSink sink) throws RosemaryDateTimeException {
+		parse(dateTimeString, RosemaryDateOrder.MM_DD_YY, sink);
+	}
+
+	/**
+	 * Parses a datetime and appends it as RFC 3339 text, like <code>2008-03-05T07:02:10.488-05:00</code>, optionally moved to another zone.  The text is what {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME} would write for the datetime {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} returns, but it is written straight from the parsed fields: no temporal objects are created for datetimes in the common ISO-8601 layouts, as with {@link RosemaryDateTimeParser#parse(CharSequence, RosemaryDateOrder, RosemaryFieldSink)}, unless the zone to move them to has transitions.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param out receives the text, or nothing if the datetime is invalid
+	 * @param targetZone the zone or offset to write the datetime in, like {@link ZoneOffset#UTC}, or <code>null</code> to keep its own offset
+	 * @return the number of characters appended
+	 * @throws RosemaryDateTimeException if the dateTimeString is <code>null</code> or invalid, or can't be held by java.time in the target zone
+	 * @throws IOException if the text can't be appended
+	 */
+	public int normalize(CharSequence dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, Appendable out, ZoneId targetZone) throws RosemaryDateTimeException, IOException {
+		final RosemaryIsoWriter isoWriter = normalize(dateTimeString, rosemaryParserDateOrder, targetZone);
+		for (int i = 0; i < isoWriter.length; i++) {
+			out.append(isoWriter.chars[i]);
+		}
+		return isoWriter.length;
+	}
+
+	/**
+	 * Parses a datetime and appends it as RFC 3339 text.  Equivalent to {@link RosemaryDateTimeParser#normalize(CharSequence, RosemaryDateOrder, Appendable, ZoneId)}, for a {@link StringBuilder}.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param out receives the text, or nothing if the datetime is invalid
+	 * @param targetZone the zone or offset to write the datetime in, like {@link ZoneOffset#UTC}, or <code>null</code> to keep its own offset
+	 * @return the number of characters appended
+	 * @throws RosemaryDateTimeException if the dateTimeString is <code>null</code> or invalid, or can't be held by java.time in the target zone
+	 */
+	public int normalize(CharSequence dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, StringBuilder out, ZoneId targetZone) throws RosemaryDateTimeException {
+		final RosemaryIsoWriter isoWriter = normalize(dateTimeString, rosemaryParserDateOrder, targetZone);
+		out.append(isoWriter.chars, 0, isoWriter.length);
+		return isoWriter.length;
+	}
+
+	/**
+	 * Parses a datetime and puts it as RFC 3339 text, in US-ASCII bytes, at the position of a buffer.  Otherwise equivalent to {@link RosemaryDateTimeParser#normalize(CharSequence, RosemaryDateOrder, Appendable, ZoneId)}.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param out receives the text at its position, which is moved past it; or nothing if the datetime is invalid
+	 * @param targetZone the zone or offset to write the datetime in, like {@link ZoneOffset#UTC}, or <code>null</code> to keep its own offset
+	 * @return the number of bytes put
+	 * @throws RosemaryDateTimeException if the dateTimeString is <code>null</code> or invalid, or can't be held by java.time in the target zone
+	 * @throws BufferOverflowException if the text doesn't fit in the remaining bytes of the buffer, in which case none are put
+	 */
+	public int normalize(CharSequence dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, ByteBuffer out, ZoneId targetZone) throws RosemaryDateTimeException {
+		final RosemaryIsoWriter isoWriter = normalize(dateTimeString, rosemaryParserDateOrder, targetZone);
+		if (out.remaining() < isoWriter.length) {
+			throw new BufferOverflowException();
+		}
+		for (int i = 0; i < isoWriter.length; i++) {
+			out.put((byte) isoWriter.chars[i]);
+		}
+		return isoWriter.length;
+	}
+
+	/**
+	 * Parse a datetime into the writer of the calling thread, and write it.
+	 */
+	private RosemaryIsoWriter normalize(CharSequence dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, ZoneId targetZone) throws RosemaryDateTimeException {
+		final RosemaryIsoWriter isoWriter = RosemaryIsoWriter.ofThread();
+		parse(dateTimeString, rosemaryParserDateOrder, isoWriter);
+		if (!isoWriter.write(targetZone)) {
+			throw new RosemaryDateTimeException("Out of range in " + targetZone + ": " + dateTimeString, RosemaryFailureReason.OUT_OF_RANGE);
+		}
+		return isoWriter;
+	}
+
+	/**
+	 * Parses the date of a datetime.  The date is read with the same heuristics as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)}, but the time and time zone aren't resolved: no default time or time zone is used, the datetime isn't built in its time zone, and a time without a date is missing its date, rather than taken as 1970-01-01.  Parses aren't cached.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the dateTimeString.  e.g. parseLocalDate(String March 5th) doesn't specify a year, and the current year is used by default.  Use this to alter the default year, month, timezone, etc.
+	 * @return parsed date, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalDate parseLocalDate(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, false, RosemaryTemporalResolution.LOCAL_DATE);
+	}
+
+	/**
+	 * Parses the date of a datetime, with the current date as the default.  See {@link RosemaryDateTimeParser#parseLocalDate(String, RosemaryDateOrder, RosemaryDateTimeState)}.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return parsed date, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalDate parseLocalDate(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), true, RosemaryTemporalResolution.LOCAL_DATE);
+	}
+
+	/**
+	 * Parses the date of a datetime.  Equivalent to {@link RosemaryDateTimeParser#parseLocalDate(String, RosemaryDateOrder)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @return parsed date, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalDate parseLocalDate(String dateTimeString) throws RosemaryDateTimeException {
+		return parseLocalDate(dateTimeString, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	/**
+	 * Parses the time of day of a datetime.  The time is read with the same heuristics as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)}, but the date and time zone aren't resolved: no default date is used, a time without a date isn't taken as 1970-01-01, and the time is as written rather than moved out of a gap in its time zone.  Parses aren't cached.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the dateTimeString.  e.g. parseLocalTime(String March 5th) doesn't specify a year, and the current year is used by default.  Use this to alter the default year, month, timezone, etc.
+	 * @return parsed time of day, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalTime parseLocalTime(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, false, RosemaryTemporalResolution.LOCAL_TIME);
+	}
+
+	/**
+	 * Parses the time of a datetime, with the current date as the default.  See {@link RosemaryDateTimeParser#parseLocalTime(String, RosemaryDateOrder, RosemaryDateTimeState)}.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return parsed time of day, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalTime parseLocalTime(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), true, RosemaryTemporalResolution.LOCAL_TIME);
+	}
+
+	/**
+	 * Parses the time of a datetime.  Equivalent to {@link RosemaryDateTimeParser#parseLocalTime(String, RosemaryDateOrder)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @return parsed time of day, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalTime parseLocalTime(String dateTimeString) throws RosemaryDateTimeException {
+		return parseLocalTime(dateTimeString, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	/**
+	 * Parses the date and time of day of a datetime, without its time zone.  The datetime is read with the same heuristics as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)}, but its time zone isn't resolved, so the time is as written rather than moved out of a gap in its time zone.  Parses aren't cached.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the dateTimeString.  e.g. parseLocalDateTime(String March 5th) doesn't specify a year, and the current year is used by default.  Use this to alter the default year, month, timezone, etc.
+	 * @return parsed date and time of day, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalDateTime parseLocalDateTime(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, false, RosemaryTemporalResolution.LOCAL_DATE_TIME);
+	}
+
+	/**
+	 * Parses the local datetime of a datetime, with the current date as the default.  See {@link RosemaryDateTimeParser#parseLocalDateTime(String, RosemaryDateOrder, RosemaryDateTimeState)}.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return parsed date and time of day, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalDateTime parseLocalDateTime(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), true, RosemaryTemporalResolution.LOCAL_DATE_TIME);
+	}
+
+	/**
+	 * Parses the local datetime of a datetime.  Equivalent to {@link RosemaryDateTimeParser#parseLocalDateTime(String, RosemaryDateOrder)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @return parsed date and time of day, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public LocalDateTime parseLocalDateTime(String dateTimeString) throws RosemaryDateTimeException {
+		return parseLocalDateTime(dateTimeString, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	/**
+	 * Parses the instant of a datetime.  The datetime is read as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)} reads it, but the instant is taken without building an {@link OffsetDateTime} in its time zone.  Parses aren't cached.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @param defaultDateTimeState the default date or time to use if incomplete information is provided in the dateTimeString.  e.g. parseInstant(String March 5th) doesn't specify a year, and the current year is used by default.  Use this to alter the default year, month, timezone, etc.
+	 * @return parsed instant, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public Instant parseInstant(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, false, RosemaryTemporalResolution.INSTANT);
+	}
+
+	/**
+	 * Parses the instant of a datetime, with the current date as the default.  See {@link RosemaryDateTimeParser#parseInstant(String, RosemaryDateOrder, RosemaryDateTimeState)}.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return parsed instant, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public Instant parseInstant(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		return parse(dateTimeString, rosemaryParserDateOrder, currentDateState(rosemaryParserDateOrder), true, RosemaryTemporalResolution.INSTANT);
+	}
+
+	/**
+	 * Parses the instant of a datetime.  Equivalent to {@link RosemaryDateTimeParser#parseInstant(String, RosemaryDateOrder)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @return parsed instant, or <code>null</code> if the dateTimeString is <code>null</code>
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public Instant parseInstant(String dateTimeString) throws RosemaryDateTimeException {
+		return parseInstant(dateTimeString, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	/**
+	 * Parses a datetime into a kind of result, without the cache.  The ISO-8601 scanner is only tried with the current date as the default, which it never needs.
+	 *
+	 * @param currentDateDefault <code>true</code> if the default state holds only the current date
+	 * @param resolution what to resolve the datetime into
+	 */
+	private <T> T parse(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, final RosemaryDateTimeState defaultDateTimeState, boolean currentDateDefault, RosemaryTemporalResolution<T> resolution) throws RosemaryDateTimeException {
+		final Measurement measurement = Measurement.start(metrics, failureSampler, dateTimeString);
+		try {
+			checkLength(dateTimeString);
+		} catch (RosemaryDateTimeException e) {
+			if (measurement != null) {
+				measurement.record(RosemaryParsePath.ENGINE, e);
+			}
+			throw e;
+		}
+		if (currentDateDefault && isoScannerEnabled && dateTimeString != null) {
+			final RosemaryIsoScanner isoScanner = RosemaryIsoScanner.ofThread(rosemaryParserDateOrder, numericOffsetsEnabled);
+			if (isoScanner.scan(dateTimeString, 0, dateTimeString.length())) {
+				if (measurement != null) {
+					measurement.record(RosemaryParsePath.ISO_SCANNER, null);
+				}
+				return resolution.of(isoScanner);
+			}
+		}
+		return parseUncached(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, resolution, measurement);
+	}
+
+	/**
+	 * Parses a datetime.  The datetime can be in any format.  Rosemary will try to determine the correct structure of the datetime.  Equivalent to {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder MM_DD_YY)} with {@link RosemaryDateOrder#MM_DD_YY}
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @return parsed dateTimeString
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid
+	 */
+	public OffsetDateTime parse(String dateTimeString) throws RosemaryDateTimeException {
+		return parse(dateTimeString, RosemaryDateOrder.MM_DD_YY);
+	}
+
+	/**
+	 * Compiles a parser for datetimes with the layout of an example, like every value in a column written by one program.  The example is read once to learn what each of its tokens is, and the compiled parser then reads datetimes with the same tokens in a single pass, without creating objects, exactly as this parser would.  Datetimes with a different layout fail with {@link RosemaryFailureReason#LAYOUT_MISMATCH}.
+	 * <pre>
+	 * RosemaryCompiledParser compiled = rosemary.compileFromExample("March 5th 2008 7:02 pm EST", RosemaryDateOrder.MM_DD_YY);
+	 * compiled.parseEpochMillis("June 22nd 2028 8:15 am CST");
+	 * </pre>
+	 *
+	 * @param example a datetime with the layout to compile
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return a parser for datetimes with the layout of the example
+	 * @throws RosemaryDateTimeException if the example is invalid
+	 * @throws IllegalArgumentException if the layout of the example can't be compiled, like when it isn't ASCII, is a single number, or leaves part of the date to the current date
+	 */
+	public RosemaryCompiledParser compileFromExample(String example, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		return RosemaryCompiledParser.compile(this, example, rosemaryParserDateOrder);
+	}
+
+	/**
+	 * Compiles a {@link RosemaryLayoutSet} for datetimes in the layouts of some examples, like one example from each source of a feed.  The layout of each example is worked out from what this parser reads it as, and written as a {@link java.time.format.DateTimeFormatter} pattern, like <code>M/d/yyyy h:mm a</code> for <code>3/5/2008 7:02 PM</code>.
+	 *
+	 * @param examples a datetime in each layout, in the order the layouts are tried
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats. e.g. 03/04/05 Could be March 4th 2005 or April 3rd 2005 or April 5th 2003
+	 * @return the layout set
+	 * @throws RosemaryDateTimeException if an example is invalid
+	 * @throws IllegalArgumentException if the layout of an example can't be told, like when its month and day are the same number
+	 */
+	public RosemaryLayoutSet compileFromExamples(List<String> examples, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		return RosemaryLayoutSet.ofExamples(this, examples, rosemaryParserDateOrder);
+	}
+
+	/**
+	 * One parse being recorded with {@link RosemaryMetrics}, as a {@link RosemaryParseEvent} and with a {@link RosemaryFailureSampler}.  Only the first path recorded counts, so a cache lookup can record a hit after the loader has already recorded what it parsed.
+	 */
+	private static final class Measurement {
+		private final RosemaryMetrics metrics;
+		private final RosemaryFailureSampler failureSampler;
+		private final RosemaryParseEvent event;
+		private final CharSequence input;
+		private final int inputLength;
+		private final long startNanos;
+		private boolean recorded;
+
+		private Measurement(RosemaryMetrics metrics, RosemaryFailureSampler failureSampler, boolean eventEnabled, CharSequence input, int inputLength) {
+			this.metrics = metrics;
+			this.failureSampler = failureSampler;
+			this.event = eventEnabled ? new RosemaryParseEvent() : null;
+			this.input = input;
+			this.inputLength = inputLength;
+			this.startNanos = metrics != null && metrics.sampleLatency() ? System.nanoTime() : -1L;
+			if (event != null) {
+				event.begin();
+			}
+		}
+
+		/**
+		 * Start recording a parse.
+		 *
+		 * @param metrics the parser's metrics
+		 * @param failureSampler the parser's failure sampler
+		 * @param input the input, or <code>null</code> if it isn't at hand as characters
+		 * @param inputLength the length of the input
+		 * @return the measurement, or <code>null</code> if there are no metrics or failure sampler and the parse event is disabled
+		 */
+		static Measurement start(RosemaryMetrics metrics, RosemaryFailureSampler failureSampler, CharSequence input, int inputLength) {
+			final boolean eventEnabled = RosemaryParseEvent.enabled();
+			return metrics == null && failureSampler == null && !eventEnabled ? null : new Measurement(metrics, failureSampler, eventEnabled, input, inputLength);
+		}
+
+		static Measurement start(RosemaryMetrics metrics, RosemaryFailureSampler failureSampler, CharSequence input) {
+			return start(metrics, failureSampler, input, input == null ? 0 : input.length());
+		}
+
+		/**
+		 * Record how the parse ended, unless it has been already.
+		 *
+		 * @param path the way the datetime was parsed, or failed to parse
+		 * @param failure why the datetime didn't parse, or <code>null</code> if it did
+		 */
+		void record(RosemaryParsePath path, RosemaryDateTimeException failure) {
+			if (recorded) {
+				return;
+			}
+			recorded = true;
+			final RosemaryFailureReason failureReason = failure == null ? null : failure.getReason();
+			if (metrics != null) {
+				metrics.record(path, failureReason, startNanos < 0 ? -1L : System.nanoTime() - startNanos);
+			}
+			if (event != null) {
+				event.finish(path, failureReason, input, inputLength);
+			}
+			if (failureSampler != null && failure != null) {
+				failureSampler.record(input, path, failure);
+			}
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.lemmingapex.rosemary;
+
+import java.util.Map;
+
+/**
+ * The management interface of a {@link RosemaryDateTimeParser}, for inspecting and tuning a running parser with JMX tools like JConsole.  See {@link RosemaryDateTimeParserManagement}.
+ * <p>
+ * Parse counts, rates and latencies come from the parser's {@link RosemaryInMemoryMetrics}, and are 0 or empty while metrics are off or kept some other way.
+ */
+public interface RosemaryDateTimeParserMXBean {
+
+	/**
+	 * Get the longest datetime string the parser will parse.
+	 *
+	 * @return the maximum input length
+	 */
+	int getMaximumInputLength();
+
+	/**
+	 * Get the number of time zone names the parser recognizes.
+	 *
+	 * @return number of time zone names
+	 */
+	int getTimeZoneCount();
+
+	/**
+	 * Get how long the parser waited for its time zone names when it was created.
+	 *
+	 * @return milliseconds
+	 */
+	double getTimeZoneLoadMillis();
+
+	/**
+	 * Is the cache used?
+	 *
+	 * @return <code>true</code> if the parser has a cache and uses it
+	 */
+	boolean isCacheEnabled();
+
+	/**
+	 * Turn the cache on or off, on any parser, including one made with a {@link RosemaryDateTimeParser.Builder}.  The cache only makes parsing quicker, so this changes how long parses take, not what they return.
+	 *
+	 * @param enabled <code>true</code> to use the cache, if the parser has one
+	 */
+	void setCacheEnabled(boolean enabled);
+
+	/**
+	 * Are inputs in the common ISO-8601 layouts read without the engine?
+	 *
+	 * @return <code>true</code> if the ISO-8601 scanner is used
+	 */
+	boolean isIsoScannerEnabled();
+
+	/**
+	 * Turn the ISO-8601 scanner on or off, on any parser, including one made with a {@link RosemaryDateTimeParser.Builder}.  The scanner only makes parsing quicker, so this changes how long parses take, not what they return.
+	 *
+	 * @param enabled <code>true</code> to use the ISO-8601 scanner
+	 */
+	void setIsoScannerEnabled(boolean enabled);
+
+	/**
+	 * Are datetimes the engine fails on handed to java.time?
+	 *
+	 * @return <code>true</code> if the java.time fallback is on
+	 */
+	boolean isJavaTimeFallbackEnabled();
+
+	/**
+	 * Turn the java.time fallback on or off, on any parser, including one made with a {@link RosemaryDateTimeParser.Builder}.  The engine reads every layout that does parse, so the fallback only costs time.
+	 *
+	 * @param enabled <code>true</code> to fall back on java.time
+	 */
+	void setJavaTimeFallbackEnabled(boolean enabled);
+
+	/**
+	 * Get the number of entries in the cache.
+	 *
+	 * @return number of entries, or 0 if the parser has no cache
+	 */
+	int getCacheSize();
+
+	/**
+	 * Get the most entries the cache will hold.
+	 *
+	 * @return the maximum size, or 0 if the parser has no cache
+	 */
+	int getCacheMaximumSize();
+
+	/**
+	 * Change the most entries the cache will hold.
+	 *
+	 * @param maximumSize the maximum size
+	 * @throws IllegalStateException if the parser has no cache
+	 */
+	void setCacheMaximumSize(int maximumSize);
+
+	/**
+	 * Get the fraction of cache lookups that found a result, successful or failed.
+	 *
+	 * @return hit rate: 0-1
+	 */
+	double getCacheHitRate();
+
+	/**
+	 * Get the number of cache lookups that found a successful parse.
+	 *
+	 * @return number of hits
+	 */
+	long getCacheHitCount();
+
+	/**
+	 * Get the number of cache lookups that found a failed parse.
+	 *
+	 * @return number of hits on failures
+	 */
+	long getCacheFailureHitCount();
+
+	/**
+	 * Get the number of cache lookups that had to parse.
+	 *
+	 * @return number of misses
+	 */
+	long getCacheMissCount();
+
+	/**
+	 * Get the number of cache entries evicted to make room for new entries, or because the cache shrank.
+	 *
+	 * @return number of evictions
+	 */
+	long getCacheEvictionCount();
+
+	/**
+	 * Get the number of new entries that were not admitted to the full cache.
+	 *
+	 * @return number of rejections
+	 */
+	long getCacheRejectionCount();
+
+	/**
+	 * Remove every entry from the cache.
+	 */
+	void clearCache();
+
+	/**
+	 * Are parses recorded with metrics?
+	 *
+	 * @return <code>true</code> if the parser has metrics
+	 */
+	boolean isMetricsEnabled();
+
+	/**
+	 * Start or stop recording parses.  Starting gives the parser new {@link RosemaryInMemoryMetrics} if it has no metrics.
+	 *
+	 * @param enabled <code>true</code> to record parses
+	 */
+	void setMetricsEnabled(boolean enabled);
+
+	/**
+	 * Get the number of datetimes parsed or failed.
+	 *
+	 * @return number of parses
+	 */
+	long getParseCount();
+
+	/**
+	 * Get the number of datetimes parsed or failed on each path.
+	 *
+	 * @return counts by names like <code>engine.success</code> and <code>fallback.failure</code>
+	 */
+	Map<String, Long> getPathCounts();
+
+	/**
+	 * Get the number of datetimes that failed for each reason.
+	 *
+	 * @return counts by names like <code>bad_time</code>
+	 */
+	Map<String, Long> getFailureReasonCounts();
+
+	/**
+	 * Get the fraction of datetimes that the engine couldn't parse and that were handed to the java.time fallback, whether it parsed them or not.  Always 0 while the fallback is off.
+	 *
+	 * @return fallback rate: 0-1
+	 */
+	double getFallbackRate();
+
+	/**
+	 * Get the fraction of datetimes that didn't parse.
+	 *
+	 * @return failure rate: 0-1
+	 */
+	double getFailureRate();
+
+	/**
+	 * Get percentiles of the timed parses on each path.
+	 *
+	 * @return microseconds by names like <code>engine.p99</code>
+	 */
+	Map<String, Double> getLatencyMicros();
+
+	/**
+	 * Set every parse count and latency back to zero.
+	 */
+	void resetMetrics();
+}
@@ -0,0 +1,273 @@
+package com.lemmingapex.rosemary;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Manages a {@link RosemaryDateTimeParser} over JMX.  Register a parser with the platform MBean server, and it shows up in JConsole or any other JMX client under <code>com.lemmingapex.rosemary:type=RosemaryDateTimeParser</code>:
+ * <pre>
+ * RosemaryDateTimeParserManagement.register(rosemary, "orders");
+ * </pre>
+ * Cache capacity, the cache, the ISO-8601 scanner and the java.time fallback can be changed while the parser is in use, as can whether parses are recorded with metrics.
+ */
+public class RosemaryDateTimeParserManagement implements RosemaryDateTimeParserMXBean {
+
+	private static final double[] PERCENTILES = {50.0, 99.0, 99.9};
+
+	private final RosemaryDateTimeParser rosemaryDateTimeParser;
+
+	/**
+	 * Create a management bean for a parser.  Use {@link #register(RosemaryDateTimeParser, String)} to register it as well.
+	 *
+	 * @param rosemaryDateTimeParser the parser to manage
+	 */
+	public RosemaryDateTimeParserManagement(RosemaryDateTimeParser rosemaryDateTimeParser) {
+		this.rosemaryDateTimeParser = Objects.requireNonNull(rosemaryDateTimeParser);
+	}
+
+	/**
+	 * Get the name a parser is registered under.
+	 *
+	 * @param name tells the parser apart from the others in the process
+	 * @return <code>com.lemmingapex.rosemary:type=RosemaryDateTimeParser,name=</code> and the quoted name
+	 * @throws JMException if the name can't be used
+	 */
+	public static ObjectName objectName(String name) throws JMException {
+		return new ObjectName("com.lemmingapex.rosemary:type=RosemaryDateTimeParser,name=" + ObjectName.quote(name));
+	}
+
+	/**
+	 * Register a management bean for a parser with the platform MBean server.
+	 *
+	 * @param rosemaryDateTimeParser the parser to manage
+	 * @param name tells the parser apart from the others in the process
+	 * @return the name the bean is registered under
+	 * @throws JMException if the bean can't be registered, like when the name is taken
+	 */
+	public static ObjectName register(RosemaryDateTimeParser rosemaryDateTimeParser, String name) throws JMException {
+		final ObjectName objectName = objectName(name);
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new RosemaryDateTimeParserManagement(rosemaryDateTimeParser), objectName);
+		return objectName;
+	}
+
+	/**
+	 * Unregister a parser's management bean from the platform MBean server.
+	 *
+	 * @param name the name the parser was registered with
+	 * @throws JMException if there is no such bean
+	 */
+	public static void unregister(String name) throws JMException {
+		ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName(name));
+	}
+
+	private RosemaryInMemoryMetrics inMemoryMetrics() {
+		final RosemaryMetrics metrics = rosemaryDateTimeParser.getMetrics();
+		return metrics instanceof RosemaryInMemoryMetrics ? (RosemaryInMemoryMetrics) metrics : null;
+	}
+
+	@Override
+	public int getMaximumInputLength() {
+		return rosemaryDateTimeParser.getMaximumInputLength();
+	}
+
+	@Override
+	public int getTimeZoneCount() {
+		return rosemaryDateTimeParser.getTimeZoneCount();
+	}
+
+	@Override
+	public double getTimeZoneLoadMillis() {
+		return rosemaryDateTimeParser.getTimeZoneLoadNanos() / 1e6;
+	}
+
+	@Override
+	public boolean isCacheEnabled() {
+		return rosemaryDateTimeParser.getParseCache() != null && rosemaryDateTimeParser.isFastPathEnabled(RosemaryParsePath.CACHE);
+	}
+
+	@Override
+	public void setCacheEnabled(boolean enabled) {
+		rosemaryDateTimeParser.setFastPathEnabled(RosemaryParsePath.CACHE, enabled);
+	}
+
+	@Override
+	public boolean isIsoScannerEnabled() {
+		return rosemaryDateTimeParser.isFastPathEnabled(RosemaryParsePath.ISO_SCANNER);
+	}
+
+	@Override
+	public void setIsoScannerEnabled(boolean enabled) {
+		rosemaryDateTimeParser.setFastPathEnabled(RosemaryParsePath.ISO_SCANNER, enabled);
+	}
+
+	@Override
+	public boolean isJavaTimeFallbackEnabled() {
+		return rosemaryDateTimeParser.isJavaTimeFallbackEnabled();
+	}
+
+	@Override
+	public void setJavaTimeFallbackEnabled(boolean enabled) {
+		rosemaryDateTimeParser.setJavaTimeFallbackEnabled(enabled);
+	}
+
+	@Override
+	public int getCacheSize() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.size();
+	}
+
+	@Override
+	public int getCacheMaximumSize() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.getMaximumSize();
+	}
+
+	@Override
+	public void setCacheMaximumSize(int maximumSize) {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		if (parseCache == null) {
+			throw new IllegalStateException("The parser has no cache");
+		}
+		parseCache.setMaximumSize(maximumSize);
+	}
+
+	@Override
+	public double getCacheHitRate() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0.0 : parseCache.getHitRate();
+	}
+
+	@Override
+	public long getCacheHitCount() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.getHitCount();
+	}
+
+	@Override
+	public long getCacheFailureHitCount() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.getFailureHitCount();
+	}
+
+	@Override
+	public long getCacheMissCount() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.getMissCount();
+	}
+
+	@Override
+	public long getCacheEvictionCount() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.getEvictionCount();
+	}
+
+	@Override
+	public long getCacheRejectionCount() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		return parseCache == null ? 0 : parseCache.getRejectionCount();
+	}
+
+	@Override
+	public void clearCache() {
+		final RosemaryParseCache parseCache = rosemaryDateTimeParser.getParseCache();
+		if (parseCache != null) {
+			parseCache.clear();
+		}
+	}
+
+	@Override
+	public boolean isMetricsEnabled() {
+		return rosemaryDateTimeParser.getMetrics() != null;
+	}
+
+	@Override
+	public synchronized void setMetricsEnabled(boolean enabled) {
+		if (!enabled) {
+			rosemaryDateTimeParser.setMetrics(null);
+		} else if (rosemaryDateTimeParser.getMetrics() == null) {
+			rosemaryDateTimeParser.setMetrics(new RosemaryInMemoryMetrics());
+		}
+	}
+
+	@Override
+	public long getParseCount() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		return metrics == null ? 0 : metrics.getCount();
+	}
+
+	@Override
+	public Map<String, Long> getPathCounts() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		final Map<String, Long> counts = new LinkedHashMap<>();
+		if (metrics != null) {
+			for (final RosemaryParsePath path : RosemaryParsePath.values()) {
+				final String name = path.name().toLowerCase(Locale.ROOT);
+				counts.put(name + ".success", metrics.getSuccessCount(path));
+				counts.put(name + ".failure", metrics.getFailureCount(path));
+			}
+		}
+		return counts;
+	}
+
+	@Override
+	public Map<String, Long> getFailureReasonCounts() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		final Map<String, Long> counts = new LinkedHashMap<>();
+		if (metrics != null) {
+			for (final RosemaryFailureReason reason : RosemaryFailureReason.values()) {
+				counts.put(reason.name().toLowerCase(Locale.ROOT), metrics.getFailureCount(reason));
+			}
+		}
+		return counts;
+	}
+
+	@Override
+	public double getFallbackRate() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		final long count = metrics == null ? 0 : metrics.getCount();
+		return count == 0 ? 0.0 : (double) (metrics.getSuccessCount(RosemaryParsePath.FALLBACK) + metrics.getFailureCount(RosemaryParsePath.FALLBACK)) / count;
+	}
+
+	@Override
+	public double getFailureRate() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		final long count = metrics == null ? 0 : metrics.getCount();
+		if (count == 0) {
+			return 0.0;
+		}
+		long failures = 0;
+		for (final RosemaryParsePath path : RosemaryParsePath.values()) {
+			failures += metrics.getFailureCount(path);
+		}
+		return (double) failures / count;
+	}
+
+	@Override
+	public Map<String, Double> getLatencyMicros() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		final Map<String, Double> latencies = new LinkedHashMap<>();
+		if (metrics != null) {
+			for (final RosemaryParsePath path : RosemaryParsePath.values()) {
+				final String name = path.name().toLowerCase(Locale.ROOT);
+				for (final double percentile : PERCENTILES) {
+					latencies.put(name + ".p" + (percentile == Math.rint(percentile) ? Integer.toString((int) percentile) : Double.toString(percentile).replace(".", "")), metrics.getLatencyPercentile(path, percentile) / 1e3);
+				}
+				latencies.put(name + ".max", metrics.getMaximumLatency(path) / 1e3);
+			}
+		}
+		return latencies;
+	}
+
+	@Override
+	public void resetMetrics() {
+		final RosemaryInMemoryMetrics metrics = inMemoryMetrics();
+		if (metrics != null) {
+			metrics.reset();
+		}
+	}
+}
@@ -287,7 +287,7 @@ public class RosemaryDateTimeState {
 	 */
 	public void setYear(int year) throws RosemaryDateTimeException {
 		if (year < 0) {
-			throw new RosemaryDateTimeException("Bad year " + year);
+			throw new RosemaryDateTimeException("Bad year " + year, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.year = year;
@@ -301,7 +301,7 @@ public class RosemaryDateTimeState {
 	 */
 	public void setMonth(int month) throws RosemaryDateTimeException {
 		if (month < 1 || month > 12) {
-			throw new RosemaryDateTimeException("Bad month " + month);
+			throw new RosemaryDateTimeException("Bad month " + month, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.month = month;
@@ -315,7 +315,7 @@ public class RosemaryDateTimeState {
 	 */
 	public void setDay(int day) throws RosemaryDateTimeException {
 		if (day < 1 || day > 31) {
-			throw new RosemaryDateTimeException("Bad day " + day);
+			throw new RosemaryDateTimeException("Bad day " + day, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.day = day;
@@ -337,7 +337,7 @@ public class RosemaryDateTimeState {
 		}
 
 		if (tmpHour < 0 || tmpHour > 23) {
-			throw new RosemaryDateTimeException("Bad hour " + hour);
+			throw new RosemaryDateTimeException("Bad hour " + hour, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.hour = tmpHour;
@@ -351,7 +351,7 @@ public class RosemaryDateTimeState {
 	 */
 	public void setMinute(int minute) throws RosemaryDateTimeException {
 		if (minute < 0 || minute > 59) {
-			throw new RosemaryDateTimeException("Bad minute " + minute);
+			throw new RosemaryDateTimeException("Bad minute " + minute, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.minute = minute;
@@ -365,7 +365,7 @@ public class RosemaryDateTimeState {
 	 */
 	public void setSecond(int second) throws RosemaryDateTimeException {
 		if (second < 0 || second > 59) {
-			throw new RosemaryDateTimeException("Bad second " + second);
+			throw new RosemaryDateTimeException("Bad second " + second, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.second = second;
@@ -379,7 +379,7 @@ public class RosemaryDateTimeState {
 	 */
 	public void setMillisecond(int millisecond) throws RosemaryDateTimeException {
 		if (millisecond < 0 || millisecond > 999) {
-			throw new RosemaryDateTimeException("Bad millisecond " + millisecond);
+			throw new RosemaryDateTimeException("Bad millisecond " + millisecond, RosemaryFailureReason.OUT_OF_RANGE);
 		}
 
 		this.millisecond = millisecond;
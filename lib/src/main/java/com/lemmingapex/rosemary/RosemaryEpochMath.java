@@ -0,0 +1,64 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * Proleptic Gregorian calendar arithmetic on primitives, so that fast paths can produce epoch values without creating calendars or temporal objects.
+ */
+final class RosemaryEpochMath {
+
+	static final long MILLIS_PER_DAY = 86_400_000L;
+	static final int SECONDS_PER_DAY = 86_400;
+
+	private RosemaryEpochMath() {
+	}
+
+	/**
+	 * Days since 1970-01-01 of a date.  The day is allowed to run past the end of the month, like a lenient {@link java.util.Calendar}.
+	 *
+	 * @param year year
+	 * @param month month of the year: 1-12
+	 * @param day day of month, counted from the first of the month
+	 * @return days since the epoch
+	 */
+	static long epochDay(int year, int month, int day) {
+		// days from civil, see https://howardhinnant.github.io/date_algorithms.html
+		final int y = month <= 2 ? year - 1 : year;
+		final int era = Math.floorDiv(y, 400);
+		final int yearOfEra = y - era * 400;
+		final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5;
+		final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097L + dayOfEra - 719468L + (day - 1);
+	}
+
+	/**
+	 * Milliseconds since the epoch of a local datetime at an offset from UTC.
+	 *
+	 * @return milliseconds since the epoch
+	 */
+	static long epochMillis(int year, int month, int day, int hour, int minute, int second, int millisecond, int offsetSeconds) {
+		final long localSeconds = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600L + minute * 60L + second;
+		return (localSeconds - offsetSeconds) * 1000L + millisecond;
+	}
+
+	/**
+	 * @param year year
+	 * @param month month of the year: 1-12
+	 * @return the number of days in the month
+	 */
+	static int lengthOfMonth(int year, int month) {
+		switch (month) {
+			case 2:
+				return isLeapYear(year) ? 29 : 28;
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+}
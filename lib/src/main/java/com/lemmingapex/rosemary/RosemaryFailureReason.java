@@ -0,0 +1,47 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * Why a datetime didn't parse.  See {@link RosemaryDateTimeException#getReason()}.
+ */
+public enum RosemaryFailureReason {
+	/**
+	 * The input was longer than the parser's maximum input length.
+	 */
+	TOO_LONG,
+	/**
+	 * Nothing in the input looked like a date or a time.
+	 */
+	NO_DATETIME,
+	/**
+	 * The day, month or year was missing, and there was no default for it.
+	 */
+	MISSING_FIELD,
+	/**
+	 * A year, month, day, hour, minute, second or millisecond was out of range, like a 13th month.
+	 */
+	OUT_OF_RANGE,
+	/**
+	 * A token looked like a time but wasn't one, like 7:xx or 7:02qm.
+	 */
+	BAD_TIME,
+	/**
+	 * A token looked like a time zone offset but wasn't one, like +05:75.
+	 */
+	BAD_ZONE_OFFSET,
+	/**
+	 * A number or a month name couldn't be given to any field, because the fields it could be were already set.
+	 */
+	UNASSIGNABLE_VALUE,
+	/**
+	 * None of the given {@link java.time.format.DateTimeFormatter} patterns matched.
+	 */
+	NO_MATCHING_FORMAT,
+	/**
+	 * The input didn't have the layout of the example a {@link RosemaryCompiledParser} was compiled from.
+	 */
+	LAYOUT_MISMATCH,
+	/**
+	 * Any other reason.
+	 */
+	UNKNOWN
+}
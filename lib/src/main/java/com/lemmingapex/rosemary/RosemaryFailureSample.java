@@ -0,0 +1,117 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * A datetime that didn't parse, as kept by a {@link RosemaryFailureSampler}.
+ */
+public final class RosemaryFailureSample {
+	/**
+	 * the position of this sample among all those taken by its sampler.
+	 */
+	private final long sequence;
+	/**
+	 * when the parse failed, in milliseconds since the epoch.
+	 */
+	private final long timeMillis;
+	/**
+	 * the start of the input.
+	 */
+	private final String input;
+	/**
+	 * the length of the whole input.
+	 */
+	private final int inputLength;
+	/**
+	 * the token the parse failed on, or <code>null</code>.
+	 */
+	private final String token;
+	/**
+	 * why the parse failed.
+	 */
+	private final RosemaryFailureReason reason;
+	/**
+	 * the way the datetime failed to parse.
+	 */
+	private final RosemaryParsePath path;
+
+	RosemaryFailureSample(long sequence, long timeMillis, String input, int inputLength, String token, RosemaryFailureReason reason, RosemaryParsePath path) {
+		this.sequence = sequence;
+		this.timeMillis = timeMillis;
+		this.input = input;
+		this.inputLength = inputLength;
+		this.token = token;
+		this.reason = reason;
+		this.path = path;
+	}
+
+	long getSequence() {
+		return this.sequence;
+	}
+
+	/**
+	 * Get when the parse failed.
+	 *
+	 * @return milliseconds since the epoch
+	 */
+	public long getTimeMillis() {
+		return this.timeMillis;
+	}
+
+	/**
+	 * Get the input, cut short at the sampler's maximum sample length.
+	 *
+	 * @return the start of the input, or <code>null</code> if the input was <code>null</code>
+	 */
+	public String getInput() {
+		return this.input;
+	}
+
+	/**
+	 * Get the length of the whole input.
+	 *
+	 * @return the length before it was cut short
+	 */
+	public int getInputLength() {
+		return this.inputLength;
+	}
+
+	/**
+	 * Was the input cut short?
+	 *
+	 * @return <code>true</code> if {@link #getInput()} is only the start of the input
+	 */
+	public boolean isTruncated() {
+		return this.input != null && this.input.length() < this.inputLength;
+	}
+
+	/**
+	 * Get the token the parse failed on, cut short like the input.
+	 *
+	 * @return the token, or <code>null</code> if the parse didn't fail on a particular token
+	 */
+	public String getToken() {
+		return this.token;
+	}
+
+	/**
+	 * Get why the parse failed.
+	 *
+	 * @return the reason
+	 */
+	public RosemaryFailureReason getReason() {
+		return this.reason;
+	}
+
+	/**
+	 * Get the way the datetime failed to parse.
+	 *
+	 * @return the path
+	 */
+	public RosemaryParsePath getPath() {
+		return this.path;
+	}
+
+	@Override
+	public String toString() {
+		return "RosemaryFailureSample{timeMillis=" + timeMillis + ", input=" + input + (isTruncated() ? "..." : "") + ", inputLength=" + inputLength + ", token=" + token + ", reason=" + reason + ", path=" + path + "}";
+	}
+}
@@ -0,0 +1,175 @@
+package com.lemmingapex.rosemary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the most recent of a sample of the datetimes a {@link RosemaryDateTimeParser} failed to parse, with the token each failed on and why, so there are examples at hand when a feed goes bad.  Set one with {@link RosemaryDateTimeParser#setFailureSampler(RosemaryFailureSampler)}.
+ * <p>
+ * Samples are kept in a ring that overwrites the oldest.  Recording a failure takes constant time and no locks: inputs are cut short at a maximum length, and a failure that isn't sampled costs only a random number and a striped count.  {@link #snapshot()} can be read at any time, like from an ops endpoint, without holding up parsing.
+ */
+public class RosemaryFailureSampler {
+
+	/**
+	 * The number of samples kept by default.
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+	/**
+	 * The number of characters of each input and token kept by default.
+	 */
+	public static final int DEFAULT_MAXIMUM_SAMPLE_LENGTH = 128;
+
+	private final AtomicReferenceArray<RosemaryFailureSample> samples;
+	private final int mask;
+	private final int maximumSampleLength;
+	private final int sampleInterval;
+
+	private final AtomicLong nextSequence = new AtomicLong();
+	private final LongAdder failureCount = new LongAdder();
+
+	/**
+	 * Create a sampler.
+	 *
+	 * @param capacity the most samples to keep, rounded up to a power of two
+	 * @param maximumSampleLength the most characters of each input and token to keep
+	 * @param sampleInterval 1 to sample every failure, or more to sample one in that many, chosen at random
+	 */
+	public RosemaryFailureSampler(int capacity, int maximumSampleLength, int sampleInterval) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Bad capacity " + capacity);
+		}
+		if (maximumSampleLength < 1) {
+			throw new IllegalArgumentException("Bad maximum sample length " + maximumSampleLength);
+		}
+		if (sampleInterval < 1) {
+			throw new IllegalArgumentException("Bad sample interval " + sampleInterval);
+		}
+		final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		this.samples = new AtomicReferenceArray<>(size);
+		this.mask = size - 1;
+		this.maximumSampleLength = maximumSampleLength;
+		this.sampleInterval = sampleInterval;
+	}
+
+	/**
+	 * Create a sampler that samples every failure.
+	 *
+	 * @param capacity the most samples to keep, rounded up to a power of two
+	 * @param maximumSampleLength the most characters of each input and token to keep
+	 */
+	public RosemaryFailureSampler(int capacity, int maximumSampleLength) {
+		this(capacity, maximumSampleLength, 1);
+	}
+
+	/**
+	 * Create a sampler that keeps the last {@link #DEFAULT_CAPACITY} failures, cut short at {@link #DEFAULT_MAXIMUM_SAMPLE_LENGTH} characters.
+	 */
+	public RosemaryFailureSampler() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAXIMUM_SAMPLE_LENGTH);
+	}
+
+	/**
+	 * Record a failed parse.
+	 *
+	 * @param input the input that failed to parse
+	 * @param path the way the datetime failed to parse
+	 * @param failure why it failed
+	 */
+	void record(CharSequence input, RosemaryParsePath path, RosemaryDateTimeException failure) {
+		failureCount.increment();
+		if (sampleInterval > 1 && ThreadLocalRandom.current().nextInt(sampleInterval) != 0) {
+			return;
+		}
+		final long sequence = nextSequence.getAndIncrement();
+		samples.set((int) sequence & mask, new RosemaryFailureSample(sequence, System.currentTimeMillis(), truncate(input), input == null ? 0 : input.length(), truncate(failure.getToken()), failure.getReason(), path));
+	}
+
+	private String truncate(CharSequence text) {
+		if (text == null) {
+			return null;
+		}
+		return text.subSequence(0, Math.min(text.length(), maximumSampleLength)).toString();
+	}
+
+	/**
+	 * Get the samples kept, oldest first.  Samples recorded while the snapshot is taken may or may not be in it.
+	 *
+	 * @return the samples
+	 */
+	public List<RosemaryFailureSample> snapshot() {
+		final long end = nextSequence.get();
+		final long start = Math.max(0, end - samples.length());
+		final List<RosemaryFailureSample> snapshot = new ArrayList<>((int) (end - start));
+		for (long sequence = start; sequence < end; sequence++) {
+			final RosemaryFailureSample sample = samples.get((int) sequence & mask);
+			// skip slots not written yet, or already overwritten by a newer sample
+			if (sample != null && sample.getSequence() == sequence) {
+				snapshot.add(sample);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Remove every sample.  Counts are kept.
+	 */
+	public void clear() {
+		for (int i = 0; i < samples.length(); i++) {
+			samples.set(i, null);
+		}
+	}
+
+	/**
+	 * Get the most samples kept.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return samples.length();
+	}
+
+	/**
+	 * Get the most characters of each input and token kept.
+	 *
+	 * @return the maximum sample length
+	 */
+	public int getMaximumSampleLength() {
+		return this.maximumSampleLength;
+	}
+
+	/**
+	 * Get one failure in how many is sampled.
+	 *
+	 * @return the sample interval
+	 */
+	public int getSampleInterval() {
+		return this.sampleInterval;
+	}
+
+	/**
+	 * Get the number of failures recorded, sampled or not.
+	 *
+	 * @return number of failures
+	 */
+	public long getFailureCount() {
+		return failureCount.sum();
+	}
+
+	/**
+	 * Get the number of failures sampled, including those since overwritten.
+	 *
+	 * @return number of samples
+	 */
+	public long getSampleCount() {
+		return nextSequence.get();
+	}
+
+	@Override
+	public String toString() {
+		return "RosemaryFailureSampler{capacity=" + getCapacity() + ", maximumSampleLength=" + maximumSampleLength + ", sampleInterval=" + sampleInterval + ", failures=" + getFailureCount() + ", samples=" + getSampleCount() + "}";
+	}
+}
@@ -0,0 +1,58 @@
+package com.lemmingapex.rosemary;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for each datetime that the engine couldn't parse and was handed to {@link java.time.format.DateTimeFormatter}, which only happens with {@link RosemaryDateTimeParser#setJavaTimeFallbackEnabled(boolean)} on.  The fallback is far slower than the engine, so inputs that keep landing here are the ones worth teaching the engine.
+ * <p>
+ * The event holds the shape of the input, not the input itself, so recordings don't hold the data that was parsed.
+ */
+@Name("com.lemmingapex.rosemary.Fallback")
+@Label("Rosemary Fallback")
+@Category({"Rosemary"})
+@Description("A datetime the engine couldn't parse, handed to the java.time and SimpleDateFormat parsers")
+@StackTrace(false)
+public final class RosemaryFallbackEvent extends Event {
+
+	@Label("Succeeded")
+	@Description("Whether the fallback parsed the datetime")
+	boolean succeeded;
+
+	@Label("Engine Failure Reason")
+	@Description("Why the engine didn't parse the datetime")
+	String engineFailureReason;
+
+	@Label("Input Length")
+	@Description("The length of the input in characters")
+	int inputLength;
+
+	@Label("Input Shape")
+	@Description("The input with digits masked as 9 and letters as A or a")
+	String inputShape;
+
+	RosemaryFallbackEvent() {
+	}
+
+	/**
+	 * End the event, and commit it if it's enabled.
+	 *
+	 * @param succeeded <code>true</code> if the fallback parsed the datetime
+	 * @param engineFailure why the engine didn't parse the datetime
+	 * @param input the input
+	 */
+	void finish(boolean succeeded, RosemaryDateTimeException engineFailure, String input) {
+		end();
+		if (shouldCommit()) {
+			this.succeeded = succeeded;
+			this.engineFailureReason = engineFailure.getReason().name();
+			this.inputLength = input.length();
+			this.inputShape = RosemaryInputShape.of(input);
+			commit();
+		}
+	}
+}
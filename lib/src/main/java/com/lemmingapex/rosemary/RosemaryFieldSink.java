@@ -0,0 +1,22 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * Receives the fields of a parsed datetime as primitives, for callers that write them into their own structures.  See {@link RosemaryDateTimeParser#parse(CharSequence, RosemaryDateOrder, RosemaryFieldSink)}.
+ */
+@FunctionalInterface
+public interface RosemaryFieldSink {
+
+	/**
+	 * Receive the fields of a datetime.  They are the fields of the {@link java.time.OffsetDateTime} that {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} would return for the same datetime.
+	 *
+	 * @param year year
+	 * @param month month of the year: 1-12
+	 * @param day day of month
+	 * @param hour hour of day: 0-23
+	 * @param minute minute of hour: 0-59
+	 * @param second second of minute: 0-59
+	 * @param nanosecond nanosecond of second
+	 * @param offsetSeconds offset from UTC in seconds.  A time zone named in the datetime is resolved to its offset at the datetime.
+	 */
+	void accept(int year, int month, int day, int hour, int minute, int second, int nanosecond, int offsetSeconds);
+}
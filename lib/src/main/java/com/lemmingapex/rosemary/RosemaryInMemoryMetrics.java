@@ -0,0 +1,207 @@
+package com.lemmingapex.rosemary;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RosemaryMetrics} kept in memory, to be read by a monitoring system.  Parses are counted for each {@link RosemaryParsePath} and outcome, and failures for each {@link RosemaryFailureReason}, in striped counters that don't contend when many threads parse at once.  A sample of parses is timed into a latency histogram for each path, with percentiles accurate to about 6%.
+ * <p>
+ * {@link #export()} flattens everything into named values, for whatever exporter is in use.
+ */
+public class RosemaryInMemoryMetrics implements RosemaryMetrics {
+
+	/**
+	 * By default one parse in this many is timed.
+	 */
+	public static final int DEFAULT_LATENCY_SAMPLE_INTERVAL = 64;
+
+	private static final RosemaryParsePath[] PATHS = RosemaryParsePath.values();
+	private static final RosemaryFailureReason[] REASONS = RosemaryFailureReason.values();
+	private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+	private final int latencySampleInterval;
+	private final LongAdder[] successCounts = new LongAdder[PATHS.length];
+	private final LongAdder[] failureCounts = new LongAdder[PATHS.length];
+	private final LongAdder[] reasonCounts = new LongAdder[REASONS.length];
+	private final RosemaryLatencyHistogram[] latencies = new RosemaryLatencyHistogram[PATHS.length];
+
+	/**
+	 * Create metrics that time one parse in every <code>latencySampleInterval</code>, chosen at random.
+	 *
+	 * @param latencySampleInterval 1 to time every parse, or more to time fewer
+	 */
+	public RosemaryInMemoryMetrics(int latencySampleInterval) {
+		if (latencySampleInterval < 1) {
+			throw new IllegalArgumentException("Bad latency sample interval " + latencySampleInterval);
+		}
+		this.latencySampleInterval = latencySampleInterval;
+		for (int i = 0; i < PATHS.length; i++) {
+			successCounts[i] = new LongAdder();
+			failureCounts[i] = new LongAdder();
+			latencies[i] = new RosemaryLatencyHistogram();
+		}
+		for (int i = 0; i < REASONS.length; i++) {
+			reasonCounts[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Create metrics that time one parse in every {@link #DEFAULT_LATENCY_SAMPLE_INTERVAL}.
+	 */
+	public RosemaryInMemoryMetrics() {
+		this(DEFAULT_LATENCY_SAMPLE_INTERVAL);
+	}
+
+	@Override
+	public boolean sampleLatency() {
+		return latencySampleInterval == 1 || ThreadLocalRandom.current().nextInt(latencySampleInterval) == 0;
+	}
+
+	@Override
+	public void record(RosemaryParsePath path, RosemaryFailureReason failureReason, long latencyNanos) {
+		if (failureReason == null) {
+			successCounts[path.ordinal()].increment();
+		} else {
+			failureCounts[path.ordinal()].increment();
+			reasonCounts[failureReason.ordinal()].increment();
+		}
+		if (latencyNanos >= 0) {
+			latencies[path.ordinal()].record(latencyNanos);
+		}
+	}
+
+	/**
+	 * Get one parse in how many is timed.
+	 *
+	 * @return the latency sample interval
+	 */
+	public int getLatencySampleInterval() {
+		return this.latencySampleInterval;
+	}
+
+	/**
+	 * Get the number of datetimes parsed by a path.
+	 *
+	 * @param path the path
+	 * @return number of successful parses
+	 */
+	public long getSuccessCount(RosemaryParsePath path) {
+		return successCounts[path.ordinal()].sum();
+	}
+
+	/**
+	 * Get the number of datetimes that failed to parse on a path.
+	 *
+	 * @param path the path
+	 * @return number of failed parses
+	 */
+	public long getFailureCount(RosemaryParsePath path) {
+		return failureCounts[path.ordinal()].sum();
+	}
+
+	/**
+	 * Get the number of datetimes that failed to parse for a reason.
+	 *
+	 * @param reason the reason
+	 * @return number of failed parses
+	 */
+	public long getFailureCount(RosemaryFailureReason reason) {
+		return reasonCounts[reason.ordinal()].sum();
+	}
+
+	/**
+	 * Get the number of datetimes parsed or failed, on every path.
+	 *
+	 * @return number of parses
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < PATHS.length; i++) {
+			count += successCounts[i].sum() + failureCounts[i].sum();
+		}
+		return count;
+	}
+
+	/**
+	 * Get the number of parses on a path that were timed.
+	 *
+	 * @param path the path
+	 * @return number of latency samples
+	 */
+	public long getLatencySampleCount(RosemaryParsePath path) {
+		return latencies[path.ordinal()].count();
+	}
+
+	/**
+	 * Get a percentile of the timed parses on a path.
+	 *
+	 * @param path the path
+	 * @param percentile between 0 and 100
+	 * @return the latency in nanoseconds, or 0 if no parses were timed
+	 */
+	public long getLatencyPercentile(RosemaryParsePath path, double percentile) {
+		if (percentile < 0.0 || percentile > 100.0) {
+			throw new IllegalArgumentException("Bad percentile " + percentile);
+		}
+		return latencies[path.ordinal()].percentile(percentile);
+	}
+
+	/**
+	 * Get the longest timed parse on a path.
+	 *
+	 * @param path the path
+	 * @return the latency in nanoseconds, or 0 if no parses were timed
+	 */
+	public long getMaximumLatency(RosemaryParsePath path) {
+		return latencies[path.ordinal()].max();
+	}
+
+	/**
+	 * Set every count and histogram back to zero.  Parses recorded at the same time may be partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < PATHS.length; i++) {
+			successCounts[i].reset();
+			failureCounts[i].reset();
+			latencies[i].reset();
+		}
+		for (int i = 0; i < REASONS.length; i++) {
+			reasonCounts[i].reset();
+		}
+	}
+
+	/**
+	 * Flatten the metrics into named values, like <code>rosemary.parse.success.iso_scanner</code>, <code>rosemary.parse.failure.reason.too_long</code> and <code>rosemary.parse.latency.engine.p99</code>.  Latencies are in nanoseconds.  Every name is always present, in the same order, so exporters can register them once.
+	 *
+	 * @return name to value
+	 */
+	public Map<String, Long> export() {
+		final Map<String, Long> values = new LinkedHashMap<>();
+		for (final RosemaryParsePath path : PATHS) {
+			final String name = path.name().toLowerCase(Locale.ROOT);
+			values.put("rosemary.parse.success." + name, getSuccessCount(path));
+			values.put("rosemary.parse.failure." + name, getFailureCount(path));
+		}
+		for (final RosemaryFailureReason reason : REASONS) {
+			values.put("rosemary.parse.failure.reason." + reason.name().toLowerCase(Locale.ROOT), getFailureCount(reason));
+		}
+		for (final RosemaryParsePath path : PATHS) {
+			final String name = "rosemary.parse.latency." + path.name().toLowerCase(Locale.ROOT);
+			final RosemaryLatencyHistogram histogram = latencies[path.ordinal()];
+			values.put(name + ".samples", histogram.count());
+			for (final double percentile : PERCENTILES) {
+				values.put(name + ".p" + (percentile == Math.rint(percentile) ? Integer.toString((int) percentile) : Double.toString(percentile).replace(".", "")), histogram.percentile(percentile));
+			}
+			values.put(name + ".max", histogram.max());
+		}
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return "RosemaryInMemoryMetrics" + export();
+	}
+}
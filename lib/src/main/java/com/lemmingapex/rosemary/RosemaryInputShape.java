@@ -0,0 +1,51 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * The shape of an input, with its digits and letters masked, like <code>9999-99-99A99:99Aaa</code> for <code>2008-03-05T07:02pm</code>.  A shape shows which layouts are slow or fail without giving away what was in them.
+ */
+final class RosemaryInputShape {
+
+	/**
+	 * The longest shape, not counting the marker that it was cut short.
+	 */
+	static final int MAXIMUM_LENGTH = 64;
+
+	private RosemaryInputShape() {
+	}
+
+	/**
+	 * Get the shape of an input.  Digits become <code>9</code>, upper case letters <code>A</code>, lower case letters <code>a</code>, any other letter <code>L</code>, white space a space and any other character outside of printable ASCII <code>?</code>.  Punctuation is kept.  Shapes longer than {@link #MAXIMUM_LENGTH} are cut short and end in <code>...</code>.
+	 *
+	 * @param input the input
+	 * @return the shape, or <code>null</code> if the input is <code>null</code>
+	 */
+	static String of(CharSequence input) {
+		if (input == null) {
+			return null;
+		}
+		final int length = Math.min(input.length(), MAXIMUM_LENGTH);
+		final StringBuilder shape = new StringBuilder(length + 3);
+		for (int i = 0; i < length; i++) {
+			final char c = input.charAt(i);
+			if (c >= '0' && c <= '9') {
+				shape.append('9');
+			} else if (c >= 'A' && c <= 'Z') {
+				shape.append('A');
+			} else if (c >= 'a' && c <= 'z') {
+				shape.append('a');
+			} else if (Character.isLetter(c)) {
+				shape.append('L');
+			} else if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+				shape.append(' ');
+			} else if (c > ' ' && c < 0x7f) {
+				shape.append(c);
+			} else {
+				shape.append('?');
+			}
+		}
+		if (input.length() > MAXIMUM_LENGTH) {
+			shape.append("...");
+		}
+		return shape.toString();
+	}
+}
@@ -0,0 +1,236 @@
+package com.lemmingapex.rosemary;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+
+/**
+ * Scans runs of rows that share the fixed-width layout of a row {@link RosemaryIsoScanner} accepted, a block at a time.  The separators and digits of every row are checked against the layout and the digits converted to numbers many at once, by a kernel on the Vector API when <code>jdk.incubator.vector</code> is available and on SWAR arithmetic otherwise; only the range checks and epoch arithmetic are done a field at a time.  A row is accepted exactly when {@link RosemaryIsoScanner} would accept it.
+ * <p>
+ * Rows are at most {@link #MAXIMUM_WIDTH} bytes wide, so a row fits in one 256-bit vector.  A batch holds the layout and results of the last block scanned, so it must not be shared between threads.
+ */
+abstract class RosemaryIsoBatch {
+
+	/**
+	 * the widest layout that is scanned in blocks, <code>2008-03-05T07:02:10.123456+05:30</code>.
+	 */
+	static final int MAXIMUM_WIDTH = 32;
+
+	/**
+	 * the most rows scanned in one block.
+	 */
+	static final int BLOCK_ROWS = 64;
+
+	private static final MethodHandle VECTOR_BATCH = vectorBatch();
+
+	/**
+	 * receives the rows of a block; kernels may read up to {@link #MAXIMUM_WIDTH} bytes from the start of any row, so it is padded past the last.
+	 */
+	final byte[] block = new byte[BLOCK_ROWS * MAXIMUM_WIDTH + MAXIMUM_WIDTH];
+
+	/**
+	 * milliseconds since the epoch of each accepted row of the last block.
+	 */
+	final long[] epochMillis = new long[BLOCK_ROWS];
+
+	/**
+	 * offset from UTC in seconds of each accepted row of the last block.
+	 */
+	final int[] offsetSeconds = new int[BLOCK_ROWS];
+
+	/**
+	 * filled by {@link #shape(byte[], int)}: <code>pairs[i]</code> is the two digits at <code>i</code> and <code>i + 1</code> of the row as a number.
+	 */
+	final byte[] pairs = new byte[MAXIMUM_WIDTH];
+
+	/**
+	 * the layout, as the bytes of a row that was accepted.  Digits stand for any digit.
+	 */
+	final byte[] template = new byte[MAXIMUM_WIDTH];
+	int width;
+	/**
+	 * the index of the sign of the offset, which is either sign; or -1 if there is no offset.
+	 */
+	int signAt;
+	private boolean hasTime;
+	private int secondAt;
+	private int fractionAt;
+	private int fractionDigits;
+	private int maximumOffsetHours;
+
+	/**
+	 * Create a batch on the fastest kernel available.
+	 *
+	 * @return a batch
+	 */
+	static RosemaryIsoBatch create() {
+		if (VECTOR_BATCH != null) {
+			try {
+				return (RosemaryIsoBatch) VECTOR_BATCH.invoke();
+			} catch (Throwable e) {
+				// fall through to SWAR
+			}
+		}
+		return new RosemaryIsoSwarBatch();
+	}
+
+	/**
+	 * @return the constructor of the Vector API kernel, or <code>null</code> if <code>jdk.incubator.vector</code> isn't available or has no 256-bit vectors on this hardware
+	 */
+	private static MethodHandle vectorBatch() {
+		try {
+			final Class<?> vectorBatch = Class.forName("com.lemmingapex.rosemary.RosemaryIsoVectorBatch");
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			if (!(boolean) lookup.findStatic(vectorBatch, "isSupported", MethodType.methodType(boolean.class)).invoke()) {
+				return null;
+			}
+			return lookup.findConstructor(vectorBatch, MethodType.methodType(void.class));
+		} catch (Throwable e) {
+			// the class isn't on the classpath, or the module isn't in the boot layer
+			return null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if this batch runs on the Vector API
+	 */
+	abstract boolean isVectorized();
+
+	/**
+	 * Take the layout of a row.
+	 *
+	 * @param data the bytes of the row
+	 * @param from index of the first byte of the row
+	 * @param to index after the last byte of the row
+	 * @return <code>true</code> if the row is narrow enough to be scanned in blocks
+	 */
+	boolean layout(ByteBuffer data, int from, int to) {
+		width = to - from;
+		if (width > MAXIMUM_WIDTH) {
+			return false;
+		}
+		data.get(from, template, 0, width);
+		hasTime = width > 10;
+		secondAt = -1;
+		fractionAt = -1;
+		fractionDigits = 0;
+		signAt = -1;
+		if (hasTime) {
+			int p = 16;
+			if (p < width && template[p] == ':') {
+				secondAt = p + 1;
+				p += 3;
+				if (p < width && template[p] == '.') {
+					fractionAt = ++p;
+					while (p < width && template[p] >= '0' && template[p] <= '9') {
+						p++;
+					}
+					fractionDigits = p - fractionAt;
+				}
+			}
+			if (p < width && template[p] != 'Z') {
+				signAt = template[p] == ' ' ? p + 1 : p;
+			}
+			// as RosemaryIsoScanner: java.time reads offsets up to 18 hours, the heuristic engine up to 17
+			maximumOffsetHours = template[10] == 'T' ? 18 : 17;
+		}
+		prepare();
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if the byte of the layout at an index stands for any digit
+	 */
+	final boolean isDigit(int index) {
+		return index < width && index != signAt && template[index] >= '0' && template[index] <= '9';
+	}
+
+	/**
+	 * @return <code>true</code> if the byte of the layout at an index must be matched exactly
+	 */
+	final boolean isLiteral(int index) {
+		return index < width && index != signAt && !isDigit(index);
+	}
+
+	/**
+	 * Build whatever the kernel needs to check rows against the layout.
+	 */
+	abstract void prepare();
+
+	/**
+	 * Check a row against the layout, and if it matches fill {@link #pairs}.
+	 *
+	 * @param data the block
+	 * @param from index of the first byte of the row
+	 * @return <code>true</code> if every digit of the layout is a digit in the row and every other byte but the sign is the same
+	 */
+	abstract boolean shape(byte[] data, int from);
+
+	/**
+	 * Scan rows packed one after another in {@link #block}, stopping at the first that isn't accepted.
+	 *
+	 * @param rows the number of rows in the block
+	 * @return the number of rows accepted, whose results are in {@link #epochMillis} and {@link #offsetSeconds}
+	 */
+	final int scan(int rows) {
+		final byte[] block = this.block;
+		for (int row = 0; row < rows; row++) {
+			final int from = row * width;
+			if (!shape(block, from) || !fields(block, from, row)) {
+				return row;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Read the fields of a row from {@link #pairs}, and check their ranges as {@link RosemaryIsoScanner} does.
+	 */
+	private boolean fields(byte[] data, int from, int row) {
+		final byte[] pairs = this.pairs;
+		final int year = pairs[0] * 100 + pairs[2];
+		final int month = pairs[5];
+		final int day = pairs[8];
+		if (year < 1583 || month < 1 || month > 12 || day < 1 || day > RosemaryEpochMath.lengthOfMonth(year, month)) {
+			return false;
+		}
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int millisecond = 0;
+		int offset = 0;
+		if (hasTime) {
+			hour = pairs[11];
+			minute = pairs[14];
+			if (hour > 23 || minute > 59) {
+				return false;
+			}
+			if (secondAt >= 0) {
+				second = pairs[secondAt];
+				if (second > 59) {
+					return false;
+				}
+			}
+			if (fractionDigits >= 3) {
+				millisecond = pairs[fractionAt] * 10 + (data[from + fractionAt + 2] - '0');
+			} else if (fractionDigits == 2) {
+				millisecond = pairs[fractionAt] * 10;
+			} else if (fractionDigits == 1) {
+				millisecond = (data[from + fractionAt] - '0') * 100;
+			}
+			if (signAt >= 0) {
+				final byte sign = data[from + signAt];
+				final int offsetHours = pairs[signAt + 1];
+				final int offsetMinutes = pairs[signAt + 4];
+				if ((sign != '+' && sign != '-') || offsetMinutes > 59 || offsetHours > maximumOffsetHours || (offsetHours == 18 && offsetMinutes > 0)) {
+					return false;
+				}
+				offset = (sign == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+			}
+		}
+		epochMillis[row] = RosemaryEpochMath.epochMillis(year, month, day, hour, minute, second, millisecond, offset);
+		offsetSeconds[row] = offset;
+		return true;
+	}
+}
@@ -0,0 +1,223 @@
+package com.lemmingapex.rosemary;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads the ISO-8601 datetimes that {@link java.time} reads and the heuristic engine doesn't, in one pass over the characters and without exceptions:
+ * <ul>
+ * <li><code>2008-03-05T07:02:10.488-05:00</code> and the rest of {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME} and {@link java.time.format.DateTimeFormatter#ISO_LOCAL_DATE_TIME}: a <code>T</code> or <code>t</code> between the date and time, optional seconds, 0-9 fraction digits, <code>Z</code>, <code>z</code> or an offset like <code>+05</code>, <code>+05:30</code> or <code>+05:30:15</code>, and years like <code>-0044</code> or <code>+12008</code></li>
+ * <li><code>2008-03-05 07:02:10.000</code>, <code>2008-03-05 24:00:00.000</code> and <code>+12008-03-05 07:02:10.000</code>, read like {@link com.lemmingapex.rosemary.utils.ParsingUtilities#DATETIME_FORMAT}</li>
+ * </ul>
+ * Datetimes without an offset are in UTC.  Text is accepted exactly when those {@link java.time} parsers would accept it, and read to the same datetime, so the engine no longer needs to hand its failures to them.  The engine never reads the layouts with a <code>T</code>, so they can be read before it; it reads most of the others, depending on the date order, so they are only read when it fails.
+ */
+final class RosemaryIsoDateTime {
+
+	private static final long MAXIMUM_YEAR = 999_999_999L;
+
+	private RosemaryIsoDateTime() {
+	}
+
+	/**
+	 * Read a datetime with a <code>T</code> between the date and time.
+	 *
+	 * @param text the datetime
+	 * @return the datetime, or <code>null</code> if the text is not in one of the layouts, or is but isn't a valid datetime
+	 */
+	static OffsetDateTime parseIso(CharSequence text) {
+		return parse(text, false);
+	}
+
+	/**
+	 * Read a datetime in the layout of {@link com.lemmingapex.rosemary.utils.ParsingUtilities#DATETIME_FORMAT}.
+	 *
+	 * @param text the datetime
+	 * @return the datetime, or <code>null</code> if the text is not in the layout, or is but isn't a valid datetime
+	 */
+	static OffsetDateTime parseDateTimeFormat(CharSequence text) {
+		return parse(text, true);
+	}
+
+	private static OffsetDateTime parse(CharSequence text, boolean dateTimeFormat) {
+		final int length = text.length();
+		if (length < 16) {
+			return null;
+		}
+
+		int p = 0;
+		final char sign = text.charAt(0);
+		if (sign == '+' || sign == '-') {
+			p++;
+		}
+		final int yearStart = p;
+		long year = 0;
+		while (p < length && isDigit(text.charAt(p))) {
+			// saturate, so long runs of leading zeros are still read
+			year = Math.min(year * 10 + (text.charAt(p) - '0'), MAXIMUM_YEAR + 1);
+			p++;
+		}
+		final int yearDigits = p - yearStart;
+		if (yearDigits < 4 || year > MAXIMUM_YEAR || p + 6 > length || text.charAt(p) != '-' || text.charAt(p + 3) != '-') {
+			return null;
+		}
+		final int month = digits(text, p + 1);
+		final int day = digits(text, p + 4);
+		p += 6;
+		if (month < 1 || month > 12 || day < 1 || day > 31 || p + 6 > length || text.charAt(p + 3) != ':') {
+			return null;
+		}
+
+		final char separator = text.charAt(p);
+		final int hour = digits(text, p + 1);
+		final int minute = digits(text, p + 4);
+		p += 6;
+		if (hour < 0 || minute < 0 || minute > 59) {
+			return null;
+		}
+
+		if (!dateTimeFormat && (separator == 'T' || separator == 't')) {
+			// year of ISO_LOCAL_DATE: four digits, or a sign and more
+			if ((sign == '+' && yearDigits == 4) || (sign == '-' && year == 0) || (sign != '+' && sign != '-' && yearDigits > 4) || yearDigits > 10) {
+				return null;
+			}
+			return readIsoTime(text, p, (int) (sign == '-' ? -year : year), month, day, hour, minute);
+		}
+		if (dateTimeFormat && separator == ' ') {
+			// year of era of yyyy: four digits, or a plus sign and more
+			if (sign == '-' || (sign == '+') != (yearDigits > 4) || year == 0) {
+				return null;
+			}
+			return readDateTimeFormatTime(text, p, (int) year, month, day, hour, minute);
+		}
+		return null;
+	}
+
+	/**
+	 * Read the rest of an ISO-8601 datetime after the hour and minute, strictly like {@link OffsetDateTime#parse(CharSequence)}.
+	 */
+	private static OffsetDateTime readIsoTime(CharSequence text, int p, int year, int month, int day, int hour, int minute) {
+		final int length = text.length();
+		if (day > RosemaryEpochMath.lengthOfMonth(year, month) || hour > 23) {
+			return null;
+		}
+
+		int second = 0;
+		int nanosecond = 0;
+		if (p < length && text.charAt(p) == ':') {
+			if (p + 3 > length) {
+				return null;
+			}
+			second = digits(text, p + 1);
+			p += 3;
+			if (second < 0 || second > 59) {
+				return null;
+			}
+			if (p < length && text.charAt(p) == '.') {
+				p++;
+				int fractionDigits = 0;
+				while (p < length && isDigit(text.charAt(p))) {
+					if (++fractionDigits > 9) {
+						return null;
+					}
+					nanosecond = nanosecond * 10 + (text.charAt(p) - '0');
+					p++;
+				}
+				for (int i = fractionDigits; i < 9; i++) {
+					nanosecond *= 10;
+				}
+			}
+		}
+
+		int offsetSeconds = 0;
+		if (p < length) {
+			final char c = text.charAt(p);
+			if (c == 'Z' || c == 'z') {
+				p++;
+			} else if (c == '+' || c == '-') {
+				if (p + 3 > length) {
+					return null;
+				}
+				final int offsetHours = digits(text, p + 1);
+				int offsetMinutes = 0;
+				int offsetSecondsOfMinute = 0;
+				p += 3;
+				if (p < length && text.charAt(p) == ':') {
+					if (p + 3 > length) {
+						return null;
+					}
+					offsetMinutes = digits(text, p + 1);
+					p += 3;
+					if (p < length && text.charAt(p) == ':') {
+						if (p + 3 > length) {
+							return null;
+						}
+						offsetSecondsOfMinute = digits(text, p + 1);
+						p += 3;
+					}
+				}
+				if (offsetHours < 0 || offsetHours > 18 || offsetMinutes < 0 || offsetMinutes > 59 || offsetSecondsOfMinute < 0 || offsetSecondsOfMinute > 59) {
+					return null;
+				}
+				offsetSeconds = offsetHours * 3600 + offsetMinutes * 60 + offsetSecondsOfMinute;
+				if (offsetSeconds > 18 * 3600) {
+					return null;
+				}
+				if (c == '-') {
+					offsetSeconds = -offsetSeconds;
+				}
+			} else {
+				return null;
+			}
+		}
+		if (p != length) {
+			return null;
+		}
+		return OffsetDateTime.of(year, month, day, hour, minute, second, nanosecond, ZoneOffset.ofTotalSeconds(offsetSeconds));
+	}
+
+	/**
+	 * Read the rest of a datetime after the hour and minute like {@link com.lemmingapex.rosemary.utils.ParsingUtilities#DATETIME_FORMAT}, which resolves smartly: a day past the end of the month is the last day of the month, and <code>24:00:00.000</code> is the start of the next day.
+	 */
+	private static OffsetDateTime readDateTimeFormatTime(CharSequence text, int p, int year, int month, int day, int hour, int minute) {
+		if (p + 7 != text.length() || text.charAt(p) != ':' || text.charAt(p + 3) != '.') {
+			return null;
+		}
+		final int second = digits(text, p + 1);
+		final int millisecond = digits3(text, p + 4);
+		if (second < 0 || second > 59 || millisecond < 0 || hour > 24 || (hour == 24 && (minute != 0 || second != 0 || millisecond != 0))) {
+			return null;
+		}
+		LocalDate date = LocalDate.of(year, month, Math.min(day, RosemaryEpochMath.lengthOfMonth(year, month)));
+		if (hour == 24) {
+			if (date.equals(LocalDate.MAX)) {
+				return null;
+			}
+			date = date.plusDays(1);
+			hour = 0;
+		}
+		return OffsetDateTime.of(date.getYear(), date.getMonthValue(), date.getDayOfMonth(), hour, minute, second, millisecond * 1_000_000, ZoneOffset.UTC);
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * @return the value of two ASCII digits, or -1 if either is not a digit
+	 */
+	private static int digits(CharSequence text, int from) {
+		final char tens = text.charAt(from);
+		final char ones = text.charAt(from + 1);
+		return isDigit(tens) && isDigit(ones) ? (tens - '0') * 10 + (ones - '0') : -1;
+	}
+
+	/**
+	 * @return the value of three ASCII digits, or -1 if any is not a digit
+	 */
+	private static int digits3(CharSequence text, int from) {
+		final int hundreds = text.charAt(from) - '0';
+		final int rest = digits(text, from + 1);
+		return hundreds >= 0 && hundreds <= 9 && rest >= 0 ? hundreds * 100 + rest : -1;
+	}
+}
@@ -0,0 +1,225 @@
+package com.lemmingapex.rosemary;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Scans the ISO-8601 shaped datetimes that make up most machine written data, without creating any objects.  Only text that {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder, RosemaryDateTimeState)} is known to parse the same way is accepted:
+ * <ul>
+ * <li><code>2008-03-05</code></li>
+ * <li><code>2008-03-05 07:02</code>, <code>2008-03-05 07:02:10</code> and <code>2008-03-05 07:02:10.123</code>, optionally followed by a space and an offset like <code>-05:00</code> if the parser reads {@link RosemaryParseStage#NUMERIC_OFFSETS}</li>
+ * <li><code>2008-03-05T07:02</code>, <code>2008-03-05T07:02:10</code> and <code>2008-03-05T07:02:10.123456789</code>, optionally followed by <code>Z</code> or an offset like <code>-05:00</code></li>
+ * </ul>
+ * The heuristic engine reads the layouts without a <code>T</code> in the date order it is given, so they are only accepted for orders that put the month before the day.  Anything else, including dates that don't exist and years before the Gregorian cutover, is rejected and left to the heuristic engine.  A scanner holds the fields of the last datetime scanned, so it must not be shared between threads.
+ */
+final class RosemaryIsoScanner {
+
+	/**
+	 * the longest text that can be accepted, <code>2008-03-05T07:02:10.123456789+05:30</code>.
+	 */
+	static final int MAXIMUM_LENGTH = 35;
+
+	private static final ThreadLocal<RosemaryIsoScanner[]> THREAD_SCANNERS = ThreadLocal.withInitial(() -> {
+		final RosemaryDateOrder[] orders = RosemaryDateOrder.values();
+		final RosemaryIsoScanner[] scanners = new RosemaryIsoScanner[orders.length * 2];
+		for (final RosemaryDateOrder order : orders) {
+			scanners[order.ordinal() * 2] = new RosemaryIsoScanner(order, false);
+			scanners[order.ordinal() * 2 + 1] = new RosemaryIsoScanner(order, true);
+		}
+		return scanners;
+	});
+
+	private final byte[] scratch = new byte[MAXIMUM_LENGTH];
+	private final boolean monthBeforeDay;
+	private final boolean numericOffsets;
+
+	int year;
+	int month;
+	int day;
+	int hour;
+	int minute;
+	int second;
+	int nanosecond;
+	int offsetSeconds;
+
+	/**
+	 * Create a scanner for text that would otherwise be parsed in the supplied order.
+	 *
+	 * @param rosemaryParserDateOrder the order in which the heuristic engine would resolve ambiguous dates
+	 */
+	RosemaryIsoScanner(RosemaryDateOrder rosemaryParserDateOrder) {
+		this(rosemaryParserDateOrder, true);
+	}
+
+	/**
+	 * Create a scanner for text that would otherwise be parsed in the supplied order, by a heuristic engine that may not read separate offsets.
+	 *
+	 * @param rosemaryParserDateOrder the order in which the heuristic engine would resolve ambiguous dates
+	 * @param numericOffsets <code>true</code> if the heuristic engine reads {@link RosemaryParseStage#NUMERIC_OFFSETS}, so an offset after a space is accepted
+	 */
+	RosemaryIsoScanner(RosemaryDateOrder rosemaryParserDateOrder, boolean numericOffsets) {
+		this.monthBeforeDay = (rosemaryParserDateOrder.order & RosemaryDateTimeState.MONTH_BEFORE_DAY) != 0;
+		this.numericOffsets = numericOffsets;
+	}
+
+	/**
+	 * Get the scanner of the calling thread for an order, for scanning one datetime at a time without creating a scanner.
+	 *
+	 * @param rosemaryParserDateOrder the order in which the heuristic engine would resolve ambiguous dates
+	 * @param numericOffsets <code>true</code> if the heuristic engine reads {@link RosemaryParseStage#NUMERIC_OFFSETS}
+	 * @return the scanner, which must not be handed to another thread
+	 */
+	static RosemaryIsoScanner ofThread(RosemaryDateOrder rosemaryParserDateOrder, boolean numericOffsets) {
+		return THREAD_SCANNERS.get()[rosemaryParserDateOrder.ordinal() * 2 + (numericOffsets ? 1 : 0)];
+	}
+
+	/**
+	 * Scan ASCII bytes.
+	 *
+	 * @param data bytes to scan
+	 * @param from index of the first byte
+	 * @param to index after the last byte
+	 * @return <code>true</code> if the bytes were accepted and the fields set
+	 */
+	boolean scan(ByteBuffer data, int from, int to) {
+		final int length = to - from;
+		if (length < 10 || length > MAXIMUM_LENGTH) {
+			return false;
+		}
+		data.get(from, scratch, 0, length);
+		return scan(scratch, length);
+	}
+
+	/**
+	 * Scan characters.
+	 *
+	 * @param text characters to scan
+	 * @param from index of the first character
+	 * @param to index after the last character
+	 * @return <code>true</code> if the characters were accepted and the fields set
+	 */
+	boolean scan(CharSequence text, int from, int to) {
+		final int length = to - from;
+		if (length < 10 || length > MAXIMUM_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			final char c = text.charAt(from + i);
+			if (c > 127) {
+				return false;
+			}
+			scratch[i] = (byte) c;
+		}
+		return scan(scratch, length);
+	}
+
+	private boolean scan(byte[] b, int length) {
+		if (b[4] != '-' || b[7] != '-') {
+			return false;
+		}
+		year = digits(b, 0, 4);
+		month = digits(b, 5, 2);
+		day = digits(b, 8, 2);
+		if (year < 1583 || month < 1 || month > 12 || day < 1 || day > RosemaryEpochMath.lengthOfMonth(year, month)) {
+			return false;
+		}
+
+		hour = 0;
+		minute = 0;
+		second = 0;
+		nanosecond = 0;
+		offsetSeconds = 0;
+		if (length == 10) {
+			return monthBeforeDay;
+		}
+
+		final boolean iso = b[10] == 'T';
+		if ((!iso && (b[10] != ' ' || !monthBeforeDay)) || length < 16 || b[13] != ':') {
+			return false;
+		}
+		hour = digits(b, 11, 2);
+		minute = digits(b, 14, 2);
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+			return false;
+		}
+
+		int p = 16;
+		if (p < length && b[p] == ':') {
+			if (p + 3 > length) {
+				return false;
+			}
+			second = digits(b, p + 1, 2);
+			if (second < 0 || second > 59) {
+				return false;
+			}
+			p += 3;
+
+			if (p < length && b[p] == '.') {
+				p++;
+				int fractionDigits = 0;
+				int fraction = 0;
+				while (p < length && b[p] >= '0' && b[p] <= '9' && fractionDigits < 9) {
+					fraction = fraction * 10 + (b[p] - '0');
+					fractionDigits++;
+					p++;
+				}
+				if (fractionDigits == 0) {
+					return false;
+				}
+				for (int i = fractionDigits; i < 9; i++) {
+					fraction *= 10;
+				}
+				// the heuristic engine keeps milliseconds, java.time keeps nanoseconds
+				nanosecond = iso ? fraction : fraction / 1_000_000 * 1_000_000;
+			}
+		}
+
+		if (p == length) {
+			return true;
+		}
+
+		if (iso) {
+			if (b[p] == 'Z') {
+				return p + 1 == length;
+			}
+			return scanOffset(b, p, length, 18);
+		}
+
+		// the heuristic engine reads a separate offset token, if it reads numeric offsets at all
+		return numericOffsets && b[p] == ' ' && scanOffset(b, p + 1, length, 17);
+	}
+
+	private boolean scanOffset(byte[] b, int p, int length, int maximumHours) {
+		if (p + 6 != length || (b[p] != '+' && b[p] != '-') || b[p + 3] != ':') {
+			return false;
+		}
+		final int offsetHours = digits(b, p + 1, 2);
+		final int offsetMinutes = digits(b, p + 4, 2);
+		if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59 || offsetHours > maximumHours || (offsetHours == 18 && offsetMinutes > 0)) {
+			return false;
+		}
+		offsetSeconds = (b[p] == '-' ? -1 : 1) * (offsetHours * 3600 + offsetMinutes * 60);
+		return true;
+	}
+
+	/**
+	 * @return the value of a run of ASCII digits, or -1 if any of them is not a digit
+	 */
+	private static int digits(byte[] b, int from, int count) {
+		int value = 0;
+		for (int i = from; i < from + count; i++) {
+			final int digit = b[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return -1;
+			}
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+
+	/**
+	 * @return milliseconds since the epoch of the last datetime scanned
+	 */
+	long epochMillis() {
+		return RosemaryEpochMath.epochMillis(year, month, day, hour, minute, second, nanosecond / 1_000_000, offsetSeconds);
+	}
+}
@@ -0,0 +1,73 @@
+package com.lemmingapex.rosemary;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * The {@link RosemaryIsoBatch} kernel for when the Vector API isn't available.  A row is read as little-endian longs, eight bytes at a time: the separators are compared under a mask, the digits checked and converted with SWAR arithmetic, so there are no branches per byte.
+ */
+final class RosemaryIsoSwarBatch extends RosemaryIsoBatch {
+
+	private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private static final long ZEROS = 0x3030303030303030L;
+	private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+	private static final long SIXES = 0x0606060606060606L;
+	private static final long THREES = 0x3333333333333333L;
+
+	private static final int WORDS = MAXIMUM_WIDTH / Long.BYTES;
+
+	private final long[] digitMasks = new long[WORDS];
+	private final long[] literalMasks = new long[WORDS];
+	private final long[] literals = new long[WORDS];
+	private int words;
+
+	@Override
+	boolean isVectorized() {
+		return false;
+	}
+
+	@Override
+	void prepare() {
+		words = (width + Long.BYTES - 1) / Long.BYTES;
+		for (int word = 0; word < words; word++) {
+			long digitMask = 0L;
+			long literalMask = 0L;
+			long literal = 0L;
+			for (int lane = 0; lane < Long.BYTES; lane++) {
+				final int index = word * Long.BYTES + lane;
+				if (isDigit(index)) {
+					digitMask |= 0xFFL << (lane * 8);
+				} else if (isLiteral(index)) {
+					literalMask |= 0xFFL << (lane * 8);
+					literal |= (template[index] & 0xFFL) << (lane * 8);
+				}
+			}
+			digitMasks[word] = digitMask;
+			literalMasks[word] = literalMask;
+			literals[word] = literal;
+		}
+	}
+
+	@Override
+	boolean shape(byte[] data, int from) {
+		// from the last word back, so the first digit of each word can complete the pair in the lane before it
+		long nextValues = 0L;
+		for (int word = words - 1; word >= 0; word--) {
+			final long bytes = (long) LONG.get(data, from + word * Long.BYTES);
+			if (((bytes ^ literals[word]) & literalMasks[word]) != 0L) {
+				return false;
+			}
+			// every lane that isn't a digit of the layout is read as '0'
+			final long digits = (bytes & digitMasks[word]) | (ZEROS & ~digitMasks[word]);
+			if (((digits & HIGH_NIBBLES) | (((digits + SIXES) & HIGH_NIBBLES) >>> 4)) != THREES) {
+				return false;
+			}
+			final long values = digits - ZEROS;
+			LONG.set(pairs, word * Long.BYTES, values * 10L + (values >>> 8) + (nextValues << 56));
+			nextValues = values;
+		}
+		return true;
+	}
+}
@@ -0,0 +1,191 @@
+package com.lemmingapex.rosemary;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Writes the fields it receives as RFC 3339 text, exactly as {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME} would write the same datetime, optionally moved to another zone first.  Only arithmetic on primitives is done, so no temporal objects are created, other than to look up the offset of a zone that has transitions.
+ * <p>
+ * A writer holds the text of the last datetime written, so it must not be shared between threads.
+ */
+final class RosemaryIsoWriter implements RosemaryFieldSink {
+
+	/**
+	 * the longest text that can be written, <code>+999999999-12-31T23:59:59.999999999+17:59:59</code>.
+	 */
+	static final int MAXIMUM_LENGTH = 44;
+
+	private static final int MAXIMUM_YEAR = 999_999_999;
+
+	private static final ThreadLocal<RosemaryIsoWriter> THREAD_WRITERS = ThreadLocal.withInitial(RosemaryIsoWriter::new);
+
+	/**
+	 * the text of the last datetime written.
+	 */
+	final char[] chars = new char[MAXIMUM_LENGTH];
+
+	/**
+	 * the length of the text of the last datetime written.
+	 */
+	int length;
+
+	private int year;
+	private int month;
+	private int day;
+	private int hour;
+	private int minute;
+	private int second;
+	private int nanosecond;
+	private int offsetSeconds;
+
+	/**
+	 * Get the writer of the calling thread.
+	 *
+	 * @return the writer, which must not be handed to another thread
+	 */
+	static RosemaryIsoWriter ofThread() {
+		return THREAD_WRITERS.get();
+	}
+
+	@Override
+	public void accept(int year, int month, int day, int hour, int minute, int second, int nanosecond, int offsetSeconds) {
+		this.year = year;
+		this.month = month;
+		this.day = day;
+		this.hour = hour;
+		this.minute = minute;
+		this.second = second;
+		this.nanosecond = nanosecond;
+		this.offsetSeconds = offsetSeconds;
+	}
+
+	/**
+	 * Write the fields last received into {@link #chars}.
+	 *
+	 * @param targetZone the zone to move the datetime to, or <code>null</code> to keep its offset
+	 * @return <code>true</code> if the datetime was written, or <code>false</code> if moving it to the zone took it past the years java.time can hold
+	 */
+	boolean write(ZoneId targetZone) {
+		if (targetZone != null) {
+			final long epochSecond = RosemaryEpochMath.epochDay(year, month, day) * RosemaryEpochMath.SECONDS_PER_DAY + hour * 3600L + minute * 60L + second - offsetSeconds;
+			offsetSeconds = offsetSeconds(targetZone, epochSecond);
+			final long localSecond = epochSecond + offsetSeconds;
+			final long secondOfDay = Math.floorMod(localSecond, (long) RosemaryEpochMath.SECONDS_PER_DAY);
+			hour = (int) (secondOfDay / 3600);
+			minute = (int) (secondOfDay / 60 % 60);
+			second = (int) (secondOfDay % 60);
+			if (!setDate(Math.floorDiv(localSecond, (long) RosemaryEpochMath.SECONDS_PER_DAY))) {
+				return false;
+			}
+		}
+
+		length = 0;
+		if (year > 9999) {
+			chars[length++] = '+';
+			writeNumber(year);
+		} else if (year < 0) {
+			chars[length++] = '-';
+			if (year < -9999) {
+				writeNumber(-year);
+			} else {
+				writeDigits(-year, 4);
+			}
+		} else {
+			writeDigits(year, 4);
+		}
+		chars[length++] = '-';
+		writeDigits(month, 2);
+		chars[length++] = '-';
+		writeDigits(day, 2);
+		chars[length++] = 'T';
+		writeDigits(hour, 2);
+		chars[length++] = ':';
+		writeDigits(minute, 2);
+		chars[length++] = ':';
+		writeDigits(second, 2);
+		if (nanosecond != 0) {
+			// as many digits as it takes, like DateTimeFormatter.ISO_LOCAL_TIME
+			int digits = 9;
+			int fraction = nanosecond;
+			while (fraction % 10 == 0) {
+				fraction /= 10;
+				digits--;
+			}
+			chars[length++] = '.';
+			writeDigits(fraction, digits);
+		}
+		if (offsetSeconds == 0) {
+			chars[length++] = 'Z';
+		} else {
+			final int absoluteOffset = Math.abs(offsetSeconds);
+			chars[length++] = offsetSeconds < 0 ? '-' : '+';
+			writeDigits(absoluteOffset / 3600, 2);
+			chars[length++] = ':';
+			writeDigits(absoluteOffset / 60 % 60, 2);
+			if (absoluteOffset % 60 != 0) {
+				chars[length++] = ':';
+				writeDigits(absoluteOffset % 60, 2);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the offset from UTC of a zone at an instant, in seconds
+	 */
+	private static int offsetSeconds(ZoneId zone, long epochSecond) {
+		if (zone instanceof ZoneOffset) {
+			return ((ZoneOffset) zone).getTotalSeconds();
+		}
+		final ZoneRules rules = zone.getRules();
+		if (rules.isFixedOffset()) {
+			return rules.getOffset(Instant.EPOCH).getTotalSeconds();
+		}
+		return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+	}
+
+	/**
+	 * Set the year, month and day from days since 1970-01-01.
+	 *
+	 * @return <code>false</code> if the year is past the years java.time can hold
+	 */
+	private boolean setDate(long epochDay) {
+		// civil from days, see https://howardhinnant.github.io/date_algorithms.html
+		final long z = epochDay + 719468L;
+		final long era = Math.floorDiv(z, 146097L);
+		final long dayOfEra = z - era * 146097L;
+		final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		final long monthIndex = (5 * dayOfYear + 2) / 153;
+		final long y = yearOfEra + era * 400;
+		day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+		month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+		final long fullYear = month <= 2 ? y + 1 : y;
+		if (fullYear > MAXIMUM_YEAR || fullYear < -MAXIMUM_YEAR) {
+			return false;
+		}
+		year = (int) fullYear;
+		return true;
+	}
+
+	private void writeNumber(int value) {
+		int digits = 1;
+		for (int rest = value / 10; rest != 0; rest /= 10) {
+			digits++;
+		}
+		writeDigits(value, digits);
+	}
+
+	/**
+	 * Write a non-negative number, padded with zeros to a number of digits.
+	 */
+	private void writeDigits(int value, int digits) {
+		for (int i = length + digits - 1; i >= length; i--) {
+			chars[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		length += digits;
+	}
+}
@@ -0,0 +1,87 @@
+package com.lemmingapex.rosemary;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of latencies in nanoseconds.  Each power of two is split into 16 buckets, so percentiles are accurate to about 6%.
+ */
+final class RosemaryLatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+
+	void record(long nanos) {
+		counts.incrementAndGet(indexOf(Math.max(0, nanos)));
+	}
+
+	void add(RosemaryLatencyHistogram other) {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.addAndGet(i, other.counts.get(i));
+		}
+	}
+
+	void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+	}
+
+	long count() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Get the latency at a percentile, from the upper end of its bucket.
+	 *
+	 * @param percentile between 0 and 100
+	 * @return the latency in nanoseconds, or 0 if nothing was recorded
+	 */
+	long percentile(double percentile) {
+		final long total = count();
+		if (total == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return highestValueIn(i);
+			}
+		}
+		return highestValueIn(counts.length() - 1);
+	}
+
+	long max() {
+		for (int i = counts.length() - 1; i >= 0; i--) {
+			if (counts.get(i) != 0) {
+				return highestValueIn(i);
+			}
+		}
+		return 0;
+	}
+
+	private static int indexOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long highestValueIn(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		final int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		final long lowest = (1L << magnitude) | ((long) (index % SUB_BUCKETS) << (magnitude - SUB_BUCKET_BITS));
+		return lowest + (1L << (magnitude - SUB_BUCKET_BITS)) - 1;
+	}
+}
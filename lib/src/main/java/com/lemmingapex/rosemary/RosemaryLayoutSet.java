@@ -0,0 +1,967 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.ParsingUtilities;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parses datetimes in any of a set of known layouts, like the formats of every tenant of a service.  Where {@link RosemaryDateTimeParser#parse(String, List)} tries the patterns one at a time, a layout set is compiled once into a single deterministic automaton over the characters of all of them, so one scan finds the layouts a datetime could have, and its fields are then read straight from the layout that matched.
+ * <p>
+ * Layouts are {@link java.time.format.DateTimeFormatter} patterns, in English:
+ * <ul>
+ * <li><code>y</code>, <code>yy</code>, <code>yyyy</code> and <code>u</code> years, <code>M</code>, <code>MM</code>, <code>MMM</code> and <code>MMMM</code> months, <code>d</code> and <code>dd</code> days, <code>E</code> to <code>EEEE</code> weekdays</li>
+ * <li><code>H</code>, <code>h</code>, <code>m</code> and <code>s</code> and their doubles, <code>S</code> to <code>SSSSSSSSS</code> fractions of a second and <code>a</code></li>
+ * <li><code>X</code>, <code>x</code> and <code>Z</code> offsets, up to three letters, and <code>VV</code> time zone IDs</li>
+ * <li>quoted text and any other character that isn't a pattern letter</li>
+ * </ul>
+ * A datetime is parsed with the first layout, in the order given, that it has the shape of and that reads it.  Values are read as {@link ParsingUtilities#javaTimeParse(String, String, Locale)} reads them with that layout's pattern, which the datetime is handed to when java.time would read it leniently, like the 30th of February.  Unlike the {@link java.text.SimpleDateFormat} that method falls back to, the whole datetime must have the shape of a layout.
+ * <p>
+ * A layout set is immutable and can be shared between threads.
+ */
+public final class RosemaryLayoutSet {
+
+	private static final int ALPHABET = 128;
+
+	/**
+	 * The most states an automaton may have, so a set of layouts can't take unbounded time and memory to compile.
+	 */
+	static final int MAXIMUM_STATES = 100_000;
+
+	private static final String[] MONTHS = { "January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December" };
+	private static final String[] SHORT_MONTHS = { "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec" };
+	private static final String[] WEEKDAYS = { "Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday" };
+	private static final String[] SHORT_WEEKDAYS = { "Sun", "Mon", "Tue", "Wed", "Thu", "Fri", "Sat" };
+	private static final String[] MERIDIANS = { "AM", "PM" };
+
+	private enum Kind { LITERAL, NUMBER, TEXT, OFFSET, ZONE_ID }
+
+	private enum Field { NONE, YEAR, TWO_DIGIT_YEAR, MONTH, DAY, WEEKDAY, HOUR, CLOCK_HOUR, MERIDIAN, MINUTE, SECOND, FRACTION }
+
+	/**
+	 * One part of a layout.
+	 */
+	private static final class Element {
+		private final Kind kind;
+		private final Field field;
+		private final char literal;
+		private final int minimumWidth;
+		private int maximumWidth;
+		private final String[] choices;
+		private final boolean zeroAsZ;
+		private final boolean minutesOptional;
+		private final boolean colon;
+
+		private Element(Kind kind, Field field, char literal, int minimumWidth, int maximumWidth, String[] choices, boolean zeroAsZ, boolean minutesOptional, boolean colon) {
+			this.kind = kind;
+			this.field = field;
+			this.literal = literal;
+			this.minimumWidth = minimumWidth;
+			this.maximumWidth = maximumWidth;
+			this.choices = choices;
+			this.zeroAsZ = zeroAsZ;
+			this.minutesOptional = minutesOptional;
+			this.colon = colon;
+		}
+
+		private static Element literal(char c) {
+			return new Element(Kind.LITERAL, Field.NONE, c, 1, 1, null, false, false, false);
+		}
+
+		private static Element number(Field field, int minimumWidth, int maximumWidth) {
+			return new Element(Kind.NUMBER, field, '\0', minimumWidth, maximumWidth, null, false, false, false);
+		}
+
+		private static Element text(Field field, String[] choices) {
+			return new Element(Kind.TEXT, field, '\0', 1, 1, choices, false, false, false);
+		}
+
+		private static Element offset(boolean zeroAsZ, boolean minutesOptional, boolean colon) {
+			return new Element(Kind.OFFSET, Field.NONE, '\0', 1, 1, null, zeroAsZ, minutesOptional, colon);
+		}
+	}
+
+	/**
+	 * A compiled pattern.
+	 */
+	private static final class Layout {
+		private final String pattern;
+		private final Element[] elements;
+		private final boolean hasTime;
+		private final boolean hasZone;
+		private final boolean yearOfEra;
+		/**
+		 * java.time can't read the pattern on its own, so every datetime goes to {@link ParsingUtilities#javaTimeParse(String, String, Locale)}.
+		 */
+		private final boolean handedOver;
+
+		private Layout(String pattern, Element[] elements, boolean hasTime, boolean hasZone, boolean yearOfEra, boolean handedOver) {
+			this.pattern = pattern;
+			this.elements = elements;
+			this.hasTime = hasTime;
+			this.hasZone = hasZone;
+			this.yearOfEra = yearOfEra;
+			this.handedOver = handedOver;
+		}
+	}
+
+	private static volatile Set<String> zoneIds;
+
+	private final List<String> patterns;
+	private final Layout[] layouts;
+	private final int[] transitions;
+	private final int[][] accepted;
+
+	private RosemaryLayoutSet(List<String> patterns, Layout[] layouts, int[] transitions, int[][] accepted) {
+		this.patterns = patterns;
+		this.layouts = layouts;
+		this.transitions = transitions;
+		this.accepted = accepted;
+	}
+
+	/**
+	 * Compile a set of layouts.
+	 *
+	 * @param patterns {@link java.time.format.DateTimeFormatter} patterns, tried in this order when a datetime has the shape of more than one
+	 * @return the layout set
+	 * @throws IllegalArgumentException if a pattern has letters that aren't supported, has no year, month or day, or the automaton would be too large
+	 */
+	public static RosemaryLayoutSet ofPatterns(List<String> patterns) {
+		if (patterns.isEmpty()) {
+			throw new IllegalArgumentException("No patterns");
+		}
+		final Layout[] layouts = new Layout[patterns.size()];
+		for (int i = 0; i < layouts.length; i++) {
+			layouts[i] = compilePattern(patterns.get(i));
+		}
+
+		// one automaton: the layouts side by side, then their states merged
+		final Nfa nfa = new Nfa();
+		final int start = nfa.node();
+		for (int i = 0; i < layouts.length; i++) {
+			int node = nfa.node();
+			nfa.epsilon(start, node);
+			for (final Element element : layouts[i].elements) {
+				node = nfa.element(node, element);
+			}
+			nfa.accept(node, i);
+		}
+		return nfa.determinize(start, List.copyOf(patterns), layouts);
+	}
+
+	/**
+	 * Infer layouts from examples and compile them.  See {@link RosemaryDateTimeParser#compileFromExamples(List, RosemaryDateOrder)}.
+	 */
+	static RosemaryLayoutSet ofExamples(RosemaryDateTimeParser rosemaryDateTimeParser, List<String> examples, RosemaryDateOrder rosemaryParserDateOrder) throws RosemaryDateTimeException {
+		final Set<String> patterns = new LinkedHashSet<>();
+		for (final String example : examples) {
+			final OffsetDateTime expected = rosemaryDateTimeParser.parse(example, rosemaryParserDateOrder);
+			final String pattern = inferPattern(example, expected);
+			final OffsetDateTime actual;
+			try {
+				actual = ofPatterns(List.of(pattern)).parse(example);
+			} catch (RosemaryDateTimeException e) {
+				throw new IllegalArgumentException("Can't infer a layout from " + example + ", " + pattern + " doesn't read it");
+			}
+			if (!actual.equals(expected)) {
+				throw new IllegalArgumentException("Can't infer a layout from " + example + ", " + pattern + " reads it as " + actual + " rather than " + expected);
+			}
+			patterns.add(pattern);
+		}
+		return ofPatterns(new ArrayList<>(patterns));
+	}
+
+	/**
+	 * Get the patterns of the layouts, in the order they are tried.
+	 *
+	 * @return the patterns
+	 */
+	public List<String> getPatterns() {
+		return patterns;
+	}
+
+	/**
+	 * Get the number of states of the automaton the layouts were compiled to.
+	 *
+	 * @return the number of states
+	 */
+	public int getStateCount() {
+		return accepted.length;
+	}
+
+	/**
+	 * Parses a datetime in one of the layouts.
+	 *
+	 * @param text the datetime to parse
+	 * @return the datetime
+	 * @throws RosemaryDateTimeException with {@link RosemaryFailureReason#NO_MATCHING_FORMAT} if no layout reads the text
+	 */
+	public OffsetDateTime parse(CharSequence text) throws RosemaryDateTimeException {
+		final int[] candidates = candidates(text);
+		if (candidates != null) {
+			for (final int candidate : candidates) {
+				final OffsetDateTime offsetDateTime = read(layouts[candidate], text);
+				if (offsetDateTime != null) {
+					return offsetDateTime;
+				}
+			}
+		}
+		throw new RosemaryDateTimeException("Unable to parse " + text, RosemaryFailureReason.NO_MATCHING_FORMAT);
+	}
+
+	/**
+	 * Find the layout a datetime is parsed with.
+	 *
+	 * @param text the datetime
+	 * @return the index of the pattern of the layout that reads the text, or -1 if none does
+	 */
+	public int match(CharSequence text) {
+		final int[] candidates = candidates(text);
+		if (candidates != null) {
+			for (final int candidate : candidates) {
+				if (read(layouts[candidate], text) != null) {
+					return candidate;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Run the automaton over the text.
+	 *
+	 * @return the layouts the text has the shape of, in order, or <code>null</code> if none
+	 */
+	private int[] candidates(CharSequence text) {
+		int state = 0;
+		for (int i = 0, length = text.length(); i < length; i++) {
+			final char c = text.charAt(i);
+			if (c >= ALPHABET) {
+				return null;
+			}
+			state = transitions[state * ALPHABET + upper(c)];
+			if (state < 0) {
+				return null;
+			}
+		}
+		return accepted[state].length == 0 ? null : accepted[state];
+	}
+
+	/**
+	 * Read the fields of a datetime with the shape of a layout.
+	 *
+	 * @return the datetime, or <code>null</code> if the layout doesn't read it
+	 */
+	private static OffsetDateTime read(Layout layout, CharSequence text) {
+		if (layout.handedOver) {
+			return ParsingUtilities.javaTimeParse(text.toString(), layout.pattern, Locale.US);
+		}
+
+		int year = 0;
+		int yearWidth = 0;
+		int month = 0;
+		int day = 0;
+		int weekday = -1;
+		int hour = 0;
+		int meridian = -1;
+		int minute = 0;
+		int second = 0;
+		int nano = 0;
+		int offsetSeconds = 0;
+		boolean offsetInRange = true;
+		int zoneStart = -1;
+		int zoneEnd = -1;
+		boolean exactCase = true;
+
+		final int length = text.length();
+		int p = 0;
+		for (final Element element : layout.elements) {
+			switch (element.kind) {
+				case LITERAL: {
+					if (p >= length || upper(text.charAt(p)) != upper(element.literal)) {
+						return hand(layout, text);
+					}
+					exactCase &= text.charAt(p) == element.literal;
+					p++;
+					break;
+				}
+				case NUMBER: {
+					final int start = p;
+					int value = 0;
+					while (p < length && p - start < element.maximumWidth && isDigit(text.charAt(p))) {
+						value = value * 10 + (text.charAt(p) - '0');
+						p++;
+					}
+					if (p - start < element.minimumWidth) {
+						return hand(layout, text);
+					}
+					switch (element.field) {
+						case YEAR:
+							year = value;
+							yearWidth = p - start;
+							break;
+						case TWO_DIGIT_YEAR:
+							year = 2000 + value;
+							yearWidth = p - start;
+							break;
+						case MONTH:
+							month = value;
+							break;
+						case DAY:
+							day = value;
+							break;
+						case HOUR:
+						case CLOCK_HOUR:
+							hour = value;
+							break;
+						case MINUTE:
+							minute = value;
+							break;
+						case SECOND:
+							second = value;
+							break;
+						default:
+							for (int i = p - start; i < 9; i++) {
+								value *= 10;
+							}
+							nano = value;
+							break;
+					}
+					break;
+				}
+				case TEXT: {
+					int choice = -1;
+					for (int i = 0; i < element.choices.length; i++) {
+						final String candidate = element.choices[i];
+						if (regionMatchesIgnoreCase(text, p, candidate) && (choice < 0 || candidate.length() > element.choices[choice].length())) {
+							choice = i;
+						}
+					}
+					if (choice < 0) {
+						return hand(layout, text);
+					}
+					exactCase &= regionMatches(text, p, element.choices[choice]);
+					p += element.choices[choice].length();
+					switch (element.field) {
+						case MONTH:
+							month = choice + 1;
+							break;
+						case WEEKDAY:
+							weekday = choice;
+							break;
+						default:
+							meridian = choice;
+							break;
+					}
+					break;
+				}
+				case OFFSET: {
+					if (element.zeroAsZ && p < length && upper(text.charAt(p)) == 'Z') {
+						exactCase &= text.charAt(p) == 'Z';
+						offsetSeconds = 0;
+						p++;
+						break;
+					}
+					if (p + 3 > length || (text.charAt(p) != '+' && text.charAt(p) != '-') || !isDigit(text.charAt(p + 1)) || !isDigit(text.charAt(p + 2))) {
+						return hand(layout, text);
+					}
+					final int sign = text.charAt(p) == '-' ? -1 : 1;
+					final int offsetHours = (text.charAt(p + 1) - '0') * 10 + (text.charAt(p + 2) - '0');
+					p += 3;
+					int offsetMinutes = 0;
+					final int minutesStart = element.colon ? p + 1 : p;
+					final boolean hasMinutes = minutesStart + 2 <= length && (!element.colon || text.charAt(p) == ':') && isDigit(text.charAt(minutesStart)) && isDigit(text.charAt(minutesStart + 1));
+					if (hasMinutes) {
+						offsetMinutes = (text.charAt(minutesStart) - '0') * 10 + (text.charAt(minutesStart + 1) - '0');
+						p = minutesStart + 2;
+					} else if (!element.minutesOptional) {
+						return hand(layout, text);
+					}
+					offsetInRange = offsetMinutes < 60 && offsetHours * 60 + offsetMinutes <= 18 * 60;
+					offsetSeconds = sign * (offsetHours * 3600 + offsetMinutes * 60);
+					break;
+				}
+				default: {
+					zoneStart = p;
+					while (p < length && isZoneIdChar(upper(text.charAt(p)))) {
+						p++;
+					}
+					zoneEnd = p;
+					break;
+				}
+			}
+		}
+		if (p != length) {
+			return hand(layout, text);
+		}
+
+		// hand over anything java.time doesn't read as it is, or reads leniently
+		if (!exactCase || yearWidth > 4 || (layout.yearOfEra && year < 1) || month < 1 || month > 12 || day < 1 || day > RosemaryEpochMath.lengthOfMonth(year, month) || !offsetInRange) {
+			return hand(layout, text);
+		}
+		if (weekday >= 0 && weekday != Math.floorMod(RosemaryEpochMath.epochDay(year, month, day) + 4, 7)) {
+			return hand(layout, text);
+		}
+		if (!layout.hasTime) {
+			// java.time needs a time, so these are read with a Julian SimpleDateFormat
+			if (year < 1583) {
+				return hand(layout, text);
+			}
+			return OffsetDateTime.of(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC);
+		}
+		if (meridian >= 0) {
+			if (hour < 1 || hour > 12) {
+				return hand(layout, text);
+			}
+			hour = hour % 12 + (meridian == 1 ? 12 : 0);
+		}
+		if (hour > 23 || minute > 59 || second > 59) {
+			return hand(layout, text);
+		}
+		if (zoneStart >= 0) {
+			final String zoneId = text.subSequence(zoneStart, zoneEnd).toString();
+			if (!zoneIds().contains(zoneId)) {
+				return hand(layout, text);
+			}
+			return LocalDateTime.of(year, month, day, hour, minute, second, nano).atZone(ZoneId.of(zoneId)).toOffsetDateTime();
+		}
+		return OffsetDateTime.of(year, month, day, hour, minute, second, nano, ZoneOffset.ofTotalSeconds(layout.hasZone ? offsetSeconds : 0));
+	}
+
+	private static OffsetDateTime hand(Layout layout, CharSequence text) {
+		return ParsingUtilities.javaTimeParse(text.toString(), layout.pattern, Locale.US);
+	}
+
+	private static Set<String> zoneIds() {
+		Set<String> ids = zoneIds;
+		if (ids == null) {
+			ids = Set.copyOf(ZoneId.getAvailableZoneIds());
+			zoneIds = ids;
+		}
+		return ids;
+	}
+
+	/**
+	 * Compile one {@link java.time.format.DateTimeFormatter} pattern.
+	 */
+	private static Layout compilePattern(String pattern) {
+		final List<Element> elements = new ArrayList<>();
+		boolean yearOfEra = false;
+		boolean prolepticYear = false;
+		int i = 0;
+		while (i < pattern.length()) {
+			final char c = pattern.charAt(i);
+			if (c == '\'') {
+				// quoted text, with '' for a quote
+				int end = i + 1;
+				if (end < pattern.length() && pattern.charAt(end) == '\'') {
+					elements.add(Element.literal('\''));
+					i += 2;
+					continue;
+				}
+				while (true) {
+					if (end >= pattern.length()) {
+						throw new IllegalArgumentException("Unterminated quote in " + pattern);
+					}
+					if (pattern.charAt(end) == '\'') {
+						if (end + 1 < pattern.length() && pattern.charAt(end + 1) == '\'') {
+							elements.add(Element.literal('\''));
+							end += 2;
+							continue;
+						}
+						break;
+					}
+					elements.add(Element.literal(pattern.charAt(end)));
+					end++;
+				}
+				i = end + 1;
+				continue;
+			}
+			if ((c < 'A' || c > 'Z') && (c < 'a' || c > 'z')) {
+				if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#' || c >= ALPHABET) {
+					throw new IllegalArgumentException("Unsupported character " + c + " in " + pattern);
+				}
+				elements.add(Element.literal(c));
+				i++;
+				continue;
+			}
+
+			int count = 1;
+			while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+				count++;
+			}
+			final Element element;
+			switch (c) {
+				case 'y':
+				case 'u':
+					yearOfEra |= c == 'y';
+					prolepticYear |= c == 'u';
+					element = count == 2 ? Element.number(Field.TWO_DIGIT_YEAR, 2, 2) : Element.number(Field.YEAR, count, 9);
+					break;
+				case 'M':
+					element = count <= 2 ? Element.number(Field.MONTH, count, 2) : count == 3 ? Element.text(Field.MONTH, SHORT_MONTHS) : count == 4 ? Element.text(Field.MONTH, MONTHS) : null;
+					break;
+				case 'E':
+					element = count <= 3 ? Element.text(Field.WEEKDAY, SHORT_WEEKDAYS) : count == 4 ? Element.text(Field.WEEKDAY, WEEKDAYS) : null;
+					break;
+				case 'a':
+					element = count == 1 ? Element.text(Field.MERIDIAN, MERIDIANS) : null;
+					break;
+				case 'd':
+					element = count <= 2 ? Element.number(Field.DAY, count, 2) : null;
+					break;
+				case 'H':
+					element = count <= 2 ? Element.number(Field.HOUR, count, 2) : null;
+					break;
+				case 'h':
+					element = count <= 2 ? Element.number(Field.CLOCK_HOUR, count, 2) : null;
+					break;
+				case 'm':
+					element = count <= 2 ? Element.number(Field.MINUTE, count, 2) : null;
+					break;
+				case 's':
+					element = count <= 2 ? Element.number(Field.SECOND, count, 2) : null;
+					break;
+				case 'S':
+					element = count <= 9 ? Element.number(Field.FRACTION, count, count) : null;
+					break;
+				case 'X':
+					element = count <= 3 ? Element.offset(true, count == 1, count == 3) : null;
+					break;
+				case 'x':
+					element = count <= 3 ? Element.offset(false, count == 1, count == 3) : null;
+					break;
+				case 'Z':
+					element = count <= 3 ? Element.offset(false, false, false) : null;
+					break;
+				case 'V':
+					element = count == 2 ? new Element(Kind.ZONE_ID, Field.NONE, '\0', 1, Integer.MAX_VALUE, null, false, false, false) : null;
+					break;
+				default:
+					element = null;
+					break;
+			}
+			if (element == null) {
+				throw new IllegalArgumentException("Unsupported pattern letters " + pattern.substring(i, i + count) + " in " + pattern);
+			}
+			elements.add(element);
+			i += count;
+		}
+
+		// like java.time, a number of variable width next to another number takes its narrowest width
+		for (int j = 0; j + 1 < elements.size(); j++) {
+			if (elements.get(j).kind == Kind.NUMBER && elements.get(j + 1).kind == Kind.NUMBER) {
+				elements.get(j).maximumWidth = elements.get(j).minimumWidth;
+			}
+		}
+
+		final Set<Field> fields = EnumSet.noneOf(Field.class);
+		int zones = 0;
+		for (int j = 0; j < elements.size(); j++) {
+			final Element element = elements.get(j);
+			fields.add(element.field);
+			if (element.kind == Kind.OFFSET || element.kind == Kind.ZONE_ID) {
+				zones++;
+			}
+			if (element.kind == Kind.ZONE_ID && j + 1 < elements.size() && (elements.get(j + 1).kind != Kind.LITERAL || isZoneIdChar(upper(elements.get(j + 1).literal)))) {
+				throw new IllegalArgumentException("A time zone ID must be followed by text that can't be part of it in " + pattern);
+			}
+		}
+		if (!(fields.contains(Field.YEAR) || fields.contains(Field.TWO_DIGIT_YEAR)) || !fields.contains(Field.MONTH) || !fields.contains(Field.DAY)) {
+			throw new IllegalArgumentException("No year, month or day in " + pattern);
+		}
+		if (zones > 1) {
+			throw new IllegalArgumentException("More than one offset or time zone in " + pattern);
+		}
+
+		// java.time reads these in a way that is only worth leaving to it
+		final boolean hasHour = fields.contains(Field.HOUR) || fields.contains(Field.CLOCK_HOUR);
+		final boolean timeInOrder = (!fields.contains(Field.MINUTE) || hasHour) && (!fields.contains(Field.SECOND) || fields.contains(Field.MINUTE)) && (!fields.contains(Field.FRACTION) || fields.contains(Field.SECOND));
+		final boolean handedOver = !timeInOrder
+				|| fields.contains(Field.HOUR) && (fields.contains(Field.CLOCK_HOUR) || fields.contains(Field.MERIDIAN))
+				|| fields.contains(Field.CLOCK_HOUR) != fields.contains(Field.MERIDIAN)
+				|| !hasHour && (zones > 0 || fields.contains(Field.TWO_DIGIT_YEAR) || prolepticYear);
+		return new Layout(pattern, elements.toArray(new Element[0]), hasHour, zones > 0, yearOfEra, handedOver);
+	}
+
+	/**
+	 * A nondeterministic automaton of the layouts, over upper case ASCII.
+	 */
+	private static final class Nfa {
+		private final List<List<long[]>> edgeSets = new ArrayList<>();
+		private final List<List<Integer>> edgeTargets = new ArrayList<>();
+		private final List<List<Integer>> epsilons = new ArrayList<>();
+		private final List<Integer> accepts = new ArrayList<>();
+
+		private int node() {
+			edgeSets.add(new ArrayList<>());
+			edgeTargets.add(new ArrayList<>());
+			epsilons.add(new ArrayList<>());
+			accepts.add(-1);
+			return accepts.size() - 1;
+		}
+
+		private void edge(int from, long[] characters, int to) {
+			edgeSets.get(from).add(characters);
+			edgeTargets.get(from).add(to);
+		}
+
+		private int edge(int from, long[] characters) {
+			final int to = node();
+			edge(from, characters, to);
+			return to;
+		}
+
+		private void epsilon(int from, int to) {
+			epsilons.get(from).add(to);
+		}
+
+		private void accept(int node, int layout) {
+			accepts.set(node, layout);
+		}
+
+		/**
+		 * Add the states of an element after a node.
+		 *
+		 * @return the node after the element
+		 */
+		private int element(int from, Element element) {
+			switch (element.kind) {
+				case LITERAL:
+					return edge(from, characters(String.valueOf(upper(element.literal))));
+				case NUMBER: {
+					final int end = node();
+					int node = from;
+					for (int i = 1; i <= element.maximumWidth; i++) {
+						node = edge(node, DIGITS);
+						if (i >= element.minimumWidth) {
+							epsilon(node, end);
+						}
+					}
+					return end;
+				}
+				case TEXT: {
+					final int end = node();
+					for (final String choice : element.choices) {
+						int node = from;
+						for (int i = 0; i < choice.length(); i++) {
+							node = edge(node, characters(String.valueOf(upper(choice.charAt(i)))));
+						}
+						epsilon(node, end);
+					}
+					return end;
+				}
+				case OFFSET: {
+					final int end = node();
+					if (element.zeroAsZ) {
+						edge(from, characters("Z"), end);
+					}
+					int node = edge(from, characters("+-"));
+					node = edge(edge(node, DIGITS), DIGITS);
+					if (element.minutesOptional) {
+						epsilon(node, end);
+					}
+					if (element.colon) {
+						node = edge(node, characters(":"));
+					}
+					edge(edge(node, DIGITS), DIGITS, end);
+					return end;
+				}
+				default: {
+					final int node = edge(from, ZONE_ID_CHARACTERS);
+					edge(node, ZONE_ID_CHARACTERS, node);
+					return node;
+				}
+			}
+		}
+
+		private void close(BitSet nodes) {
+			final List<Integer> stack = new ArrayList<>();
+			nodes.stream().forEach(stack::add);
+			while (!stack.isEmpty()) {
+				final int node = stack.remove(stack.size() - 1);
+				for (final int next : epsilons.get(node)) {
+					if (!nodes.get(next)) {
+						nodes.set(next);
+						stack.add(next);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Merge the states by subset construction.
+		 */
+		private RosemaryLayoutSet determinize(int start, List<String> patterns, Layout[] layouts) {
+			final List<BitSet> states = new ArrayList<>();
+			final Map<BitSet, Integer> stateIndexes = new HashMap<>();
+			final BitSet initial = new BitSet();
+			initial.set(start);
+			close(initial);
+			states.add(initial);
+			stateIndexes.put(initial, 0);
+
+			int[] transitions = new int[ALPHABET * 16];
+			for (int state = 0; state < states.size(); state++) {
+				if (states.size() > MAXIMUM_STATES) {
+					throw new IllegalArgumentException("The layouts need more than " + MAXIMUM_STATES + " states");
+				}
+				if ((state + 1) * ALPHABET > transitions.length) {
+					transitions = Arrays.copyOf(transitions, transitions.length * 2);
+				}
+				final BitSet nodes = states.get(state);
+				for (int c = 0; c < ALPHABET; c++) {
+					final BitSet next = new BitSet();
+					for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+						final List<long[]> sets = edgeSets.get(node);
+						for (int e = 0; e < sets.size(); e++) {
+							if ((sets.get(e)[c >> 6] & (1L << c)) != 0) {
+								next.set(edgeTargets.get(node).get(e));
+							}
+						}
+					}
+					if (next.isEmpty()) {
+						transitions[state * ALPHABET + c] = -1;
+						continue;
+					}
+					close(next);
+					Integer index = stateIndexes.get(next);
+					if (index == null) {
+						index = states.size();
+						states.add(next);
+						stateIndexes.put(next, index);
+					}
+					transitions[state * ALPHABET + c] = index;
+				}
+			}
+
+			final int[][] accepted = new int[states.size()][];
+			for (int state = 0; state < states.size(); state++) {
+				final BitSet nodes = states.get(state);
+				final List<Integer> layoutIndexes = new ArrayList<>();
+				for (int node = nodes.nextSetBit(0); node >= 0; node = nodes.nextSetBit(node + 1)) {
+					if (accepts.get(node) >= 0) {
+						layoutIndexes.add(accepts.get(node));
+					}
+				}
+				Collections.sort(layoutIndexes);
+				accepted[state] = layoutIndexes.stream().distinct().mapToInt(Integer::intValue).toArray();
+			}
+			return new RosemaryLayoutSet(patterns, layouts, Arrays.copyOf(transitions, states.size() * ALPHABET), accepted);
+		}
+	}
+
+	private static final long[] DIGITS = characters("0123456789");
+	private static final long[] ZONE_ID_CHARACTERS = characters("ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789/_+-:");
+
+	private static long[] characters(String characters) {
+		final long[] set = new long[2];
+		for (int i = 0; i < characters.length(); i++) {
+			final char c = characters.charAt(i);
+			set[c >> 6] |= 1L << c;
+		}
+		return set;
+	}
+
+	/**
+	 * Infer the pattern of an example from what the engine parsed it as.
+	 */
+	static String inferPattern(String example, OffsetDateTime parsed) {
+		final StringBuilder pattern = new StringBuilder();
+		final boolean hasMeridian = hasWord(example, "AM") || hasWord(example, "PM");
+		final int clockHour = parsed.getHour() % 12 == 0 ? 12 : parsed.getHour() % 12;
+		boolean yearSet = false;
+		boolean monthSet = false;
+		boolean daySet = false;
+		Field lastTimeField = Field.NONE;
+
+		int i = 0;
+		while (i < example.length()) {
+			final char c = example.charAt(i);
+			final char previous = i > 0 ? example.charAt(i - 1) : '\0';
+			if (isDigit(c)) {
+				int end = i;
+				while (end < example.length() && isDigit(example.charAt(end))) {
+					end++;
+				}
+				final String digits = example.substring(i, end);
+				final int width = digits.length();
+				final long value = width > 9 ? -1 : Long.parseLong(digits);
+				final char next = end < example.length() ? example.charAt(end) : '\0';
+				if (lastTimeField == Field.SECOND && (previous == '.' || previous == ',') && width <= 9 && value * pow10(9 - width) == parsed.getNano()) {
+					pattern.append("S".repeat(width));
+					lastTimeField = Field.FRACTION;
+				} else if (lastTimeField == Field.HOUR && previous == ':' && value == parsed.getMinute() && width <= 2) {
+					pattern.append(width == 2 ? "mm" : "m");
+					lastTimeField = Field.MINUTE;
+				} else if (lastTimeField == Field.MINUTE && previous == ':' && value == parsed.getSecond() && width <= 2) {
+					pattern.append(width == 2 ? "ss" : "s");
+					lastTimeField = Field.SECOND;
+				} else if (lastTimeField == Field.NONE && next == ':' && width <= 2 && value == (hasMeridian ? clockHour : parsed.getHour())) {
+					pattern.append(hasMeridian ? (width == 2 ? "hh" : "h") : (width == 2 ? "HH" : "H"));
+					lastTimeField = Field.HOUR;
+				} else {
+					final boolean year = !yearSet && ((width == 4 && value == parsed.getYear()) || (width == 2 && value == parsed.getYear() - 2000));
+					final boolean month = !monthSet && width <= 2 && value == parsed.getMonthValue();
+					final boolean day = !daySet && width <= 2 && value == parsed.getDayOfMonth();
+					if ((year ? 1 : 0) + (month ? 1 : 0) + (day ? 1 : 0) != 1) {
+						throw new IllegalArgumentException("Can't infer a layout from " + example + ", " + digits + " could be " + (year || month || day ? "more than one" : "none") + " of its fields");
+					}
+					if (year) {
+						pattern.append(width == 4 ? "yyyy" : "yy");
+						yearSet = true;
+					} else if (month) {
+						pattern.append(width == 2 ? "MM" : "M");
+						monthSet = true;
+					} else {
+						pattern.append(width == 2 ? "dd" : "d");
+						daySet = true;
+					}
+				}
+				i = end;
+			} else if ((c == '+' || c == '-') && yearSet && monthSet && daySet && lastTimeField != Field.NONE && i + 2 < example.length() && isDigit(example.charAt(i + 1)) && isDigit(example.charAt(i + 2))) {
+				// an offset, +05, +0500 or +05:00
+				int end = i + 3;
+				if (end + 2 < example.length() && example.charAt(end) == ':' && isDigit(example.charAt(end + 1)) && isDigit(example.charAt(end + 2))) {
+					pattern.append("xxx");
+					end += 3;
+				} else if (end + 1 < example.length() && isDigit(example.charAt(end)) && isDigit(example.charAt(end + 1))) {
+					pattern.append("xx");
+					end += 2;
+				} else {
+					pattern.append("x");
+				}
+				lastTimeField = Field.FRACTION;
+				i = end;
+			} else if (isLetter(c)) {
+				int end = i;
+				while (end < example.length() && isLetter(example.charAt(end))) {
+					end++;
+				}
+				int zoneEnd = end;
+				while (zoneEnd < example.length() && isZoneIdChar(upper(example.charAt(zoneEnd)))) {
+					zoneEnd++;
+				}
+				final String word = example.substring(i, end);
+				if (!monthSet && indexOfIgnoreCase(MONTHS, word) == parsed.getMonthValue() - 1) {
+					pattern.append("MMMM");
+					monthSet = true;
+				} else if (!monthSet && indexOfIgnoreCase(SHORT_MONTHS, word) == parsed.getMonthValue() - 1) {
+					pattern.append("MMM");
+					monthSet = true;
+				} else if (indexOfIgnoreCase(WEEKDAYS, word) >= 0) {
+					pattern.append("EEEE");
+				} else if (indexOfIgnoreCase(SHORT_WEEKDAYS, word) >= 0) {
+					pattern.append("EEE");
+				} else if (hasMeridian && indexOfIgnoreCase(MERIDIANS, word) >= 0) {
+					pattern.append('a');
+				} else if (word.equals("Z") && lastTimeField != Field.NONE) {
+					pattern.append("XXX");
+				} else if (lastTimeField != Field.NONE && zoneIds().contains(example.substring(i, zoneEnd))) {
+					pattern.append("VV");
+					end = zoneEnd;
+				} else {
+					pattern.append('\'').append(word).append('\'');
+				}
+				i = end;
+			} else {
+				if (c == '\'') {
+					pattern.append("''");
+				} else if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+					pattern.append('\'').append(c).append('\'');
+				} else {
+					pattern.append(c);
+				}
+				i++;
+			}
+		}
+		return pattern.toString();
+	}
+
+	private static long pow10(int exponent) {
+		long value = 1;
+		for (int i = 0; i < exponent; i++) {
+			value *= 10;
+		}
+		return value;
+	}
+
+	private static boolean hasWord(String text, String word) {
+		final String upperText = text.toUpperCase(Locale.ROOT);
+		for (int i = upperText.indexOf(word); i >= 0; i = upperText.indexOf(word, i + 1)) {
+			final boolean startsWord = i == 0 || !isLetter(upperText.charAt(i - 1));
+			final boolean endsWord = i + word.length() == upperText.length() || !isLetter(upperText.charAt(i + word.length()));
+			if (startsWord && endsWord) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int indexOfIgnoreCase(String[] words, String word) {
+		for (int i = 0; i < words.length; i++) {
+			if (words[i].equalsIgnoreCase(word)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isLetter(char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+	}
+
+	private static boolean isZoneIdChar(char upperCase) {
+		return (upperCase >= 'A' && upperCase <= 'Z') || isDigit(upperCase) || upperCase == '/' || upperCase == '_' || upperCase == '+' || upperCase == '-' || upperCase == ':';
+	}
+
+	private static char upper(char c) {
+		return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+	}
+
+	private static boolean regionMatches(CharSequence text, int start, String word) {
+		if (start + word.length() > text.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (text.charAt(start + i) != word.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean regionMatchesIgnoreCase(CharSequence text, int start, String word) {
+		if (start + word.length() > text.length()) {
+			return false;
+		}
+		for (int i = 0; i < word.length(); i++) {
+			if (upper(text.charAt(start + i)) != upper(word.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "RosemaryLayoutSet{patterns=" + patterns + ", states=" + accepted.length + "}";
+	}
+}
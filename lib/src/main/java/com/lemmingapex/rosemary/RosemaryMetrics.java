@@ -0,0 +1,25 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * Listens to every parse of a {@link RosemaryDateTimeParser}, for counting parses and measuring how long they take.  Set one with {@link RosemaryDateTimeParser#setMetrics(RosemaryMetrics)}.  A parser without metrics doesn't read the clock or call anything for them.
+ * <p>
+ * Implementations are called from every thread that parses, on the hot path, so they must be thread safe and should be quick and lock-free.  {@link RosemaryInMemoryMetrics} is one such implementation.
+ */
+public interface RosemaryMetrics {
+
+	/**
+	 * Called at the start of each parse to decide whether to time it.  Reading the clock twice costs about as much as parsing an ISO-8601 datetime from the cache, so timing only some parses keeps the cost down.
+	 *
+	 * @return <code>true</code> to time this parse
+	 */
+	boolean sampleLatency();
+
+	/**
+	 * Called at the end of each parse.  A batch method like {@link RosemaryDateTimeParser#parseAll(java.util.List, RosemaryDateOrder)} calls this once for each input.
+	 *
+	 * @param path the way the datetime was parsed, or failed to parse
+	 * @param failureReason why the datetime didn't parse, or <code>null</code> if it did
+	 * @param latencyNanos how long the parse took in nanoseconds, or <code>-1</code> if {@link #sampleLatency()} returned <code>false</code> for it
+	 */
+	void record(RosemaryParsePath path, RosemaryFailureReason failureReason, long latencyNanos);
+}
@@ -0,0 +1,416 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of parse results that can be given to a {@link RosemaryDateTimeParser}.  Results are keyed by the text, the {@link RosemaryDateOrder} and the default {@link RosemaryDateTimeState}, and failures are cached as well as successes, so repeated sentinel values like <code>N/A</code> are only parsed once.
+ * <p>
+ * Entries are spread over independently locked segments, each kept in least recently used order.  With {@link RosemaryCacheEviction#FREQUENCY_ADMISSION} a small sketch of how often each text has been seen decides whether a new entry is worth evicting an old one for.
+ * <p>
+ * Parses that default to the current date, like {@link RosemaryDateTimeParser#parse(String)}, are dropped from the cache when the current date changes.
+ */
+public class RosemaryParseCache {
+
+	/**
+	 * Computes a value that isn't in the cache.
+	 */
+	@FunctionalInterface
+	interface Loader {
+		OffsetDateTime load() throws RosemaryDateTimeException;
+	}
+
+	private final Segment[] segments;
+	private final FrequencySketch frequencySketch;
+	private final RosemaryCacheEviction eviction;
+	private volatile int maximumSize;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder failureHitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+	private final LongAdder rejectionCount = new LongAdder();
+
+	/**
+	 * the date used by the most recent parse that defaulted to the current date.
+	 */
+	private volatile long currentEpochDay = Long.MIN_VALUE;
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param maximumSize the most entries the cache will hold
+	 * @param eviction how a full cache makes room for a new entry
+	 */
+	public RosemaryParseCache(int maximumSize, RosemaryCacheEviction eviction) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Bad maximum size " + maximumSize);
+		}
+		this.maximumSize = maximumSize;
+		this.eviction = Objects.requireNonNull(eviction);
+
+		// a few segments per processor, but not so many that segments become tiny
+		int segmentCount = 1;
+		while (segmentCount < 4 * Runtime.getRuntime().availableProcessors() && segmentCount * 2 * 16 <= maximumSize) {
+			segmentCount *= 2;
+		}
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			// spread the remainder so the capacities add up to the maximum size
+			segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+		}
+		this.frequencySketch = eviction == RosemaryCacheEviction.FREQUENCY_ADMISSION ? new FrequencySketch(maximumSize) : null;
+	}
+
+	/**
+	 * Create a cache that uses {@link RosemaryCacheEviction#FREQUENCY_ADMISSION}.
+	 *
+	 * @param maximumSize the most entries the cache will hold
+	 */
+	public RosemaryParseCache(int maximumSize) {
+		this(maximumSize, RosemaryCacheEviction.FREQUENCY_ADMISSION);
+	}
+
+	/**
+	 * Look up a parse result, computing and caching it if it's missing.
+	 *
+	 * @param dateTimeString the datetime to parse
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats
+	 * @param defaultDateTimeState the default date or time to use
+	 * @param currentDateDefault <code>true</code> if the default state holds the current date
+	 * @param loader parses the datetime if it isn't cached
+	 * @return parsed dateTimeString
+	 * @throws RosemaryDateTimeException if the dateTimeString is invalid, now or when it was cached
+	 */
+	OffsetDateTime get(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, RosemaryDateTimeState defaultDateTimeState, boolean currentDateDefault, Loader loader) throws RosemaryDateTimeException {
+		if (currentDateDefault) {
+			final long epochDay = RosemaryEpochMath.epochDay(defaultDateTimeState.getYear(), defaultDateTimeState.getMonth(), defaultDateTimeState.getDay());
+			if (epochDay != currentEpochDay) {
+				currentEpochDay = epochDay;
+				removeCurrentDateDefaults();
+			}
+		}
+
+		final Key key = new Key(dateTimeString, rosemaryParserDateOrder, defaultDateTimeState, currentDateDefault);
+		if (frequencySketch != null) {
+			frequencySketch.increment(key.hashCode());
+		}
+
+		final Segment segment = segmentFor(key);
+		final Object cached = segment.get(key);
+		if (cached != null) {
+			if (cached instanceof RosemaryDateTimeException) {
+				failureHitCount.increment();
+				final RosemaryDateTimeException failure = (RosemaryDateTimeException) cached;
+				throw new RosemaryDateTimeException(failure.getMessage(), failure.getReason(), failure.getToken(), failure.getCause());
+			}
+			hitCount.increment();
+			return (OffsetDateTime) cached;
+		}
+
+		missCount.increment();
+		try {
+			final OffsetDateTime offsetDateTime = loader.load();
+			if (offsetDateTime != null) {
+				segment.put(key, offsetDateTime);
+			}
+			return offsetDateTime;
+		} catch (RosemaryDateTimeException e) {
+			segment.put(key, e);
+			throw e;
+		}
+	}
+
+	private Segment segmentFor(Key key) {
+		final int hash = key.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+	}
+
+	private void removeCurrentDateDefaults() {
+		for (final Segment segment : segments) {
+			segment.removeCurrentDateDefaults();
+		}
+	}
+
+	/**
+	 * Remove every entry.  Statistics are kept.
+	 */
+	public void clear() {
+		for (final Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * Get the number of entries.
+	 *
+	 * @return the number of entries in the cache
+	 */
+	public int size() {
+		int size = 0;
+		for (final Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Get the maximum number of entries.
+	 *
+	 * @return the most entries the cache will hold
+	 */
+	public int getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Change the maximum number of entries, while the cache is in use.  Shrinking the cache evicts its least recently used entries.  The number of segments, and the size of the frequency sketch used by {@link RosemaryCacheEviction#FREQUENCY_ADMISSION}, stay as they were when the cache was created, so a cache grown far past its original size admits new entries less accurately than one created at that size.
+	 *
+	 * @param maximumSize the most entries the cache will hold
+	 */
+	public void setMaximumSize(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Bad maximum size " + maximumSize);
+		}
+		synchronized (segments) {
+			this.maximumSize = maximumSize;
+			for (int i = 0; i < segments.length; i++) {
+				segments[i].setCapacity(maximumSize / segments.length + (i < maximumSize % segments.length ? 1 : 0));
+			}
+		}
+	}
+
+	/**
+	 * Get how a full cache makes room for a new entry.
+	 *
+	 * @return the eviction policy
+	 */
+	public RosemaryCacheEviction getEviction() {
+		return this.eviction;
+	}
+
+	/**
+	 * Get the number of lookups that found a successful parse.
+	 *
+	 * @return number of hits
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * Get the number of lookups that found a failed parse.
+	 *
+	 * @return number of hits on failures
+	 */
+	public long getFailureHitCount() {
+		return failureHitCount.sum();
+	}
+
+	/**
+	 * Get the number of lookups that had to parse.
+	 *
+	 * @return number of misses
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * Get the number of entries evicted to make room for new entries.
+	 *
+	 * @return number of evictions
+	 */
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	/**
+	 * Get the number of new entries that were not admitted to a full cache, because they were seen less often than the entry they would have evicted.
+	 *
+	 * @return number of rejections
+	 */
+	public long getRejectionCount() {
+		return rejectionCount.sum();
+	}
+
+	/**
+	 * Get the fraction of lookups that found a result, successful or failed.
+	 *
+	 * @return hit rate: 0-1
+	 */
+	public double getHitRate() {
+		final long hits = getHitCount() + getFailureHitCount();
+		final long lookups = hits + getMissCount();
+		return lookups == 0 ? 0.0 : (double) hits / lookups;
+	}
+
+	@Override
+	public String toString() {
+		return "RosemaryParseCache{size=" + size() + ", maximumSize=" + maximumSize + ", eviction=" + eviction + ", hits=" + getHitCount() + ", failureHits=" + getFailureHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + ", rejections=" + getRejectionCount() + "}";
+	}
+
+	/**
+	 * A lock around a map in least recently used order.
+	 */
+	private final class Segment {
+		private int capacity;
+		private final LinkedHashMap<Key, Object> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+		}
+
+		synchronized void setCapacity(int capacity) {
+			this.capacity = capacity;
+			final Iterator<Key> eldest = entries.keySet().iterator();
+			while (entries.size() > capacity) {
+				eldest.next();
+				eldest.remove();
+				evictionCount.increment();
+			}
+		}
+
+		synchronized Object get(Key key) {
+			return entries.get(key);
+		}
+
+		synchronized void put(Key key, Object value) {
+			if (capacity == 0) {
+				return;
+			}
+			if (entries.size() >= capacity && !entries.containsKey(key)) {
+				final Iterator<Map.Entry<Key, Object>> eldest = entries.entrySet().iterator();
+				final Key victim = eldest.next().getKey();
+				if (frequencySketch != null && frequencySketch.frequency(key.hashCode()) <= frequencySketch.frequency(victim.hashCode())) {
+					rejectionCount.increment();
+					return;
+				}
+				eldest.remove();
+				evictionCount.increment();
+			}
+			entries.put(key, value);
+		}
+
+		synchronized void removeCurrentDateDefaults() {
+			entries.keySet().removeIf(key -> key.currentDateDefault);
+		}
+
+		synchronized void clear() {
+			entries.clear();
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * The text and everything else that decides the result of parsing it.  The default state is copied, because {@link RosemaryDateTimeState} is mutable.
+	 */
+	private static final class Key {
+		private final String dateTimeString;
+		private final RosemaryDateOrder rosemaryParserDateOrder;
+		private final Integer year;
+		private final Integer month;
+		private final Integer day;
+		private final Integer hour;
+		private final Integer minute;
+		private final Integer second;
+		private final Integer millisecond;
+		private final TimeZone timeZone;
+		private final boolean currentDateDefault;
+		private final int hashCode;
+
+		Key(String dateTimeString, RosemaryDateOrder rosemaryParserDateOrder, RosemaryDateTimeState defaultDateTimeState, boolean currentDateDefault) {
+			this.dateTimeString = dateTimeString;
+			this.rosemaryParserDateOrder = rosemaryParserDateOrder;
+			this.year = defaultDateTimeState.getYear();
+			this.month = defaultDateTimeState.getMonth();
+			this.day = defaultDateTimeState.getDay();
+			this.hour = defaultDateTimeState.getHour();
+			this.minute = defaultDateTimeState.getMinute();
+			this.second = defaultDateTimeState.getSecond();
+			this.millisecond = defaultDateTimeState.getMillisecond();
+			this.timeZone = defaultDateTimeState.getTimeZone();
+			this.currentDateDefault = currentDateDefault;
+			// the ordinal rather than the enum's identity hash, so the frequency sketch counts the same way in every JVM
+			this.hashCode = 31 * dateTimeString.hashCode() + Objects.hash(rosemaryParserDateOrder.ordinal(), year, month, day, hour, minute, second, millisecond, timeZone);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (o == null || getClass() != o.getClass()) return false;
+			Key that = (Key) o;
+			return hashCode == that.hashCode && currentDateDefault == that.currentDateDefault && dateTimeString.equals(that.dateTimeString) && rosemaryParserDateOrder == that.rosemaryParserDateOrder && Objects.equals(year, that.year) && Objects.equals(month, that.month) && Objects.equals(day, that.day) && Objects.equals(hour, that.hour) && Objects.equals(minute, that.minute) && Objects.equals(second, that.second) && Objects.equals(millisecond, that.millisecond) && Objects.equals(timeZone, that.timeZone);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * A count-min sketch of recent lookup frequencies, with four bit counters that are halved as the sketch fills so that old popularity fades.  Updates are not synchronized; a lost increment only makes an estimate slightly low.
+	 */
+	private static final class FrequencySketch {
+		private static final int[] SEEDS = { 0x97cb3127, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+		private final byte[] counters;
+		private final int mask;
+		private final int resetSize;
+		private int additions = 0;
+
+		FrequencySketch(int maximumSize) {
+			int size = 64;
+			while (size < maximumSize * 2 && size < (1 << 24)) {
+				size *= 2;
+			}
+			this.counters = new byte[size];
+			this.mask = size - 1;
+			this.resetSize = Math.max(10 * maximumSize, 64);
+		}
+
+		void increment(int hash) {
+			boolean added = false;
+			for (final int seed : SEEDS) {
+				final int index = index(hash, seed);
+				if (counters[index] < 15) {
+					counters[index]++;
+					added = true;
+				}
+			}
+			if (added && ++additions >= resetSize) {
+				reset();
+			}
+		}
+
+		int frequency(int hash) {
+			int frequency = 15;
+			for (final int seed : SEEDS) {
+				frequency = Math.min(frequency, counters[index(hash, seed)]);
+			}
+			return frequency;
+		}
+
+		private int index(int hash, int seed) {
+			int h = hash * seed;
+			h ^= h >>> 17;
+			return h & mask;
+		}
+
+		private synchronized void reset() {
+			additions = 0;
+			for (int i = 0; i < counters.length; i++) {
+				counters[i] >>= 1;
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.lemmingapex.rosemary;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Flight Recorder event for a parse that took longer than the event's threshold, 1 ms unless the recording sets another, e.g. <code>-XX:StartFlightRecording:+com.lemmingapex.rosemary.Parse#threshold=200us</code> or {@link jdk.jfr.Recording#enable(Class)}.  Every parse by a {@link RosemaryDateTimeParser} method that returns a datetime or a {@link RosemaryParseResult} is timed while the event is enabled, and nothing is done for it while it isn't.
+ * <p>
+ * The event holds the shape of the input, not the input itself, so recordings don't hold the data that was parsed.
+ */
+@Name("com.lemmingapex.rosemary.Parse")
+@Label("Rosemary Parse")
+@Category({"Rosemary"})
+@Description("A datetime parse that took longer than the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class RosemaryParseEvent extends Event {
+
+	/**
+	 * Tells whether the event is enabled, without creating an event for each parse to ask.
+	 */
+	private static final RosemaryParseEvent PROBE = new RosemaryParseEvent();
+
+	@Label("Path")
+	@Description("The way the datetime was parsed, or failed to parse")
+	String path;
+
+	@Label("Failure Reason")
+	@Description("Why the datetime didn't parse, or null if it did")
+	String failureReason;
+
+	@Label("Input Length")
+	@Description("The length of the input in characters, or in bytes for a column")
+	int inputLength;
+
+	@Label("Input Shape")
+	@Description("The input with digits masked as 9 and letters as A or a")
+	String inputShape;
+
+	RosemaryParseEvent() {
+	}
+
+	static boolean enabled() {
+		return PROBE.isEnabled();
+	}
+
+	/**
+	 * End the event, and commit it if it took long enough.
+	 *
+	 * @param path the way the datetime was parsed, or failed to parse
+	 * @param failureReason why the datetime didn't parse, or <code>null</code> if it did
+	 * @param input the input, or <code>null</code> if it isn't at hand as characters
+	 * @param inputLength the length of the input
+	 */
+	void finish(RosemaryParsePath path, RosemaryFailureReason failureReason, CharSequence input, int inputLength) {
+		end();
+		if (shouldCommit()) {
+			this.path = path.name();
+			this.failureReason = failureReason == null ? null : failureReason.name();
+			this.inputLength = inputLength;
+			this.inputShape = RosemaryInputShape.of(input);
+			commit();
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * The way a datetime was parsed, or failed to parse.  See {@link RosemaryMetrics}.
+ */
+public enum RosemaryParsePath {
+	/**
+	 * Parsed by the ISO-8601 scanner of {@link RosemaryDateTimeParser#parseAll(java.util.List, RosemaryDateOrder)} or a <code>parseColumn</code> method, without the heuristic engine.
+	 */
+	ISO_SCANNER,
+	/**
+	 * Answered from the {@link RosemaryParseCache}, successfully or not.
+	 */
+	CACHE,
+	/**
+	 * Parsed by the heuristic engine, or failed to.  Failures are counted under {@link #FALLBACK} instead when the java.time fallback is on, unless the datetime was refused before the engine ran, like one that was too long.
+	 */
+	ENGINE,
+	/**
+	 * Only with {@link RosemaryDateTimeParser#setJavaTimeFallbackEnabled(boolean)} on: the engine failed and the datetime was handed to {@link java.time.format.DateTimeFormatter} without a pattern.  A failure here means both failed, and its reason is the engine's.
+	 */
+	FALLBACK,
+	/**
+	 * Parsed with patterns given by the caller, like {@link RosemaryDateTimeParser#parse(String, String)}.
+	 */
+	PATTERN
+}
@@ -0,0 +1,201 @@
+package com.lemmingapex.rosemary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A {@link Flow.Processor} that parses a stream of datetimes.  Each input becomes a {@link RosemaryParseResult}, so inputs that don't parse are reported downstream rather than ending the stream.
+ * <p>
+ * Inputs are collected into batches and parsed with {@link RosemaryDateTimeParser#parseAll(List, RosemaryDateOrder)} on the executor.  A batch is sent for parsing when it is full, or straight away if nothing else is being parsed, so batches grow under load and a slow stream isn't held back waiting for one to fill.  Up to a fixed number of batches are parsed at once.  When ordered, results are emitted in the order of the inputs; otherwise each batch is emitted as soon as it is parsed.
+ * <p>
+ * Backpressure works in both directions.  The processor only requests as many inputs from upstream as fit in the batches it is allowed to have in flight, and requests more as batches are emitted.  Emitting blocks while a subscriber's buffer is full, as {@link SubmissionPublisher#submit(Object)} does, which holds back further requests upstream.
+ */
+public class RosemaryParseProcessor extends SubmissionPublisher<RosemaryParseResult> implements Flow.Processor<CharSequence, RosemaryParseResult> {
+
+	private final RosemaryDateTimeParser rosemaryDateTimeParser;
+	private final RosemaryDateOrder rosemaryParserDateOrder;
+	private final int batchSize;
+	private final int maximumBatchesInFlight;
+	private final boolean ordered;
+	private final Executor executor;
+
+	private final Object lock = new Object();
+	private Flow.Subscription subscription;
+	private List<CharSequence> pending;
+	private int batchesInFlight = 0;
+	private boolean upstreamDone = false;
+	private Throwable upstreamFailure;
+	private CompletableFuture<Void> lastEmission = CompletableFuture.completedFuture(null);
+
+	/**
+	 * Create a processor.
+	 *
+	 * @param rosemaryDateTimeParser the parser to use
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats
+	 * @param batchSize the most inputs to parse together
+	 * @param maximumBatchesInFlight the most batches to parse or emit at once
+	 * @param ordered <code>true</code> to emit results in the order of the inputs
+	 * @param executor parses batches and delivers results to subscribers
+	 * @param maxBufferCapacity the most results buffered for each subscriber
+	 */
+	public RosemaryParseProcessor(RosemaryDateTimeParser rosemaryDateTimeParser, RosemaryDateOrder rosemaryParserDateOrder, int batchSize, int maximumBatchesInFlight, boolean ordered, Executor executor, int maxBufferCapacity) {
+		super(executor, maxBufferCapacity);
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Bad batch size " + batchSize);
+		}
+		if (maximumBatchesInFlight < 1) {
+			throw new IllegalArgumentException("Bad maximum batches in flight " + maximumBatchesInFlight);
+		}
+		this.rosemaryDateTimeParser = Objects.requireNonNull(rosemaryDateTimeParser);
+		this.rosemaryParserDateOrder = Objects.requireNonNull(rosemaryParserDateOrder);
+		this.batchSize = batchSize;
+		this.maximumBatchesInFlight = maximumBatchesInFlight;
+		this.ordered = ordered;
+		this.executor = executor;
+		this.pending = new ArrayList<>(batchSize);
+	}
+
+	/**
+	 * Create a processor that parses on the {@link ForkJoinPool#commonPool()}, with as many batches in flight as the pool has threads.
+	 *
+	 * @param rosemaryDateTimeParser the parser to use
+	 * @param rosemaryParserDateOrder the order in which to expect and resolve ambiguous date formats
+	 * @param batchSize the most inputs to parse together
+	 * @param ordered <code>true</code> to emit results in the order of the inputs
+	 */
+	public RosemaryParseProcessor(RosemaryDateTimeParser rosemaryDateTimeParser, RosemaryDateOrder rosemaryParserDateOrder, int batchSize, boolean ordered) {
+		this(rosemaryDateTimeParser, rosemaryParserDateOrder, batchSize, Math.max(1, ForkJoinPool.getCommonPoolParallelism()), ordered, ForkJoinPool.commonPool(), Flow.defaultBufferSize());
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		synchronized (lock) {
+			if (this.subscription != null) {
+				subscription.cancel();
+				return;
+			}
+			this.subscription = subscription;
+		}
+		subscription.request((long) batchSize * maximumBatchesInFlight);
+	}
+
+	@Override
+	public void onNext(CharSequence item) {
+		Objects.requireNonNull(item);
+		synchronized (lock) {
+			pending.add(item);
+			if (pending.size() >= batchSize || batchesInFlight == 0) {
+				dispatchPending();
+			}
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		upstreamDone(Objects.requireNonNull(throwable));
+	}
+
+	@Override
+	public void onComplete() {
+		upstreamDone(null);
+	}
+
+	private void upstreamDone(Throwable throwable) {
+		synchronized (lock) {
+			upstreamDone = true;
+			upstreamFailure = throwable;
+			if (!pending.isEmpty()) {
+				dispatchPending();
+				return;
+			}
+			if (batchesInFlight > 0) {
+				return;
+			}
+		}
+		closeWith(throwable);
+	}
+
+	/**
+	 * Send the pending inputs off to be parsed and emitted.  Must be called holding the lock.
+	 */
+	private void dispatchPending() {
+		final List<CharSequence> batch = pending;
+		pending = new ArrayList<>(batchSize);
+		batchesInFlight++;
+
+		final CompletableFuture<Void> emission;
+		if (ordered) {
+			// parse alongside the other batches, but wait for the batch before to be emitted
+			final CompletableFuture<List<RosemaryParseResult>> parsed = CompletableFuture.supplyAsync(() -> rosemaryDateTimeParser.parseAll(batch, rosemaryParserDateOrder), executor);
+			emission = lastEmission.thenAcceptBothAsync(parsed, (previous, results) -> emit(results), executor);
+			lastEmission = emission;
+		} else {
+			emission = CompletableFuture.runAsync(() -> emit(rosemaryDateTimeParser.parseAll(batch, rosemaryParserDateOrder)), executor);
+		}
+		emission.whenComplete((ignored, throwable) -> {
+			if (throwable != null) {
+				closeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+			}
+		});
+	}
+
+	private void emit(List<RosemaryParseResult> results) {
+		for (final RosemaryParseResult result : results) {
+			submit(result);
+		}
+
+		boolean close = false;
+		boolean requestMore = false;
+		Throwable failure = null;
+		synchronized (lock) {
+			batchesInFlight--;
+			if (!pending.isEmpty() && batchesInFlight == 0) {
+				// inputs arrived while this batch was busy, don't leave them waiting for a full batch
+				dispatchPending();
+			} else if (upstreamDone) {
+				close = batchesInFlight == 0;
+				failure = upstreamFailure;
+			}
+			requestMore = !upstreamDone;
+		}
+
+		if (close) {
+			closeWith(failure);
+		} else if (requestMore) {
+			subscription.request(results.size());
+		}
+	}
+
+	private void closeWith(Throwable throwable) {
+		if (throwable == null) {
+			close();
+		} else {
+			closeExceptionally(throwable);
+		}
+	}
+
+	/**
+	 * Get the most inputs parsed together.
+	 *
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Are results emitted in the order of the inputs?
+	 *
+	 * @return <code>true</code> if results are emitted in the order of the inputs
+	 */
+	public boolean isOrdered() {
+		return this.ordered;
+	}
+}
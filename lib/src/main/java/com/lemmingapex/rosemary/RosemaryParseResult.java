@@ -0,0 +1,82 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * The outcome of parsing one input of a batch: either the parsed datetime or the reason it didn't parse.
+ */
+public final class RosemaryParseResult {
+	/**
+	 * the text that was parsed.
+	 */
+	private final CharSequence input;
+	/**
+	 * the parsed datetime, or <code>null</code> if the input didn't parse.
+	 */
+	private final OffsetDateTime dateTime;
+	/**
+	 * why the input didn't parse, or <code>null</code> if it did.
+	 */
+	private final RosemaryDateTimeException failure;
+
+	RosemaryParseResult(CharSequence input, OffsetDateTime dateTime, RosemaryDateTimeException failure) {
+		this.input = input;
+		this.dateTime = dateTime;
+		this.failure = failure;
+	}
+
+	/**
+	 * Get the input.
+	 *
+	 * @return the text that was parsed
+	 */
+	public CharSequence getInput() {
+		return this.input;
+	}
+
+	/**
+	 * Get the parsed datetime.
+	 *
+	 * @return the datetime, or <code>null</code> if the input didn't parse
+	 */
+	public OffsetDateTime getDateTime() {
+		return this.dateTime;
+	}
+
+	/**
+	 * Get the failure.
+	 *
+	 * @return why the input didn't parse, or <code>null</code> if it did
+	 */
+	public RosemaryDateTimeException getFailure() {
+		return this.failure;
+	}
+
+	/**
+	 * Did the input parse?
+	 *
+	 * @return <code>true</code> if the input parsed
+	 */
+	public boolean isSuccess() {
+		return this.failure == null;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		RosemaryParseResult that = (RosemaryParseResult) o;
+		return Objects.equals(input, that.input) && Objects.equals(dateTime, that.dateTime) && Objects.equals(failure == null ? null : failure.getMessage(), that.failure == null ? null : that.failure.getMessage());
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(input, dateTime, failure == null ? null : failure.getMessage());
+	}
+
+	@Override
+	public String toString() {
+		return input + " -> " + (isSuccess() ? dateTime : failure.getMessage());
+	}
+}
@@ -0,0 +1,37 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * A part of parsing that a parser made with {@link RosemaryDateTimeParser#builder()} can leave out.  A stage that is left out isn't checked while parsing, it just isn't there: its words are unknown words, skipped like any other, and its numbers are ones the engine can't place.
+ * <p>
+ * The ISO-8601 layouts, numbers, times and month names are always read.  {@link #ISO_SCANNER}, {@link #JAVA_TIME_FALLBACK} and {@link #CACHE} only change how a datetime is parsed, and can still be switched on a built parser.
+ */
+public enum RosemaryParseStage {
+	/**
+	 * The ISO-8601 scanner, which skips the engine for the common ISO-8601 layouts.  It is tried first by the parse methods that default to the current date, {@link RosemaryDateTimeParser#parseAll(java.util.List, RosemaryDateOrder)}, the <code>parseColumn</code> methods and <code>normalize</code>, and only accepts layouts the other stages of the parser read, so it changes how quickly a datetime is parsed, never whether.
+	 */
+	ISO_SCANNER,
+	/**
+	 * A datetime that is a single large number, like <code>1204675245123</code>, is milliseconds since the epoch.
+	 */
+	EPOCH_MILLIS,
+	/**
+	 * Weekday names, and ordinals like <code>5th</code> and <code>Fifth</code>.
+	 */
+	WORDS,
+	/**
+	 * Time zone names from the parser's {@link RosemaryTimeZoneProvider}, like <code>EST</code> and <code>America/Denver</code>.  Without it the provider isn't asked for any.
+	 */
+	NAMED_ZONES,
+	/**
+	 * Offsets from UTC written apart from an ISO-8601 datetime, like the <code>-05:00</code> of <code>2008-03-05 07:02:10 -05:00</code> or the <code>-0500</code> of <code>March 5, 2008 -0500</code>.
+	 */
+	NUMERIC_OFFSETS,
+	/**
+	 * A datetime the engine fails on is handed to {@link java.time}, see {@link RosemaryDateTimeParser#setJavaTimeFallbackEnabled(boolean)}.
+	 */
+	JAVA_TIME_FALLBACK,
+	/**
+	 * Results are kept in a {@link RosemaryParseCache}.
+	 */
+	CACHE
+}
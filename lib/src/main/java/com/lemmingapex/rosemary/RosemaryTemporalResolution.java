@@ -0,0 +1,262 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.ParsingUtilities;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * What the fields of a parsed datetime are resolved into.  Each kind of result resolves only the fields it holds: a date needs no time or time zone, a time needs no date, and neither a date nor a time is built through a calendar in its time zone.
+ *
+ * @param <T> the type of the result
+ */
+abstract class RosemaryTemporalResolution<T> {
+
+	/**
+	 * the first year of the Gregorian calendar; earlier dates are Julian in {@link GregorianCalendar}, so they are resolved through one to read them as the engine does.
+	 */
+	private static final int GREGORIAN_YEAR = 1583;
+
+	/**
+	 * the largest offset {@link ZoneOffset} can hold, in milliseconds.
+	 */
+	private static final int MAXIMUM_OFFSET_MILLIS = 18 * 3_600_000;
+
+	static final RosemaryTemporalResolution<OffsetDateTime> OFFSET_DATE_TIME = new RosemaryTemporalResolution<>(true, true) {
+		@Override
+		OffsetDateTime of(RosemaryIsoScanner isoScanner) {
+			return OffsetDateTime.of(isoScanner.year, isoScanner.month, isoScanner.day, isoScanner.hour, isoScanner.minute, isoScanner.second, isoScanner.nanosecond, ZoneOffset.ofTotalSeconds(isoScanner.offsetSeconds));
+		}
+
+		@Override
+		OffsetDateTime of(OffsetDateTime offsetDateTime) {
+			return offsetDateTime;
+		}
+
+		@Override
+		OffsetDateTime of(RosemaryDateTimeState state) {
+			return ParsingUtilities.calendarToOffsetDateTime(state.asCalendar());
+		}
+	};
+
+	static final RosemaryTemporalResolution<Instant> INSTANT = new RosemaryTemporalResolution<>(true, true) {
+		@Override
+		Instant of(RosemaryIsoScanner isoScanner) {
+			final long epochSecond = RosemaryEpochMath.epochDay(isoScanner.year, isoScanner.month, isoScanner.day) * RosemaryEpochMath.SECONDS_PER_DAY + isoScanner.hour * 3600L + isoScanner.minute * 60L + isoScanner.second - isoScanner.offsetSeconds;
+			return Instant.ofEpochSecond(epochSecond, isoScanner.nanosecond);
+		}
+
+		@Override
+		Instant of(OffsetDateTime offsetDateTime) {
+			return offsetDateTime.toInstant();
+		}
+
+		@Override
+		Instant of(RosemaryDateTimeState state) {
+			// the calendar knows the instant without converting its time zone to java.time
+			final GregorianCalendar calendar = state.asCalendar();
+			final long epochMillis = calendar.getTimeInMillis();
+			final TimeZone timeZone = calendar.getTimeZone();
+			if (Math.abs(timeZone.getOffset(epochMillis)) > MAXIMUM_OFFSET_MILLIS) {
+				throw new DateTimeException("Offset out of range: " + timeZone.getID());
+			}
+			return Instant.ofEpochMilli(epochMillis);
+		}
+	};
+
+	static final RosemaryTemporalResolution<LocalDateTime> LOCAL_DATE_TIME = new RosemaryTemporalResolution<>(true, true) {
+		@Override
+		LocalDateTime of(RosemaryIsoScanner isoScanner) {
+			return LocalDateTime.of(isoScanner.year, isoScanner.month, isoScanner.day, isoScanner.hour, isoScanner.minute, isoScanner.second, isoScanner.nanosecond);
+		}
+
+		@Override
+		LocalDateTime of(OffsetDateTime offsetDateTime) {
+			return offsetDateTime.toLocalDateTime();
+		}
+
+		@Override
+		LocalDateTime of(RosemaryDateTimeState state) {
+			if (state.getYear() < GREGORIAN_YEAR) {
+				return OFFSET_DATE_TIME.of(state).toLocalDateTime();
+			}
+			return LocalDateTime.of(localDate(state), LOCAL_TIME.of(state));
+		}
+	};
+
+	static final RosemaryTemporalResolution<LocalDate> LOCAL_DATE = new RosemaryTemporalResolution<>(true, false) {
+		@Override
+		LocalDate of(RosemaryIsoScanner isoScanner) {
+			return LocalDate.of(isoScanner.year, isoScanner.month, isoScanner.day);
+		}
+
+		@Override
+		LocalDate of(OffsetDateTime offsetDateTime) {
+			return offsetDateTime.toLocalDate();
+		}
+
+		@Override
+		LocalDate of(RosemaryDateTimeState state) {
+			if (state.getYear() < GREGORIAN_YEAR) {
+				return OFFSET_DATE_TIME.of(state).toLocalDate();
+			}
+			return localDate(state);
+		}
+	};
+
+	static final RosemaryTemporalResolution<LocalTime> LOCAL_TIME = new RosemaryTemporalResolution<>(false, true) {
+		@Override
+		LocalTime of(RosemaryIsoScanner isoScanner) {
+			return LocalTime.of(isoScanner.hour, isoScanner.minute, isoScanner.second, isoScanner.nanosecond);
+		}
+
+		@Override
+		LocalTime of(OffsetDateTime offsetDateTime) {
+			return offsetDateTime.toLocalTime();
+		}
+
+		@Override
+		LocalTime of(RosemaryDateTimeState state) {
+			// like RosemaryDateTimeState.asCalendar(), each field only counts with the ones before it
+			if (!state.isHourSet()) {
+				return LocalTime.MIDNIGHT;
+			}
+			if (!state.isMinuteSet()) {
+				return LocalTime.of(state.getHour(), 0);
+			}
+			if (!state.isSecondSet()) {
+				return LocalTime.of(state.getHour(), state.getMinute());
+			}
+			return LocalTime.of(state.getHour(), state.getMinute(), state.getSecond(), state.isMillisecondSet() ? state.getMillisecond() * 1_000_000 : 0);
+		}
+	};
+
+	/**
+	 * Resolve datetimes into the fields of a sink, without creating the {@link OffsetDateTime} they are the fields of.  A datetime in a named time zone is still resolved through a calendar if it is before 1900 or near a change to the zone's offset, and one before 1583 always is.
+	 *
+	 * @param sink receives the fields of each datetime resolved
+	 * @return a resolution whose results are always <code>null</code>
+	 */
+	static RosemaryTemporalResolution<Void> fields(RosemaryFieldSink sink) {
+		return new RosemaryTemporalResolution<>(true, true) {
+			@Override
+			Void of(RosemaryIsoScanner isoScanner) {
+				sink.accept(isoScanner.year, isoScanner.month, isoScanner.day, isoScanner.hour, isoScanner.minute, isoScanner.second, isoScanner.nanosecond, isoScanner.offsetSeconds);
+				return null;
+			}
+
+			@Override
+			Void of(OffsetDateTime offsetDateTime) {
+				sink.accept(offsetDateTime.getYear(), offsetDateTime.getMonthValue(), offsetDateTime.getDayOfMonth(), offsetDateTime.getHour(), offsetDateTime.getMinute(), offsetDateTime.getSecond(), offsetDateTime.getNano(), offsetDateTime.getOffset().getTotalSeconds());
+				return null;
+			}
+
+			@Override
+			Void of(RosemaryDateTimeState state) {
+				int year = state.getYear();
+				if (year < GREGORIAN_YEAR) {
+					return of(OFFSET_DATE_TIME.of(state));
+				}
+				int month = state.getMonth();
+				int day = state.getDay();
+				// a day past the end of its month rolls over into the next month, as the calendar does
+				while (day > RosemaryEpochMath.lengthOfMonth(year, month)) {
+					day -= RosemaryEpochMath.lengthOfMonth(year, month);
+					if (++month > 12) {
+						month = 1;
+						year++;
+					}
+				}
+
+				// like RosemaryDateTimeState.asCalendar(), each field only counts with the ones before it, and the time zone only with a time
+				int hour = 0;
+				int minute = 0;
+				int second = 0;
+				int millisecond = 0;
+				int offsetSeconds = 0;
+				if (state.isHourSet()) {
+					hour = state.getHour();
+					if (state.isMinuteSet()) {
+						minute = state.getMinute();
+						if (state.isSecondSet()) {
+							second = state.getSecond();
+							if (state.isMillisecondSet()) {
+								millisecond = state.getMillisecond();
+							}
+						}
+					}
+					final TimeZone timeZone = state.getTimeZone();
+					if (timeZone != null) {
+						if (year < RosemaryCompiledParser.NAMED_ZONE_MINIMUM_YEAR) {
+							return of(OFFSET_DATE_TIME.of(state));
+						}
+						// as in RosemaryCompiledParser, an offset that java.time might see differently is left to the calendar
+						final long localMillis = RosemaryEpochMath.epochMillis(year, month, day, hour, minute, second, millisecond, 0);
+						final int offsetMillis = timeZone.getOffset(localMillis - timeZone.getRawOffset());
+						final long epochMillis = localMillis - offsetMillis;
+						if (offsetMillis % 1000 != 0 || Math.abs(offsetMillis) > MAXIMUM_OFFSET_MILLIS || timeZone.getOffset(epochMillis) != offsetMillis || timeZone.getOffset(epochMillis - RosemaryCompiledParser.TRANSITION_MARGIN_MILLIS) != offsetMillis || timeZone.getOffset(epochMillis + RosemaryCompiledParser.TRANSITION_MARGIN_MILLIS) != offsetMillis) {
+							return of(OFFSET_DATE_TIME.of(state));
+						}
+						offsetSeconds = offsetMillis / 1000;
+					}
+				}
+				sink.accept(year, month, day, hour, minute, second, millisecond * 1_000_000, offsetSeconds);
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * <code>true</code> if the result holds a date, so the year, month and day must be resolved.
+	 */
+	final boolean date;
+
+	/**
+	 * <code>true</code> if the result holds a time, so the time of day must be resolved.
+	 */
+	final boolean time;
+
+	private RosemaryTemporalResolution(boolean date, boolean time) {
+		this.date = date;
+		this.time = time;
+	}
+
+	/**
+	 * Resolve the datetime last scanned.
+	 *
+	 * @param isoScanner a scanner that accepted a datetime
+	 * @return the result
+	 */
+	abstract T of(RosemaryIsoScanner isoScanner);
+
+	/**
+	 * Resolve a datetime read by a path that makes offset datetimes, like the ISO-8601 readers and the java.time fallback.
+	 *
+	 * @param offsetDateTime the datetime
+	 * @return the result
+	 */
+	abstract T of(OffsetDateTime offsetDateTime);
+
+	/**
+	 * Resolve the state the engine read from the tokens of a datetime, with the fields the result holds filled in.
+	 *
+	 * @param state the state
+	 * @return the result
+	 * @throws DateTimeException if java.time can't hold the result
+	 */
+	abstract T of(RosemaryDateTimeState state);
+
+	/**
+	 * @return the Gregorian date of a state, rolling a day past the end of its month over into the next month as the calendar does
+	 */
+	private static LocalDate localDate(RosemaryDateTimeState state) {
+		return LocalDate.ofEpochDay(RosemaryEpochMath.epochDay(state.getYear(), state.getMonth(), state.getDay()));
+	}
+}
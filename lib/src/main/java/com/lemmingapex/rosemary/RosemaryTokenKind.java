@@ -0,0 +1,138 @@
+package com.lemmingapex.rosemary;
+
+import java.util.List;
+
+/**
+ * What a token looks like, judged strictly.  {@link RosemaryDateTimeParser} quietly ignores words it doesn't understand, which is the right thing for a string that is known to be a datetime, but not when a datetime has to be found among other text.
+ */
+enum RosemaryTokenKind {
+	NONE, NUMBER, TIME, OFFSET, MONTH, WEEKDAY, ORDINAL, MERIDIAN, ZONE, CONNECTOR;
+
+	private static final List<String> CONNECTORS = List.of("OF", "AT", "THE", "ON", "T");
+
+	/**
+	 * Classify an upper case token.
+	 *
+	 * @param word upper case token, as produced by {@link RosemaryTokenizer}
+	 * @param rosemaryDateTimeParser parser whose time zone names are recognized
+	 * @return the kind of token
+	 */
+	static RosemaryTokenKind of(String word, RosemaryDateTimeParser rosemaryDateTimeParser) {
+		final int length = word.length();
+		if (length == 0) {
+			return NONE;
+		}
+
+		final char first = word.charAt(0);
+		if (Character.isDigit(first)) {
+			if (isDigits(word, 0, length)) {
+				return NUMBER;
+			}
+			if (isTime(word)) {
+				return TIME;
+			}
+			final Integer ordinal = RosemaryDateTimeParser.getOrdinalNumber(word);
+			return ordinal != null && length <= 4 ? ORDINAL : NONE;
+		}
+
+		if (first == '+' || first == '-') {
+			return isOffset(word, 0) ? OFFSET : NONE;
+		}
+
+		if ((word.startsWith("GMT") || word.startsWith("UTC")) && length > 3) {
+			return isOffset(word, 3) ? OFFSET : NONE;
+		}
+
+		if (word.equals("AM") || word.equals("PM")) {
+			return MERIDIAN;
+		}
+
+		if (CONNECTORS.contains(word)) {
+			return CONNECTOR;
+		}
+
+		if (isName(word, RosemaryDateTimeParser.MONTH_NAMES) || word.equals("SEPT")) {
+			return MONTH;
+		}
+
+		if (isName(word, RosemaryDateTimeParser.WEEKDAY_NAMES) || word.equals("TUES") || word.equals("THUR") || word.equals("THURS")) {
+			return WEEKDAY;
+		}
+
+		if (RosemaryDateTimeParser.ORDINAL_NUMBERS.contains(word.replace("-", ""))) {
+			return ORDINAL;
+		}
+
+		if (word.equals("Z") || word.equals("GMT") || word.equals("UTC") || (length >= 3 && rosemaryDateTimeParser.isTimeZoneName(word))) {
+			return ZONE;
+		}
+
+		return NONE;
+	}
+
+	/**
+	 * Does a token of this kind end a datetime?  A datetime has a single zone or offset, except that <code>GMT</code> or <code>UTC</code> is often followed by the offset from it.
+	 *
+	 * @param word the upper case token
+	 * @return <code>true</code> if nothing after the token can be part of the same datetime
+	 */
+	boolean endsDateTime(String word) {
+		return this == OFFSET || (this == ZONE && !word.equals("GMT") && !word.equals("UTC"));
+	}
+
+	/**
+	 * Is the word a whole name from the list, or its three letter abbreviation?
+	 */
+	private static boolean isName(String word, List<String> names) {
+		for (final String name : names) {
+			if (name.equals(word) || (word.length() == 3 && name.startsWith(word))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Times look like <code>7:02</code>, <code>19:02:13.488</code>, <code>7:02PM</code> or <code>8AM</code>.
+	 */
+	private static boolean isTime(String word) {
+		int length = word.length();
+		if (word.endsWith("AM") || word.endsWith("PM")) {
+			length -= 2;
+			if (length == 0) {
+				return false;
+			}
+		}
+
+		boolean hasColon = false;
+		for (int i = 0; i < length; i++) {
+			final char c = word.charAt(i);
+			if (c == ':') {
+				hasColon = true;
+			} else if (c != '.' && !Character.isDigit(c)) {
+				return false;
+			}
+		}
+		return hasColon || (length <= 2 && length < word.length());
+	}
+
+	/**
+	 * Offsets look like a sign followed by <code>5</code>, <code>05</code>, <code>0500</code> or <code>05:00</code>.
+	 */
+	private static boolean isOffset(String word, int sign) {
+		if (sign >= word.length() || (word.charAt(sign) != '+' && word.charAt(sign) != '-')) {
+			return false;
+		}
+		final String digits = word.substring(sign + 1).replace(":", "");
+		return !digits.isEmpty() && digits.length() <= 4 && isDigits(digits, 0, digits.length());
+	}
+
+	private static boolean isDigits(String str, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (!Character.isDigit(str.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,19 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * Reads one kind of non-numeric token into the state of a parse, like month names or time zone offsets.  A parser chains the readers of its stages once, when it is created.
+ */
+@FunctionalInterface
+interface RosemaryTokenReader {
+
+	/**
+	 * Read a token, if it is this reader's kind.
+	 *
+	 * @param token the upper case token
+	 * @param tokens all the tokens
+	 * @param state parser state
+	 * @return <code>true</code> if the token was read, <code>false</code> to leave it to the next reader
+	 * @throws RosemaryDateTimeException if the token is this reader's kind but can't be used
+	 */
+	boolean read(String token, String[] tokens, RosemaryDateTimeState state) throws RosemaryDateTimeException;
+}
@@ -0,0 +1,114 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * Follows the tokens of a datetime in other text, like the timestamp at the start of a log line, to tell where the datetime ends.
+ * <p>
+ * A run ends before a second month or weekday name, or a second date of numbers like <code>3/5/2008</code>, so text dense with dates is read one date at a time rather than tried as ever shorter runs.  Once a run has a whole date and a time, what follows is far more often the text than more of the datetime: the <code>3</code> of <code>10:23:45 3 workers started</code> or the <code>GET</code> of <code>10:23:45 200 GET /index.html</code> would be read as offsets and time zones.  So after a date and a time the run only takes a meridian, a signed offset like <code>-05:00</code>, <code>Z</code>, <code>UTC</code> or <code>GMT</code>, or a time zone name in brackets or attached to the token before it, like <code>(EST)</code> or the zone of <code>[2008-03-05 07:02 EST]</code>.
+ */
+final class RosemaryTokenRun {
+
+	private final RosemaryTokenizer tokenizer;
+	private int last;
+	private int dateParts;
+	private boolean monthSet;
+	private boolean weekdaySet;
+	private boolean timeSet;
+	private boolean ended;
+
+	/**
+	 * @param tokenizer the tokens of the text
+	 */
+	RosemaryTokenRun(RosemaryTokenizer tokenizer) {
+		this.tokenizer = tokenizer;
+		this.last = -1;
+	}
+
+	/**
+	 * Start a new run.
+	 */
+	void clear() {
+		last = -1;
+		dateParts = 0;
+		monthSet = false;
+		weekdaySet = false;
+		timeSet = false;
+		ended = false;
+	}
+
+	/**
+	 * Add the next token to the run, if it can be part of the same datetime.
+	 *
+	 * @param index index of the token, after the last token added
+	 * @param kind the kind of the token
+	 * @return <code>true</code> if the token was added, <code>false</code> if the datetime ends before it
+	 */
+	boolean add(int index, RosemaryTokenKind kind) {
+		if (kind == RosemaryTokenKind.NONE || ended) {
+			return false;
+		}
+		final String word = tokenizer.token(index);
+		// a datetime has one month name and one weekday, and a whole date isn't followed by another date like 3/5/2008
+		if ((kind == RosemaryTokenKind.MONTH && monthSet) || (kind == RosemaryTokenKind.WEEKDAY && weekdaySet) || (kind == RosemaryTokenKind.NUMBER && dateParts >= 3 && startsNumericDate(index))) {
+			return false;
+		}
+		if (dateParts >= 3 && timeSet) {
+			switch (kind) {
+				case MERIDIAN:
+				case OFFSET:
+					break;
+				case ZONE:
+					if (!word.equals("Z") && !word.equals("UTC") && !word.equals("GMT") && !isAttachedOrBracketed(index)) {
+						return false;
+					}
+					break;
+				default:
+					return false;
+			}
+		}
+
+		switch (kind) {
+			case NUMBER:
+			case ORDINAL:
+				dateParts++;
+				break;
+			case MONTH:
+				dateParts++;
+				monthSet = true;
+				break;
+			case WEEKDAY:
+				weekdaySet = true;
+				break;
+			case TIME:
+			case MERIDIAN:
+				timeSet = true;
+				break;
+			default:
+				break;
+		}
+		ended = kind.endsDateTime(word);
+		last = index;
+		return true;
+	}
+
+	/**
+	 * Is a number joined to the next one by a date separator, like the 3 of <code>3/5/2008</code>?
+	 */
+	private boolean startsNumericDate(int index) {
+		final CharSequence text = tokenizer.text();
+		final int end = tokenizer.end(index);
+		return end + 1 < text.length() && (text.charAt(end) == '/' || text.charAt(end) == '-') && Character.isDigit(text.charAt(end + 1));
+	}
+
+	/**
+	 * Is a token glued to the token before it, like the zone of <code>07:02:10Z</code>, or in brackets, like the zone of <code>7:02 PM (EST)</code>, or the end of a bracketed datetime, like the zone of <code>[2019-03-05 07:02:30 America/Denver]</code>?
+	 */
+	private boolean isAttachedOrBracketed(int index) {
+		final CharSequence text = tokenizer.text();
+		final int start = tokenizer.start(index);
+		final int end = tokenizer.end(index);
+		if (last >= 0 && tokenizer.end(last) == start) {
+			return true;
+		}
+		return (start > 0 && (text.charAt(start - 1) == '(' || text.charAt(start - 1) == '[')) || (end < text.length() && (text.charAt(end) == ')' || text.charAt(end) == ']'));
+	}
+}
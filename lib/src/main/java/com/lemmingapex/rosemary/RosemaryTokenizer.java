@@ -0,0 +1,300 @@
+package com.lemmingapex.rosemary;
+
+import java.util.Arrays;
+
+/**
+ * Splits a datetime string into the tokens used by {@link RosemaryDateTimeParser} and remembers where each token came from.
+ * <p>
+ * Tokens are separated by runs of these characters:
+ * <ul>
+ * <li>a dash, unless it follows whitespace, a letter or a parenthesis.  After whitespace it is likely the sign of an offset, and after a letter it is likely GMT or UTC with an offset nearby</li>
+ * <li>a forward slash between two characters that are not letters, so a timezone string like <code>America/Detroit</code> stays whole</li>
+ * <li>whitespace, comma, parentheses, single quote and double quote</li>
+ * </ul>
+ * Whether a character separates only depends on it and its neighbours, so tokenizing is a single pass over the text with no backtracking, and takes time linear in its length whatever the text is.
+ */
+final class RosemaryTokenizer {
+
+	private final CharSequence text;
+	private String[] tokens = new String[8];
+	private int[] starts = new int[8];
+	private int[] ends = new int[8];
+	private int size = 0;
+
+	private RosemaryTokenizer(CharSequence text) {
+		this.text = text;
+	}
+
+	/**
+	 * Tokenize the whole of the supplied text.
+	 *
+	 * @param text the text to tokenize
+	 * @return the tokens of the text
+	 */
+	static RosemaryTokenizer tokenize(CharSequence text) {
+		return tokenize(text, 0, text.length());
+	}
+
+	/**
+	 * Tokenize a region of the supplied text.  The region is treated as if it were the whole text.
+	 *
+	 * @param text the text to tokenize
+	 * @param from index of the first character of the region
+	 * @param to index after the last character of the region
+	 * @return the tokens of the region
+	 */
+	static RosemaryTokenizer tokenize(CharSequence text, int from, int to) {
+		return tokenize(text, from, to, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Tokenize a region of the supplied text, stopping once enough tokens have been found.  The region is treated as if it were the whole text.
+	 *
+	 * @param text the text to tokenize
+	 * @param from index of the first character of the region
+	 * @param to index after the last character of the region
+	 * @param maximumTokens stop after this many tokens
+	 * @return the tokens of the region
+	 */
+	static RosemaryTokenizer tokenize(CharSequence text, int from, int to, int maximumTokens) {
+		final RosemaryTokenizer tokenizer = new RosemaryTokenizer(text);
+		int tokenStart = from;
+		int i = from;
+		while (i < to && tokenizer.size < maximumTokens) {
+			if (!isSeparator(text, from, to, i)) {
+				i++;
+				continue;
+			}
+			final int separatorStart = i;
+			do {
+				i++;
+			} while (i < to && isSeparator(text, from, to, i));
+			tokenizer.add(tokenStart, separatorStart);
+			tokenStart = i;
+		}
+		if (tokenizer.size < maximumTokens) {
+			tokenizer.add(tokenStart, to);
+		}
+		return tokenizer;
+	}
+
+	/**
+	 * Does the character at the index separate tokens?  Characters outside the region are treated as if they weren't there.
+	 */
+	static boolean isSeparator(CharSequence text, int from, int to, int index) {
+		final char c = text.charAt(index);
+		switch (c) {
+			case '-':
+				if (index == from) {
+					return true;
+				}
+				final char before = text.charAt(index - 1);
+				return !isSpace(before) && !isAsciiLetter(before) && before != '(' && before != ')';
+			case '/':
+				// the character after may not be in A-z, which also takes in the few punctuation characters between Z and a
+				return index > from && index + 1 < to && !isAsciiLetter(text.charAt(index - 1)) && (text.charAt(index + 1) < 'A' || text.charAt(index + 1) > 'z');
+			case ',':
+			case '(':
+			case ')':
+			case '\'':
+			case '"':
+				return true;
+			default:
+				return isSpace(c);
+		}
+	}
+
+	/**
+	 * Whitespace and horizontal whitespace, as in the regular expression classes <code>\s</code> and <code>\h</code>.
+	 */
+	private static boolean isSpace(char c) {
+		switch (c) {
+			case ' ':
+			case '\t':
+			case '\n':
+			case '\u000B':
+			case '\f':
+			case '\r':
+			case '\u00A0':
+			case '\u1680':
+			case '\u180E':
+			case '\u202F':
+			case '\u205F':
+			case '\u3000':
+				return true;
+			default:
+				return c >= '\u2000' && c <= '\u200A';
+		}
+	}
+
+	private static boolean isAsciiLetter(char c) {
+		return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+	}
+
+	private void add(int start, int end) {
+		// remove boring tokens, like a leading empty token or a lone dash between separators
+		if (isBoring(start, end)) {
+			return;
+		}
+		append(text.subSequence(start, end).toString().toUpperCase(), start, end);
+	}
+
+	private boolean isBoring(int start, int end) {
+		boolean allDashes = true;
+		boolean allBlank = true;
+		for (int i = start; i < end; i++) {
+			final char c = text.charAt(i);
+			allDashes &= c == '-';
+			allBlank &= Character.isWhitespace(c);
+		}
+		return allDashes || allBlank;
+	}
+
+	/**
+	 * Split tokens the way ISO-8601 text needs them: a date glued to its time by a <code>T</code>, like <code>05T07:02:00</code>, becomes two tokens, and an offset glued to a time, like <code>07:02:00+01:00</code>, <code>07:02:00-10:00</code> or <code>07:02:00Z</code>, becomes its own token with its sign.
+	 *
+	 * @return the split tokens
+	 */
+	RosemaryTokenizer splitIsoDesignators() {
+		final RosemaryTokenizer split = new RosemaryTokenizer(text);
+		for (int i = 0; i < size; i++) {
+			String token = tokens[i];
+			int start = starts[i];
+			final int end = ends[i];
+
+			final int designator = token.indexOf('T');
+			if (designator > 0 && designator < token.length() - 1 && isDigits(token, 0, designator) && Character.isDigit(token.charAt(designator + 1))) {
+				split.append(token.substring(0, designator), start, start + designator);
+				token = token.substring(designator + 1);
+				start += designator + 1;
+			}
+
+			if (!Character.isDigit(token.charAt(0)) || token.indexOf(':') < 0) {
+				split.append(token, start, end);
+				continue;
+			}
+
+			final int sign = Math.max(token.indexOf('+'), token.indexOf('-'));
+			if (sign > 0) {
+				split.append(token.substring(0, sign), start, start + sign);
+				split.append(token.substring(sign), start + sign, end);
+			} else if (token.endsWith("Z")) {
+				split.append(token.substring(0, token.length() - 1), start, end - 1);
+				split.append("Z", end - 1, end);
+			} else {
+				split.append(token, start, end);
+				if (i + 1 < size && end + 1 == starts[i + 1] && text.charAt(end) == '-' && Character.isDigit(tokens[i + 1].charAt(0))) {
+					// the dash was swallowed as a separator, give it back to the offset
+					i++;
+					split.append("-" + tokens[i], end, ends[i]);
+				}
+			}
+		}
+		return split;
+	}
+
+	/**
+	 * Trim sentence punctuation and brackets that the tokenizer leaves on tokens, like the period in <code>7:02 pm.</code> or the brackets in <code>[2008-03-05 07:02]</code>, and write <code>A.M.</code> and <code>P.M.</code> the way the parser expects them.
+	 *
+	 * @return the trimmed tokens
+	 */
+	RosemaryTokenizer trimPunctuation() {
+		final RosemaryTokenizer trimmed = new RosemaryTokenizer(text);
+		for (int i = 0; i < size; i++) {
+			final String token = tokens[i];
+			int leading = 0;
+			while (leading < token.length() && "[{<".indexOf(token.charAt(leading)) >= 0) {
+				leading++;
+			}
+			int trailing = token.length();
+			while (trailing > leading && "]}>.!?;:".indexOf(token.charAt(trailing - 1)) >= 0) {
+				trailing--;
+			}
+			if (leading == trailing) {
+				continue;
+			}
+
+			String word = token.substring(leading, trailing);
+			if (word.equals("A.M") || word.equals("P.M")) {
+				word = word.replace(".", "");
+			}
+			trimmed.append(word, starts[i] + leading, ends[i] - (token.length() - trailing));
+		}
+		return trimmed;
+	}
+
+	private void append(String token, int start, int end) {
+		if (size == tokens.length) {
+			tokens = Arrays.copyOf(tokens, size * 2);
+			starts = Arrays.copyOf(starts, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+		}
+		tokens[size] = token;
+		starts[size] = start;
+		ends[size] = end;
+		size++;
+	}
+
+	private static boolean isDigits(String str, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (!Character.isDigit(str.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the text that was tokenized
+	 */
+	CharSequence text() {
+		return text;
+	}
+
+	/**
+	 * @return the number of tokens
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return the upper case token
+	 */
+	String token(int index) {
+		return tokens[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return index in the text of the first character of the token
+	 */
+	int start(int index) {
+		return starts[index];
+	}
+
+	/**
+	 * @param index index of the token
+	 * @return index in the text after the last character of the token
+	 */
+	int end(int index) {
+		return ends[index];
+	}
+
+	/**
+	 * @param from index of the first token
+	 * @param to index after the last token
+	 * @return the upper case tokens in the range
+	 */
+	String[] tokens(int from, int to) {
+		return Arrays.copyOfRange(tokens, from, to);
+	}
+
+	/**
+	 * @return all the upper case tokens
+	 */
+	String[] tokens() {
+		return tokens(0, size);
+	}
+}
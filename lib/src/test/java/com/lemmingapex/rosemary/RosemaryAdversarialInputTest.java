@@ -0,0 +1,162 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests that long and pathological inputs are refused or parsed in time linear in their length.
+ */
+public class RosemaryAdversarialInputTest {
+
+	/**
+	 * The regular expression the tokenizer used to be, kept as the reference for what it must still do.  It overflows the stack on long runs of separators, so it is only run on short strings.
+	 */
+	private static final Pattern REFERENCE_TOKEN_PATTERN = Pattern.compile("((?<!([\\s\\h])|[A-Za-z()])-|((?<=[^A-Za-z])/(?=[^A-za-z]))|[\\s\\h,)('\"])+");
+
+	private static final String[] PATHOLOGICAL_UNITS = { "-", "/", "0/", "(", ")", "()", " ", ",", "a-", "0-", "--0", ":", "0:", "1", "a", "Z", "+", "'\"", "\u00A0", "\u2003" };
+
+	private static final int LONG = 1 << 20;
+
+	@Test
+	public void testMaximumInputLength() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		assertEquals(RosemaryDateTimeParser.DEFAULT_MAXIMUM_INPUT_LENGTH, rosemaryDateTimeParser.getMaximumInputLength());
+
+		final String padded = "2008-03-05 07:02:10" + " ".repeat(RosemaryDateTimeParser.DEFAULT_MAXIMUM_INPUT_LENGTH - 19);
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:10Z"), rosemaryDateTimeParser.parse(padded));
+		try {
+			rosemaryDateTimeParser.parse(padded + " ");
+			fail();
+		} catch (RosemaryDateTimeException e) {
+			assertEquals("Input too long: 1025 characters, the maximum is 1024", e.getMessage());
+		}
+		try {
+			rosemaryDateTimeParser.parse(padded + " ", "yyyy-MM-dd HH:mm:ss");
+			fail();
+		} catch (RosemaryDateTimeException e) {
+			assertEquals("Input too long: 1025 characters, the maximum is 1024", e.getMessage());
+		}
+
+		final RosemaryDateTimeParser shortParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, null, 10);
+		assertEquals(OffsetDateTime.parse("2008-03-05T00:00:00Z"), shortParser.parse("2008-03-05"));
+		assertTrue(shortParser.parseAll(List.of("2008-03-05 07:02"), RosemaryDateOrder.MM_DD_YY).get(0).getFailure().getMessage().startsWith("Input too long"));
+	}
+
+	@Test
+	public void testEmptyFraction() {
+		try {
+			new RosemaryDateTimeParser().parse("2008-03-05 07:02:10..5");
+			fail();
+		} catch (RosemaryDateTimeException e) {
+			assertEquals("Unable to parse: 2008-03-05 07:02:10..5", e.getMessage());
+		}
+	}
+
+	@Test
+	public void testTokenizerMatchesReference() {
+		final String alphabet = "-/ ,()'\"\t\u00A0\u2003aZT0917:.+";
+		final Random random = new Random(36);
+		for (int n = 0; n < 50_000; n++) {
+			final char[] chars = new char[random.nextInt(24)];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+			}
+			final String text = new String(chars);
+			assertArrayEquals(text, referenceTokens(text), RosemaryTokenizer.tokenize(text).tokens());
+		}
+	}
+
+	@Test
+	public void testPathologicalInputsFinish() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, null, LONG + 2);
+		for (final String unit : PATHOLOGICAL_UNITS) {
+			final String text = "1" + unit.repeat(LONG / unit.length()) + "1";
+			final long start = System.nanoTime();
+			try {
+				rosemaryDateTimeParser.parse(text);
+			} catch (RosemaryDateTimeException e) {
+				// most of these don't parse
+			}
+			final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertTrue("a megabyte of '" + unit + "' took " + millis + "ms", millis < 2_000);
+		}
+	}
+
+	@Test
+	public void testTimeIsLinear() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, null, LONG + 2);
+		for (final String unit : PATHOLOGICAL_UNITS) {
+			final String small = unit.repeat(LONG / 16 / unit.length());
+			final String large = unit.repeat(LONG / unit.length());
+			time(rosemaryDateTimeParser, small);
+			final long smallNanos = time(rosemaryDateTimeParser, small);
+			final long largeNanos = time(rosemaryDateTimeParser, large);
+			// 16 times the input, allowing for noise and the garbage collector
+			assertTrue("'" + unit + "' took " + smallNanos + "ns then " + largeNanos + "ns", largeNanos < 64 * smallNanos + TimeUnit.MILLISECONDS.toNanos(50));
+		}
+	}
+
+	@Test
+	public void testFuzz() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, null, LONG);
+		final Random random = new Random(36);
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+		while (System.nanoTime() < deadline) {
+			final StringBuilder text = new StringBuilder();
+			final int length = random.nextInt(LONG / 8);
+			while (text.length() < length) {
+				final String unit = PATHOLOGICAL_UNITS[random.nextInt(PATHOLOGICAL_UNITS.length)];
+				text.append(unit.repeat(1 + random.nextInt(random.nextBoolean() ? 4 : 4096)));
+			}
+			final long start = System.nanoTime();
+			try {
+				rosemaryDateTimeParser.parse(text.toString());
+			} catch (RosemaryDateTimeException e) {
+				// most of these don't parse
+			}
+			final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			assertTrue(text.length() + " characters took " + millis + "ms", millis < 1_000);
+		}
+	}
+
+	private static long time(RosemaryDateTimeParser rosemaryDateTimeParser, String text) {
+		long fastest = Long.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			final long start = System.nanoTime();
+			try {
+				rosemaryDateTimeParser.parse(text);
+			} catch (RosemaryDateTimeException e) {
+				// most of these don't parse
+			}
+			fastest = Math.min(fastest, System.nanoTime() - start);
+		}
+		return fastest;
+	}
+
+	private static String[] referenceTokens(String text) {
+		final List<String> tokens = new ArrayList<>();
+		final Matcher matcher = REFERENCE_TOKEN_PATTERN.matcher(text);
+		int tokenStart = 0;
+		while (matcher.find()) {
+			tokens.add(text.substring(tokenStart, matcher.start()));
+			tokenStart = matcher.end();
+		}
+		tokens.add(text.substring(tokenStart));
+		tokens.removeIf(token -> token.chars().allMatch(c -> c == '-') || token.chars().allMatch(Character::isWhitespace));
+		return tokens.stream().map(String::toUpperCase).toArray(String[]::new);
+	}
+}
@@ -0,0 +1,207 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks the bytes allocated per call against the budgets in <code>allocation-budget.properties</code>, so allocation regressions on the hot path fail the build.
+ * <p>
+ * Each case is warmed up so the JIT has compiled it, then measured with {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} over many calls, taking the smallest of several rounds to ignore one-off allocations.  A case over budget gets more rounds, up to a limit, so a JIT that is slow to finish compiling doesn't fail it.
+ * <p>
+ * What the JIT can inline, and so which objects it can leave unallocated, depends on every call the JVM profiled before, so the build runs this test in a JVM of its own with <code>./gradlew :lib:allocationTest</code>, and the budgets are measured that way.  When a change intentionally allocates more or less, run it with <code>-Drosemary.allocation.report=true</code> and update the budget file.
+ */
+public class RosemaryAllocationTest {
+
+	private static final int WARMUP_CALLS = 20_000;
+	private static final int ROUNDS = 5;
+	private static final int MAXIMUM_ROUNDS = 20;
+	private static final int CALLS_PER_ROUND = 2_000;
+
+	private static com.sun.management.ThreadMXBean threadMXBean;
+	private static Properties budgets;
+
+	private interface Call {
+		Object run() throws Exception;
+	}
+
+	@BeforeClass
+	public static void setUpClass() throws IOException {
+		final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue("thread allocation measurement isn't available on this JVM", bean instanceof com.sun.management.ThreadMXBean);
+		threadMXBean = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue("thread allocation measurement isn't supported on this JVM", threadMXBean.isThreadAllocatedMemorySupported());
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+		budgets = new Properties();
+		try (InputStream in = RosemaryAllocationTest.class.getResourceAsStream("allocation-budget.properties")) {
+			assertNotNull("missing allocation-budget.properties", in);
+			budgets.load(in);
+		}
+	}
+
+	@Test
+	public void testParse() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> failures = new ArrayList<>();
+		check(failures, "parse.iso", () -> rosemaryDateTimeParser.parse("2008-03-05 07:02:10"));
+		check(failures, "parse.isoT", () -> rosemaryDateTimeParser.parse("2008-03-05T07:02:10.789+00:00"));
+		check(failures, "parse.usSlashes", () -> rosemaryDateTimeParser.parse("3/5/2008 7:02 PM"));
+		check(failures, "parse.monthName", () -> rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10"));
+		check(failures, "parse.ordinal", () -> rosemaryDateTimeParser.parse("Wednesday March Fifth 2008 7:02:13 pm"));
+		check(failures, "parse.namedZone", () -> rosemaryDateTimeParser.parse("2019-03-05 07:02:30 America/Denver"));
+		check(failures, "parse.offset", () -> rosemaryDateTimeParser.parse("2008-03-05 07:02:10 -05:00"));
+		check(failures, "parse.epoch", () -> rosemaryDateTimeParser.parse("1204675245123"));
+		assertWithinBudget(failures);
+	}
+
+	@Test
+	public void testCompiled() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final RosemaryCompiledParser usSlashes = rosemaryDateTimeParser.compileFromExample("3/5/2008 7:02 PM", RosemaryDateOrder.MM_DD_YY);
+		final RosemaryCompiledParser namedZone = rosemaryDateTimeParser.compileFromExample("March 5th 2008 7:02 pm EST", RosemaryDateOrder.MM_DD_YY);
+		final List<String> failures = new ArrayList<>();
+		check(failures, "compiled.usSlashes", () -> usSlashes.parse("6/30/2016 10:02 AM"));
+		check(failures, "compiled.namedZone", () -> namedZone.parse("June 22nd 2028 8:15 am EST"));
+		check(failures, "compiledEpochMillis.usSlashes", () -> usSlashes.parseEpochMillis("6/30/2016 10:02 AM"));
+		check(failures, "compiledEpochMillis.namedZone", () -> namedZone.parseEpochMillis("June 22nd 2028 8:15 am EST"));
+		assertWithinBudget(failures);
+	}
+
+	@Test
+	public void testFieldSink() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final long[] sum = new long[1];
+		final RosemaryFieldSink sink = (year, month, day, hour, minute, second, nanosecond, offsetSeconds) -> sum[0] += year + month + day + hour + minute + second + nanosecond + offsetSeconds;
+		final List<String> failures = new ArrayList<>();
+		check(failures, "fieldSink.iso", () -> {
+			rosemaryDateTimeParser.parse("2008-03-05 07:02:10", sink);
+			return sum[0];
+		});
+		check(failures, "fieldSink.isoT", () -> {
+			rosemaryDateTimeParser.parse("2008-03-05T07:02:10.789+00:00", sink);
+			return sum[0];
+		});
+		check(failures, "fieldSink.usSlashes", () -> {
+			rosemaryDateTimeParser.parse("3/5/2008 7:02 PM", sink);
+			return sum[0];
+		});
+		check(failures, "fieldSink.namedZone", () -> {
+			rosemaryDateTimeParser.parse("2019-03-05 07:02:30 America/Denver", sink);
+			return sum[0];
+		});
+		assertWithinBudget(failures);
+	}
+
+	@Test
+	public void testParseLocal() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> failures = new ArrayList<>();
+		check(failures, "parseLocalDate.usSlashes", () -> rosemaryDateTimeParser.parseLocalDate("3/5/2008 7:02 PM"));
+		check(failures, "parseLocalDate.namedZone", () -> rosemaryDateTimeParser.parseLocalDate("2019-03-05 07:02:30 America/Denver"));
+		check(failures, "parseLocalTime.usSlashes", () -> rosemaryDateTimeParser.parseLocalTime("3/5/2008 7:02 PM"));
+		check(failures, "parseLocalDateTime.namedZone", () -> rosemaryDateTimeParser.parseLocalDateTime("2019-03-05 07:02:30 America/Denver"));
+		check(failures, "parseInstant.namedZone", () -> rosemaryDateTimeParser.parseInstant("2019-03-05 07:02:30 America/Denver"));
+		assertWithinBudget(failures);
+	}
+
+	@Test
+	public void testNormalize() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final StringBuilder out = new StringBuilder();
+		final List<String> failures = new ArrayList<>();
+		check(failures, "normalize.iso", () -> {
+			out.setLength(0);
+			return (long) rosemaryDateTimeParser.normalize("2008-03-05 07:02:10", RosemaryDateOrder.MM_DD_YY, out, null);
+		});
+		check(failures, "normalize.isoTUtc", () -> {
+			out.setLength(0);
+			return (long) rosemaryDateTimeParser.normalize("2008-03-05T07:02:10.789-05:00", RosemaryDateOrder.MM_DD_YY, out, ZoneOffset.UTC);
+		});
+		assertWithinBudget(failures);
+	}
+
+	@Test
+	public void testParseWithPattern() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> failures = new ArrayList<>();
+		check(failures, "parsePattern.format", () -> rosemaryDateTimeParser.parse("2008-03-05 07:02:10 -0500", "yyyy-MM-dd HH:mm:ss Z"));
+		check(failures, "parsePattern.formats", () -> rosemaryDateTimeParser.parse("05.03.2008 07:02", List.of("yyyy-MM-dd HH:mm", "dd.MM.yyyy HH:mm")));
+		assertWithinBudget(failures);
+	}
+
+	@Test
+	public void testFailures() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> failures = new ArrayList<>();
+		check(failures, "fail.word", () -> parseOrFail(rosemaryDateTimeParser, "N/A"));
+		check(failures, "fail.badDate", () -> parseOrFail(rosemaryDateTimeParser, "2008-02-31"));
+		check(failures, "fail.sentence", () -> parseOrFail(rosemaryDateTimeParser, "not a date time"));
+		assertWithinBudget(failures);
+	}
+
+	private static Object parseOrFail(RosemaryDateTimeParser rosemaryDateTimeParser, String str) {
+		try {
+			return rosemaryDateTimeParser.parse(str);
+		} catch (RosemaryDateTimeException e) {
+			return e;
+		}
+	}
+
+	private static void check(List<String> failures, String key, Call call) {
+		final String budget = budgets.getProperty(key);
+		final boolean report = Boolean.getBoolean("rosemary.allocation.report");
+		final long bytesPerCall = measure(call, budget == null || report ? -1L : Long.parseLong(budget.trim()));
+		if (report) {
+			System.out.println(key + "=" + bytesPerCall);
+		}
+
+		if (budget == null) {
+			failures.add(key + " has no budget, measured " + bytesPerCall + " bytes per call");
+		} else if (bytesPerCall > Long.parseLong(budget.trim())) {
+			failures.add(key + " allocated " + bytesPerCall + " bytes per call, over its budget of " + budget.trim());
+		}
+	}
+
+	/**
+	 * @param budget keep measuring past the usual rounds while over this many bytes per call, or -1 not to
+	 */
+	private static long measure(Call call, long budget) {
+		final long threadId = Thread.currentThread().getId();
+		Object sink = null;
+		try {
+			for (int i = 0; i < WARMUP_CALLS; i++) {
+				sink = call.run();
+			}
+			long smallest = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS || (round < MAXIMUM_ROUNDS && budget >= 0 && smallest / CALLS_PER_ROUND > budget); round++) {
+				final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+				for (int i = 0; i < CALLS_PER_ROUND; i++) {
+					sink = call.run();
+				}
+				final long after = threadMXBean.getThreadAllocatedBytes(threadId);
+				smallest = Math.min(smallest, after - before);
+			}
+			assertTrue(sink instanceof Temporal || sink instanceof Long || sink instanceof RosemaryDateTimeException);
+			return smallest / CALLS_PER_ROUND;
+		} catch (Exception e) {
+			throw new AssertionError("Unexpected failure measuring allocation", e);
+		}
+	}
+
+	private static void assertWithinBudget(List<String> failures) {
+		assertTrue(String.join("\n", failures), failures.isEmpty());
+	}
+}
@@ -0,0 +1,174 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryDateTimeParser#compileFromExample(String, RosemaryDateOrder)}.
+ */
+public class RosemaryCompiledParserTest {
+
+	private static final String[] EXAMPLES = {
+		"March 5th 2008 7:02 pm EST",
+		"Wednesday March Fifth 2008 7:02:13 pm",
+		"22nd of June 2028 at 8am",
+		"2019-03-05 07:02:30 America/Denver",
+		"03-05 2008 7:02:10 -05:00",
+		"2018-04-03 09:59:00 CST",
+		"2010-03-05 07:02:04.488 AKDT",
+		"6/30/2016 10:02:27.654 AM(UTC-4)",
+		"01-02-03 04:05",
+		"3/5/24",
+		"March 05 1988",
+		"Mar 5, 2008 -0500",
+		"2008-03-05T07:02:10.488-05:00"
+	};
+
+	@Test
+	public void testExamples() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final RosemaryCompiledParser compiled = rosemaryDateTimeParser.compileFromExample("March 5th 2008 7:02 pm EST", RosemaryDateOrder.MM_DD_YY);
+		assertEquals("March 5th 2008 7:02 pm EST", compiled.getExample());
+		assertEquals(RosemaryDateOrder.MM_DD_YY, compiled.getDateOrder());
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 19, 2, 0, 0, ZoneOffset.ofHours(-5)), compiled.parse("March 5th 2008 7:02 pm EST"));
+		assertEquals(OffsetDateTime.of(2028, 6, 22, 8, 15, 0, 0, ZoneOffset.ofHours(-5)), compiled.parse("June 22nd 2028 8:15 am CST"));
+		assertEquals(OffsetDateTime.of(2028, 6, 22, 8, 15, 0, 0, ZoneOffset.ofHours(-4)).toInstant().toEpochMilli(), compiled.parseEpochMillis("june 22nd 2028 8:15 AM est"));
+
+		for (final String example : EXAMPLES) {
+			for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+				final RosemaryCompiledParser compiledExample = compile(rosemaryDateTimeParser, example, order);
+				if (compiledExample == null) {
+					continue;
+				}
+				assertEquals(example, rosemaryDateTimeParser.parse(example, order), compiledExample.parse(example));
+				assertEquals(example, rosemaryDateTimeParser.parse(example, order).toInstant().toEpochMilli(), compiledExample.parseEpochMillis(example));
+				assertTrue(example, compiledExample.matches(example));
+			}
+		}
+	}
+
+	@Test
+	public void testMismatch() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final RosemaryCompiledParser compiled = rosemaryDateTimeParser.compileFromExample("3/5/2008 7:02 pm", RosemaryDateOrder.MM_DD_YY);
+		assertEquals(OffsetDateTime.of(2016, 6, 30, 10, 2, 0, 0, ZoneOffset.UTC), compiled.parse("6/30/2016 10:02 am"));
+		for (final String datetime : new String[] {"3/5/2008 7:02", "3/5/2008 7:02 pm EST", "March 5 2008 7:02 pm", "2008-03-05 19:02", "13/5/2008 7:02 pm", "3/5/20080 7:02 pm"}) {
+			assertFalse(datetime, compiled.matches(datetime));
+			try {
+				compiled.parse(datetime);
+				fail(datetime + " doesn't have the layout of the example");
+			} catch (RosemaryDateTimeException e) {
+				assertEquals(datetime, RosemaryFailureReason.LAYOUT_MISMATCH, e.getReason());
+				assertNotNull(e.getToken());
+			}
+		}
+
+		// in the layout, but not a datetime
+		try {
+			compiled.parse("3/5/2008 7:99 pm");
+			fail("The minute is out of range");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.OUT_OF_RANGE, e.getReason());
+		}
+		assertTrue(compiled.matches("3/5/2008 7:99 pm"));
+
+		final RosemaryCompiledParser iso = rosemaryDateTimeParser.compileFromExample("2008-03-05T07:02:10Z", RosemaryDateOrder.MM_DD_YY);
+		assertEquals(OffsetDateTime.of(2016, 6, 30, 10, 2, 0, 0, ZoneOffset.ofHours(2)), iso.parse("2016-06-30T10:02:00+02:00"));
+		assertFalse(iso.matches("6/30/2016 10:02 am"));
+	}
+
+	@Test
+	public void testCantCompile() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		for (final String example : new String[] {"1991", "1204675245123", "7:02 pm", "20080305 7:02"}) {
+			try {
+				rosemaryDateTimeParser.compileFromExample(example, RosemaryDateOrder.YY_MM_DD);
+				fail(example + " can't be compiled");
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+		try {
+			rosemaryDateTimeParser.compileFromExample("March 35 2008", RosemaryDateOrder.MM_DD_YY);
+			fail("The example must parse");
+		} catch (RosemaryDateTimeException e) {
+			assertNotNull(e.getReason());
+		}
+	}
+
+	/**
+	 * Compile an example, if it is a datetime in the order.
+	 */
+	private static RosemaryCompiledParser compile(RosemaryDateTimeParser rosemaryDateTimeParser, String example, RosemaryDateOrder order) {
+		try {
+			return rosemaryDateTimeParser.compileFromExample(example, order);
+		} catch (RosemaryDateTimeException e) {
+			return null;
+		}
+	}
+
+	@Test
+	public void testSameAsEngine() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> inputs = new RosemaryInputFuzzer(3L).mutate(List.of(EXAMPLES), 3_000);
+
+		// and the examples with other values, which mostly keep their layout
+		final Random random = new Random(3L);
+		final String[] words = {"May", "sep", "DECEMBER", "Friday", "am", "PM", "PST", "Europe/London", "Asia/Kolkata", "UTC", "3rd", "Twentieth"};
+		for (final String example : EXAMPLES) {
+			for (int i = 0; i < 500; i++) {
+				final StringBuilder variant = new StringBuilder();
+				for (final String part : example.split("(?<=[ /:.,-])|(?=[ /:.,-])")) {
+					if (random.nextInt(4) == 0 && part.length() > 1 && Character.isLetter(part.charAt(0))) {
+						variant.append(words[random.nextInt(words.length)]);
+					} else {
+						for (final char c : part.toCharArray()) {
+							variant.append(Character.isDigit(c) && random.nextBoolean() ? (char) ('0' + random.nextInt(10)) : c);
+						}
+					}
+				}
+				inputs.add(variant.toString());
+			}
+		}
+
+		final List<String> differences = new ArrayList<>();
+		for (final String example : EXAMPLES) {
+			for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+				final RosemaryCompiledParser compiled = compile(rosemaryDateTimeParser, example, order);
+				if (compiled == null) {
+					continue;
+				}
+				for (final String input : inputs) {
+					OffsetDateTime expected = null;
+					try {
+						expected = rosemaryDateTimeParser.parse(input, order);
+					} catch (RosemaryDateTimeException e) {
+						// compared below
+					}
+					try {
+						final OffsetDateTime actual = compiled.parse(input);
+						if (!actual.equals(expected) || actual.toInstant().toEpochMilli() != compiled.parseEpochMillis(input)) {
+							differences.add(example + " " + order + ": " + input + " is " + actual + ", expected " + expected);
+						}
+					} catch (RosemaryDateTimeException e) {
+						if (e.getReason() != RosemaryFailureReason.LAYOUT_MISMATCH && expected != null) {
+							differences.add(example + " " + order + ": " + input + " failed with " + e.getReason() + ", expected " + expected);
+						}
+					}
+				}
+			}
+		}
+		assertTrue(differences.size() + " differences, like " + differences.subList(0, Math.min(20, differences.size())), differences.isEmpty());
+	}
+}
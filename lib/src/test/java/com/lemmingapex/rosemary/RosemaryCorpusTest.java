@@ -0,0 +1,71 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the parser against a generated corpus.  By default a fresh corpus is generated; set <code>rosemary.corpus.file</code> to check a corpus file instead, or <code>rosemary.corpus.size</code> and <code>rosemary.corpus.seed</code> to change the generated corpus.
+ */
+public class RosemaryCorpusTest {
+
+	private static final int MAXIMUM_REPORTED = 20;
+
+	@Test
+	public void testCorpus() throws IOException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> mismatches = new ArrayList<>();
+		final int[] checked = { 0 };
+		final Consumer<RosemaryCorpusEntry> check = entry -> {
+			checked[0]++;
+			Object actual;
+			try {
+				actual = rosemaryDateTimeParser.parse(entry.getInput(), entry.getOrder());
+			} catch (RosemaryDateTimeException e) {
+				actual = null;
+			}
+			if (!Objects.equals(entry.getExpected(), actual)) {
+				mismatches.add(entry + " but was " + actual);
+			}
+		};
+
+		final String file = System.getProperty("rosemary.corpus.file");
+		if (file != null) {
+			RosemaryCorpusFile.forEach(Path.of(file), check);
+		} else {
+			final RosemaryCorpusGenerator generator = new RosemaryCorpusGenerator(Long.getLong("rosemary.corpus.seed", 42L));
+			final int size = Integer.getInteger("rosemary.corpus.size", 20_000);
+			for (int i = 0; i < size; i++) {
+				check.accept(generator.next());
+			}
+		}
+
+		assertTrue(checked[0] > 0);
+		assertEquals(mismatches.size() + " of " + checked[0] + " mismatched, including:\n" + String.join("\n", mismatches.subList(0, Math.min(MAXIMUM_REPORTED, mismatches.size()))), 0, mismatches.size());
+	}
+
+	@Test
+	public void testGeneratorIsDeterministic() {
+		assertEquals(new RosemaryCorpusGenerator(7L).next(1000), new RosemaryCorpusGenerator(7L).next(1000));
+	}
+
+	@Test
+	public void testFileRoundTrip() throws IOException {
+		final Path file = Files.createTempFile("rosemary-corpus", ".tsv.gz");
+		try {
+			RosemaryCorpusFile.write(file, new RosemaryCorpusGenerator(7L), 1000);
+			assertEquals(new RosemaryCorpusGenerator(7L).next(1000), RosemaryCorpusFile.read(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
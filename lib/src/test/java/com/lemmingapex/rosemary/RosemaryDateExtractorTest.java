@@ -0,0 +1,98 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link RosemaryDateExtractor}.
+ */
+public class RosemaryDateExtractorTest {
+
+	@Test
+	public void testExtractFromSentence() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		final String text = "connection lost, retry at March 5th 2008 7:02 pm after backoff";
+		final List<RosemaryDateTimeMatch> matches = rosemaryDateExtractor.extract(text);
+		assertEquals(1, matches.size());
+		assertEquals("March 5th 2008 7:02 pm", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+		assertEquals(OffsetDateTime.parse("2008-03-05T19:02:00.000+00:00"), matches.get(0).getDateTime());
+	}
+
+	@Test
+	public void testExtractSeveral() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		final String text = "[2019-03-05 07:02:30 America/Denver] job 12345 started, next run 6/30/2016 10:02:27.654 AM(UTC-4).\n"
+			+ "ticket opened Fri, 05 Jan 2024 17:22:26 -0700 and closed on 2018-10-23T22:21:19.913Z";
+		final List<RosemaryDateTimeMatch> matches = rosemaryDateExtractor.extract(text);
+		assertEquals(4, matches.size());
+		assertEquals("2019-03-05 07:02:30 America/Denver", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+		assertEquals(OffsetDateTime.parse("2019-03-05T07:02:30.000-07:00"), matches.get(0).getDateTime());
+		assertEquals("6/30/2016 10:02:27.654 AM(UTC-4", text.substring(matches.get(1).getStart(), matches.get(1).getEnd()));
+		assertEquals(OffsetDateTime.parse("2016-06-30T10:02:27.654-04:00"), matches.get(1).getDateTime());
+		assertEquals("Fri, 05 Jan 2024 17:22:26 -0700", text.substring(matches.get(2).getStart(), matches.get(2).getEnd()));
+		assertEquals(OffsetDateTime.parse("2024-01-06T00:22:26.000+00:00"), matches.get(2).getDateTime().withOffsetSameInstant(ZoneOffset.UTC));
+		assertEquals("2018-10-23T22:21:19.913Z", text.substring(matches.get(3).getStart(), matches.get(3).getEnd()));
+		assertEquals(OffsetDateTime.parse("2018-10-23T22:21:19.913+00:00"), matches.get(3).getDateTime());
+	}
+
+	@Test
+	public void testExtractIsoWithOffset() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		final String text = "deployed 2008-03-05T07:02:00-10:00 by ops";
+		final List<RosemaryDateTimeMatch> matches = rosemaryDateExtractor.extract(text);
+		assertEquals(1, matches.size());
+		assertEquals("2008-03-05T07:02:00-10:00", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:00.000-10:00"), matches.get(0).getDateTime());
+	}
+
+	@Test
+	public void testNumericDates() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		final String text = "due 3/5/08, billed since 2008-03 and paid 10/12 of them";
+		final List<RosemaryDateTimeMatch> matches = rosemaryDateExtractor.extract(text);
+		assertEquals(2, matches.size());
+		assertEquals("3/5/08", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+		assertEquals(OffsetDateTime.parse("2008-03-05T00:00:00.000+00:00"), matches.get(0).getDateTime());
+		assertEquals("2008-03", text.substring(matches.get(1).getStart(), matches.get(1).getEnd()));
+	}
+
+	@Test
+	public void testDenseDates() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		final String text = "March 1 2008 March 2 2008 3/5/2008 3/6/2008";
+		final List<RosemaryDateTimeMatch> matches = rosemaryDateExtractor.extract(text);
+		assertEquals(4, matches.size());
+		assertEquals(OffsetDateTime.parse("2008-03-01T00:00:00.000+00:00"), matches.get(0).getDateTime());
+		assertEquals(OffsetDateTime.parse("2008-03-02T00:00:00.000+00:00"), matches.get(1).getDateTime());
+		assertEquals("3/5/2008", text.substring(matches.get(2).getStart(), matches.get(2).getEnd()));
+		assertEquals(OffsetDateTime.parse("2008-03-06T00:00:00.000+00:00"), matches.get(3).getDateTime());
+	}
+
+	@Test
+	public void testTextAfterDateAndTime() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		final String text = "2024-01-15 10:23:45 3 workers started\n2024-01-15 10:23:46 200 GET /index.html";
+		final List<RosemaryDateTimeMatch> matches = rosemaryDateExtractor.extract(text);
+		assertEquals(2, matches.size());
+		assertEquals("2024-01-15 10:23:45", text.substring(matches.get(0).getStart(), matches.get(0).getEnd()));
+		assertEquals(OffsetDateTime.parse("2024-01-15T10:23:45.000+00:00"), matches.get(0).getDateTime());
+		assertEquals("2024-01-15 10:23:46", text.substring(matches.get(1).getStart(), matches.get(1).getEnd()));
+		assertEquals(OffsetDateTime.parse("2024-01-15T10:23:46.000+00:00"), matches.get(1).getDateTime());
+	}
+
+	@Test
+	public void testIgnoresWordsAndNumbers() {
+		final RosemaryDateExtractor rosemaryDateExtractor = new RosemaryDateExtractor();
+		assertTrue(rosemaryDateExtractor.extract("you may retry 3 times, decide after the 1st attempt").isEmpty());
+		assertTrue(rosemaryDateExtractor.extract("version 1.2.3 on host 10.0.0.1, request id 1204675245123").isEmpty());
+		assertTrue(rosemaryDateExtractor.extract("took 3-5 retries, ticket 10/12 closed, add 1/2 cup, see pages 10-12").isEmpty());
+		assertTrue(rosemaryDateExtractor.extract("").isEmpty());
+		assertTrue(rosemaryDateExtractor.extract(null).isEmpty());
+	}
+}
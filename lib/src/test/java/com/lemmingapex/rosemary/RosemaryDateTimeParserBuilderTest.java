@@ -0,0 +1,183 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryDateTimeParser#builder()}.
+ */
+public class RosemaryDateTimeParserBuilderTest {
+
+	private static final String[] DATETIMES = {
+		"2008-03-05T07:02:10.488-05:00",
+		"2008-03-05 07:02:10",
+		"Wednesday March Fifth 2008 7:02:13 pm",
+		"22nd of June 2028 at 8am",
+		"2019-03-05 07:02:30 America/Denver",
+		"03-05 2008 7:02:10 -05:00",
+		"2018-04-03 09:59:00 CST",
+		"6/30/2016 10:02:27.654 AM(UTC-4)",
+		"1204675245123"
+	};
+
+	@Test
+	public void testDefaults() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser built = RosemaryDateTimeParser.builder().build();
+		final RosemaryDateTimeParser constructed = new RosemaryDateTimeParser();
+		assertEquals(constructed.getStages(), built.getStages());
+		assertEquals(EnumSet.of(RosemaryParseStage.ISO_SCANNER, RosemaryParseStage.EPOCH_MILLIS, RosemaryParseStage.WORDS, RosemaryParseStage.NAMED_ZONES, RosemaryParseStage.NUMERIC_OFFSETS), built.getStages());
+		for (final String datetime : DATETIMES) {
+			assertEquals(datetime, constructed.parse(datetime), built.parse(datetime));
+		}
+	}
+
+	@Test
+	public void testMinimal() throws RosemaryDateTimeException {
+		final AtomicInteger provided = new AtomicInteger();
+		final RosemaryDateTimeParser minimal = RosemaryDateTimeParser.builder()
+				.stages(EnumSet.of(RosemaryParseStage.ISO_SCANNER))
+				.timeZoneProvider(() -> {
+					provided.incrementAndGet();
+					return TimeZoneUtils.getTimezoneNameToTimezoneMap();
+				})
+				.build();
+		assertEquals(0, provided.get());
+		assertEquals(0, minimal.getTimeZoneCount());
+		assertEquals(EnumSet.of(RosemaryParseStage.ISO_SCANNER), minimal.getStages());
+
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 488000000, ZoneOffset.ofHours(-5)), minimal.parse("2008-03-05T07:02:10.488-05:00"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.UTC), minimal.parse("2008-03-05 07:02:10"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 19, 2, 13, 0, ZoneOffset.UTC), minimal.parse("March 5 2008 7:02:13 pm"));
+		assertTrue(minimal.parseAll(List.of("2008-03-05T07:02:10Z"), RosemaryDateOrder.MM_DD_YY).get(0).isSuccess());
+
+		// words and named zones are skipped like any unknown word
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.UTC), minimal.parse("Wednesday 2008-03-05 07:02:10 EST"));
+		assertEquals(OffsetDateTime.of(2008, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC), minimal.parse("March Fifth 2008"));
+	}
+
+	@Test
+	public void testNumericOffsets() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser withoutOffsets = RosemaryDateTimeParser.builder().disable(RosemaryParseStage.NUMERIC_OFFSETS).build();
+		assertFalse(withoutOffsets.getStages().contains(RosemaryParseStage.NUMERIC_OFFSETS));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.ofHours(-5)), withoutOffsets.parse("2008-03-05T07:02:10-05:00"));
+		assertEquals(OffsetDateTime.of(2018, 4, 3, 9, 59, 0, 0, ZoneOffset.ofHours(-5)), withoutOffsets.parse("2018-04-03 09:59:00 CDT"));
+		for (final String datetime : new String[] {"2008-03-05 07:02:10 -05:00", "March 5, 2008 -0500"}) {
+			try {
+				withoutOffsets.parse(datetime);
+				fail(datetime + " has an offset that is not read");
+			} catch (RosemaryDateTimeException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testStagesOfEveryMethod() throws RosemaryDateTimeException {
+		final String separateOffset = "2008-03-05 07:02:10 -05:00";
+		for (final RosemaryDateTimeParser parser : List.of(RosemaryDateTimeParser.builder().stages(EnumSet.of(RosemaryParseStage.ISO_SCANNER)).build(), RosemaryDateTimeParser.builder().disable(RosemaryParseStage.NUMERIC_OFFSETS).build())) {
+			assertFalse(parser.parseAll(List.of(separateOffset), RosemaryDateOrder.MM_DD_YY).get(0).isSuccess());
+			final byte[] data = separateOffset.getBytes(StandardCharsets.US_ASCII);
+			assertEquals(0, parser.parseColumn(data, new int[] {0, data.length}, 1, RosemaryDateOrder.MM_DD_YY, new long[1], new int[1], new byte[1]));
+			for (final Parse parse : List.<Parse>of(
+					() -> parser.parse(separateOffset),
+					() -> parser.parseInstant(separateOffset),
+					() -> parser.parseLocalDateTime(separateOffset),
+					() -> parser.parse(separateOffset, (year, month, day, hour, minute, second, nanosecond, offsetSeconds) -> fail()),
+					() -> parser.normalize(separateOffset, RosemaryDateOrder.MM_DD_YY, new StringBuilder(), null))) {
+				try {
+					parse.run();
+					fail(separateOffset + " has an offset that is not read");
+				} catch (RosemaryDateTimeException e) {
+					assertNotNull(e.getMessage());
+				}
+			}
+		}
+
+		// the scanner reads what the engine reads, a little sooner
+		final RosemaryDateTimeParser parser = new RosemaryDateTimeParser();
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics();
+		parser.setMetrics(metrics);
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.ofHours(-5)), parser.parse(separateOffset));
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.ISO_SCANNER));
+		parser.setFastPathEnabled(RosemaryParsePath.ISO_SCANNER, false);
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.ofHours(-5)), parser.parse(separateOffset));
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.ISO_SCANNER));
+	}
+
+	@Test
+	public void testEpochMillis() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser withoutEpoch = RosemaryDateTimeParser.builder().disable(RosemaryParseStage.EPOCH_MILLIS).build();
+		assertEquals(OffsetDateTime.of(1991, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), withoutEpoch.parse("1991"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 0, 0, 0, 0, ZoneOffset.UTC), withoutEpoch.parse("03052008"));
+		try {
+			withoutEpoch.parse("1204675245123");
+			fail("Epoch milliseconds are not read without the epoch stage");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.UNASSIGNABLE_VALUE, e.getReason());
+		}
+	}
+
+	@Test
+	public void testCache() throws RosemaryDateTimeException {
+		final RosemaryParseCache parseCache = new RosemaryParseCache(16);
+		final RosemaryDateTimeParser cached = RosemaryDateTimeParser.builder().parseCache(parseCache).build();
+		assertTrue(cached.getStages().contains(RosemaryParseStage.CACHE));
+		cached.parse("March 5 2008 7:02:10 PM");
+		cached.parse("March 5 2008 7:02:10 PM");
+		assertEquals(1, parseCache.getHitCount());
+
+		try {
+			RosemaryDateTimeParser.builder().enable(RosemaryParseStage.CACHE).build();
+			fail("The cache stage needs a cache");
+		} catch (IllegalStateException e) {
+			assertNotNull(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testSwitches() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser built = RosemaryDateTimeParser.builder().disable(RosemaryParseStage.WORDS).enable(RosemaryParseStage.JAVA_TIME_FALLBACK).parseCache(new RosemaryParseCache(16)).build();
+		assertTrue(built.isJavaTimeFallbackEnabled());
+
+		// the fast paths and the fallback only change how a datetime is parsed, so they can be switched on a built parser
+		built.setJavaTimeFallbackEnabled(false);
+		built.setFastPathEnabled(RosemaryParsePath.ISO_SCANNER, false);
+		built.setFastPathEnabled(RosemaryParsePath.CACHE, false);
+		assertFalse(built.isJavaTimeFallbackEnabled());
+		assertEquals(EnumSet.of(RosemaryParseStage.EPOCH_MILLIS, RosemaryParseStage.NAMED_ZONES, RosemaryParseStage.NUMERIC_OFFSETS), built.getStages());
+
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics();
+		built.setMetrics(metrics);
+		built.parse("2008-03-05 07:02:10");
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.ENGINE));
+
+		built.setFastPathEnabled(RosemaryParsePath.ISO_SCANNER, true);
+		built.setFastPathEnabled(RosemaryParsePath.CACHE, true);
+		built.parse("2008-03-05 07:02:10");
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.ISO_SCANNER));
+		assertEquals(EnumSet.of(RosemaryParseStage.ISO_SCANNER, RosemaryParseStage.EPOCH_MILLIS, RosemaryParseStage.NAMED_ZONES, RosemaryParseStage.NUMERIC_OFFSETS, RosemaryParseStage.CACHE), built.getStages());
+
+		// the stages that decide what is read stay as built
+		assertEquals(OffsetDateTime.of(2008, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC), built.parse("March Fifth 2008"));
+	}
+
+	/**
+	 * A parse that is expected to fail.
+	 */
+	private interface Parse {
+		void run() throws RosemaryDateTimeException;
+	}
+}
@@ -0,0 +1,135 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryDateTimeParserManagement}.
+ */
+public class RosemaryDateTimeParserManagementTest {
+
+	@Test
+	public void testAttributes() throws JMException, RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(1000));
+		final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = RosemaryDateTimeParserManagement.register(rosemaryDateTimeParser, "testAttributes");
+		try {
+			assertEquals(TimeZoneUtils.getTimezoneNameToTimezoneMap().size(), mBeanServer.getAttribute(objectName, "TimeZoneCount"));
+			assertTrue((Double) mBeanServer.getAttribute(objectName, "TimeZoneLoadMillis") >= 0.0);
+			assertEquals(RosemaryDateTimeParser.DEFAULT_MAXIMUM_INPUT_LENGTH, mBeanServer.getAttribute(objectName, "MaximumInputLength"));
+			assertEquals(false, mBeanServer.getAttribute(objectName, "MetricsEnabled"));
+
+			mBeanServer.setAttribute(objectName, new Attribute("MetricsEnabled", true));
+			for (int i = 0; i < 10; i++) {
+				rosemaryDateTimeParser.parse("3/5/2008 7:02:1" + i);
+			}
+			rosemaryDateTimeParser.parse("3/5/2008 7:02:10");
+			rosemaryDateTimeParser.parse("2008-03-05T07:02:10Z");
+
+			assertEquals(10, mBeanServer.getAttribute(objectName, "CacheSize"));
+			assertEquals(1.0 / 11.0, (Double) mBeanServer.getAttribute(objectName, "CacheHitRate"), 1e-9);
+			assertEquals(12L, mBeanServer.getAttribute(objectName, "ParseCount"));
+			assertEquals(0.0, (Double) mBeanServer.getAttribute(objectName, "FallbackRate"), 0.0);
+			assertEquals(0.0, (Double) mBeanServer.getAttribute(objectName, "FailureRate"), 0.0);
+			final TabularData pathCounts = (TabularData) mBeanServer.getAttribute(objectName, "PathCounts");
+			assertEquals(10L, pathCounts.get(new Object[] {"engine.success"}).get("value"));
+			assertEquals(1L, pathCounts.get(new Object[] {"cache.success"}).get("value"));
+			assertEquals(1L, pathCounts.get(new Object[] {"iso_scanner.success"}).get("value"));
+			final CompositeData latency = ((TabularData) mBeanServer.getAttribute(objectName, "LatencyMicros")).get(new Object[] {"engine.p99"});
+			assertTrue((Double) latency.get("value") >= 0.0);
+
+			assertEquals(false, mBeanServer.getAttribute(objectName, "JavaTimeFallbackEnabled"));
+			mBeanServer.setAttribute(objectName, new Attribute("JavaTimeFallbackEnabled", true));
+			assertTrue(rosemaryDateTimeParser.isJavaTimeFallbackEnabled());
+
+			mBeanServer.setAttribute(objectName, new Attribute("CacheMaximumSize", 4));
+			assertEquals(4, mBeanServer.getAttribute(objectName, "CacheMaximumSize"));
+			assertTrue((Integer) mBeanServer.getAttribute(objectName, "CacheSize") <= 4);
+
+			mBeanServer.invoke(objectName, "resetMetrics", null, null);
+			assertEquals(0L, mBeanServer.getAttribute(objectName, "ParseCount"));
+			mBeanServer.invoke(objectName, "clearCache", null, null);
+			assertEquals(0, mBeanServer.getAttribute(objectName, "CacheSize"));
+		} finally {
+			RosemaryDateTimeParserManagement.unregister("testAttributes");
+		}
+		assertFalse(mBeanServer.isRegistered(objectName));
+	}
+
+	@Test
+	public void testFastPaths() throws JMException, RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(1000));
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics();
+		rosemaryDateTimeParser.setMetrics(metrics);
+		final RosemaryDateTimeParserManagement management = new RosemaryDateTimeParserManagement(rosemaryDateTimeParser);
+		final List<String> inputs = List.of("2008-03-05T07:02:10Z", "2008-03-05T07:02:10.488-05:00", "March 5th, 2008");
+		final List<RosemaryParseResult> expected = rosemaryDateTimeParser.parseAll(inputs, RosemaryDateOrder.MM_DD_YY);
+		assertEquals(2, metrics.getSuccessCount(RosemaryParsePath.ISO_SCANNER));
+
+		management.setIsoScannerEnabled(false);
+		management.setCacheEnabled(false);
+		assertFalse(rosemaryDateTimeParser.isFastPathEnabled(RosemaryParsePath.ISO_SCANNER));
+		metrics.reset();
+		final List<RosemaryParseResult> results = rosemaryDateTimeParser.parseAll(inputs, RosemaryDateOrder.MM_DD_YY);
+		for (int i = 0; i < inputs.size(); i++) {
+			assertEquals(expected.get(i).getDateTime(), results.get(i).getDateTime());
+		}
+		assertEquals(0, metrics.getSuccessCount(RosemaryParsePath.ISO_SCANNER));
+		assertEquals(0, metrics.getSuccessCount(RosemaryParsePath.CACHE));
+		final long misses = rosemaryDateTimeParser.getParseCache().getMissCount();
+		rosemaryDateTimeParser.parse("March 5th, 2008");
+		assertEquals(misses, rosemaryDateTimeParser.getParseCache().getMissCount());
+
+		management.setCacheEnabled(true);
+		rosemaryDateTimeParser.parse("March 5th, 2008");
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.CACHE));
+
+		management.setMetricsEnabled(false);
+		assertNull(rosemaryDateTimeParser.getMetrics());
+		assertEquals(0, management.getParseCount());
+	}
+
+	@Test
+	public void testBuiltParser() throws JMException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = RosemaryDateTimeParser.builder().parseCache(new RosemaryParseCache(1000)).build();
+		final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName objectName = RosemaryDateTimeParserManagement.register(rosemaryDateTimeParser, "testBuiltParser");
+		try {
+			for (final String attribute : new String[] {"CacheEnabled", "IsoScannerEnabled", "JavaTimeFallbackEnabled"}) {
+				final boolean enabled = (Boolean) mBeanServer.getAttribute(objectName, attribute);
+				mBeanServer.setAttribute(objectName, new Attribute(attribute, !enabled));
+				assertEquals(attribute, !enabled, mBeanServer.getAttribute(objectName, attribute));
+			}
+			assertFalse(rosemaryDateTimeParser.isFastPathEnabled(RosemaryParsePath.CACHE));
+			assertFalse(rosemaryDateTimeParser.isFastPathEnabled(RosemaryParsePath.ISO_SCANNER));
+			assertTrue(rosemaryDateTimeParser.isJavaTimeFallbackEnabled());
+		} finally {
+			RosemaryDateTimeParserManagement.unregister("testBuiltParser");
+		}
+	}
+
+	@Test
+	public void testNotAFastPath() {
+		try {
+			new RosemaryDateTimeParser().setFastPathEnabled(RosemaryParsePath.ENGINE, false);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals("Not a fast path: ENGINE", e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks every {@link RosemaryFastPath} against the reference engine with {@link RosemaryDifferentialHarness}.  Set <code>rosemary.differential.size</code> and <code>rosemary.differential.seed</code> to check more inputs.
+ */
+public class RosemaryDifferentialTest {
+
+	private static final int MAXIMUM_REPORTED = 20;
+
+	@Test
+	public void testGeneratedAndFuzzedInputs() {
+		final int size = Integer.getInteger("rosemary.differential.size", 5_000);
+		final long seed = Long.getLong("rosemary.differential.seed", 42L);
+		final RosemaryDifferentialHarness harness = new RosemaryDifferentialHarness();
+
+		final List<RosemaryCorpusEntry> entries = new RosemaryCorpusGenerator(seed).next(size);
+		final RosemaryInputFuzzer fuzzer = new RosemaryInputFuzzer(seed);
+		final List<RosemaryCorpusEntry> fuzzed = new ArrayList<>(size);
+		for (final RosemaryCorpusEntry entry : entries) {
+			fuzzed.add(new RosemaryCorpusEntry(entry.getForm(), entry.getOrder(), fuzzer.mutate(entry.getInput()), null));
+		}
+
+		final List<RosemaryDifference> differences = new ArrayList<>(harness.compare(entries));
+		differences.addAll(harness.compare(fuzzed));
+		assertDifferences(differences);
+		for (final RosemaryFastPath path : RosemaryFastPath.values()) {
+			assertEquals(2L * size, harness.getComparedCount(path));
+		}
+	}
+
+	@Test
+	public void testIsoNearMisses() {
+		final List<String> seeds = List.of("2008-03-05", "2008-03-05 07:02", "2008-03-05 07:02:10.123 -05:00", "2008-03-05T07:02:10.123456789+05:30", "2008-03-05T07:02Z", "1600-02-29T23:59:59Z");
+		final List<String> inputs = new RosemaryInputFuzzer(7L).mutate(seeds, 1_500);
+		inputs.addAll(seeds);
+		final RosemaryDifferentialHarness harness = new RosemaryDifferentialHarness();
+		for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+			assertDifferences(harness.compare(inputs, order));
+		}
+	}
+
+	@Test
+	public void testJavaTimeLayouts() throws RosemaryDateTimeException {
+		final List<String> seeds = List.of("2008-03-05t07:02:10.5z", "2008-03-05T07:02:10.123456789+05:30:15", "-0044-03-15T12:00", "+12008-03-05T07:02-18:00", "2008-12-31 07:02:10.123", "2008-03-05 24:00:00.000", "+12008-02-30 07:02:10.000");
+		final List<String> inputs = new RosemaryInputFuzzer(11L).mutate(seeds, 1_500);
+		inputs.addAll(seeds);
+		final RosemaryDifferentialHarness harness = new RosemaryDifferentialHarness(List.of(RosemaryFastPath.JAVA_TIME_FALLBACK));
+		for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+			assertDifferences(harness.compare(inputs, order));
+		}
+
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics();
+		rosemaryDateTimeParser.setMetrics(metrics);
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:10.5Z"), rosemaryDateTimeParser.parse(seeds.get(0)));
+		assertEquals(OffsetDateTime.parse("-0044-03-15T12:00Z"), rosemaryDateTimeParser.parse(seeds.get(2)));
+		assertEquals(OffsetDateTime.parse("2008-12-31T07:02:10.123Z"), rosemaryDateTimeParser.parse(seeds.get(4), RosemaryDateOrder.DD_MM_YY));
+		assertEquals(OffsetDateTime.parse("2008-03-06T00:00Z"), rosemaryDateTimeParser.parse(seeds.get(5)));
+		assertEquals(OffsetDateTime.parse("+12008-02-29T07:02:10Z"), rosemaryDateTimeParser.parse(seeds.get(6)));
+		assertEquals(5, metrics.getSuccessCount(RosemaryParsePath.ENGINE));
+	}
+
+	@Test
+	public void testIsoDateFollowsDateOrder() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> inputs = List.of("2018-10-01", "2018-10-01 07:02");
+		final OffsetDateTime[] expected = { OffsetDateTime.parse("2018-01-10T00:00Z"), OffsetDateTime.parse("2018-01-10T07:02Z") };
+		final List<RosemaryParseResult> results = rosemaryDateTimeParser.parseAll(inputs, RosemaryDateOrder.YY_DD_MM);
+		for (int i = 0; i < inputs.size(); i++) {
+			assertEquals(expected[i], rosemaryDateTimeParser.parse(inputs.get(i), RosemaryDateOrder.YY_DD_MM));
+			assertEquals(expected[i], results.get(i).getDateTime());
+		}
+	}
+
+	@Test
+	public void testOffsetOutOfRangeFails() {
+		try {
+			new RosemaryDateTimeParser().parse("2008-03-05 07:02:10 +23:00");
+			fail();
+		} catch (RosemaryDateTimeException e) {
+			assertEquals("Unable to parse: 2008-03-05 07:02:10 +23:00", e.getMessage());
+		}
+	}
+
+	private static void assertDifferences(List<RosemaryDifference> differences) {
+		assertTrue(differences.size() + " differences, including:\n" + differences.stream().limit(MAXIMUM_REPORTED).map(RosemaryDifference::toString).collect(Collectors.joining("\n")), differences.isEmpty());
+	}
+}
@@ -0,0 +1,131 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link RosemaryFailureSampler}.
+ */
+public class RosemaryFailureSamplerTest {
+
+	@Test
+	public void testSamples() throws RosemaryDateTimeException {
+		final RosemaryFailureSampler rosemaryFailureSampler = new RosemaryFailureSampler(4, 10);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(100), 64);
+		rosemaryDateTimeParser.setFailureSampler(rosemaryFailureSampler);
+
+		rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST");
+		parseQuietly(rosemaryDateTimeParser, "N/A");
+		parseQuietly(rosemaryDateTimeParser, "2008-03-05 7:xx");
+		parseQuietly(rosemaryDateTimeParser, "2008-03-05 07:02:10 +05:75");
+		parseQuietly(rosemaryDateTimeParser, "x".repeat(65));
+
+		final List<RosemaryFailureSample> samples = rosemaryFailureSampler.snapshot();
+		assertEquals(4, samples.size());
+		assertEquals("N/A", samples.get(0).getInput());
+		assertNull(samples.get(0).getToken());
+		assertEquals(RosemaryFailureReason.NO_DATETIME, samples.get(0).getReason());
+		assertEquals(RosemaryParsePath.ENGINE, samples.get(0).getPath());
+		assertEquals("7:XX", samples.get(1).getToken());
+		assertEquals(RosemaryFailureReason.BAD_TIME, samples.get(1).getReason());
+		assertEquals("2008-03-05", samples.get(2).getInput());
+		assertTrue(samples.get(2).isTruncated());
+		assertEquals(26, samples.get(2).getInputLength());
+		assertEquals("+05:75", samples.get(2).getToken());
+		assertEquals(RosemaryFailureReason.TOO_LONG, samples.get(3).getReason());
+		assertEquals(RosemaryParsePath.ENGINE, samples.get(3).getPath());
+
+		// a failure from the cache overwrites the oldest sample
+		parseQuietly(rosemaryDateTimeParser, "N/A");
+		final List<RosemaryFailureSample> wrapped = rosemaryFailureSampler.snapshot();
+		assertEquals(4, wrapped.size());
+		assertEquals("7:XX", wrapped.get(0).getToken());
+		assertEquals(RosemaryParsePath.CACHE, wrapped.get(3).getPath());
+		assertEquals(5, rosemaryFailureSampler.getFailureCount());
+		assertEquals(5, rosemaryFailureSampler.getSampleCount());
+
+		rosemaryFailureSampler.clear();
+		assertTrue(rosemaryFailureSampler.snapshot().isEmpty());
+		rosemaryDateTimeParser.setFailureSampler(null);
+		parseQuietly(rosemaryDateTimeParser, "N/A");
+		assertEquals(5, rosemaryFailureSampler.getFailureCount());
+	}
+
+	@Test
+	public void testBatches() {
+		final RosemaryFailureSampler rosemaryFailureSampler = new RosemaryFailureSampler();
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		rosemaryDateTimeParser.setFailureSampler(rosemaryFailureSampler);
+		rosemaryDateTimeParser.parseAll(List.of("2008-03-05T07:02:10Z", "N/A", "2008-03-05 25:00"), RosemaryDateOrder.MM_DD_YY);
+
+		final List<RosemaryFailureSample> samples = rosemaryFailureSampler.snapshot();
+		assertEquals(2, samples.size());
+		assertEquals("N/A", samples.get(0).getInput());
+		assertEquals("2008-03-05 25:00", samples.get(1).getInput());
+		assertEquals(RosemaryFailureReason.OUT_OF_RANGE, samples.get(1).getReason());
+		assertFalse(samples.get(1).isTruncated());
+	}
+
+	@Test
+	public void testSampleInterval() {
+		final RosemaryFailureSampler rosemaryFailureSampler = new RosemaryFailureSampler(1024, 16, 10);
+		final RosemaryDateTimeException failure = new RosemaryDateTimeException("Unable to parse: N/A", RosemaryFailureReason.NO_DATETIME);
+		for (int i = 0; i < 10000; i++) {
+			rosemaryFailureSampler.record("N/A", RosemaryParsePath.ENGINE, failure);
+		}
+		assertEquals(10000, rosemaryFailureSampler.getFailureCount());
+		assertTrue(rosemaryFailureSampler.getSampleCount() > 700 && rosemaryFailureSampler.getSampleCount() < 1300);
+	}
+
+	@Test
+	public void testConcurrentRecording() throws InterruptedException {
+		final RosemaryFailureSampler rosemaryFailureSampler = new RosemaryFailureSampler(100, 16);
+		assertEquals(128, rosemaryFailureSampler.getCapacity());
+		final RosemaryDateTimeException failure = new RosemaryDateTimeException("Unable to parse: N/A", RosemaryFailureReason.NO_DATETIME);
+		final List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			final String input = "thread " + t;
+			final Thread thread = new Thread(() -> {
+				for (int i = 0; i < 20000; i++) {
+					rosemaryFailureSampler.record(input, RosemaryParsePath.ENGINE, failure);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (int i = 0; i < 100; i++) {
+			assertTrue(rosemaryFailureSampler.snapshot().size() <= 128);
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		final List<RosemaryFailureSample> samples = rosemaryFailureSampler.snapshot();
+		assertEquals(128, samples.size());
+		final Set<Long> sequences = new HashSet<>();
+		for (final RosemaryFailureSample sample : samples) {
+			assertTrue(sample.getInput().startsWith("thread "));
+			sequences.add(sample.getSequence());
+		}
+		assertEquals(128, sequences.size());
+		assertEquals(160000, rosemaryFailureSampler.getSampleCount());
+	}
+
+	private static void parseQuietly(RosemaryDateTimeParser rosemaryDateTimeParser, String input) {
+		try {
+			rosemaryDateTimeParser.parse(input);
+		} catch (RosemaryDateTimeException e) {
+			// sampled
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryDateTimeParser#parse(CharSequence, RosemaryDateOrder, RosemaryFieldSink)}.
+ */
+public class RosemaryFieldSinkTest {
+
+	private static final List<String> DATETIMES = List.of(
+		"2008-03-05",
+		"2008-03-05 07:02:10",
+		"2008-03-05 07:02:10.123456",
+		"2008-03-05 07:02:10 -05:00",
+		"2008-03-05T07:02:10.123456789+05:30",
+		"2018-10-23T22:21:19.913Z",
+		"2008-03-05t07:02:10+05",
+		"01-02-03 04:05",
+		"3/5/2008 7:02 PM",
+		"Wednesday March Fifth 2008 7:02:13 pm",
+		"2019-03-05 07:02:30 America/Denver",
+		"1204675245123",
+		"2008-02-30T07:02:00",
+		"February 30 2008 7:02 PM",
+		"December 31st 1999 11:59:59.999 PM",
+		"March 8 2020 2:30 AM America/Denver",
+		"November 1 2020 1:30 AM America/New_York",
+		"June 22 1850 8:15 am EST",
+		"March 5 1500 7:02",
+		"3/5/2008 7:02 PM +23:00",
+		"7:02 pm",
+		"not a date time");
+
+	/**
+	 * Holds the fields it was last given.
+	 */
+	private static final class Fields implements RosemaryFieldSink {
+		private OffsetDateTime offsetDateTime;
+		private int calls;
+
+		@Override
+		public void accept(int year, int month, int day, int hour, int minute, int second, int nanosecond, int offsetSeconds) {
+			offsetDateTime = OffsetDateTime.of(year, month, day, hour, minute, second, nanosecond, ZoneOffset.ofTotalSeconds(offsetSeconds));
+			calls++;
+		}
+	}
+
+	@Test
+	public void testSameAsParse() {
+		assertSameAsParse(new RosemaryDateTimeParser());
+		assertSameAsParse(new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(64)));
+	}
+
+	private static void assertSameAsParse(RosemaryDateTimeParser rosemaryDateTimeParser) {
+		for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+			for (final String datetime : DATETIMES) {
+				OffsetDateTime expected;
+				try {
+					expected = rosemaryDateTimeParser.parse(datetime, order);
+				} catch (RosemaryDateTimeException e) {
+					expected = null;
+				}
+				final Fields fields = new Fields();
+				try {
+					rosemaryDateTimeParser.parse(new StringBuilder(datetime), order, fields);
+					assertEquals(order + " " + datetime, 1, fields.calls);
+				} catch (RosemaryDateTimeException e) {
+					assertEquals(order + " " + datetime, 0, fields.calls);
+				}
+				assertEquals(order + " " + datetime, expected, fields.offsetDateTime);
+			}
+		}
+	}
+
+	@Test
+	public void testFields() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final int[] fields = new int[8];
+		rosemaryDateTimeParser.parse("2008-03-05T07:02:10.488-05:00", (year, month, day, hour, minute, second, nanosecond, offsetSeconds) -> {
+			fields[0] = year;
+			fields[1] = month;
+			fields[2] = day;
+			fields[3] = hour;
+			fields[4] = minute;
+			fields[5] = second;
+			fields[6] = nanosecond;
+			fields[7] = offsetSeconds;
+		});
+		assertEquals(List.of(2008, 3, 5, 7, 2, 10, 488_000_000, -5 * 3600), List.of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6], fields[7]));
+
+		// with the scanner left out, the engine reads it the same
+		final Fields engineFields = new Fields();
+		RosemaryDateTimeParser.builder().disable(RosemaryParseStage.ISO_SCANNER).build().parse("2008-03-05 07:02:10 -05:00", engineFields);
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:10-05:00"), engineFields.offsetDateTime);
+	}
+
+	@Test
+	public void testFailures() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final Fields fields = new Fields();
+		try {
+			rosemaryDateTimeParser.parse((CharSequence) null, fields);
+			fail("null isn't a datetime");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.NO_DATETIME, e.getReason());
+		}
+		try {
+			rosemaryDateTimeParser.parse("not a date time", fields);
+			fail("There's no datetime");
+		} catch (RosemaryDateTimeException e) {
+			assertNotNull(e.getReason());
+		}
+		assertNull(fields.offsetDateTime);
+	}
+}
@@ -0,0 +1,97 @@
+package com.lemmingapex.rosemary;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryParseEvent} and {@link RosemaryFallbackEvent}.
+ */
+public class RosemaryFlightRecorderTest {
+
+	@Test
+	public void testEvents() throws IOException {
+		final List<RecordedEvent> events = record(Duration.ZERO, rosemaryDateTimeParser -> {
+			try {
+				rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST");
+				rosemaryDateTimeParser.parse("2008-03-05T07:02:10Z");
+			} catch (RosemaryDateTimeException e) {
+				throw new AssertionError(e);
+			}
+			try {
+				rosemaryDateTimeParser.parse("N/A");
+				fail();
+			} catch (RosemaryDateTimeException e) {
+				// expected
+			}
+		});
+
+		final List<RecordedEvent> parses = events.stream().filter(e -> e.getEventType().getName().equals("com.lemmingapex.rosemary.Parse")).toList();
+		assertEquals(3, parses.size());
+		assertEquals("ENGINE", parses.get(0).getString("path"));
+		assertNull(parses.get(0).getString("failureReason"));
+		assertEquals("Aaaaa 9aa, 9999 9:99:99 AAA", parses.get(0).getString("inputShape"));
+		assertEquals(27, parses.get(0).getInt("inputLength"));
+		assertEquals("ISO_SCANNER", parses.get(1).getString("path"));
+		assertEquals("9999-99-99A99:99:99A", parses.get(1).getString("inputShape"));
+		assertEquals("FALLBACK", parses.get(2).getString("path"));
+		assertEquals("NO_DATETIME", parses.get(2).getString("failureReason"));
+
+		final List<RecordedEvent> fallbacks = events.stream().filter(e -> e.getEventType().getName().equals("com.lemmingapex.rosemary.Fallback")).toList();
+		assertEquals(1, fallbacks.size());
+		assertFalse(fallbacks.get(0).getBoolean("succeeded"));
+		assertEquals("A/A", fallbacks.get(0).getString("inputShape"));
+		assertEquals("NO_DATETIME", fallbacks.get(0).getString("engineFailureReason"));
+	}
+
+	@Test
+	public void testThreshold() throws IOException {
+		final List<RecordedEvent> events = record(Duration.ofHours(1), rosemaryDateTimeParser -> {
+			try {
+				rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST");
+			} catch (RosemaryDateTimeException e) {
+				throw new AssertionError(e);
+			}
+		});
+		assertTrue(events.isEmpty());
+	}
+
+	@Test
+	public void testInputShape() {
+		assertNull(RosemaryInputShape.of(null));
+		assertEquals("9999-99-99A99:99aa", RosemaryInputShape.of("2008-03-05T07:02pm"));
+		assertEquals("99 L? 9", RosemaryInputShape.of("05 \u00e9\u20ac\t1"));
+		assertEquals(RosemaryInputShape.MAXIMUM_LENGTH + 3, RosemaryInputShape.of("1".repeat(1000)).length());
+	}
+
+	private static List<RecordedEvent> record(Duration parseThreshold, Consumer<RosemaryDateTimeParser> parses) throws IOException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		rosemaryDateTimeParser.setJavaTimeFallbackEnabled(true);
+		final Path file = Files.createTempFile("rosemary", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(RosemaryParseEvent.class).withThreshold(parseThreshold);
+			recording.enable(RosemaryFallbackEvent.class).withThreshold(parseThreshold);
+			recording.start();
+			parses.accept(rosemaryDateTimeParser);
+			recording.stop();
+			recording.dump(file);
+			return RecordingFile.readAllEvents(file);
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.ParsingUtilities;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryLayoutSet}.
+ */
+public class RosemaryLayoutSetTest {
+
+	// longer layouts first, since SimpleDateFormat reads a datetime with a layout that is only its beginning
+	private static final List<String> PATTERNS = List.of(
+		"yyyy-MM-dd'T'HH:mm:ss.SSSXXX",
+		"yyyy-MM-dd HH:mm:ss.SSS",
+		"yyyy-MM-dd HH:mm:ss VV",
+		"yyyy-MM-dd HH:mm:ss Z",
+		"yyyy-MM-dd HH:mm:ss",
+		"MM/dd/yyyy hh:mm:ss a",
+		"M/d/yyyy h:mm a",
+		"dd.MM.yyyy HH:mm",
+		"EEE, dd MMM yyyy HH:mm:ss xx",
+		"EEEE, MMMM d, yyyy HH:mm",
+		"yyyyMMddHHmmss",
+		"dd-MMM-yy HH:mm",
+		"dd/MM/yyyy",
+		"yyyy-MM-dd"
+	);
+
+	@Test
+	public void testPatterns() throws RosemaryDateTimeException {
+		final RosemaryLayoutSet layoutSet = RosemaryLayoutSet.ofPatterns(PATTERNS);
+		assertEquals(PATTERNS, layoutSet.getPatterns());
+		assertTrue(layoutSet.getStateCount() > 1);
+
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 488000000, ZoneOffset.ofHours(-5)), layoutSet.parse("2008-03-05T07:02:10.488-05:00"));
+		assertEquals(OffsetDateTime.of(2019, 3, 5, 7, 2, 30, 0, ZoneOffset.ofHours(-7)), layoutSet.parse("2019-03-05 07:02:30 America/Denver"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 19, 2, 0, 0, ZoneOffset.UTC), layoutSet.parse("3/5/2008 7:02 PM"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.ofHoursMinutes(5, 30)), layoutSet.parse("Wed, 05 Mar 2008 07:02:10 +0530"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 7, 2, 10, 0, ZoneOffset.UTC), layoutSet.parse("20080305070210"));
+		assertEquals(OffsetDateTime.of(2008, 3, 5, 0, 0, 0, 0, ZoneOffset.UTC), layoutSet.parse("05/03/2008"));
+		assertEquals(6, layoutSet.match("3/5/2008 7:02 PM"));
+		assertEquals(-1, layoutSet.match("March 5th 2008"));
+
+		// lenient values are read as java.time reads them
+		assertEquals(ParsingUtilities.javaTimeParse("2008-02-30 07:02:10", "yyyy-MM-dd HH:mm:ss", Locale.US), layoutSet.parse("2008-02-30 07:02:10"));
+		assertEquals(ParsingUtilities.javaTimeParse("05.03.2008 24:00", "dd.MM.yyyy HH:mm", Locale.US), layoutSet.parse("05.03.2008 24:00"));
+		assertEquals(ParsingUtilities.javaTimeParse("3/5/2008 7:02 pm", "M/d/yyyy h:mm a", Locale.US), layoutSet.parse("3/5/2008 7:02 pm"));
+
+		for (final String datetime : new String[] {"", "N/A", "2008-03-05 07:02", "3/5/2008 7:02 PM EST", "2008-03-05 07:02:10 Not/AZone", "2008-03-05\u00a007:02:10"}) {
+			try {
+				layoutSet.parse(datetime);
+				fail(datetime + " isn't in any of the layouts");
+			} catch (RosemaryDateTimeException e) {
+				assertEquals(RosemaryFailureReason.NO_MATCHING_FORMAT, e.getReason());
+			}
+		}
+	}
+
+	@Test
+	public void testUnsupportedPatterns() {
+		for (final String pattern : new String[] {"HH:mm", "yyyy-MM-dd[ HH:mm]", "yyyy-MM-dd HH:mm zzz", "yyyy-MM-dd HH:mm 'unterminated", "yyyy-MM-dd HH:mm VVxx", "yyyy-MM-dd HH:mm VV:ss"}) {
+			try {
+				RosemaryLayoutSet.ofPatterns(List.of(pattern));
+				fail(pattern + " isn't supported");
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testExamples() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final RosemaryLayoutSet layoutSet = rosemaryDateTimeParser.compileFromExamples(List.of(
+			"2008-03-05 07:02:10",
+			"3/5/2008 7:02 PM",
+			"2019-03-05 07:02:30 America/Denver",
+			"03-05 2008 7:02:10 -05:00",
+			"Wednesday March 5 2008",
+			"2010-03-05T07:02:04.488Z",
+			"2008-03-05 07:02:10"
+		), RosemaryDateOrder.MM_DD_YY);
+		assertEquals(List.of("yyyy-MM-dd HH:mm:ss", "M/d/yyyy h:mm a", "yyyy-MM-dd HH:mm:ss VV", "MM-dd yyyy H:mm:ss xxx", "EEEE MMMM d yyyy", "yyyy-MM-dd'T'HH:mm:ss.SSSXXX"), layoutSet.getPatterns());
+		assertEquals(OffsetDateTime.of(2016, 6, 30, 10, 2, 0, 0, ZoneOffset.UTC), layoutSet.parse("6/30/2016 10:02 AM"));
+
+		for (final String example : new String[] {"03/03/2008 07:02", "March 5th"}) {
+			try {
+				rosemaryDateTimeParser.compileFromExamples(List.of(example), RosemaryDateOrder.MM_DD_YY);
+				fail("The layout of " + example + " can't be told");
+			} catch (IllegalArgumentException e) {
+				assertNotNull(e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testSameAsJavaTime() {
+		final RosemaryLayoutSet layoutSet = RosemaryLayoutSet.ofPatterns(PATTERNS);
+		final Random random = new Random(42L);
+		final ZoneId[] zones = {ZoneId.of("America/Denver"), ZoneId.of("Europe/London"), ZoneId.of("Asia/Kolkata"), ZoneOffset.ofHours(-5), ZoneOffset.UTC};
+		final List<String> inputs = new ArrayList<>();
+		final List<String> differences = new ArrayList<>();
+		for (int i = 0; i < 4_000; i++) {
+			final String pattern = PATTERNS.get(random.nextInt(PATTERNS.size()));
+			final LocalDateTime localDateTime = LocalDateTime.of(1900 + random.nextInt(200), 1 + random.nextInt(12), 1, random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000) * 1_000_000).plusDays(random.nextInt(31));
+			final String input = DateTimeFormatter.ofPattern(pattern, Locale.US).format(localDateTime.atZone(zones[random.nextInt(zones.length)]));
+			inputs.add(input);
+
+			// formatted by one of the layouts, so read as the patterns read it one at a time
+			OffsetDateTime expected = null;
+			for (final String candidate : PATTERNS) {
+				expected = ParsingUtilities.javaTimeParse(input, candidate, Locale.US);
+				if (expected != null) {
+					break;
+				}
+			}
+			try {
+				final OffsetDateTime actual = layoutSet.parse(input);
+				if (!actual.equals(expected)) {
+					differences.add(input + " is " + actual + ", expected " + expected);
+				}
+			} catch (RosemaryDateTimeException e) {
+				differences.add(input + " failed, expected " + expected);
+			}
+		}
+
+		// anything read at all is read as java.time reads it with the layout that matched
+		for (final String input : new RosemaryInputFuzzer(42L).mutate(inputs, 20_000)) {
+			final int match = layoutSet.match(input);
+			if (match >= 0) {
+				final OffsetDateTime expected = ParsingUtilities.javaTimeParse(input, PATTERNS.get(match), Locale.US);
+				try {
+					final OffsetDateTime actual = layoutSet.parse(input);
+					if (!actual.equals(expected)) {
+						differences.add(input + " is " + actual + ", expected " + expected);
+					}
+				} catch (RosemaryDateTimeException e) {
+					differences.add(input + " failed, expected " + expected);
+				}
+			}
+		}
+		assertTrue(differences.size() + " differences, like " + differences.subList(0, Math.min(20, differences.size())), differences.isEmpty());
+	}
+}
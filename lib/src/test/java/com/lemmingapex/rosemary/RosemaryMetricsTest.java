@@ -0,0 +1,106 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryMetrics} and {@link RosemaryInMemoryMetrics}.
+ */
+public class RosemaryMetricsTest {
+
+	@Test
+	public void testPaths() throws RosemaryDateTimeException {
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics(1);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(100));
+		rosemaryDateTimeParser.setMetrics(metrics);
+
+		rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST");
+		rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST");
+		rosemaryDateTimeParser.parse("2008-03-05T07:02:10Z");
+		rosemaryDateTimeParser.parse("05/03/2008", "dd/MM/yyyy");
+		rosemaryDateTimeParser.parseAll(List.of("2008-03-05T07:02:10Z", "2008-03-05T07:02:10Z"), RosemaryDateOrder.MM_DD_YY);
+
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.ENGINE));
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.CACHE));
+		assertEquals(0, metrics.getSuccessCount(RosemaryParsePath.FALLBACK));
+		assertEquals(1, metrics.getSuccessCount(RosemaryParsePath.PATTERN));
+		assertEquals(3, metrics.getSuccessCount(RosemaryParsePath.ISO_SCANNER));
+		assertEquals(6, metrics.getCount());
+		for (final RosemaryParsePath path : RosemaryParsePath.values()) {
+			assertEquals(metrics.getSuccessCount(path), metrics.getLatencySampleCount(path));
+			assertTrue(metrics.getLatencyPercentile(path, 50.0) <= metrics.getMaximumLatency(path));
+		}
+	}
+
+	@Test
+	public void testFailures() {
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics();
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, new RosemaryParseCache(100), 32);
+		rosemaryDateTimeParser.setMetrics(metrics);
+
+		assertFailure(rosemaryDateTimeParser, "N/A", RosemaryFailureReason.NO_DATETIME, null);
+		assertFailure(rosemaryDateTimeParser, "N/A", RosemaryFailureReason.NO_DATETIME, null);
+		assertFailure(rosemaryDateTimeParser, "2008-03-05 7:xx", RosemaryFailureReason.BAD_TIME, "7:XX");
+		assertFailure(rosemaryDateTimeParser, "2008-03-05 07:02 +05:75", RosemaryFailureReason.BAD_ZONE_OFFSET, "+05:75");
+		assertFailure(rosemaryDateTimeParser, "March", RosemaryFailureReason.MISSING_FIELD, null);
+		assertFailure(rosemaryDateTimeParser, "x".repeat(33), RosemaryFailureReason.TOO_LONG, null);
+
+		assertEquals(0, metrics.getFailureCount(RosemaryParsePath.FALLBACK));
+		assertEquals(1, metrics.getFailureCount(RosemaryParsePath.CACHE));
+		assertEquals(5, metrics.getFailureCount(RosemaryParsePath.ENGINE));
+		assertEquals(2, metrics.getFailureCount(RosemaryFailureReason.NO_DATETIME));
+		assertEquals(1, metrics.getFailureCount(RosemaryFailureReason.TOO_LONG));
+		assertEquals(6, metrics.getCount());
+
+		try {
+			rosemaryDateTimeParser.parse("March 5", "MM/dd");
+			fail();
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.NO_MATCHING_FORMAT, e.getReason());
+		}
+		assertEquals(1, metrics.getFailureCount(RosemaryParsePath.PATTERN));
+	}
+
+	@Test
+	public void testExportAndReset() throws RosemaryDateTimeException {
+		final RosemaryInMemoryMetrics metrics = new RosemaryInMemoryMetrics(1);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		rosemaryDateTimeParser.setMetrics(metrics);
+		rosemaryDateTimeParser.parse("3/5/24");
+
+		final Map<String, Long> exported = metrics.export();
+		assertEquals(Long.valueOf(1), exported.get("rosemary.parse.success.engine"));
+		assertEquals(Long.valueOf(0), exported.get("rosemary.parse.failure.reason.too_long"));
+		assertEquals(Long.valueOf(1), exported.get("rosemary.parse.latency.engine.samples"));
+		assertTrue(exported.containsKey("rosemary.parse.latency.engine.p999"));
+		assertEquals(exported.keySet(), new RosemaryInMemoryMetrics().export().keySet());
+
+		metrics.reset();
+		assertEquals(0, metrics.getCount());
+		assertEquals(0, metrics.getLatencySampleCount(RosemaryParsePath.ENGINE));
+
+		rosemaryDateTimeParser.setMetrics(null);
+		assertNull(rosemaryDateTimeParser.getMetrics());
+		rosemaryDateTimeParser.parse("3/5/24");
+		assertEquals(0, metrics.getCount());
+	}
+
+	private static void assertFailure(RosemaryDateTimeParser rosemaryDateTimeParser, String input, RosemaryFailureReason reason, String token) {
+		try {
+			// no defaults, so a missing field isn't filled in with today's
+			rosemaryDateTimeParser.parse(input, RosemaryDateOrder.MM_DD_YY, new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY));
+			fail(input);
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(input, reason, e.getReason());
+			assertEquals(input, token, e.getToken());
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryDateTimeParser#normalize(CharSequence, RosemaryDateOrder, Appendable, ZoneId)} and its overloads.
+ */
+public class RosemaryNormalizeTest {
+
+	private static final List<String> DATETIMES = List.of(
+		"2008-03-05",
+		"2008-03-05 07:02:10",
+		"2008-03-05 07:02:10.120",
+		"2008-03-05 07:02:10 -05:00",
+		"2008-03-05T07:02:10.123456789+05:30",
+		"2018-10-23T22:21:19.913Z",
+		"2008-03-05t07:02:10+05",
+		"2008-12-31T23:30:00-10:00",
+		"2008-03-09T08:59:59Z",
+		"2008-03-09T09:00:00Z",
+		"01-02-03 04:05",
+		"3/5/2008 7:02 PM",
+		"Wednesday March Fifth 2008 7:02:13 pm",
+		"2019-03-05 07:02:30 America/Denver",
+		"1204675245123",
+		"not a date time");
+
+	private static final List<ZoneId> TARGETS = Arrays.asList(null, ZoneOffset.UTC, ZoneOffset.ofHours(5), ZoneOffset.ofHoursMinutesSeconds(-3, -25, -30), ZoneId.of("America/Denver"), ZoneId.of("Asia/Kolkata"), ZoneId.of("Etc/GMT+4"));
+
+	@Test
+	public void testSameAsFormat() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final StringBuilder out = new StringBuilder();
+		for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+			for (final String datetime : DATETIMES) {
+				OffsetDateTime parsed;
+				try {
+					parsed = rosemaryDateTimeParser.parse(datetime, order);
+				} catch (RosemaryDateTimeException e) {
+					parsed = null;
+				}
+				for (final ZoneId target : TARGETS) {
+					final String message = order + " " + datetime + " " + target;
+					out.setLength(0);
+					try {
+						final int length = rosemaryDateTimeParser.normalize(datetime, order, out, target);
+						assertEquals(message, out.length(), length);
+					} catch (RosemaryDateTimeException e) {
+						assertEquals(message, null, parsed);
+						assertEquals(message, 0, out.length());
+						continue;
+					}
+					final OffsetDateTime expected = target == null ? parsed : parsed.atZoneSameInstant(target).toOffsetDateTime();
+					assertEquals(message, DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(expected), out.toString());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testOutputs() throws RosemaryDateTimeException, IOException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final StringWriter writer = new StringWriter();
+		assertEquals(29, rosemaryDateTimeParser.normalize("2008-03-05 07:02:10.488 -05:00", RosemaryDateOrder.MM_DD_YY, writer, null));
+		assertEquals("2008-03-05T07:02:10.488-05:00", writer.toString());
+
+		final ByteBuffer buffer = ByteBuffer.allocate(64);
+		buffer.put((byte) '[');
+		assertEquals(24, rosemaryDateTimeParser.normalize("2008-03-05 07:02:10.488 -05:00", RosemaryDateOrder.MM_DD_YY, buffer, ZoneOffset.UTC));
+		assertEquals("[2008-03-05T12:02:10.488Z", new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+
+		// doesn't fit, so nothing is put
+		buffer.clear().position(buffer.limit() - 10);
+		try {
+			rosemaryDateTimeParser.normalize("2008-03-05 07:02:10", RosemaryDateOrder.MM_DD_YY, buffer, null);
+			fail("The datetime doesn't fit");
+		} catch (BufferOverflowException e) {
+			assertEquals(buffer.limit() - 10, buffer.position());
+		}
+
+		// moving past the last year java.time can hold
+		final StringBuilder out = new StringBuilder();
+		try {
+			rosemaryDateTimeParser.normalize("+999999999-12-31T23:00:00-05:00", RosemaryDateOrder.MM_DD_YY, out, ZoneOffset.UTC);
+			fail("The datetime is past the last year in UTC");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.OUT_OF_RANGE, e.getReason());
+			assertEquals(0, out.length());
+		}
+	}
+
+	@Test
+	public void testFailures() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final StringBuilder out = new StringBuilder();
+		try {
+			rosemaryDateTimeParser.normalize(null, RosemaryDateOrder.MM_DD_YY, out, ZoneOffset.UTC);
+			fail("null isn't a datetime");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.NO_DATETIME, e.getReason());
+		}
+		assertEquals(0, out.length());
+	}
+}
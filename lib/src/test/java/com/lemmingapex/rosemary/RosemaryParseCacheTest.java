@@ -0,0 +1,145 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryParseCache}.
+ */
+public class RosemaryParseCacheTest {
+
+	@Test
+	public void testHitsAndFailures() throws RosemaryDateTimeException {
+		final RosemaryParseCache rosemaryParseCache = new RosemaryParseCache(100);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, rosemaryParseCache);
+
+		final OffsetDateTime expected = OffsetDateTime.parse("2008-03-05T07:02:10.000-05:00");
+		assertEquals(expected, rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST"));
+		assertEquals(expected, rosemaryDateTimeParser.parse("March 5th, 2008 7:02:10 EST"));
+		assertEquals(1, rosemaryParseCache.getMissCount());
+		assertEquals(1, rosemaryParseCache.getHitCount());
+
+		for (int i = 0; i < 3; i++) {
+			try {
+				rosemaryDateTimeParser.parse("N/A");
+				fail();
+			} catch (RosemaryDateTimeException e) {
+				assertEquals("Unable to parse: N/A", e.getMessage());
+			}
+		}
+		assertEquals(2, rosemaryParseCache.getMissCount());
+		assertEquals(2, rosemaryParseCache.getFailureHitCount());
+		assertEquals(2, rosemaryParseCache.size());
+	}
+
+	@Test
+	public void testDefaultStateIsPartOfKey() throws RosemaryDateTimeException {
+		final RosemaryParseCache rosemaryParseCache = new RosemaryParseCache(100);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, rosemaryParseCache);
+
+		final RosemaryDateTimeState defaultDateTimeState = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		defaultDateTimeState.setYear(2001);
+		assertEquals(OffsetDateTime.parse("2001-03-05T00:00:00.000Z"), rosemaryDateTimeParser.parse("March 5", RosemaryDateOrder.MM_DD_YY, defaultDateTimeState));
+
+		// changing the default state after a parse must not reuse the cached result
+		defaultDateTimeState.setYear(2002);
+		assertEquals(OffsetDateTime.parse("2002-03-05T00:00:00.000Z"), rosemaryDateTimeParser.parse("March 5", RosemaryDateOrder.MM_DD_YY, defaultDateTimeState));
+
+		defaultDateTimeState.setTimeZone(TimeZone.getTimeZone("GMT+02:00"));
+		assertEquals(OffsetDateTime.parse("2002-03-05T07:00:00.000+02:00"), rosemaryDateTimeParser.parse("March 5 7am", RosemaryDateOrder.MM_DD_YY, defaultDateTimeState));
+
+		assertEquals(OffsetDateTime.parse("2002-05-03T00:00:00.000Z"), rosemaryDateTimeParser.parse("3/5", RosemaryDateOrder.DD_MM_YY, stateOf(RosemaryDateOrder.DD_MM_YY, defaultDateTimeState)));
+		assertEquals(OffsetDateTime.parse("2002-03-05T00:00:00.000Z"), rosemaryDateTimeParser.parse("3/5", RosemaryDateOrder.MM_DD_YY, defaultDateTimeState));
+		assertEquals(0, rosemaryParseCache.getHitCount());
+	}
+
+	@Test
+	public void testCurrentDateDefaultsExpire() throws RosemaryDateTimeException {
+		final RosemaryParseCache rosemaryParseCache = new RosemaryParseCache(100);
+		final RosemaryDateTimeState yesterday = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		yesterday.setYear(2024);
+		yesterday.setMonth(2);
+		yesterday.setDay(28);
+		final RosemaryDateTimeState today = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		today.setYear(2024);
+		today.setMonth(2);
+		today.setDay(29);
+
+		rosemaryParseCache.get("7:02", RosemaryDateOrder.MM_DD_YY, yesterday, true, () -> OffsetDateTime.parse("2024-02-28T07:02:00Z"));
+		rosemaryParseCache.get("2008", RosemaryDateOrder.MM_DD_YY, yesterday, false, () -> OffsetDateTime.parse("2008-01-01T00:00:00Z"));
+		assertEquals(2, rosemaryParseCache.size());
+
+		rosemaryParseCache.get("7:02", RosemaryDateOrder.MM_DD_YY, today, true, () -> OffsetDateTime.parse("2024-02-29T07:02:00Z"));
+		assertEquals(2, rosemaryParseCache.size());
+		assertEquals(0, rosemaryParseCache.getHitCount());
+	}
+
+	@Test
+	public void testBounded() throws RosemaryDateTimeException {
+		for (final RosemaryCacheEviction eviction : RosemaryCacheEviction.values()) {
+			final RosemaryParseCache rosemaryParseCache = new RosemaryParseCache(64, eviction);
+			final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, rosemaryParseCache);
+			for (int i = 0; i < 1000; i++) {
+				rosemaryDateTimeParser.parse(Long.toString(1000000000000L + i));
+			}
+			assertTrue(rosemaryParseCache.size() <= 64);
+			assertEquals(1000, rosemaryParseCache.getMissCount());
+		}
+	}
+
+	@Test
+	public void testFrequencyAdmissionKeepsHotEntries() throws RosemaryDateTimeException {
+		final RosemaryParseCache rosemaryParseCache = new RosemaryParseCache(32, RosemaryCacheEviction.FREQUENCY_ADMISSION);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, rosemaryParseCache);
+		final String hot = "March 5 2008 7:02 PM";
+		for (int i = 0; i < 10; i++) {
+			rosemaryDateTimeParser.parse(hot);
+		}
+
+		// a scan of values that are never seen again
+		for (int i = 0; i < 500; i++) {
+			rosemaryDateTimeParser.parse(Long.toString(1000000000000L + i));
+		}
+
+		final long hits = rosemaryParseCache.getHitCount();
+		rosemaryDateTimeParser.parse(hot);
+		assertEquals(hits + 1, rosemaryParseCache.getHitCount());
+		assertNotEquals(0, rosemaryParseCache.getRejectionCount());
+	}
+
+	@Test
+	public void testResize() throws RosemaryDateTimeException {
+		final RosemaryParseCache rosemaryParseCache = new RosemaryParseCache(1024, RosemaryCacheEviction.LEAST_RECENTLY_USED);
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, rosemaryParseCache);
+		for (int i = 0; i < 1000; i++) {
+			rosemaryDateTimeParser.parse(Long.toString(1000000000000L + i));
+		}
+		assertEquals(1000, rosemaryParseCache.size());
+
+		rosemaryParseCache.setMaximumSize(100);
+		assertEquals(100, rosemaryParseCache.getMaximumSize());
+		assertTrue(rosemaryParseCache.size() <= 100);
+		assertEquals(1000 - rosemaryParseCache.size(), rosemaryParseCache.getEvictionCount());
+
+		rosemaryParseCache.setMaximumSize(2000);
+		for (int i = 0; i < 1500; i++) {
+			rosemaryDateTimeParser.parse(Long.toString(2000000000000L + i));
+		}
+		assertTrue(rosemaryParseCache.size() >= 1500);
+	}
+
+	private static RosemaryDateTimeState stateOf(RosemaryDateOrder rosemaryDateOrder, RosemaryDateTimeState defaultDateTimeState) throws RosemaryDateTimeException {
+		final RosemaryDateTimeState state = new RosemaryDateTimeState(rosemaryDateOrder);
+		state.setYear(defaultDateTimeState.getYear());
+		state.setTimeZone(defaultDateTimeState.getTimeZone());
+		return state;
+	}
+}
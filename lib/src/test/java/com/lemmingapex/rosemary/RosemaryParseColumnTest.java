@@ -0,0 +1,173 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the columnar {@link RosemaryDateTimeParser#parseColumn} methods.
+ */
+public class RosemaryParseColumnTest {
+
+	private static final List<String> ROWS = List.of(
+		"2008-03-05",
+		"2008-03-05 07:02",
+		"2008-03-05 07:02:10",
+		"2008-03-05 07:02:10.19",
+		"2008-03-05 07:02:10.123456",
+		"2008-03-05 07:02:10 -05:00",
+		"2008-03-05T07:02",
+		"2008-03-05T07:02:10",
+		"2008-03-05T07:02:10.789+00:00",
+		"2018-10-23T22:21:19.913Z",
+		"2008-03-05T07:02:00-10:00",
+		"2008-02-31",
+		"2008-02-30T07:02:00",
+		"1204675245123",
+		"Wednesday March Fifth 2008 7:02:13 pm",
+		"2019-03-05 07:02:30 America/Denver",
+		"not a date time",
+		"",
+		"1500-03-05 07:02");
+
+	@Test
+	public void testMatchesParse() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final ByteArrayOutputStream data = new ByteArrayOutputStream();
+		final int[] offsets = new int[ROWS.size() + 1];
+		for (int i = 0; i < ROWS.size(); i++) {
+			data.writeBytes(ROWS.get(i).getBytes(StandardCharsets.UTF_8));
+			offsets[i + 1] = data.size();
+		}
+
+		final long[] epochMillis = new long[ROWS.size()];
+		final int[] offsetSeconds = new int[ROWS.size()];
+		final byte[] validity = new byte[(ROWS.size() + 7) / 8];
+		final int valid = rosemaryDateTimeParser.parseColumn(data.toByteArray(), offsets, ROWS.size(), RosemaryDateOrder.MM_DD_YY, epochMillis, offsetSeconds, validity);
+
+		int expectedValid = 0;
+		for (int i = 0; i < ROWS.size(); i++) {
+			final boolean isValid = (validity[i >>> 3] & (1 << (i & 7))) != 0;
+			OffsetDateTime expected;
+			try {
+				expected = rosemaryDateTimeParser.parse(ROWS.get(i), RosemaryDateOrder.MM_DD_YY);
+			} catch (RosemaryDateTimeException e) {
+				expected = null;
+			}
+			assertEquals(ROWS.get(i), expected != null, isValid);
+			if (expected != null) {
+				expectedValid++;
+				assertEquals(ROWS.get(i), expected.toInstant().toEpochMilli(), epochMillis[i]);
+				assertEquals(ROWS.get(i), expected.getOffset().getTotalSeconds(), offsetSeconds[i]);
+			}
+		}
+		assertEquals(expectedValid, valid);
+	}
+
+	@Test
+	public void testDirectBuffers() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final byte[] bytes = "2008-03-05T07:02:10.789+01:00bad2008-03-05 07:02".getBytes(StandardCharsets.US_ASCII);
+		final ByteBuffer data = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+		final IntBuffer offsets = ByteBuffer.allocateDirect(4 * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer().put(new int[] { 0, 29, 32, bytes.length });
+		final LongBuffer epochMillis = ByteBuffer.allocateDirect(3 * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+		final IntBuffer offsetSeconds = ByteBuffer.allocateDirect(3 * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+		final ByteBuffer validity = ByteBuffer.allocateDirect(1);
+
+		assertEquals(2, rosemaryDateTimeParser.parseColumn(data, offsets, 3, RosemaryDateOrder.MM_DD_YY, epochMillis, offsetSeconds, validity));
+		assertEquals(0b101, validity.get(0));
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:10.789+01:00").toInstant().toEpochMilli(), epochMillis.get(0));
+		assertEquals(3600, offsetSeconds.get(0));
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:00Z").toInstant().toEpochMilli(), epochMillis.get(2));
+		assertEquals(0, offsetSeconds.get(2));
+	}
+
+	@Test
+	public void testBlocks() {
+		// runs of rows in each layout, with one byte of some rows replaced, and the digits of others changed
+		final String[] layouts = {"2008-03-05", "2008-03-05 07:02", "2008-03-05 07:02:10.1", "2008-03-05 07:02:10.123 -05:00", "2008-03-05T07:02:10Z", "2008-03-05T07:02:10.12+05:30", "2008-03-05T07:02:10.123456-10:00", "2008-03-05T07:02:10.123456789Z"};
+		final byte[] replacements = "0159-:T Z+.t/".getBytes(StandardCharsets.US_ASCII);
+		final Random random = new Random(42L);
+		final List<String> rows = new ArrayList<>();
+		for (final String layout : layouts) {
+			for (int i = 0; i < 300; i++) {
+				final byte[] row = layout.getBytes(StandardCharsets.US_ASCII);
+				for (int j = 0; j < row.length; j++) {
+					if (row[j] >= '0' && row[j] <= '9' && (j < 4 ? random.nextInt(8) == 0 : random.nextInt(3) == 0)) {
+						row[j] = (byte) ('0' + random.nextInt(10));
+					}
+				}
+				if (random.nextInt(10) == 0) {
+					row[random.nextInt(row.length)] = random.nextInt(4) == 0 ? (byte) 0xC3 : replacements[random.nextInt(replacements.length)];
+				}
+				rows.add(new String(row, StandardCharsets.ISO_8859_1));
+			}
+		}
+
+		for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+			final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+			final ByteArrayOutputStream data = new ByteArrayOutputStream();
+			final int[] offsets = new int[rows.size() + 1];
+			for (int i = 0; i < rows.size(); i++) {
+				data.writeBytes(rows.get(i).getBytes(StandardCharsets.ISO_8859_1));
+				offsets[i + 1] = data.size();
+			}
+			final long[] epochMillis = new long[rows.size()];
+			final int[] offsetSeconds = new int[rows.size()];
+			final byte[] validity = new byte[(rows.size() + 7) / 8];
+			rosemaryDateTimeParser.parseColumn(data.toByteArray(), offsets, rows.size(), order, epochMillis, offsetSeconds, validity);
+			for (int i = 0; i < rows.size(); i++) {
+				final String row = new String(rows.get(i).getBytes(StandardCharsets.ISO_8859_1), StandardCharsets.UTF_8);
+				OffsetDateTime expected;
+				try {
+					expected = rosemaryDateTimeParser.parse(row, order);
+				} catch (RosemaryDateTimeException e) {
+					expected = null;
+				}
+				assertEquals(order + " " + row, expected != null, (validity[i >>> 3] & (1 << (i & 7))) != 0);
+				if (expected != null) {
+					assertEquals(order + " " + row, expected.toInstant().toEpochMilli(), epochMillis[i]);
+					assertEquals(order + " " + row, expected.getOffset().getTotalSeconds(), offsetSeconds[i]);
+				}
+			}
+		}
+
+		// each kernel accepts a row exactly when the scanner does
+		final RosemaryIsoScanner isoScanner = new RosemaryIsoScanner(RosemaryDateOrder.MM_DD_YY);
+		for (final RosemaryIsoBatch isoBatch : new RosemaryIsoBatch[] {new RosemaryIsoSwarBatch(), RosemaryIsoBatch.create()}) {
+			int accepted = 0;
+			for (int l = 0; l < layouts.length; l++) {
+				final String layout = layouts[l];
+				final ByteBuffer template = ByteBuffer.wrap(layout.getBytes(StandardCharsets.US_ASCII));
+				assertTrue(layout, isoBatch.layout(template, 0, layout.length()) == layout.length() <= RosemaryIsoBatch.MAXIMUM_WIDTH);
+				if (layout.length() > RosemaryIsoBatch.MAXIMUM_WIDTH) {
+					continue;
+				}
+				for (final String row : rows.subList(l * 300, (l + 1) * 300)) {
+					final byte[] bytes = row.getBytes(StandardCharsets.ISO_8859_1);
+					System.arraycopy(bytes, 0, isoBatch.block, 0, bytes.length);
+					final boolean scanned = isoScanner.scan(ByteBuffer.wrap(bytes), 0, bytes.length);
+					assertEquals(isoBatch.isVectorized() + " " + row, scanned, isoBatch.scan(1) == 1);
+					if (scanned) {
+						accepted++;
+						assertEquals(row, isoScanner.epochMillis(), isoBatch.epochMillis[0]);
+						assertEquals(row, isoScanner.offsetSeconds, isoBatch.offsetSeconds[0]);
+					}
+				}
+			}
+			assertTrue(accepted > 500);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link RosemaryDateTimeParser#parseLocalDate(String, RosemaryDateOrder, RosemaryDateTimeState)}, {@link RosemaryDateTimeParser#parseLocalTime(String, RosemaryDateOrder, RosemaryDateTimeState)}, {@link RosemaryDateTimeParser#parseLocalDateTime(String, RosemaryDateOrder, RosemaryDateTimeState)} and {@link RosemaryDateTimeParser#parseInstant(String, RosemaryDateOrder, RosemaryDateTimeState)}.
+ */
+public class RosemaryParseLocalTest {
+
+	private static final List<String> DATETIMES = List.of(
+		"2008-03-05",
+		"2008-03-05 07:02:10",
+		"2008-03-05 07:02:10.123456",
+		"2008-03-05 07:02:10 -05:00",
+		"2008-03-05T07:02:10.123456789+05:30",
+		"2018-10-23T22:21:19.913Z",
+		"01-02-03 04:05",
+		"3/5/2008 7:02 PM",
+		"March 5th",
+		"1991",
+		"7:02 pm",
+		"Wednesday March Fifth 2008 7:02:13 pm",
+		"2019-03-05 07:02:30 America/Denver",
+		"2010-03-05 07:02:04.488 AKDT",
+		"6/30/2016 10:02:27.654 AM(UTC-4)",
+		"1204675245123",
+		"2008-02-30 07:02",
+		"March 5 1500 7:02 pm",
+		"2008-03-05 07:02 +23",
+		"not a date time");
+
+	private interface Parse<T> {
+		T parse(String dateTimeString) throws RosemaryDateTimeException;
+	}
+
+	@Test
+	public void testSameAsParse() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		for (final RosemaryDateOrder order : RosemaryDateOrder.values()) {
+			for (final String datetime : DATETIMES) {
+				OffsetDateTime expected;
+				try {
+					expected = rosemaryDateTimeParser.parse(datetime, order);
+				} catch (RosemaryDateTimeException e) {
+					expected = null;
+				}
+				final String message = order + " " + datetime;
+				assertEquals(message, expected == null ? null : expected.toInstant(), parseOrNull(s -> rosemaryDateTimeParser.parseInstant(s, order), datetime));
+				if (expected != null) {
+					assertEquals(message, expected.toLocalDate(), parseOrNull(s -> rosemaryDateTimeParser.parseLocalDate(s, order), datetime));
+					assertEquals(message, expected.toLocalTime(), parseOrNull(s -> rosemaryDateTimeParser.parseLocalTime(s, order), datetime));
+					assertEquals(message, expected.toLocalDateTime(), parseOrNull(s -> rosemaryDateTimeParser.parseLocalDateTime(s, order), datetime));
+				}
+
+				// without the ISO-8601 scanner
+				final RosemaryDateTimeState state = RosemaryDateTimeParser.currentDateState(order);
+				assertEquals(message, expected == null ? null : expected.toInstant(), parseOrNull(s -> rosemaryDateTimeParser.parseInstant(s, order, state), datetime));
+				if (expected != null) {
+					assertEquals(message, expected.toLocalDateTime(), parseOrNull(s -> rosemaryDateTimeParser.parseLocalDateTime(s, order, state), datetime));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testResolution() throws RosemaryDateTimeException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+
+		// a time alone is on 1970-01-01 as a datetime, but isn't a date
+		final RosemaryDateTimeState noDate = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		assertEquals(OffsetDateTime.parse("1970-01-01T19:02Z"), rosemaryDateTimeParser.parse("7:02 pm", RosemaryDateOrder.MM_DD_YY, noDate));
+		assertEquals(LocalTime.of(19, 2), rosemaryDateTimeParser.parseLocalTime("7:02 pm", RosemaryDateOrder.MM_DD_YY, noDate));
+		assertEquals(LocalDateTime.of(1970, 1, 1, 19, 2), rosemaryDateTimeParser.parseLocalDateTime("7:02 pm", RosemaryDateOrder.MM_DD_YY, noDate));
+		try {
+			rosemaryDateTimeParser.parseLocalDate("7:02 pm", RosemaryDateOrder.MM_DD_YY, noDate);
+			fail("A time alone isn't a date");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.MISSING_FIELD, e.getReason());
+		}
+
+		// a time doesn't need a year
+		final RosemaryDateTimeState noYear = new RosemaryDateTimeState(RosemaryDateOrder.MM_DD_YY);
+		try {
+			rosemaryDateTimeParser.parse("March 5th 7:02 pm", RosemaryDateOrder.MM_DD_YY, noYear);
+			fail("There's no year");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.MISSING_FIELD, e.getReason());
+		}
+		assertEquals(LocalTime.of(19, 2), rosemaryDateTimeParser.parseLocalTime("March 5th 7:02 pm", RosemaryDateOrder.MM_DD_YY, noYear));
+
+		// the default time and time zone don't move a date
+		final RosemaryDateTimeState lateInTokyo = RosemaryDateTimeParser.currentDateState(RosemaryDateOrder.MM_DD_YY);
+		lateInTokyo.setHour(23);
+		lateInTokyo.setTimeZone(TimeZone.getTimeZone("Asia/Tokyo"));
+		assertEquals(LocalDate.of(2008, 3, 5), rosemaryDateTimeParser.parseLocalDate("March 5th 2008", RosemaryDateOrder.MM_DD_YY, lateInTokyo));
+		assertEquals(Instant.parse("2008-03-05T14:00:00Z"), rosemaryDateTimeParser.parseInstant("March 5th 2008", RosemaryDateOrder.MM_DD_YY, lateInTokyo));
+
+		// a local time is as written, even where its time zone skips it
+		assertEquals(OffsetDateTime.parse("2008-03-09T03:30-06:00"), rosemaryDateTimeParser.parse("2008-03-09 02:30 America/Denver"));
+		assertEquals(LocalDateTime.of(2008, 3, 9, 2, 30), rosemaryDateTimeParser.parseLocalDateTime("2008-03-09 02:30 America/Denver"));
+		assertEquals(LocalTime.of(2, 30), rosemaryDateTimeParser.parseLocalTime("2008-03-09 02:30 America/Denver"));
+
+		// an offset java.time can't hold isn't an instant, but isn't needed for a local datetime
+		try {
+			rosemaryDateTimeParser.parseInstant("2008-03-05 07:02 +23");
+			fail("java.time can't hold the offset");
+		} catch (RosemaryDateTimeException e) {
+			assertEquals(RosemaryFailureReason.OUT_OF_RANGE, e.getReason());
+		}
+		assertEquals(LocalDateTime.of(2008, 3, 5, 7, 2), rosemaryDateTimeParser.parseLocalDateTime("2008-03-05 07:02 +23"));
+
+		// a day past the end of the month rolls over, as it does in a datetime
+		assertEquals(LocalDate.of(2008, 3, 1), rosemaryDateTimeParser.parseLocalDate("2/30/2008"));
+
+		assertNull(rosemaryDateTimeParser.parseLocalDate(null));
+		assertNull(rosemaryDateTimeParser.parseInstant(null));
+	}
+
+	private static <T> T parseOrNull(Parse<T> parse, String dateTimeString) {
+		try {
+			return parse.parse(dateTimeString);
+		} catch (RosemaryDateTimeException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.text.ParsePosition;
+import java.time.OffsetDateTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests for {@link RosemaryDateTimeParser#parsePrefix(CharSequence, ParsePosition)}.
+ */
+public class RosemaryParsePrefixTest {
+
+	@Test
+	public void testLogLines() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+
+		String line = "2019-03-05 07:02:30 [America/Denver] INFO worker started";
+		ParsePosition parsePosition = new ParsePosition(0);
+		assertEquals(OffsetDateTime.parse("2019-03-05T07:02:30.000-07:00"), rosemaryDateTimeParser.parsePrefix(line, parsePosition));
+		assertEquals("] INFO worker started", line.substring(parsePosition.getIndex()));
+		assertEquals(-1, parsePosition.getErrorIndex());
+
+		line = "2018-10-23T22:21:19.913Z GET /index.html 200";
+		parsePosition = new ParsePosition(0);
+		assertEquals(OffsetDateTime.parse("2018-10-23T22:21:19.913+00:00"), rosemaryDateTimeParser.parsePrefix(line, parsePosition));
+		assertEquals(" GET /index.html 200", line.substring(parsePosition.getIndex()));
+
+		line = "[Fri, 05 Jan 2024 17:22:26 -0700] client denied by server configuration";
+		parsePosition = new ParsePosition(0);
+		assertEquals(OffsetDateTime.parse("2024-01-05T17:22:26.000-07:00"), rosemaryDateTimeParser.parsePrefix(line, parsePosition));
+		assertEquals("] client denied by server configuration", line.substring(parsePosition.getIndex()));
+
+		line = "Mar 5 07:02:10 2008 sshd[42]: session opened";
+		parsePosition = new ParsePosition(0);
+		assertEquals(OffsetDateTime.parse("2008-03-05T07:02:10.000+00:00"), rosemaryDateTimeParser.parsePrefix(line, parsePosition));
+		assertEquals(" sshd[42]: session opened", line.substring(parsePosition.getIndex()));
+	}
+
+	@Test
+	public void testTextAfterDateAndTime() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final String[][] lines = {
+			{"2024-01-15 10:23:45 3 workers started", "2024-01-15T10:23:45.000+00:00", " 3 workers started"},
+			{"2024-01-15 10:23:45 1130 bytes", "2024-01-15T10:23:45.000+00:00", " 1130 bytes"},
+			{"2024-01-15 10:23:45 200 GET /index.html", "2024-01-15T10:23:45.000+00:00", " 200 GET /index.html"},
+			{"2024-01-15 10:23:45 GET /index.html 404", "2024-01-15T10:23:45.000+00:00", " GET /index.html 404"},
+			{"2024-01-15 10:23:45 America/Denver INFO worker started", "2024-01-15T10:23:45.000+00:00", " America/Denver INFO worker started"},
+			{"2024-01-15 10:23:45 -05:00 3 workers started", "2024-01-15T10:23:45.000-05:00", " 3 workers started"},
+			{"2024-01-15 10:23:45 UTC 500 errors", "2024-01-15T10:23:45.000+00:00", " 500 errors"},
+			{"1/15/2024 10:23:45 PM (EST) 12 retries", "2024-01-15T22:23:45.000-05:00", ") 12 retries"},
+			{"Jan 15 10:23:45 2024 7 jobs queued", "2024-01-15T10:23:45.000+00:00", " 7 jobs queued"}};
+		for (final String[] line : lines) {
+			final ParsePosition parsePosition = new ParsePosition(0);
+			assertEquals(line[0], OffsetDateTime.parse(line[1]), rosemaryDateTimeParser.parsePrefix(line[0], parsePosition));
+			assertEquals(line[0], line[2], line[0].substring(parsePosition.getIndex()));
+		}
+	}
+
+	@Test
+	public void testStartIndex() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final String line = "id=17 at=03/05/2008 07:02 pm user=bob";
+		final ParsePosition parsePosition = new ParsePosition(9);
+		assertEquals(OffsetDateTime.parse("2008-03-05T19:02:00.000+00:00"), rosemaryDateTimeParser.parsePrefix(line, parsePosition));
+		assertEquals(" user=bob", line.substring(parsePosition.getIndex()));
+	}
+
+	@Test
+	public void testNoDateTime() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		ParsePosition parsePosition = new ParsePosition(0);
+		assertNull(rosemaryDateTimeParser.parsePrefix("INFO 2019-03-05 07:02:30 worker started", parsePosition));
+		assertEquals(0, parsePosition.getIndex());
+		assertEquals(0, parsePosition.getErrorIndex());
+
+		parsePosition = new ParsePosition(3);
+		assertNull(rosemaryDateTimeParser.parsePrefix("abc", parsePosition));
+		assertEquals(3, parsePosition.getErrorIndex());
+
+		parsePosition = new ParsePosition(0);
+		assertNull(rosemaryDateTimeParser.parsePrefix(null, parsePosition));
+		assertEquals(0, parsePosition.getErrorIndex());
+	}
+}
@@ -0,0 +1,166 @@
+package com.lemmingapex.rosemary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link RosemaryParseProcessor}.
+ */
+public class RosemaryParseProcessorTest {
+
+	private static List<String> inputs() {
+		final List<String> inputs = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			switch (i % 4) {
+				case 0:
+					inputs.add(String.format("2008-03-%02d 07:%02d:10", i % 28 + 1, i % 60));
+					break;
+				case 1:
+					inputs.add(String.format("March %dth, 2008 7:02 pm EST", i % 28 + 1));
+					break;
+				case 2:
+					inputs.add(String.format("2019-01-%02dT12:00:00Z", i % 28 + 1));
+					break;
+				default:
+					inputs.add("N/A " + i);
+			}
+		}
+		return inputs;
+	}
+
+	@Test
+	public void testParseAllMatchesParse() {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> inputs = new ArrayList<>(inputs());
+		inputs.addAll(List.of("2008-03-05", "2008-03-05 07:02:10.123456", "2008-03-05 07:02 -05:00", "2008-03-05T07:02:10.123456789+05:30", "2008-03-05T07:02Z", "1204675245123"));
+		final List<RosemaryParseResult> results = rosemaryDateTimeParser.parseAll(inputs, RosemaryDateOrder.MM_DD_YY);
+		for (int i = 0; i < inputs.size(); i++) {
+			try {
+				assertEquals(rosemaryDateTimeParser.parse(inputs.get(i)), results.get(i).getDateTime());
+			} catch (RosemaryDateTimeException e) {
+				assertEquals(e.getMessage(), results.get(i).getFailure().getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testOrdered() throws InterruptedException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> inputs = inputs();
+		final List<RosemaryParseResult> results = run(new RosemaryParseProcessor(rosemaryDateTimeParser, RosemaryDateOrder.MM_DD_YY, 64, true), inputs, 1);
+		assertEquals(rosemaryDateTimeParser.parseAll(inputs, RosemaryDateOrder.MM_DD_YY), results);
+	}
+
+	@Test
+	public void testUnordered() throws InterruptedException {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+		final List<String> inputs = inputs();
+		final List<RosemaryParseResult> results = run(new RosemaryParseProcessor(rosemaryDateTimeParser, RosemaryDateOrder.MM_DD_YY, 64, false), inputs, 16);
+
+		final List<RosemaryParseResult> expected = new ArrayList<>(rosemaryDateTimeParser.parseAll(inputs, RosemaryDateOrder.MM_DD_YY));
+		final Comparator<RosemaryParseResult> byInput = Comparator.comparing(r -> r.getInput().toString());
+		expected.sort(byInput);
+		results.sort(byInput);
+		assertEquals(expected, results);
+	}
+
+	@Test
+	public void testFailuresAreResults() throws InterruptedException {
+		final List<RosemaryParseResult> results = run(new RosemaryParseProcessor(new RosemaryDateTimeParser(), RosemaryDateOrder.MM_DD_YY, 8, true), List.of("N/A", "3/5/24"), 1);
+		assertEquals(2, results.size());
+		assertFalse(results.get(0).isSuccess());
+		assertTrue(results.get(1).isSuccess());
+	}
+
+	@Test
+	public void testPartialBatchIsNotHeldBack() throws InterruptedException {
+		final RosemaryParseProcessor processor = new RosemaryParseProcessor(new RosemaryDateTimeParser(), RosemaryDateOrder.MM_DD_YY, 1000, true);
+		final CountDownLatch received = new CountDownLatch(1);
+		processor.subscribe(new Flow.Subscriber<>() {
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(RosemaryParseResult item) {
+				received.countDown();
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+
+		try (SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			publisher.submit("2008-03-05");
+			// the upstream is still open, but the single input must not wait for a full batch
+			assertTrue(received.await(10, TimeUnit.SECONDS));
+		}
+	}
+
+	/**
+	 * Publish the inputs through the processor to a subscriber that requests a few results at a time.
+	 */
+	private static List<RosemaryParseResult> run(RosemaryParseProcessor processor, List<String> inputs, int requestSize) throws InterruptedException {
+		final List<RosemaryParseResult> results = Collections.synchronizedList(new ArrayList<>());
+		final CountDownLatch done = new CountDownLatch(1);
+		processor.subscribe(new Flow.Subscriber<>() {
+			private Flow.Subscription subscription;
+			private int outstanding;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				outstanding = requestSize;
+				subscription.request(requestSize);
+			}
+
+			@Override
+			public void onNext(RosemaryParseResult item) {
+				results.add(item);
+				if (--outstanding == 0) {
+					outstanding = requestSize;
+					subscription.request(requestSize);
+				}
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				done.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				done.countDown();
+			}
+		});
+
+		try (SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<>()) {
+			publisher.subscribe(processor);
+			for (final String input : inputs) {
+				publisher.submit(input);
+			}
+		}
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertTrue(processor.isClosed());
+		return new ArrayList<>(results);
+	}
+}
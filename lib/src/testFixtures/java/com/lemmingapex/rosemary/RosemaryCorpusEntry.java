@@ -0,0 +1,72 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * A datetime string and the value it must parse to.
+ */
+public final class RosemaryCorpusEntry {
+	/**
+	 * the shape of the input.
+	 */
+	private final RosemaryCorpusForm form;
+	/**
+	 * the order to parse the input with.
+	 */
+	private final RosemaryDateOrder order;
+	/**
+	 * the datetime string.
+	 */
+	private final String input;
+	/**
+	 * the value the input must parse to, or <code>null</code> if it must not parse.
+	 */
+	private final OffsetDateTime expected;
+
+	public RosemaryCorpusEntry(RosemaryCorpusForm form, RosemaryDateOrder order, String input, OffsetDateTime expected) {
+		this.form = form;
+		this.order = order;
+		this.input = input;
+		this.expected = expected;
+	}
+
+	public RosemaryCorpusForm getForm() {
+		return this.form;
+	}
+
+	public RosemaryDateOrder getOrder() {
+		return this.order;
+	}
+
+	public String getInput() {
+		return this.input;
+	}
+
+	/**
+	 * Get the expected value.
+	 *
+	 * @return the value the input must parse to, or <code>null</code> if it must not parse
+	 */
+	public OffsetDateTime getExpected() {
+		return this.expected;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		RosemaryCorpusEntry that = (RosemaryCorpusEntry) o;
+		return form == that.form && order == that.order && input.equals(that.input) && Objects.equals(expected, that.expected);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(form, order, input, expected);
+	}
+
+	@Override
+	public String toString() {
+		return form + " " + order + " \"" + input + "\" -> " + expected;
+	}
+}
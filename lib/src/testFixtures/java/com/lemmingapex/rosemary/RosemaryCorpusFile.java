@@ -0,0 +1,91 @@
+package com.lemmingapex.rosemary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes corpus files: gzipped, one entry per line, as the form, the order, the expected value (or <code>!</code> if the input must not parse) and the input, separated by tabs.  Lines starting with <code>#</code> are comments.
+ */
+public final class RosemaryCorpusFile {
+
+	private static final String NO_VALUE = "!";
+
+	private RosemaryCorpusFile() {
+	}
+
+	/**
+	 * Write generated entries to a file.
+	 *
+	 * @param file the file to write
+	 * @param generator generates the entries
+	 * @param count the number of entries
+	 * @throws IOException if the file can't be written
+	 */
+	public static void write(Path file, RosemaryCorpusGenerator generator, int count) throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+			writer.write("# form\torder\texpected\tinput\n");
+			for (int i = 0; i < count; i++) {
+				final RosemaryCorpusEntry entry = generator.next();
+				writer.write(entry.getForm().name());
+				writer.write('\t');
+				writer.write(entry.getOrder().name());
+				writer.write('\t');
+				writer.write(entry.getExpected() == null ? NO_VALUE : entry.getExpected().toString());
+				writer.write('\t');
+				writer.write(entry.getInput());
+				writer.write('\n');
+			}
+		}
+	}
+
+	/**
+	 * Read a file one entry at a time.
+	 *
+	 * @param file the file to read
+	 * @param consumer receives each entry
+	 * @throws IOException if the file can't be read
+	 */
+	public static void forEach(Path file, Consumer<RosemaryCorpusEntry> consumer) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				final String[] fields = line.split("\t", 4);
+				if (fields.length != 4) {
+					throw new IOException("Bad corpus line: " + line);
+				}
+				consumer.accept(new RosemaryCorpusEntry(RosemaryCorpusForm.valueOf(fields[0]), RosemaryDateOrder.valueOf(fields[1]), fields[3], fields[2].equals(NO_VALUE) ? null : OffsetDateTime.parse(fields[2])));
+			}
+		}
+	}
+
+	/**
+	 * Read every entry of a file.
+	 *
+	 * @param file the file to read
+	 * @return the entries
+	 * @throws IOException if the file can't be read
+	 */
+	public static List<RosemaryCorpusEntry> read(Path file) throws IOException {
+		final List<RosemaryCorpusEntry> entries = new ArrayList<>();
+		forEach(file, entries::add);
+		return entries;
+	}
+}
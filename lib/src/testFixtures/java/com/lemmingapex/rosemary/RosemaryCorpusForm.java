@@ -0,0 +1,47 @@
+package com.lemmingapex.rosemary;
+
+/**
+ * The shapes of datetime that {@link RosemaryCorpusGenerator} writes.
+ */
+public enum RosemaryCorpusForm {
+	/**
+	 * a date in the fields order of the {@link RosemaryDateOrder}, like <code>03/05/2008</code>, <code>05-03-08</code> or <code>2008 03 05</code>
+	 */
+	NUMERIC_DATE,
+	/**
+	 * a numeric date and a 24 hour time, like <code>03/05/2008 19:02:13.488</code>
+	 */
+	NUMERIC_DATE_TIME,
+	/**
+	 * a numeric date and a 12 hour time, like <code>3/5/2008 7:02 PM</code> or <code>3/5/2008 8am</code>
+	 */
+	TWELVE_HOUR,
+	/**
+	 * a month name, with or without a weekday name, like <code>Wednesday, March 5, 2008</code> or <code>5 Mar 2008</code>
+	 */
+	MONTH_NAME,
+	/**
+	 * an ordinal day, like <code>22nd of June 2028 at 8am</code> or <code>March Fifth 2008</code>
+	 */
+	ORDINAL,
+	/**
+	 * a date and time followed by a time zone name from {@link com.lemmingapex.rosemary.utils.TimeZoneUtils}, like <code>2019-03-05 07:02:30 America/Denver</code>
+	 */
+	NAMED_ZONE,
+	/**
+	 * a date and time followed by a numeric offset, like <code>03-05 2008 7:02:10 -05:00</code>, <code>-0500</code>, <code>GMT+2</code> or <code>(UTC-4)</code>
+	 */
+	NUMERIC_OFFSET,
+	/**
+	 * ISO-8601 with a <code>T</code>, like <code>2008-03-05T07:02:10.123456Z</code>
+	 */
+	ISO_8601,
+	/**
+	 * milliseconds since the epoch, like <code>1204675245123</code>
+	 */
+	EPOCH_MILLIS,
+	/**
+	 * text that isn't a datetime, like <code>N/A</code>
+	 */
+	INVALID;
+}
@@ -0,0 +1,461 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Generates realistic datetime strings together with the value {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} must return for each, for correctness tests and benchmarks that need more than hand-written cases.
+ * <p>
+ * Generation is deterministic: the same seed and mix always give the same entries, in the same order, on any JVM.  The mix says how often each {@link RosemaryCorpusForm} appears.  Expected values are worked out with {@link java.time}, independently of the parser.
+ * <p>
+ * Some inputs are never generated, because the parser is known to read them differently than a person would:
+ * <ul>
+ * <li>time zone names that the parser reads as something else, like <code>MART</code> as March or <code>Pacific/Guam</code> as a time ending in AM</li>
+ * <li>local times that fall in a daylight saving gap or overlap in a named zone</li>
+ * <li>12 o'clock with the meridian glued to the time, like <code>12:05PM</code></li>
+ * <li>a bare hour apart from its meridian after a full date, like <code>3/5/2008 4 PM</code>, where the hour is read as an offset</li>
+ * <li>offsets without a colon of less than an hour, like <code>-0030</code>, which are read as hours</li>
+ * </ul>
+ */
+public class RosemaryCorpusGenerator {
+
+	private static final String[] MONTH_NAMES = { "January", "February", "March", "April", "May", "June", "July", "August", "September", "October", "November", "December" };
+	private static final String[] ORDINAL_WORDS = { "First", "Second", "Third", "Fourth", "Fifth", "Sixth", "Seventh", "Eighth", "Ninth", "Tenth", "Eleventh", "Twelfth", "Thirteenth", "Fourteenth", "Fifteenth", "Sixteenth", "Seventeenth", "Eighteenth", "Nineteenth", "Twentieth", "Twenty-First", "Twenty-Second", "Twenty-Third", "Twenty-Fourth", "Twenty-Fifth", "Twenty-Sixth", "Twenty-Seventh", "Twenty-Eighth", "Twenty-Ninth", "Thirtieth", "Thirty-First" };
+	private static final String[] INVALID = { "N/A", "n/a", "unknown", "TBD", "null", "none", "pending", "?", "-", "--", "never", "not a date" };
+	private static final String[] DATE_SEPARATORS = { "/", "-", " " };
+
+	private final Random random;
+	private final RosemaryCorpusForm[] forms;
+	private final int[] cumulativeWeights;
+	private final List<String> timeZoneNames;
+
+	/**
+	 * Create a generator.
+	 *
+	 * @param seed seed of the random numbers
+	 * @param mix how often each form appears relative to the others; forms that are missing don't appear
+	 */
+	public RosemaryCorpusGenerator(long seed, Map<RosemaryCorpusForm, Integer> mix) {
+		this.random = new Random(seed);
+
+		final Map<RosemaryCorpusForm, Integer> sortedMix = new EnumMap<>(mix);
+		this.forms = new RosemaryCorpusForm[sortedMix.size()];
+		this.cumulativeWeights = new int[sortedMix.size()];
+		int total = 0;
+		int i = 0;
+		for (final Map.Entry<RosemaryCorpusForm, Integer> formAndWeight : sortedMix.entrySet()) {
+			if (formAndWeight.getValue() < 0) {
+				throw new IllegalArgumentException("Bad weight " + formAndWeight);
+			}
+			total += formAndWeight.getValue();
+			forms[i] = formAndWeight.getKey();
+			cumulativeWeights[i] = total;
+			i++;
+		}
+		if (total == 0) {
+			throw new IllegalArgumentException("Empty mix " + mix);
+		}
+
+		this.timeZoneNames = new ArrayList<>();
+		for (final String timeZoneName : TimeZoneUtils.getTimezoneNameToTimezoneMap().keySet()) {
+			if (isUnambiguousTimeZoneName(timeZoneName)) {
+				timeZoneNames.add(timeZoneName);
+			}
+		}
+	}
+
+	/**
+	 * Create a generator where every form appears equally often.
+	 *
+	 * @param seed seed of the random numbers
+	 */
+	public RosemaryCorpusGenerator(long seed) {
+		this(seed, evenMix());
+	}
+
+	/**
+	 * @return a mix where every form appears equally often
+	 */
+	public static Map<RosemaryCorpusForm, Integer> evenMix() {
+		final Map<RosemaryCorpusForm, Integer> mix = new EnumMap<>(RosemaryCorpusForm.class);
+		for (final RosemaryCorpusForm form : RosemaryCorpusForm.values()) {
+			mix.put(form, 1);
+		}
+		return mix;
+	}
+
+	/**
+	 * Parse a mix written like <code>ISO_8601=3,EPOCH_MILLIS=1</code>.
+	 *
+	 * @param mix the written mix
+	 * @return the mix
+	 */
+	public static Map<RosemaryCorpusForm, Integer> parseMix(String mix) {
+		final Map<RosemaryCorpusForm, Integer> parsed = new EnumMap<>(RosemaryCorpusForm.class);
+		for (final String formAndWeight : mix.split(",")) {
+			final String[] parts = formAndWeight.trim().split("=");
+			parsed.put(RosemaryCorpusForm.valueOf(parts[0].trim()), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+		}
+		return parsed;
+	}
+
+	/**
+	 * Generate the next entry.
+	 *
+	 * @return the next entry
+	 */
+	public RosemaryCorpusEntry next() {
+		final int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		int i = 0;
+		while (pick >= cumulativeWeights[i]) {
+			i++;
+		}
+		final RosemaryCorpusForm form = forms[i];
+		final RosemaryDateOrder order = RosemaryDateOrder.values()[random.nextInt(RosemaryDateOrder.values().length)];
+		switch (form) {
+			case NUMERIC_DATE:
+				return numericDate(order);
+			case NUMERIC_DATE_TIME:
+				return numericDateTime(order);
+			case TWELVE_HOUR:
+				return twelveHour(order);
+			case MONTH_NAME:
+				return monthName(order);
+			case ORDINAL:
+				return ordinal(order);
+			case NAMED_ZONE:
+				return namedZone(order);
+			case NUMERIC_OFFSET:
+				return numericOffset(order);
+			case ISO_8601:
+				return iso8601(order);
+			case EPOCH_MILLIS:
+				return epochMillis(order);
+			default:
+				return new RosemaryCorpusEntry(form, order, INVALID[random.nextInt(INVALID.length)], null);
+		}
+	}
+
+	/**
+	 * Generate some entries.
+	 *
+	 * @param count the number of entries
+	 * @return the next entries
+	 */
+	public List<RosemaryCorpusEntry> next(int count) {
+		final List<RosemaryCorpusEntry> entries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			entries.add(next());
+		}
+		return entries;
+	}
+
+	private RosemaryCorpusEntry numericDate(RosemaryDateOrder order) {
+		final boolean twoDigitYear = random.nextInt(4) == 0;
+		final LocalDateTime date = randomDate(twoDigitYear ? 1970 : 1600, twoDigitYear ? 2069 : 2400);
+		if (!twoDigitYear && random.nextInt(8) == 0) {
+			// all the fields run together, like 20080305
+			return new RosemaryCorpusEntry(RosemaryCorpusForm.NUMERIC_DATE, order, date(order, date, "", true, false), utc(date));
+		}
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.NUMERIC_DATE, order, date(order, date, pick(DATE_SEPARATORS), random.nextBoolean(), twoDigitYear), utc(date));
+	}
+
+	private RosemaryCorpusEntry numericDateTime(RosemaryDateOrder order) {
+		LocalDateTime dateTime = randomDate(1600, 2400).withHour(random.nextInt(24)).withMinute(random.nextInt(60));
+		final StringBuilder input = new StringBuilder(date(order, dateTime, pick(DATE_SEPARATORS), random.nextBoolean(), false));
+		input.append(' ').append(random.nextBoolean() ? String.format("%02d", dateTime.getHour()) : Integer.toString(dateTime.getHour()));
+		input.append(String.format(":%02d", dateTime.getMinute()));
+		if (random.nextBoolean()) {
+			dateTime = dateTime.withSecond(random.nextInt(60));
+			input.append(String.format(":%02d", dateTime.getSecond()));
+			if (random.nextBoolean()) {
+				// the parser keeps the first three digits of the fraction
+				final int digits = 1 + random.nextInt(6);
+				final String fraction = String.format("%06d", random.nextInt(1_000_000)).substring(0, digits);
+				dateTime = dateTime.withNano(Integer.parseInt((fraction + "00").substring(0, 3)) * 1_000_000);
+				input.append('.').append(fraction);
+			}
+		}
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.NUMERIC_DATE_TIME, order, input.toString(), utc(dateTime));
+	}
+
+	private RosemaryCorpusEntry twelveHour(RosemaryDateOrder order) {
+		LocalDateTime dateTime = randomDate(1600, 2400).withHour(random.nextInt(24));
+		final int hour12 = dateTime.getHour() % 12 == 0 ? 12 : dateTime.getHour() % 12;
+		final String meridian = pick(dateTime.getHour() < 12 ? new String[] { "AM", "am", "Am" } : new String[] { "PM", "pm", "Pm" });
+		final String date = date(order, dateTime, pick(DATE_SEPARATORS), random.nextBoolean(), false);
+
+		final String time;
+		switch (hour12 == 12 ? 1 + random.nextInt(2) : random.nextInt(3)) {
+			case 0:
+				// 8am
+				time = hour12 + meridian;
+				break;
+			case 1:
+				// 7:02 PM
+				dateTime = dateTime.withMinute(random.nextInt(60));
+				time = hour12 + String.format(":%02d", dateTime.getMinute()) + " " + meridian;
+				break;
+			default:
+				// 7:02:13pm
+				dateTime = dateTime.withMinute(random.nextInt(60)).withSecond(random.nextInt(60));
+				time = hour12 + String.format(":%02d:%02d", dateTime.getMinute(), dateTime.getSecond()) + (hour12 == 12 ? " " : "") + meridian;
+		}
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.TWELVE_HOUR, order, date + " " + time, utc(dateTime));
+	}
+
+	private RosemaryCorpusEntry monthName(RosemaryDateOrder order) {
+		final LocalDateTime date = randomDate(1600, 2400);
+		final String month = monthName(date.getMonthValue());
+		final String day = random.nextBoolean() ? String.format("%02d", date.getDayOfMonth()) : Integer.toString(date.getDayOfMonth());
+		final String input;
+		switch (random.nextInt(3)) {
+			case 0:
+				input = month + " " + day + ", " + date.getYear();
+				break;
+			case 1:
+				input = day + " " + month + " " + date.getYear();
+				break;
+			default:
+				input = date.getYear() + " " + month + " " + day;
+		}
+		final String weekday = random.nextBoolean() ? weekdayName(date.getDayOfWeek()) + (random.nextBoolean() ? ", " : " ") : "";
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.MONTH_NAME, order, weekday + input, utc(date));
+	}
+
+	private RosemaryCorpusEntry ordinal(RosemaryDateOrder order) {
+		LocalDateTime dateTime = randomDate(1600, 2400);
+		final int day = dateTime.getDayOfMonth();
+		final String ordinal = random.nextBoolean() ? ORDINAL_WORDS[day - 1] : day + ordinalSuffix(day);
+		final String month = monthName(dateTime.getMonthValue());
+		final StringBuilder input = new StringBuilder();
+		if (random.nextBoolean()) {
+			input.append(random.nextBoolean() ? "the " : "").append(ordinal).append(" of ").append(month).append(' ').append(dateTime.getYear());
+		} else {
+			input.append(month).append(' ').append(ordinal).append(random.nextBoolean() ? ", " : " ").append(dateTime.getYear());
+		}
+		if (random.nextBoolean()) {
+			dateTime = dateTime.withHour(1 + random.nextInt(11) + (random.nextBoolean() ? 12 : 0));
+			input.append(" at ").append(dateTime.getHour() % 12).append(dateTime.getHour() < 12 ? "am" : "pm");
+		}
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.ORDINAL, order, input.toString(), utc(dateTime));
+	}
+
+	private RosemaryCorpusEntry namedZone(RosemaryDateOrder order) {
+		final String timeZoneName = timeZoneNames.get(random.nextInt(timeZoneNames.size()));
+		final ZoneId zoneId = TimeZoneUtils.getTimezoneNameToTimezoneMap().get(timeZoneName).toZoneId();
+		LocalDateTime dateTime;
+		do {
+			dateTime = randomDate(1990, 2035).withHour(random.nextInt(24)).withMinute(random.nextInt(60)).withSecond(random.nextInt(60));
+		} while (zoneId.getRules().getValidOffsets(dateTime).size() != 1);
+
+		final String input = date(order, dateTime, pick(DATE_SEPARATORS), true, false) + String.format(" %02d:%02d:%02d ", dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond()) + timeZoneName;
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.NAMED_ZONE, order, input, dateTime.atZone(zoneId).toOffsetDateTime());
+	}
+
+	private RosemaryCorpusEntry numericOffset(RosemaryDateOrder order) {
+		final LocalDateTime dateTime = randomDate(1600, 2400).withHour(random.nextInt(24)).withMinute(random.nextInt(60)).withSecond(random.nextInt(60));
+		final boolean negative = random.nextBoolean();
+		final int hours = random.nextInt(negative ? 13 : 15);
+		final int minutes = 15 * random.nextInt(4);
+		final String sign = negative ? "-" : "+";
+
+		final String offset;
+		final ZoneOffset zoneOffset;
+		switch (random.nextInt(4)) {
+			case 0:
+				// -05:00
+				offset = String.format("%s%02d:%02d", sign, hours, minutes);
+				zoneOffset = ZoneOffset.ofHoursMinutes(negative ? -hours : hours, negative ? -minutes : minutes);
+				break;
+			case 1:
+				// -0500, read as a number after the date
+				final int numericHours = Math.max(1, hours);
+				offset = String.format("%s%02d%02d", sign, numericHours, minutes);
+				zoneOffset = ZoneOffset.ofHoursMinutes(negative ? -numericHours : numericHours, negative ? -minutes : minutes);
+				break;
+			case 2:
+				// GMT+2
+				offset = (random.nextBoolean() ? "GMT" : "UTC") + sign + hours;
+				zoneOffset = ZoneOffset.ofHours(negative ? -hours : hours);
+				break;
+			default:
+				// (UTC-4)
+				offset = "(UTC" + sign + hours + ")";
+				zoneOffset = ZoneOffset.ofHours(negative ? -hours : hours);
+		}
+
+		final String input = date(order, dateTime, pick(DATE_SEPARATORS), true, false) + String.format(" %d:%02d:%02d ", dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond()) + offset;
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.NUMERIC_OFFSET, order, input, dateTime.atOffset(zoneOffset));
+	}
+
+	private RosemaryCorpusEntry iso8601(RosemaryDateOrder order) {
+		LocalDateTime dateTime = randomDate(1600, 2400).withHour(random.nextInt(24)).withMinute(random.nextInt(60)).withSecond(random.nextInt(60));
+		final StringBuilder input = new StringBuilder(String.format("%04d-%02d-%02dT%02d:%02d:%02d", dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond()));
+		if (random.nextBoolean()) {
+			final int digits = 1 + random.nextInt(9);
+			final String fraction = String.format("%09d", random.nextInt(1_000_000_000)).substring(0, digits);
+			dateTime = dateTime.withNano(Integer.parseInt((fraction + "00000000").substring(0, 9)));
+			input.append('.').append(fraction);
+		}
+
+		final ZoneOffset zoneOffset;
+		switch (random.nextInt(3)) {
+			case 0:
+				zoneOffset = ZoneOffset.UTC;
+				input.append('Z');
+				break;
+			case 1:
+				zoneOffset = ZoneOffset.ofTotalSeconds(15 * 60 * (random.nextInt(28 * 4 + 1) - 12 * 4));
+				input.append(zoneOffset.getId());
+				break;
+			default:
+				// no offset is read as UTC
+				zoneOffset = ZoneOffset.UTC;
+		}
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.ISO_8601, order, input.toString(), dateTime.atOffset(zoneOffset));
+	}
+
+	private RosemaryCorpusEntry epochMillis(RosemaryDateOrder order) {
+		// large enough not to be mistaken for a date like 20080305
+		final long epochMillis = 100_000_000L + (long) (random.nextDouble() * 4_000_000_000_000L);
+		return new RosemaryCorpusEntry(RosemaryCorpusForm.EPOCH_MILLIS, order, Long.toString(epochMillis), Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC));
+	}
+
+	/**
+	 * Write the date fields in the order of the {@link RosemaryDateOrder}.
+	 */
+	private static String date(RosemaryDateOrder order, LocalDateTime date, String separator, boolean padded, boolean twoDigitYear) {
+		final StringBuilder text = new StringBuilder();
+		for (final String field : order.name().split("_")) {
+			if (text.length() > 0) {
+				text.append(separator);
+			}
+			switch (field) {
+				case "YY":
+					text.append(twoDigitYear ? String.format("%02d", date.getYear() % 100) : String.format("%04d", date.getYear()));
+					break;
+				case "MM":
+					text.append(padded ? String.format("%02d", date.getMonthValue()) : Integer.toString(date.getMonthValue()));
+					break;
+				default:
+					text.append(padded ? String.format("%02d", date.getDayOfMonth()) : Integer.toString(date.getDayOfMonth()));
+			}
+		}
+		return text.toString();
+	}
+
+	private LocalDateTime randomDate(int fromYear, int toYear) {
+		final int year = fromYear + random.nextInt(toYear - fromYear + 1);
+		final int month = 1 + random.nextInt(12);
+		final int day = 1 + random.nextInt(RosemaryEpochMath.lengthOfMonth(year, month));
+		return LocalDateTime.of(year, month, day, 0, 0);
+	}
+
+	private String monthName(int month) {
+		final String name = MONTH_NAMES[month - 1];
+		switch (random.nextInt(4)) {
+			case 0:
+				return name.substring(0, 3);
+			case 1:
+				return name.toUpperCase();
+			case 2:
+				return month == 9 && random.nextBoolean() ? "Sept" : name.substring(0, 3) + ".";
+			default:
+				return name;
+		}
+	}
+
+	private String weekdayName(DayOfWeek dayOfWeek) {
+		return dayOfWeek.getDisplayName(random.nextBoolean() ? TextStyle.FULL : TextStyle.SHORT, Locale.ENGLISH);
+	}
+
+	private static String ordinalSuffix(int day) {
+		if (day >= 11 && day <= 13) {
+			return "th";
+		}
+		switch (day % 10) {
+			case 1:
+				return "st";
+			case 2:
+				return "nd";
+			case 3:
+				return "rd";
+			default:
+				return "th";
+		}
+	}
+
+	private String pick(String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	private static OffsetDateTime utc(LocalDateTime dateTime) {
+		return dateTime.atOffset(ZoneOffset.UTC);
+	}
+
+	/**
+	 * Is the time zone name only ever read as a time zone?  Names that start like a month or weekday, end like a meridian, start like an offset or contain a character the tokenizer splits on are read as something else.
+	 */
+	private static boolean isUnambiguousTimeZoneName(String timeZoneName) {
+		final String upperCaseName = timeZoneName.toUpperCase();
+		if (upperCaseName.startsWith("GMT") || upperCaseName.startsWith("UTC") || upperCaseName.endsWith("AM") || upperCaseName.endsWith("PM")) {
+			return false;
+		}
+		for (final String monthName : MONTH_NAMES) {
+			final String upperCaseMonth = monthName.toUpperCase();
+			if (upperCaseName.startsWith(upperCaseMonth.substring(0, 3)) || upperCaseMonth.startsWith(upperCaseName)) {
+				return false;
+			}
+		}
+		for (final DayOfWeek dayOfWeek : DayOfWeek.values()) {
+			final String upperCaseWeekday = dayOfWeek.name();
+			if (upperCaseName.startsWith(upperCaseWeekday) || upperCaseWeekday.startsWith(upperCaseName)) {
+				return false;
+			}
+		}
+		for (int i = 0; i < upperCaseName.length(); i++) {
+			if (" ,()'\"".indexOf(upperCaseName.charAt(i)) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Write a corpus file.
+	 * <p>
+	 * Usage: <code>RosemaryCorpusGenerator file [count] [seed] [mix]</code>, where the mix is written like <code>ISO_8601=3,EPOCH_MILLIS=1</code>.
+	 *
+	 * @param args the file, then optionally the number of entries, the seed and the mix
+	 * @throws IOException if the file can't be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: RosemaryCorpusGenerator file [count] [seed] [mix]");
+			System.exit(2);
+		}
+		final Path file = Path.of(args[0]);
+		final int count = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+		final long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+		final Map<RosemaryCorpusForm, Integer> mix = args.length > 3 ? parseMix(args[3]) : evenMix();
+		RosemaryCorpusFile.write(file, new RosemaryCorpusGenerator(seed, mix), count);
+		System.out.println("wrote " + count + " entries to " + file);
+	}
+}
@@ -0,0 +1,75 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+
+/**
+ * An input that a {@link RosemaryFastPath} parsed differently than the reference engine.
+ */
+public final class RosemaryDifference {
+	/**
+	 * the path that differed.
+	 */
+	private final RosemaryFastPath path;
+	/**
+	 * the order the input was parsed with.
+	 */
+	private final RosemaryDateOrder order;
+	/**
+	 * the datetime string.
+	 */
+	private final String input;
+	/**
+	 * the {@link OffsetDateTime} or {@link RosemaryDateTimeException} of the reference engine.
+	 */
+	private final Object expected;
+	/**
+	 * the {@link OffsetDateTime} or {@link RosemaryDateTimeException} of the path.
+	 */
+	private final Object actual;
+
+	public RosemaryDifference(RosemaryFastPath path, RosemaryDateOrder order, String input, Object expected, Object actual) {
+		this.path = path;
+		this.order = order;
+		this.input = input;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	public RosemaryFastPath getPath() {
+		return this.path;
+	}
+
+	public RosemaryDateOrder getOrder() {
+		return this.order;
+	}
+
+	public String getInput() {
+		return this.input;
+	}
+
+	public Object getExpected() {
+		return this.expected;
+	}
+
+	public Object getActual() {
+		return this.actual;
+	}
+
+	/**
+	 * Did one side parse the input and the other not?
+	 *
+	 * @return <code>true</code> if the success or failure differs, <code>false</code> if both parsed to different values
+	 */
+	public boolean isStatusDifference() {
+		return (expected instanceof OffsetDateTime) != (actual instanceof OffsetDateTime);
+	}
+
+	@Override
+	public String toString() {
+		return path + " " + order + " \"" + input + "\": expected " + describe(expected) + " but was " + describe(actual);
+	}
+
+	private static String describe(Object outcome) {
+		return outcome instanceof RosemaryDateTimeException ? "failure (" + ((RosemaryDateTimeException) outcome).getMessage() + ")" : String.valueOf(outcome);
+	}
+}
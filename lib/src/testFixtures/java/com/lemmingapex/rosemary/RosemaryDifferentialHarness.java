@@ -0,0 +1,154 @@
+package com.lemmingapex.rosemary;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Runs the reference engine, {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} without a cache, and each {@link RosemaryFastPath} on the same inputs, and reports every input where a path's result, or whether it parsed at all, differs.
+ * <p>
+ * Use it on generated inputs from {@link RosemaryCorpusGenerator}, and on near misses of them from {@link RosemaryInputFuzzer}.  From the command line it checks a corpus of any size: <code>RosemaryDifferentialHarness [count] [seed]</code>
+ */
+public class RosemaryDifferentialHarness {
+
+	private final RosemaryDateTimeParser reference = new RosemaryDateTimeParser();
+	private final Set<RosemaryFastPath> paths;
+	private final Map<RosemaryFastPath, Long> compared = new EnumMap<>(RosemaryFastPath.class);
+	private final Map<RosemaryFastPath, Long> different = new EnumMap<>(RosemaryFastPath.class);
+
+	/**
+	 * Create a harness for some paths.
+	 *
+	 * @param paths the paths to compare with the reference engine
+	 */
+	public RosemaryDifferentialHarness(Collection<RosemaryFastPath> paths) {
+		this.paths = paths.isEmpty() ? EnumSet.noneOf(RosemaryFastPath.class) : EnumSet.copyOf(paths);
+	}
+
+	/**
+	 * Create a harness for every path.
+	 */
+	public RosemaryDifferentialHarness() {
+		this(Arrays.asList(RosemaryFastPath.values()));
+	}
+
+	/**
+	 * Compare every path with the reference engine.
+	 *
+	 * @param inputs the datetimes to parse
+	 * @param order the order in which to expect and resolve ambiguous date formats
+	 * @return the differences, grouped by path
+	 */
+	public List<RosemaryDifference> compare(List<String> inputs, RosemaryDateOrder order) {
+		final List<Object> expected = new ArrayList<>(inputs.size());
+		for (final String input : inputs) {
+			try {
+				expected.add(reference.parse(input, order));
+			} catch (RosemaryDateTimeException e) {
+				expected.add(e);
+			}
+		}
+
+		final List<RosemaryDifference> differences = new ArrayList<>();
+		for (final RosemaryFastPath path : paths) {
+			final List<Object> actual = path.parse(inputs, order);
+			long pathDifferences = 0;
+			for (int i = 0; i < inputs.size(); i++) {
+				final Object pathExpected = expected.get(i) instanceof OffsetDateTime ? path.expected((OffsetDateTime) expected.get(i)) : expected.get(i);
+				if (!sameOutcome(pathExpected, actual.get(i))) {
+					differences.add(new RosemaryDifference(path, order, inputs.get(i), pathExpected, actual.get(i)));
+					pathDifferences++;
+				}
+			}
+			compared.merge(path, (long) inputs.size(), Long::sum);
+			different.merge(path, pathDifferences, Long::sum);
+		}
+		return differences;
+	}
+
+	/**
+	 * Compare every path with the reference engine on corpus entries, each with its own order.
+	 *
+	 * @param entries the entries to parse
+	 * @return the differences, grouped by order and then by path
+	 */
+	public List<RosemaryDifference> compare(List<RosemaryCorpusEntry> entries) {
+		final Map<RosemaryDateOrder, List<String>> inputsByOrder = new EnumMap<>(RosemaryDateOrder.class);
+		for (final RosemaryCorpusEntry entry : entries) {
+			inputsByOrder.computeIfAbsent(entry.getOrder(), order -> new ArrayList<>()).add(entry.getInput());
+		}
+		final List<RosemaryDifference> differences = new ArrayList<>();
+		for (final Map.Entry<RosemaryDateOrder, List<String>> inputs : inputsByOrder.entrySet()) {
+			differences.addAll(compare(inputs.getValue(), inputs.getKey()));
+		}
+		return differences;
+	}
+
+	/**
+	 * Get the number of inputs compared for a path so far.
+	 *
+	 * @param path the path
+	 * @return the number of inputs compared
+	 */
+	public long getComparedCount(RosemaryFastPath path) {
+		return compared.getOrDefault(path, 0L);
+	}
+
+	/**
+	 * Get the number of differences found for a path so far.
+	 *
+	 * @param path the path
+	 * @return the number of differences
+	 */
+	public long getDifferenceCount(RosemaryFastPath path) {
+		return different.getOrDefault(path, 0L);
+	}
+
+	/**
+	 * Both parsed to the same value, or both failed.  Failure messages don't have to match.
+	 */
+	private static boolean sameOutcome(Object expected, Object actual) {
+		if (expected instanceof OffsetDateTime || actual instanceof OffsetDateTime) {
+			return Objects.equals(expected, actual);
+		}
+		return expected instanceof RosemaryDateTimeException && actual instanceof RosemaryDateTimeException;
+	}
+
+	/**
+	 * Compare every path on generated inputs and as many fuzzed ones, print a summary and the first differences, and exit with 1 if there were any.
+	 *
+	 * @param args optionally the number of generated inputs and the seed
+	 */
+	public static void main(String[] args) {
+		final int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		final long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+		final int chunk = 10_000;
+
+		final RosemaryDifferentialHarness harness = new RosemaryDifferentialHarness();
+		final RosemaryCorpusGenerator generator = new RosemaryCorpusGenerator(seed);
+		final RosemaryInputFuzzer fuzzer = new RosemaryInputFuzzer(seed);
+		final List<RosemaryDifference> differences = new ArrayList<>();
+		for (int done = 0; done < count; done += chunk) {
+			final List<RosemaryCorpusEntry> entries = generator.next(Math.min(chunk, count - done));
+			differences.addAll(harness.compare(entries));
+			final List<RosemaryCorpusEntry> fuzzed = new ArrayList<>(entries.size());
+			for (final RosemaryCorpusEntry entry : entries) {
+				fuzzed.add(new RosemaryCorpusEntry(entry.getForm(), entry.getOrder(), fuzzer.mutate(entry.getInput()), null));
+			}
+			differences.addAll(harness.compare(fuzzed));
+		}
+
+		for (final RosemaryFastPath path : RosemaryFastPath.values()) {
+			System.out.println(path + ": " + harness.getDifferenceCount(path) + " differences in " + harness.getComparedCount(path) + " inputs");
+		}
+		differences.stream().limit(50).forEach(System.out::println);
+		System.exit(differences.isEmpty() ? 0 : 1);
+	}
+}
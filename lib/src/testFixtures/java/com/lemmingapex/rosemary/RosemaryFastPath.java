@@ -0,0 +1,247 @@
+package com.lemmingapex.rosemary;
+
+import com.lemmingapex.rosemary.utils.TimeZoneUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * The ways of parsing that must give the same results as {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)}, the reference heuristic engine.  Each fast path that is added gets a constant here, so {@link RosemaryDifferentialHarness} checks it.
+ */
+public enum RosemaryFastPath {
+	/**
+	 * {@link RosemaryDateTimeParser#parseAll(List, RosemaryDateOrder)}, with its ISO-8601 scanner.
+	 */
+	PARSE_ALL {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			final List<Object> outcomes = new ArrayList<>(inputs.size());
+			for (final RosemaryParseResult result : new RosemaryDateTimeParser().parseAll(inputs, order)) {
+				outcomes.add(result.isSuccess() ? result.getDateTime() : result.getFailure());
+			}
+			return outcomes;
+		}
+	},
+	/**
+	 * {@link RosemaryDateTimeParser#parseColumn(byte[], int[], int, RosemaryDateOrder, long[], int[], byte[])} on UTF-8 bytes.
+	 */
+	PARSE_COLUMN {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			final Column column = new Column(inputs, false);
+			new RosemaryDateTimeParser().parseColumn(column.data, column.offsets, inputs.size(), order, column.epochMillis, column.offsetSeconds, column.validity);
+			return column.outcomes();
+		}
+
+		@Override
+		OffsetDateTime expected(OffsetDateTime reference) {
+			return reference.truncatedTo(ChronoUnit.MILLIS);
+		}
+	},
+	/**
+	 * {@link RosemaryDateTimeParser#parseColumn(ByteBuffer, IntBuffer, int, RosemaryDateOrder, LongBuffer, IntBuffer, ByteBuffer)} on little-endian direct buffers, as Arrow holds them.
+	 */
+	PARSE_COLUMN_DIRECT {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			final Column column = new Column(inputs, true);
+			new RosemaryDateTimeParser().parseColumn(column.dataBuffer, column.offsetBuffer, inputs.size(), order, column.epochMillisBuffer, column.offsetSecondsBuffer, column.validityBuffer);
+			return column.outcomes();
+		}
+
+		@Override
+		OffsetDateTime expected(OffsetDateTime reference) {
+			return reference.truncatedTo(ChronoUnit.MILLIS);
+		}
+	},
+	/**
+	 * {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} answered from a {@link RosemaryParseCache} with {@link RosemaryCacheEviction#LEAST_RECENTLY_USED}.  Each input is parsed twice, and the second, cached, answer is used.
+	 */
+	CACHE_LEAST_RECENTLY_USED {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			return parseTwice(new RosemaryParseCache(1024, RosemaryCacheEviction.LEAST_RECENTLY_USED), inputs, order);
+		}
+	},
+	/**
+	 * As {@link #CACHE_LEAST_RECENTLY_USED} with {@link RosemaryCacheEviction#FREQUENCY_ADMISSION}.
+	 */
+	CACHE_FREQUENCY_ADMISSION {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			return parseTwice(new RosemaryParseCache(1024, RosemaryCacheEviction.FREQUENCY_ADMISSION), inputs, order);
+		}
+	},
+	/**
+	 * {@link RosemaryParseProcessor}, ordered, in small batches.
+	 */
+	PROCESSOR {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			final List<Object> outcomes = new ArrayList<>(inputs.size());
+			final RosemaryParseProcessor processor = new RosemaryParseProcessor(new RosemaryDateTimeParser(), order, 64, true);
+			final SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<>();
+			try {
+				publisher.subscribe(processor);
+				final CompletableFuture<Void> consumed = processor.consume(result -> outcomes.add(result.isSuccess() ? result.getDateTime() : result.getFailure()));
+				inputs.forEach(publisher::submit);
+				// closing the publisher completes the processor, which completes consumed
+				publisher.close();
+				consumed.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			} finally {
+				publisher.close();
+			}
+			return outcomes;
+		}
+	},
+	/**
+	 * {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} with the java.time fallback on.  The engine reads whatever the fallback would, so turning it on must not change a result.
+	 */
+	JAVA_TIME_FALLBACK {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser();
+			rosemaryDateTimeParser.setJavaTimeFallbackEnabled(true);
+			final List<Object> outcomes = new ArrayList<>(inputs.size());
+			for (final String input : inputs) {
+				try {
+					outcomes.add(rosemaryDateTimeParser.parse(input, order));
+				} catch (RosemaryDateTimeException e) {
+					outcomes.add(e);
+				}
+			}
+			return outcomes;
+		}
+	},
+	/**
+	 * {@link RosemaryDateTimeParser#parse(String, RosemaryDateOrder)} on a parser made with {@link RosemaryDateTimeParser#builder()}, with its default stages.  Its stages read tokens through their own readers, which must read them as the constructed parser does.
+	 */
+	BUILDER {
+		@Override
+		List<Object> parse(List<String> inputs, RosemaryDateOrder order) {
+			final RosemaryDateTimeParser rosemaryDateTimeParser = RosemaryDateTimeParser.builder().build();
+			final List<Object> outcomes = new ArrayList<>(inputs.size());
+			for (final String input : inputs) {
+				try {
+					outcomes.add(rosemaryDateTimeParser.parse(input, order));
+				} catch (RosemaryDateTimeException e) {
+					outcomes.add(e);
+				}
+			}
+			return outcomes;
+		}
+	};
+
+	/**
+	 * Parse the inputs the way of this path.
+	 *
+	 * @param inputs the datetimes to parse
+	 * @param order the order in which to expect and resolve ambiguous date formats
+	 * @return for each input, the {@link OffsetDateTime} it parsed to or the {@link RosemaryDateTimeException} it failed with
+	 */
+	abstract List<Object> parse(List<String> inputs, RosemaryDateOrder order);
+
+	/**
+	 * The value this path should give, for a reference value.  Paths that can't hold everything the reference can, like the milliseconds of a column, reduce it here.
+	 *
+	 * @param reference the value of the reference engine
+	 * @return the value this path should give
+	 */
+	OffsetDateTime expected(OffsetDateTime reference) {
+		return reference;
+	}
+
+	private static List<Object> parseTwice(RosemaryParseCache cache, List<String> inputs, RosemaryDateOrder order) {
+		final RosemaryDateTimeParser rosemaryDateTimeParser = new RosemaryDateTimeParser(TimeZoneUtils::getTimezoneNameToTimezoneMap, cache);
+		final List<Object> outcomes = new ArrayList<>(inputs.size());
+		for (final String input : inputs) {
+			Object outcome = null;
+			for (int i = 0; i < 2; i++) {
+				try {
+					outcome = rosemaryDateTimeParser.parse(input, order);
+				} catch (RosemaryDateTimeException e) {
+					outcome = e;
+				}
+			}
+			outcomes.add(outcome);
+		}
+		return outcomes;
+	}
+
+	/**
+	 * Inputs laid out as an Arrow-style string column, and the columns to parse them into.
+	 */
+	private static final class Column {
+		private final int rowCount;
+		private final byte[] data;
+		private final int[] offsets;
+		private final long[] epochMillis;
+		private final int[] offsetSeconds;
+		private final byte[] validity;
+
+		private ByteBuffer dataBuffer;
+		private IntBuffer offsetBuffer;
+		private LongBuffer epochMillisBuffer;
+		private IntBuffer offsetSecondsBuffer;
+		private ByteBuffer validityBuffer;
+
+		private Column(List<String> inputs, boolean direct) {
+			rowCount = inputs.size();
+			final List<byte[]> rows = new ArrayList<>(rowCount);
+			offsets = new int[rowCount + 1];
+			for (int i = 0; i < rowCount; i++) {
+				rows.add(inputs.get(i).getBytes(StandardCharsets.UTF_8));
+				offsets[i + 1] = offsets[i] + rows.get(i).length;
+			}
+			data = new byte[offsets[rowCount]];
+			for (int i = 0; i < rowCount; i++) {
+				System.arraycopy(rows.get(i), 0, data, offsets[i], rows.get(i).length);
+			}
+			epochMillis = new long[rowCount];
+			offsetSeconds = new int[rowCount];
+			validity = new byte[(rowCount + 7) / 8];
+
+			if (direct) {
+				dataBuffer = ByteBuffer.allocateDirect(Math.max(1, data.length)).put(data).clear();
+				offsetBuffer = ByteBuffer.allocateDirect(offsets.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().put(offsets).clear();
+				epochMillisBuffer = ByteBuffer.allocateDirect(Math.max(1, rowCount) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				offsetSecondsBuffer = ByteBuffer.allocateDirect(Math.max(1, rowCount) * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+				validityBuffer = ByteBuffer.allocateDirect(Math.max(1, validity.length));
+			}
+		}
+
+		private List<Object> outcomes() {
+			if (dataBuffer != null) {
+				epochMillisBuffer.get(0, epochMillis);
+				offsetSecondsBuffer.get(0, offsetSeconds);
+				validityBuffer.get(0, validity);
+			}
+			final List<Object> outcomes = new ArrayList<>(rowCount);
+			for (int i = 0; i < rowCount; i++) {
+				if ((validity[i >>> 3] & (1 << (i & 7))) != 0) {
+					outcomes.add(Instant.ofEpochMilli(epochMillis[i]).atOffset(ZoneOffset.ofTotalSeconds(offsetSeconds[i])));
+				} else {
+					outcomes.add(new RosemaryDateTimeException("Row " + i + " is not valid"));
+				}
+			}
+			return outcomes;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.lemmingapex.rosemary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mutates datetime strings into near misses, like a digit out of range, a missing separator or an offset glued on, which is where fast paths and the reference engine are most likely to disagree.  Mutation is deterministic for a seed.
+ */
+public class RosemaryInputFuzzer {
+
+	private static final String CHARACTERS = "0123456789-/:.T Z+,()";
+	private static final String[] SUFFIXES = { "Z", "z", "+05:30", "-0800", "+14:00", "-18:00", "+5", " PM", " am", " EST", " America/Denver", ".123456789", ".1234567891", ":60", "T", " ", "Z " };
+	private static final String[] NUMBERS = { "0", "00", "000", "9", "99", "0000", "9999", "24", "29", "30", "31", "32", "59", "60", "1582", "1969", "1970", "-1" };
+
+	private final Random random;
+
+	/**
+	 * Create a fuzzer.
+	 *
+	 * @param seed seed of the random numbers
+	 */
+	public RosemaryInputFuzzer(long seed) {
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Mutate a string one to three times.
+	 *
+	 * @param input the string to mutate
+	 * @return the mutated string
+	 */
+	public String mutate(String input) {
+		String mutated = input;
+		final int mutations = 1 + random.nextInt(3);
+		for (int i = 0; i < mutations; i++) {
+			mutated = mutateOnce(mutated);
+		}
+		return mutated;
+	}
+
+	/**
+	 * Mutate randomly chosen strings.
+	 *
+	 * @param seeds the strings to choose from
+	 * @param count the number of mutated strings
+	 * @return the mutated strings
+	 */
+	public List<String> mutate(List<String> seeds, int count) {
+		final List<String> mutated = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			mutated.add(mutate(seeds.get(random.nextInt(seeds.size()))));
+		}
+		return mutated;
+	}
+
+	private String mutateOnce(String input) {
+		final int length = input.length();
+		final int at = length == 0 ? 0 : random.nextInt(length);
+		switch (random.nextInt(9)) {
+			case 0:
+				// replace a character
+				return length == 0 ? input : input.substring(0, at) + randomCharacter() + input.substring(at + 1);
+			case 1:
+				// delete a character
+				return length == 0 ? input : input.substring(0, at) + input.substring(at + 1);
+			case 2:
+				// insert a character
+				return input.substring(0, at) + randomCharacter() + input.substring(at);
+			case 3:
+				// truncate
+				return input.substring(0, at);
+			case 4:
+				// repeat a piece
+				final int to = at + random.nextInt(length - at + 1);
+				return input.substring(0, to) + input.substring(at, to) + input.substring(to);
+			case 5:
+				// swap the case
+				final StringBuilder swapped = new StringBuilder(length);
+				for (int i = 0; i < length; i++) {
+					final char c = input.charAt(i);
+					swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+				}
+				return swapped.toString();
+			case 6:
+				// swap the date and time separator
+				return input.indexOf('T') >= 0 ? input.replace('T', ' ') : input.replaceFirst(" ", "T");
+			case 7:
+				// glue something on the end
+				return input + SUFFIXES[random.nextInt(SUFFIXES.length)];
+			default:
+				// replace a run of digits with an edge value
+				int start = at;
+				while (start < length && !Character.isDigit(input.charAt(start))) {
+					start++;
+				}
+				int end = start;
+				while (end < length && Character.isDigit(input.charAt(end))) {
+					end++;
+				}
+				return start == length ? input : input.substring(0, start) + NUMBERS[random.nextInt(NUMBERS.length)] + input.substring(end);
+		}
+	}
+
+	private char randomCharacter() {
+		return CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+	}
+}
@@ -0,0 +1,61 @@
+package com.lemmingapex.rosemary;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link RosemaryIsoBatch} kernel on the Vector API.  A row is one 256-bit vector: every separator is compared, every digit checked and every pair of digits converted to a number in a handful of lane-wise operations.
+ * <p>
+ * Compiled separately with <code>--add-modules jdk.incubator.vector</code>, and only loaded when the module is in the boot layer, i.e. the JVM was started with <code>--add-modules jdk.incubator.vector</code>.
+ */
+final class RosemaryIsoVectorBatch extends RosemaryIsoBatch {
+
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_256;
+
+	private ByteVector literals;
+	private VectorMask<Byte> digitLanes;
+	private VectorMask<Byte> literalLanes;
+	private VectorMask<Byte> otherLanes;
+
+	/**
+	 * @return <code>true</code> if the hardware has 256-bit vectors, otherwise they'd be emulated far slower than SWAR
+	 */
+	static boolean isSupported() {
+		return ByteVector.SPECIES_PREFERRED.vectorBitSize() >= SPECIES.vectorBitSize();
+	}
+
+	@Override
+	boolean isVectorized() {
+		return true;
+	}
+
+	@Override
+	void prepare() {
+		final boolean[] digits = new boolean[MAXIMUM_WIDTH];
+		final boolean[] literal = new boolean[MAXIMUM_WIDTH];
+		final boolean[] other = new boolean[MAXIMUM_WIDTH];
+		for (int i = 0; i < MAXIMUM_WIDTH; i++) {
+			digits[i] = isDigit(i);
+			literal[i] = isLiteral(i);
+			other[i] = !digits[i] && !literal[i];
+		}
+		literals = ByteVector.fromArray(SPECIES, template, 0);
+		digitLanes = VectorMask.fromArray(SPECIES, digits, 0);
+		literalLanes = VectorMask.fromArray(SPECIES, literal, 0);
+		otherLanes = VectorMask.fromArray(SPECIES, other, 0);
+	}
+
+	@Override
+	boolean shape(byte[] data, int from) {
+		final ByteVector bytes = ByteVector.fromArray(SPECIES, data, from);
+		final ByteVector values = bytes.sub((byte) '0');
+		final VectorMask<Byte> matches = values.compare(VectorOperators.UNSIGNED_LT, (byte) 10).and(digitLanes).or(bytes.eq(literals).and(literalLanes)).or(otherLanes);
+		if (!matches.allTrue()) {
+			return false;
+		}
+		values.mul((byte) 10).add(values.slice(1)).intoArray(pairs, 0);
+		return true;
+	}
+}
@@ -12,3 +12,5 @@ plugins {
 
 rootProject.name = "rosemary"
 include("lib")
+include("benchmarks")
+include("cli")